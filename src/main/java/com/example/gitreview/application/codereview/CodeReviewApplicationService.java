@@ -1,27 +1,46 @@
 package com.example.gitreview.application.codereview.service;
 
+import com.example.gitreview.application.codereview.dto.request.CodeReviewRequest;
 import com.example.gitreview.domain.codereview.model.aggregate.CodeReview;
 import com.example.gitreview.domain.codereview.model.valueobject.CodeDiff;
+import com.example.gitreview.domain.codereview.model.valueobject.CodeReviewSummary;
 import com.example.gitreview.domain.codereview.model.valueobject.ReviewResult;
 import com.example.gitreview.domain.codereview.model.valueobject.ReviewStrategy;
 import com.example.gitreview.domain.codereview.repository.CodeReviewRepository;
 import com.example.gitreview.domain.codereview.service.CodeReviewDomainService;
 import com.example.gitreview.domain.shared.model.aggregate.Repository;
+import com.example.gitreview.domain.shared.model.valueobject.PathFilter;
+import com.example.gitreview.domain.shared.model.valueobject.Page;
+import com.example.gitreview.domain.shared.model.valueobject.PageRequest;
+import com.example.gitreview.domain.shared.repository.GitRepositoryRepository;
 import com.example.gitreview.infrastructure.claude.ClaudeQueryPort;
 import com.example.gitreview.infrastructure.claude.ClaudeQueryResponse;
+import com.example.gitreview.infrastructure.git.DiffOptions;
+import com.example.gitreview.infrastructure.git.FileDiff;
 import com.example.gitreview.infrastructure.git.GitOperationPort;
+import com.example.gitreview.infrastructure.git.RevisionDiff;
+import com.example.gitreview.infrastructure.git.diff.CodeDiffCache;
+import com.example.gitreview.infrastructure.git.diff.DiffSpool;
+import com.example.gitreview.infrastructure.git.diff.SpooledDiff;
 import com.example.gitreview.domain.shared.exception.ResourceNotFoundException;
 import com.example.gitreview.domain.shared.exception.BusinessRuleException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 /**
  * CodeReviewApplicationService
@@ -52,7 +71,20 @@ public class CodeReviewApplicationService {
     private com.example.gitreview.infrastructure.parser.ReviewResultParser reviewResultParser;
 
     @Autowired
-    private com.example.gitreview.infrastructure.workspace.TempWorkspaceManager workspaceManager;
+    private GitRepositoryRepository gitRepositoryRepository;
+
+    @Autowired
+    private CodeDiffCache codeDiffCache;
+
+    @Autowired
+    private DiffSpool diffSpool;
+
+    @Autowired
+    @Qualifier("diffExecutor")
+    private Executor diffExecutor;
+
+    @Value("${review.diff.max-file-size-kb:512}")
+    private long maxFileSizeKb;
 
     /**
      * 创建代码审查
@@ -67,6 +99,37 @@ public class CodeReviewApplicationService {
      */
     public Long createCodeReview(Long repositoryId, String title, String description,
                                 String baseBranch, String targetBranch, String strategyMode, String createdBy) {
+        return createCodeReview(repositoryId, title, description, baseBranch, targetBranch, strategyMode, createdBy,
+                                null);
+    }
+
+    /**
+     * 按请求创建代码审查，请求中的包含和排除路径限定审查范围
+     * @param request 代码审查创建请求
+     * @return 代码审查ID
+     */
+    public Long createCodeReview(CodeReviewRequest request) {
+        return createCodeReview(request.getRepositoryId(), request.getTitle(), request.getDescription(),
+                                request.getBaseBranch(), request.getTargetBranch(), request.getStrategyMode(),
+                                request.getCreatedBy(),
+                                new PathFilter(request.getIncludePaths(), request.getExcludePaths()));
+    }
+
+    /**
+     * 创建限定路径范围的代码审查
+     * @param repositoryId 仓库ID
+     * @param title 审查标题
+     * @param description 审查描述
+     * @param baseBranch 基础分支
+     * @param targetBranch 目标分支
+     * @param strategyMode 审查策略模式
+     * @param createdBy 创建者
+     * @param pathFilter 路径过滤，与仓库默认配置合并；为null时只使用仓库默认配置
+     * @return 代码审查ID
+     */
+    public Long createCodeReview(Long repositoryId, String title, String description,
+                                String baseBranch, String targetBranch, String strategyMode, String createdBy,
+                                PathFilter pathFilter) {
         logger.info("Creating code review for repository {} from {} to {}", repositoryId, baseBranch, targetBranch);
 
         try {
@@ -75,6 +138,9 @@ public class CodeReviewApplicationService {
 
             // 创建代码审查聚合根
             CodeReview codeReview = new CodeReview(repositoryId, title, description, strategy, createdBy);
+            if (pathFilter != null && !pathFilter.isEmpty()) {
+                codeReview.scopeToPaths(pathFilter);
+            }
 
             // 保存到仓储
             CodeReview savedReview = codeReviewRepository.save(codeReview);
@@ -105,9 +171,9 @@ public class CodeReviewApplicationService {
             // 获取代码审查聚合根
             CodeReview codeReview = getCodeReviewById(reviewId);
 
-            // 克隆仓库并获取代码差异
+            // 获取代码差异
             CodeDiff codeDiff = generateCodeDiff(repositoryUrl, username, password, baseBranch, targetBranch,
-                                                codeReview.getRepositoryId());
+                                                codeReview.getRepositoryId(), createDiffOptions(codeReview));
 
             // 验证是否可以开始审查
             codeReviewDomainService.validateCanStartReview(codeReview, codeDiff);
@@ -157,7 +223,9 @@ public class CodeReviewApplicationService {
     public CodeReviewStatusInfo getReviewStatus(Long reviewId) {
         logger.debug("Getting review status for {}", reviewId);
 
-        CodeReview codeReview = getCodeReviewById(reviewId);
+        // 状态查询不需要差异内容和详细报告
+        CodeReview codeReview = codeReviewRepository.findWithoutContentById(reviewId)
+                .orElseThrow(() -> new ResourceNotFoundException("Code review not found: " + reviewId));
 
         return new CodeReviewStatusInfo(
             codeReview.getId(),
@@ -218,23 +286,39 @@ public class CodeReviewApplicationService {
     /**
      * 获取仓库的代码审查列表
      * @param repositoryId 仓库ID
-     * @return 代码审查列表
+     * @return 代码审查摘要列表
      */
     @Transactional(readOnly = true)
-    public List<CodeReview> getRepositoryReviews(Long repositoryId) {
+    public List<CodeReviewSummary> getRepositoryReviews(Long repositoryId) {
         logger.debug("Getting reviews for repository {}", repositoryId);
-        return codeReviewRepository.findByRepositoryId(repositoryId);
+        return codeReviewRepository.findSummariesByRepositoryId(repositoryId);
     }
 
     /**
      * 获取用户的代码审查列表
      * @param createdBy 创建者
-     * @return 代码审查列表
+     * @return 代码审查摘要列表
      */
     @Transactional(readOnly = true)
-    public List<CodeReview> getUserReviews(String createdBy) {
+    public List<CodeReviewSummary> getUserReviews(String createdBy) {
         logger.debug("Getting reviews for user {}", createdBy);
-        return codeReviewRepository.findByCreatedBy(createdBy);
+        return codeReviewRepository.findSummariesByCreatedBy(createdBy);
+    }
+
+    /**
+     * 分页查询代码审查摘要
+     * @param repositoryId 仓库ID（可选）
+     * @param status 审查状态（可选）
+     * @param createdBy 创建者（可选）
+     * @param pageRequest 分页请求
+     * @return 一页代码审查摘要
+     */
+    @Transactional(readOnly = true)
+    public Page<CodeReviewSummary> getReviewPage(Long repositoryId, CodeReview.ReviewStatus status,
+                                                 String createdBy, PageRequest pageRequest) {
+        logger.debug("Getting review page: repositoryId={}, status={}, createdBy={}, {}",
+                repositoryId, status, createdBy, pageRequest);
+        return codeReviewRepository.findSummaryPage(repositoryId, status, createdBy, pageRequest);
     }
 
     /**
@@ -271,6 +355,23 @@ public class CodeReviewApplicationService {
         return optional.get();
     }
 
+    /**
+     * 基于最新数据修改代码审查，避免异步任务之间互相覆盖
+     */
+    private CodeReview updateCodeReview(Long reviewId, Consumer<CodeReview> modifier) {
+        return codeReviewRepository.update(reviewId, modifier)
+                .orElseThrow(() -> new ResourceNotFoundException("Code review not found: " + reviewId));
+    }
+
+    /**
+     * 修改差异内容和详细报告以外的字段（进度、状态），不加载也不重新保存大文本
+     */
+    private void updateCodeReviewWithoutContent(Long reviewId, Consumer<CodeReview> modifier) {
+        if (!codeReviewRepository.updateWithoutContent(reviewId, modifier)) {
+            throw new ResourceNotFoundException("Code review not found: " + reviewId);
+        }
+    }
+
     /**
      * 创建审查策略
      */
@@ -290,53 +391,131 @@ public class CodeReviewApplicationService {
 
     /**
      * 生成代码差异
+     * 直接从仓库镜像的对象库计算差异，不检出工作区；先解析两个分支的提交，相同提交对已缓存时不再扫描差异
      */
     private CodeDiff generateCodeDiff(String repositoryUrl, String username, String password,
-                                     String baseBranch, String targetBranch, Long repositoryId) {
-        String workspaceId = null;
-        try {
-            // 创建临时工作空间（用于代码审查）
-            workspaceId = "code-review-" + System.currentTimeMillis();
-            workspaceManager.createWorkspace(workspaceId);
-
-            // 克隆仓库到工作空间
-            java.io.File repoDir = gitOperationPort.cloneRepository(repositoryUrl, username, password, targetBranch);
-
-            // 获取差异
-            List<org.eclipse.jgit.diff.DiffEntry> diffEntries = gitOperationPort.getDiffBetweenBranches(
-                repoDir, baseBranch, targetBranch);
-
-            // 生成差异内容
-            StringBuilder diffContent = new StringBuilder();
-            List<CodeDiff.FileChange> fileChanges = new java.util.ArrayList<>();
-
-            for (org.eclipse.jgit.diff.DiffEntry entry : diffEntries) {
-                String fileDiff = gitOperationPort.getDiffContent(repoDir, entry);
-                diffContent.append(fileDiff).append("\n");
-
-                // 转换为领域对象
-                CodeDiff.ChangeType changeType = convertChangeType(entry.getChangeType());
-                CodeDiff.FileChange fileChange = new CodeDiff.FileChange(
-                    entry.getNewPath(), changeType, 0, 0); // 简化实现，实际应该计算行数
-                fileChanges.add(fileChange);
+                                     String baseBranch, String targetBranch, Long repositoryId,
+                                     DiffOptions diffOptions) {
+        String optionsKey = diffOptions.toCacheKey();
+        try (RevisionDiff revisionDiff = gitOperationPort.openRevisionDiff(
+                repositoryId, repositoryUrl, username, password, baseBranch, targetBranch, diffOptions)) {
+
+            String baseCommitId = revisionDiff.getBaseCommitId();
+            String targetCommitId = revisionDiff.getTargetCommitId();
+            CodeDiff cached = codeDiffCache.get(repositoryId, baseCommitId, targetCommitId, optionsKey);
+            if (cached != null && cached.hasExternalContent() && !diffSpool.exists(cached.getContentRef())) {
+                // 溢出文件已被淘汰，缓存中只有截断的内容，重新生成
+                logger.info("Spooled diff {} was evicted, regenerating", cached.getContentRef());
+                cached = null;
+            }
+            if (cached != null) {
+                logger.info("Using cached diff for {}..{}", baseCommitId, targetCommitId);
+                // 分支名可能不同（不同分支指向相同提交），按本次请求的分支重新包装
+                CodeDiff codeDiff = new CodeDiff(repositoryId, baseBranch, targetBranch,
+                        cached.getDiffContent(), cached.getFileChanges());
+                codeDiff.setCommitIds(baseCommitId, targetCommitId);
+                codeDiff.setContentRef(cached.getContentRef());
+                return codeDiff;
             }
 
-            CodeDiff codeDiff = new CodeDiff(repositoryId, baseBranch, targetBranch, diffContent.toString(), fileChanges);
-            codeDiff.setWorkspaceId(workspaceId);
+            // 按文件并行格式化并统计行数，按原顺序写入溢出缓冲，过大的差异只在内存中保留开头部分
+            String contentRef = DiffSpool.ref(repositoryId, baseCommitId, targetCommitId, optionsKey);
+            try (SpooledDiff spooledDiff = diffSpool.create(contentRef)) {
+                List<CodeDiff.FileChange> fileChanges = spoolFiles(revisionDiff, spooledDiff);
+                spooledDiff.finish();
+
+                String diffContent;
+                if (spooledDiff.isSpilled()) {
+                    int inlineLimit = diffSpool.getInlineLimitBytes();
+                    logger.info("Diff {}..{} is {} bytes, spooled to disk", baseCommitId, targetCommitId,
+                            spooledDiff.getSize());
+                    diffContent = spooledDiff.readPrefix(inlineLimit)
+                            + "\n\n[注意：差异内容过大，记录中只保存前" + inlineLimit + "字节，审查时读取完整内容]";
+                    diffSpool.evictOverBudget(contentRef);
+                } else {
+                    diffContent = spooledDiff.readAll();
+                }
+
+                CodeDiff codeDiff = new CodeDiff(repositoryId, baseBranch, targetBranch, diffContent, fileChanges);
+                codeDiff.setCommitIds(baseCommitId, targetCommitId);
+                if (spooledDiff.isSpilled()) {
+                    codeDiff.setContentRef(contentRef);
+                }
+                codeDiffCache.put(repositoryId, baseCommitId, targetCommitId, optionsKey, codeDiff);
 
-            return codeDiff;
+                return codeDiff;
+            }
 
         } catch (Exception e) {
-            // 如果创建失败，清理工作空间
-            if (workspaceId != null) {
-                try {
-                    workspaceManager.cleanupWorkspace(workspaceManager.getWorkspaceFile(workspaceId));
-                } catch (Exception cleanupEx) {
-                    logger.error("清理工作空间失败: {}", workspaceId, cleanupEx);
+            throw new RuntimeException("Failed to generate code diff: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 差异选项：审查的路径过滤与仓库默认配置合并，加上单文件大小上限
+     */
+    private DiffOptions createDiffOptions(CodeReview codeReview) {
+        PathFilter repositoryDefaults = gitRepositoryRepository.findById(codeReview.getRepositoryId())
+                .map(Repository::getReviewPathFilter)
+                .orElse(PathFilter.none());
+        PathFilter pathFilter = codeReview.getPathFilter().withDefaults(repositoryDefaults);
+        if (!pathFilter.isEmpty()) {
+            logger.info("Review {} scoped to {}", codeReview.getId(), pathFilter);
+        }
+        return DiffOptions.defaults()
+                .withPaths(pathFilter.getIncludes(), pathFilter.getExcludes())
+                .withMaxFileSize(maxFileSizeKb * 1024);
+    }
+
+    /**
+     * 在差异执行器上按文件并行格式化，按差异条目顺序写入溢出缓冲
+     * 同时进行中的文件数有上限，格式化结果写入后即可回收，堆内存占用与差异总大小无关
+     * @return 文件变更列表
+     */
+    private List<CodeDiff.FileChange> spoolFiles(RevisionDiff revisionDiff, SpooledDiff spooledDiff) throws Exception {
+        int window = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+        java.util.Deque<CompletableFuture<FileDiff>> pending = new java.util.ArrayDeque<>();
+        List<CodeDiff.FileChange> fileChanges = new ArrayList<>();
+        try {
+            for (org.eclipse.jgit.diff.DiffEntry entry : revisionDiff.getEntries()) {
+                pending.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return revisionDiff.formatFile(entry);
+                    } catch (java.io.IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, diffExecutor));
+                if (pending.size() >= window) {
+                    fileChanges.add(writeFile(pending.poll().join(), spooledDiff));
                 }
             }
-            throw new RuntimeException("Failed to generate code diff: " + e.getMessage(), e);
+            while (!pending.isEmpty()) {
+                fileChanges.add(writeFile(pending.poll().join(), spooledDiff));
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } finally {
+            // 任何失败（包括写入溢出文件失败）时，会话关闭前等待其余任务结束，避免在已关闭的仓库上读取
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).exceptionally(t -> null).join();
+        }
+        return fileChanges;
+    }
+
+    /**
+     * 写入单个文件的差异并转换为领域对象
+     */
+    private CodeDiff.FileChange writeFile(FileDiff fileDiff, SpooledDiff spooledDiff) throws java.io.IOException {
+        org.eclipse.jgit.diff.DiffEntry entry = fileDiff.getEntry();
+        CodeDiff.ChangeType changeType = convertChangeType(entry.getChangeType());
+        String filePath = changeType == CodeDiff.ChangeType.DELETED ? entry.getOldPath() : entry.getNewPath();
+        String oldFilePath = changeType == CodeDiff.ChangeType.RENAMED ? entry.getOldPath() : null;
+
+        if (fileDiff.isSkipped()) {
+            logger.info("Skipped {} ({}), only a summary is sent for review", filePath, fileDiff.getSkipReason());
         }
+        spooledDiff.append(filePath, fileDiff.getContent());
+        return new CodeDiff.FileChange(filePath, changeType,
+            fileDiff.getAddedLines(), fileDiff.getDeletedLines(), oldFilePath);
     }
 
     /**
@@ -385,12 +564,7 @@ public class CodeReviewApplicationService {
             logger.info("调用Claude进行代码审查: {}", reviewId);
             updateReviewProgress(reviewId, 50, "Claude分析中");
 
-            ClaudeQueryResponse response = claudeQueryPort.reviewCodeChanges(
-                codeReview.getCodeDiff().getDiffContent(),
-                "Git代码审查项目", // 项目上下文
-                codeReview.getDescription() + "\n\n" + contextInfo, // 提交信息 + 上下文
-                codeReview.getStrategy().getMode().getCode()
-            );
+            ClaudeQueryResponse response = reviewCodeDiff(codeReview, contextInfo);
 
             // 80% - 解析审查结果
             updateReviewProgress(reviewId, 80, "解析审查结果");
@@ -402,9 +576,8 @@ public class CodeReviewApplicationService {
                 // 90% - 保存结果
                 updateReviewProgress(reviewId, 90, "保存审查结果");
 
-                // 完成审查
-                codeReview.completeReview();
-                codeReviewRepository.save(codeReview);
+                // 完成审查（基于最新数据，避免覆盖期间写入的进度）
+                updateCodeReview(reviewId, CodeReview::completeReview);
 
                 // 100% - 完成
                 logger.info("异步代码审查完成: {}", reviewId);
@@ -418,6 +591,30 @@ public class CodeReviewApplicationService {
         }
     }
 
+    /**
+     * 调用Claude审查代码差异
+     * 完整差异溢出到磁盘时从溢出文件流式写入提示词；溢出文件已被淘汰时退回到记录中保存的开头部分
+     */
+    private ClaudeQueryResponse reviewCodeDiff(CodeReview codeReview, String contextInfo) throws java.io.IOException {
+        CodeDiff codeDiff = codeReview.getCodeDiff();
+        String projectContext = "Git代码审查项目";
+        String commitMessage = codeReview.getDescription() + "\n\n" + contextInfo; // 提交信息 + 上下文
+        String mode = codeReview.getStrategy().getMode().getCode();
+
+        if (codeDiff.hasExternalContent()) {
+            try (SpooledDiff spooledDiff = diffSpool.open(codeDiff.getContentRef())) {
+                if (spooledDiff != null) {
+                    try (java.io.Reader diffReader = spooledDiff.openReader()) {
+                        return claudeQueryPort.reviewCodeChangesFromReader(diffReader, projectContext, commitMessage, mode);
+                    }
+                }
+                logger.warn("Spooled diff {} no longer available, reviewing truncated content",
+                        codeDiff.getContentRef());
+            }
+        }
+        return claudeQueryPort.reviewCodeChanges(codeDiff.getDiffContent(), projectContext, commitMessage, mode);
+    }
+
     /**
      * 更新审查进度
      * @param reviewId 审查ID
@@ -426,9 +623,7 @@ public class CodeReviewApplicationService {
      */
     private void updateReviewProgress(Long reviewId, int progress, String stepDescription) {
         try {
-            CodeReview codeReview = getCodeReviewById(reviewId);
-            codeReview.updateProgress(progress);
-            codeReviewRepository.save(codeReview);
+            updateCodeReviewWithoutContent(reviewId, codeReview -> codeReview.updateProgress(progress));
             logger.debug("审查进度更新: {} - {}% - {}", reviewId, progress, stepDescription);
         } catch (Exception e) {
             logger.warn("更新审查进度失败: {}", reviewId, e);
@@ -451,56 +646,70 @@ public class CodeReviewApplicationService {
                 return "";
             }
 
-            // 检查是否有工作空间ID
-            String workspaceId = codeDiff.getWorkspaceId();
-            if (workspaceId == null) {
-                logger.warn("CodeDiff 没有关联工作空间，无法提取上下文");
+            // 从目标提交读取文件，不依赖工作区
+            String targetCommitId = codeDiff.getTargetCommitId();
+            if (targetCommitId == null) {
+                logger.warn("CodeDiff 没有关联目标提交，无法提取上下文");
                 return "";
             }
 
-            // 获取工作空间目录
-            java.io.File workspaceDir = workspaceManager.getWorkspaceFile(workspaceId);
-            if (workspaceDir == null || !workspaceDir.exists()) {
-                logger.warn("工作空间不存在: {}", workspaceId);
+            Repository repository = gitRepositoryRepository.findById(codeDiff.getRepositoryId()).orElse(null);
+            if (repository == null) {
+                logger.warn("仓库不存在: {}", codeDiff.getRepositoryId());
                 return "";
             }
 
-            StringBuilder contextBuilder = new StringBuilder();
-            contextBuilder.append("## 代码上下文信息\n\n");
-
             // 只处理 Java 文件
-            for (CodeDiff.FileChange fileChange : codeDiff.getFileChanges()) {
-                if (!fileChange.getFilePath().endsWith(".java")) {
-                    continue;
-                }
-
-                try {
-                    // 读取文件内容
-                    java.io.File file = new java.io.File(workspaceDir, fileChange.getFilePath());
-                    if (!file.exists()) {
-                        logger.warn("文件不存在: {}", file.getPath());
-                        continue;
-                    }
-
-                    String fileContent = gitOperationPort.readFileContent(file);
+            List<String> javaPaths = codeDiff.getFileChanges().stream()
+                    .filter(fileChange -> fileChange.getChangeType() != CodeDiff.ChangeType.DELETED)
+                    .map(CodeDiff.FileChange::getFilePath)
+                    .filter(path -> path.endsWith(".java"))
+                    .toList();
+            if (javaPaths.isEmpty()) {
+                return "";
+            }
 
-                    // 从CodeDiff中提取变更的行号
-                    List<Integer> changedLines = extractChangedLinesFromDiff(
-                            codeDiff.getDiffContent(),
-                            fileChange.getFilePath()
-                    );
+            java.util.Map<String, String> fileContents = gitOperationPort.readFilesAtCommit(
+                    repository.getId(),
+                    repository.getUrl(),
+                    repository.getCredential() != null ? repository.getCredential().getUsername() : null,
+                    repository.getCredential() != null ? repository.getCredential().getPassword() : null,
+                    targetCommitId,
+                    javaPaths);
 
-                    // 使用 CodeContextExtractor 提取上下文
-                    com.example.gitreview.infrastructure.context.FileContext fileContext =
-                        contextExtractor.extractContext(fileChange.getFilePath(), fileContent, changedLines);
+            StringBuilder contextBuilder = new StringBuilder();
+            contextBuilder.append("## 代码上下文信息\n\n");
 
-                    if (!fileContext.isEmpty()) {
-                        contextBuilder.append(fileContext.toPromptString());
-                        contextBuilder.append("\n");
+            // 完整差异在磁盘上时按文件读取对应的差异块，不加载整个差异
+            try (SpooledDiff spooledDiff = codeDiff.hasExternalContent()
+                    ? diffSpool.open(codeDiff.getContentRef()) : null) {
+                for (String filePath : javaPaths) {
+                    try {
+                        // 读取文件内容
+                        String fileContent = fileContents.get(filePath);
+                        if (fileContent == null) {
+                            logger.warn("文件不存在: {}@{}", filePath, targetCommitId);
+                            continue;
+                        }
+
+                        // 从CodeDiff中提取变更的行号
+                        List<Integer> changedLines = extractChangedLinesFromDiff(
+                                spooledDiff != null ? spooledDiff.readFile(filePath) : codeDiff.getDiffContent(),
+                                filePath
+                        );
+
+                        // 使用 CodeContextExtractor 提取上下文
+                        com.example.gitreview.infrastructure.context.FileContext fileContext =
+                            contextExtractor.extractContext(filePath, fileContent, changedLines);
+
+                        if (!fileContext.isEmpty()) {
+                            contextBuilder.append(fileContext.toPromptString());
+                            contextBuilder.append("\n");
+                        }
+
+                    } catch (Exception e) {
+                        logger.warn("无法提取文件上下文: {}", filePath, e);
                     }
-
-                } catch (Exception e) {
-                    logger.warn("无法提取文件上下文: {}", fileChange.getFilePath(), e);
                 }
             }
 
@@ -588,14 +797,17 @@ public class CodeReviewApplicationService {
      */
     private void markReviewAsFailed(Long reviewId, String errorMessage) {
         try {
-            CodeReview codeReview = getCodeReviewById(reviewId);
-            codeReview.markAsFailed(errorMessage);
-            codeReviewRepository.save(codeReview);
+            updateCodeReviewWithoutContent(reviewId, codeReview -> codeReview.markAsFailed(errorMessage));
         } catch (Exception e) {
             logger.error("Failed to mark review {} as failed", reviewId, e);
         }
     }
 
+    // 用于测试的setter
+    public void setMaxFileSizeKb(long maxFileSizeKb) {
+        this.maxFileSizeKb = maxFileSizeKb;
+    }
+
     /**
      * 代码审查状态信息
      */
@@ -1,20 +1,32 @@
 package com.example.gitreview.application.codereview.api;
 
+import com.example.gitreview.application.codereview.dto.request.CodeReviewRequest;
 import com.example.gitreview.application.codereview.service.CodeReviewApplicationService;
 import com.example.gitreview.application.repository.GitRepositoryApplicationService;
 import com.example.gitreview.application.repository.dto.GitRepositoryDTO;
+import com.example.gitreview.domain.codereview.model.aggregate.CodeReview;
+import com.example.gitreview.domain.codereview.model.valueobject.CodeReviewSummary;
+import com.example.gitreview.domain.shared.model.valueobject.Page;
+import com.example.gitreview.domain.shared.model.valueobject.PageRequest;
+import com.example.gitreview.domain.shared.model.valueobject.PathFilter;
 import com.example.gitreview.infrastructure.claude.ClaudeQueryPort;
 import com.example.gitreview.infrastructure.claude.ClaudeQueryResponse;
+import com.example.gitreview.infrastructure.git.DiffOptions;
 import com.example.gitreview.infrastructure.git.GitOperationPort;
+import com.example.gitreview.infrastructure.git.RevisionDiff;
+import com.example.gitreview.infrastructure.git.diff.DiffSpool;
+import com.example.gitreview.infrastructure.git.diff.SpooledDiff;
+import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.File;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +54,12 @@ public class ReviewController {
     @Autowired
     private GitOperationPort gitOperationPort;
 
+    @Autowired
+    private DiffSpool diffSpool;
+
+    @Value("${review.diff.max-file-size-kb:512}")
+    private long maxFileSizeKb;
+
     /**
      * 简化的代码审查接口（直接审查版）
      */
@@ -50,7 +68,9 @@ public class ReviewController {
             @PathVariable Long repositoryId,
             @RequestParam String baseBranch,
             @RequestParam String targetBranch,
-            @RequestParam(defaultValue = "standard") String mode) {
+            @RequestParam(defaultValue = "standard") String mode,
+            @RequestParam(required = false) List<String> include,
+            @RequestParam(required = false) List<String> exclude) {
         logger.info("Starting Claude review for repository {} from {} to {}", repositoryId, baseBranch, targetBranch);
 
         try {
@@ -67,39 +87,49 @@ public class ReviewController {
                         .body("Claude CLI 服务不可用，请确保已正确安装和配置 Claude CLI 工具");
             }
 
-            // 获取代码差异
-            logger.info("Cloning repository and getting diff...");
-            File repoDir = gitOperationPort.cloneRepository(
+            // 审查范围：请求参数与仓库默认配置合并
+            PathFilter pathFilter = new PathFilter(include, exclude).withDefaults(
+                    new PathFilter(toList(repository.getReviewIncludePaths()), toList(repository.getReviewExcludePaths())));
+            DiffOptions diffOptions = DiffOptions.defaults()
+                    .withPaths(pathFilter.getIncludes(), pathFilter.getExcludes())
+                    .withMaxFileSize(maxFileSizeKb * 1024);
+
+            // 获取代码差异（直接读取对象库，不检出工作区），过大的差异溢出到临时文件并流式写入提示词
+            logger.info("Getting diff from repository mirror with {}...", pathFilter);
+            ClaudeQueryResponse response;
+            try (RevisionDiff revisionDiff = gitOperationPort.openRevisionDiff(
+                    repositoryId,
                     repository.getUrl(),
                     repository.getUsername(),
                     repository.getEncryptedPassword(),
-                    targetBranch
-            );
-
-            // 获取分支差异
-            List<org.eclipse.jgit.diff.DiffEntry> diffEntries = gitOperationPort.getDiffBetweenBranches(
-                    repoDir, baseBranch, targetBranch);
-
-            if (diffEntries.isEmpty()) {
-                return ResponseEntity.ok("未发现代码差异，两个分支内容相同");
-            }
-
-            // 生成差异内容
-            StringBuilder diffContent = new StringBuilder();
-            for (org.eclipse.jgit.diff.DiffEntry entry : diffEntries) {
-                String fileDiff = gitOperationPort.getDiffContent(repoDir, entry);
-                diffContent.append(fileDiff).append("\n");
+                    baseBranch,
+                    targetBranch,
+                    diffOptions);
+                 SpooledDiff spooledDiff = diffSpool.create(null)) {
+
+                if (revisionDiff.getEntries().isEmpty()) {
+                    return ResponseEntity.ok("未发现代码差异，两个分支内容相同");
+                }
+
+                // 生成差异内容，二进制文件和过大的文件只有摘要
+                for (org.eclipse.jgit.diff.DiffEntry entry : revisionDiff.getEntries()) {
+                    spooledDiff.append(entry.getNewPath(), revisionDiff.formatFile(entry).getContent());
+                }
+                spooledDiff.finish();
+
+                // 调用Claude进行审查
+                logger.info("Calling Claude for code review with mode: {}", mode);
+                String projectContext = "Git代码审查项目 - " + repository.getName();
+                String commitMessage = "代码审查: " + baseBranch + " -> " + targetBranch;
+                if (spooledDiff.isSpilled()) {
+                    try (java.io.Reader diffReader = spooledDiff.openReader()) {
+                        response = claudeQueryPort.reviewCodeChangesFromReader(diffReader, projectContext, commitMessage, mode);
+                    }
+                } else {
+                    response = claudeQueryPort.reviewCodeChanges(spooledDiff.readAll(), projectContext, commitMessage, mode);
+                }
             }
 
-            // 调用Claude进行审查
-            logger.info("Calling Claude for code review with mode: {}", mode);
-            ClaudeQueryResponse response = claudeQueryPort.reviewCodeChanges(
-                    diffContent.toString(),
-                    "Git代码审查项目 - " + repository.getName(),
-                    "代码审查: " + baseBranch + " -> " + targetBranch,
-                    mode
-            );
-
             if (response.isSuccessful()) {
                 return ResponseEntity.ok(response.getOutput());
             } else {
@@ -114,6 +144,49 @@ public class ReviewController {
         }
     }
 
+    /**
+     * 创建并开始代码审查，请求中的includePaths/excludePaths与仓库默认配置合并后限定差异范围
+     * POST /api/code-review
+     */
+    @PostMapping("/api/code-review")
+    public ResponseEntity<Map<String, Object>> createCodeReview(@Valid @RequestBody CodeReviewRequest request) {
+        logger.info("Creating code review: {}", request);
+
+        try {
+            Long reviewId = codeReviewApplicationService.createCodeReview(request);
+            codeReviewApplicationService.startCodeReview(reviewId, request.getRepositoryUrl(), request.getUsername(),
+                    request.getPassword(), request.getBaseBranch(), request.getTargetBranch());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("reviewId", reviewId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+
+        } catch (Exception e) {
+            logger.error("Failed to create code review", e);
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    /**
+     * 分页查询代码审查
+     * GET /api/reviews?repositoryId=1&status=COMPLETED&sort=qualityScore&direction=desc&limit=20&cursor=...
+     */
+    @GetMapping("/api/reviews")
+    public ResponseEntity<Page<CodeReviewSummary>> listReviews(
+            @RequestParam(required = false) Long repositoryId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String createdBy,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        PageRequest pageRequest = PageRequest.of(limit, cursor, sort, direction);
+        CodeReview.ReviewStatus reviewStatus = status == null ? null : CodeReview.ReviewStatus.valueOf(status.toUpperCase());
+        return ResponseEntity.ok(codeReviewApplicationService.getReviewPage(repositoryId, reviewStatus, createdBy, pageRequest));
+    }
+
     /**
      * 获取代码审查状态
      */
@@ -219,4 +292,8 @@ public class ReviewController {
         int remainingProgress = 100 - progress;
         return (totalEstimatedSeconds * remainingProgress) / 100;
     }
+
+    private static List<String> toList(String[] values) {
+        return values != null ? Arrays.asList(values) : null;
+    }
 }
@@ -4,6 +4,8 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
+import java.util.List;
+
 /**
  * 代码审查创建请求DTO
  */
@@ -38,6 +40,10 @@ public class CodeReviewRequest {
     private String username;
     private String password;
 
+    // 审查范围：包含和排除的glob模式，与仓库默认配置合并
+    private List<String> includePaths;
+    private List<String> excludePaths;
+
     // 默认构造函数
     public CodeReviewRequest() {}
 
@@ -138,6 +144,22 @@ public class CodeReviewRequest {
         this.password = password;
     }
 
+    public List<String> getIncludePaths() {
+        return includePaths;
+    }
+
+    public void setIncludePaths(List<String> includePaths) {
+        this.includePaths = includePaths;
+    }
+
+    public List<String> getExcludePaths() {
+        return excludePaths;
+    }
+
+    public void setExcludePaths(List<String> excludePaths) {
+        this.excludePaths = excludePaths;
+    }
+
     @Override
     public String toString() {
         return "CodeReviewRequest{" +
@@ -147,6 +169,8 @@ public class CodeReviewRequest {
                 ", targetBranch='" + targetBranch + '\'' +
                 ", strategyMode='" + strategyMode + '\'' +
                 ", createdBy='" + createdBy + '\'' +
+                ", includePaths=" + includePaths +
+                ", excludePaths=" + excludePaths +
                 '}';
     }
 }
\ No newline at end of file
@@ -5,23 +5,33 @@ import com.example.gitreview.application.repository.dto.GitRepositoryDTO;
 import com.example.gitreview.application.repository.dto.GitRepositoryUpdateDTO;
 import com.example.gitreview.application.repository.dto.ConnectionTestResultDTO;
 import com.example.gitreview.application.repository.dto.BranchListDTO;
+import com.example.gitreview.application.repository.dto.WarmUpResultDTO;
 import com.example.gitreview.application.repository.assembler.GitRepositoryAssembler;
 import com.example.gitreview.domain.shared.model.aggregate.Repository;
+import com.example.gitreview.domain.shared.model.valueobject.PathFilter;
 import com.example.gitreview.domain.shared.repository.GitRepositoryRepository;
 import com.example.gitreview.domain.shared.service.RepositoryDomainService;
 import com.example.gitreview.infrastructure.git.GitOperationPort;
+import com.example.gitreview.infrastructure.git.RemoteRefs;
+import com.example.gitreview.infrastructure.git.mirror.MirrorPrefetchScheduler;
 import com.example.gitreview.domain.shared.exception.ResourceNotFoundException;
 import com.example.gitreview.domain.shared.exception.BusinessRuleException;
 import com.example.gitreview.domain.shared.exception.ValidationException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
@@ -38,17 +48,23 @@ public class GitRepositoryApplicationService {
     private final RepositoryDomainService repositoryDomainService;
     private final GitOperationPort gitOperationPort;
     private final GitRepositoryAssembler assembler;
+    private final MirrorPrefetchScheduler prefetchScheduler;
+
+    @Value("${git.prefetch.warm-up-timeout-seconds:300}")
+    private long warmUpTimeoutSeconds = 300;
 
     @Autowired
     public GitRepositoryApplicationService(
             GitRepositoryRepository repositoryRepository,
             RepositoryDomainService repositoryDomainService,
             GitOperationPort gitOperationPort,
-            GitRepositoryAssembler assembler) {
+            GitRepositoryAssembler assembler,
+            MirrorPrefetchScheduler prefetchScheduler) {
         this.repositoryRepository = repositoryRepository;
         this.repositoryDomainService = repositoryDomainService;
         this.gitOperationPort = gitOperationPort;
         this.assembler = assembler;
+        this.prefetchScheduler = prefetchScheduler;
     }
 
     /**
@@ -122,6 +138,16 @@ public class GitRepositoryApplicationService {
                 repository.updateInfo(repository.getName(), updateDTO.getDescription());
             }
 
+            // 更新审查路径过滤默认配置（只传其中一项时保留另一项）
+            if (updateDTO.getReviewIncludePaths() != null || updateDTO.getReviewExcludePaths() != null) {
+                PathFilter current = repository.getReviewPathFilter();
+                repository.updateReviewPathFilter(new PathFilter(
+                        updateDTO.getReviewIncludePaths() != null
+                                ? Arrays.asList(updateDTO.getReviewIncludePaths()) : current.getIncludes(),
+                        updateDTO.getReviewExcludePaths() != null
+                                ? Arrays.asList(updateDTO.getReviewExcludePaths()) : current.getExcludes()));
+            }
+
             // 更新URL和凭据暂不支持，需要重新创建Repository聚合根
             if (updateDTO.getUrl() != null) {
                 logger.warn("URL update not supported in current domain model for repository: {}", id);
@@ -172,6 +198,7 @@ public class GitRepositoryApplicationService {
 
             // 执行删除
             repositoryRepository.deleteById(repository.getId());
+            gitOperationPort.invalidateRemoteRefs(repository.getId());
 
             logger.info("Repository deleted successfully: {}", id);
 
@@ -241,9 +268,15 @@ public class GitRepositoryApplicationService {
             Repository repository = repositoryRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Repository not found: " + id));
 
-            // 执行连接测试
+            // 执行连接测试：校验URL和凭据后执行ls-remote，ttl内已成功查询过远程时直接使用缓存结果
             long startTime = System.currentTimeMillis();
             repositoryDomainService.validateRepositoryAccess(repository);
+            gitOperationPort.getFreshRemoteRefs(
+                repository.getId(),
+                repository.getGitUrl().getUrl(),
+                repository.getCredential().getUsername(),
+                repository.getCredential().getPassword()
+            );
             long duration = System.currentTimeMillis() - startTime;
 
             logger.info("Connection test successful for repository: {}", id);
@@ -260,12 +293,14 @@ public class GitRepositoryApplicationService {
 
     /**
      * 获取远程分支列表
+     * 使用远程分支缓存，过期时先返回旧结果并在后台刷新，没有缓存时可能先返回本地镜像中的分支
      * @param id 仓库ID
+     * @param refresh 是否丢弃缓存并同步查询远程
      * @return 分支列表
      */
-    public BranchListDTO getRemoteBranches(Long id) {
+    public BranchListDTO getRemoteBranches(Long id, boolean refresh) {
         try {
-            logger.info("Fetching remote branches for repository: {}", id);
+            logger.info("Fetching remote branches for repository: {}{}", id, refresh ? " (refresh)" : "");
 
             // 查找仓库
             Repository repository = repositoryRepository.findById(id)
@@ -273,15 +308,25 @@ public class GitRepositoryApplicationService {
 
             // 获取远程分支
             long startTime = System.currentTimeMillis();
-            List<String> branches = gitOperationPort.getRemoteBranches(
-                repository.getGitUrl().getUrl(),
-                repository.getCredential().getUsername(),
-                repository.getCredential().getPassword()
-            );
+            String url = repository.getGitUrl().getUrl();
+            String username = repository.getCredential().getUsername();
+            String password = repository.getCredential().getPassword();
+            RemoteRefs remoteRefs;
+            if (refresh) {
+                gitOperationPort.invalidateRemoteRefs(id);
+                remoteRefs = gitOperationPort.getFreshRemoteRefs(id, url, username, password);
+            } else {
+                remoteRefs = gitOperationPort.getRemoteRefs(id, url, username, password);
+            }
             long duration = System.currentTimeMillis() - startTime;
 
-            logger.info("Fetched {} branches for repository: {}", branches.size(), id);
-            return new BranchListDTO(branches, branches.size(), duration);
+            List<String> branches = remoteRefs.getBranchNames();
+            logger.info("Fetched {} branches for repository {} from {}", branches.size(), id, remoteRefs.getSource());
+            BranchListDTO dto = new BranchListDTO(branches, branches.size(), duration);
+            dto.setCommitIds(remoteRefs.getBranches());
+            dto.setSource(remoteRefs.getSource().name());
+            dto.setFetchedAt(remoteRefs.getFetchedAt());
+            return dto;
 
         } catch (ResourceNotFoundException e) {
             logger.warn("Repository not found for branch fetch: {}", id);
@@ -292,6 +337,48 @@ public class GitRepositoryApplicationService {
         }
     }
 
+    /**
+     * 立即预取仓库镜像（如CI在推送后调用），使随后的审查和测试生成不再等待fetch
+     * @param id 仓库ID
+     * @param wait 是否等待预取完成
+     * @return 预热结果
+     */
+    @Transactional(readOnly = true)
+    public WarmUpResultDTO warmUpRepository(Long id, boolean wait) {
+        logger.info("Warming up mirror of repository: {}{}", id, wait ? " (wait)" : "");
+
+        Repository repository = repositoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Repository not found: " + id));
+        if (!repository.isActive()) {
+            throw new BusinessRuleException("Repository is not active: " + id);
+        }
+
+        long startTime = System.currentTimeMillis();
+        CompletableFuture<Void> prefetch = prefetchScheduler.warmUp(repository);
+        if (!wait) {
+            return new WarmUpResultDTO(id, WarmUpResultDTO.STATUS_SCHEDULED, "Prefetch scheduled", 0L);
+        }
+
+        try {
+            prefetch.get(warmUpTimeoutSeconds, TimeUnit.SECONDS);
+            long duration = System.currentTimeMillis() - startTime;
+            logger.info("Warmed up mirror of repository {} in {} ms", id, duration);
+            return new WarmUpResultDTO(id, WarmUpResultDTO.STATUS_COMPLETED, "Mirror is up to date", duration);
+        } catch (TimeoutException e) {
+            // 预取继续在后台进行
+            return new WarmUpResultDTO(id, WarmUpResultDTO.STATUS_SCHEDULED,
+                    "Prefetch still running after " + warmUpTimeoutSeconds + "s", System.currentTimeMillis() - startTime);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            logger.warn("Warm-up failed for repository {}: {}", id, cause.getMessage());
+            return new WarmUpResultDTO(id, WarmUpResultDTO.STATUS_FAILED,
+                    "Prefetch failed: " + cause.getMessage(), System.currentTimeMillis() - startTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessRuleException("Interrupted while warming up repository: " + id);
+        }
+    }
+
     /**
      * 检查仓库状态
      * @param id 仓库ID
@@ -26,9 +26,11 @@ public class GitOperationController {
      * 获取仓库分支列表
      */
     @GetMapping("/{repositoryId}/branches")
-    public ResponseEntity<BranchListDTO> getBranches(@PathVariable Long repositoryId) {
+    public ResponseEntity<BranchListDTO> getBranches(
+            @PathVariable Long repositoryId,
+            @RequestParam(value = "refresh", defaultValue = "false") boolean refresh) {
         logger.info("Getting branches for repository: {}", repositoryId);
-        BranchListDTO branches = repositoryApplicationService.getRemoteBranches(repositoryId);
+        BranchListDTO branches = repositoryApplicationService.getRemoteBranches(repositoryId, refresh);
         return ResponseEntity.ok(branches);
     }
 }
@@ -92,12 +92,26 @@ public class GitRepositoryController {
      * 获取远程分支列表
      */
     @GetMapping("/{id}/remote-branches")
-    public ResponseEntity<BranchListDTO> getRemoteBranches(@PathVariable Long id) {
+    public ResponseEntity<BranchListDTO> getRemoteBranches(
+            @PathVariable Long id,
+            @RequestParam(value = "refresh", defaultValue = "false") boolean refresh) {
         logger.info("Getting remote branches for repository: {}", id);
-        BranchListDTO branches = applicationService.getRemoteBranches(id);
+        BranchListDTO branches = applicationService.getRemoteBranches(id, refresh);
         return ResponseEntity.ok(branches);
     }
 
+    /**
+     * 立即预取仓库镜像（如CI在推送后调用）
+     */
+    @PostMapping("/{id}/warm-up")
+    public ResponseEntity<WarmUpResultDTO> warmUpRepository(
+            @PathVariable Long id,
+            @RequestParam(value = "wait", defaultValue = "false") boolean wait) {
+        logger.info("Warming up repository: {}", id);
+        WarmUpResultDTO result = applicationService.warmUpRepository(id, wait);
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * 检查仓库状态
      */
@@ -5,8 +5,12 @@ import com.example.gitreview.application.repository.dto.GitRepositoryCreateDTO;
 import com.example.gitreview.domain.shared.model.aggregate.Repository;
 import com.example.gitreview.domain.shared.model.valueobject.GitUrl;
 import com.example.gitreview.domain.shared.model.valueobject.Credential;
+import com.example.gitreview.domain.shared.model.valueobject.PathFilter;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Git仓库Assembler
  * 负责领域对象与DTO之间的转换
@@ -49,6 +53,11 @@ public class GitRepositoryAssembler {
         dto.setLastAccessTime(repository.getLastAccessTime() != null ? repository.getLastAccessTime() : repository.getUpdateTime());
         dto.setAccessCount(repository.getAccessCount() != null ? repository.getAccessCount().intValue() : 0);
 
+        // 设置审查路径过滤默认配置
+        PathFilter reviewPathFilter = repository.getReviewPathFilter();
+        dto.setReviewIncludePaths(reviewPathFilter.getIncludes().toArray(new String[0]));
+        dto.setReviewExcludePaths(reviewPathFilter.getExcludes().toArray(new String[0]));
+
         // 设置统计信息（需要从其他服务获取）
         dto.setReviewCount(0); // 实际项目中需要查询相关服务
         dto.setTestSuiteCount(0); // 实际项目中需要查询相关服务
@@ -71,11 +80,30 @@ public class GitRepositoryAssembler {
             credential = Credential.createAnonymous();
         }
 
-        return new Repository(
+        Repository repository = new Repository(
                 createDTO.getName(),
                 createDTO.getDescription(),
                 gitUrl,
                 credential
         );
+        PathFilter reviewPathFilter = toPathFilter(createDTO.getReviewIncludePaths(), createDTO.getReviewExcludePaths());
+        if (!reviewPathFilter.isEmpty()) {
+            repository.updateReviewPathFilter(reviewPathFilter);
+        }
+        return repository;
+    }
+
+    /**
+     * 转换审查路径过滤
+     * @param includePaths 包含的glob模式，可为null
+     * @param excludePaths 排除的glob模式，可为null
+     * @return PathFilter值对象
+     */
+    public PathFilter toPathFilter(String[] includePaths, String[] excludePaths) {
+        return new PathFilter(toList(includePaths), toList(excludePaths));
+    }
+
+    private List<String> toList(String[] values) {
+        return values != null ? Arrays.asList(values) : null;
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.example.gitreview.application.repository.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 分支列表DTO
@@ -23,6 +24,17 @@ public class BranchListDTO {
     @JsonProperty("defaultBranch")
     private String defaultBranch;
 
+    @JsonProperty("commitIds")
+    private Map<String, String> commitIds;
+
+    // 分支列表来源：REMOTE（远程）或MIRROR（本地镜像，可能落后于远程）
+    @JsonProperty("source")
+    private String source;
+
+    // 分支列表从远程或镜像取得的时间，缓存命中时早于timestamp
+    @JsonProperty("fetchedAt")
+    private Long fetchedAt;
+
     // 默认构造函数
     public BranchListDTO() {
         this.timestamp = System.currentTimeMillis();
@@ -98,12 +110,37 @@ public class BranchListDTO {
         this.defaultBranch = defaultBranch;
     }
 
+    public Map<String, String> getCommitIds() {
+        return commitIds;
+    }
+
+    public void setCommitIds(Map<String, String> commitIds) {
+        this.commitIds = commitIds;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public Long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public void setFetchedAt(Long fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+
     @Override
     public String toString() {
         return "BranchListDTO{" +
                 "count=" + count +
                 ", fetchDuration=" + fetchDuration +
                 ", defaultBranch='" + defaultBranch + '\'' +
+                ", source='" + source + '\'' +
                 '}';
     }
 }
\ No newline at end of file
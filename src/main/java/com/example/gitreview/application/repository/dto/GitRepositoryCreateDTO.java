@@ -38,6 +38,12 @@ public class GitRepositoryCreateDTO {
     @JsonProperty("tags")
     private String[] tags;
 
+    @JsonProperty("reviewIncludePaths")
+    private String[] reviewIncludePaths;
+
+    @JsonProperty("reviewExcludePaths")
+    private String[] reviewExcludePaths;
+
     // 默认构造函数
     public GitRepositoryCreateDTO() {
     }
@@ -110,6 +116,22 @@ public class GitRepositoryCreateDTO {
         this.tags = tags;
     }
 
+    public String[] getReviewIncludePaths() {
+        return reviewIncludePaths;
+    }
+
+    public void setReviewIncludePaths(String[] reviewIncludePaths) {
+        this.reviewIncludePaths = reviewIncludePaths;
+    }
+
+    public String[] getReviewExcludePaths() {
+        return reviewExcludePaths;
+    }
+
+    public void setReviewExcludePaths(String[] reviewExcludePaths) {
+        this.reviewExcludePaths = reviewExcludePaths;
+    }
+
     @Override
     public String toString() {
         return "GitRepositoryCreateDTO{" +
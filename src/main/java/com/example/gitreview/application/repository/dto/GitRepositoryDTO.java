@@ -53,6 +53,12 @@ public class GitRepositoryDTO {
     @JsonProperty("tags")
     private String[] tags;
 
+    @JsonProperty("reviewIncludePaths")
+    private String[] reviewIncludePaths;
+
+    @JsonProperty("reviewExcludePaths")
+    private String[] reviewExcludePaths;
+
     @JsonProperty("isHealthy")
     private Boolean isHealthy;
 
@@ -191,6 +197,22 @@ public class GitRepositoryDTO {
         this.tags = tags;
     }
 
+    public String[] getReviewIncludePaths() {
+        return reviewIncludePaths;
+    }
+
+    public void setReviewIncludePaths(String[] reviewIncludePaths) {
+        this.reviewIncludePaths = reviewIncludePaths;
+    }
+
+    public String[] getReviewExcludePaths() {
+        return reviewExcludePaths;
+    }
+
+    public void setReviewExcludePaths(String[] reviewExcludePaths) {
+        this.reviewExcludePaths = reviewExcludePaths;
+    }
+
     public Boolean getIsHealthy() {
         return isHealthy;
     }
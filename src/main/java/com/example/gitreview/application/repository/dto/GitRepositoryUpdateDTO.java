@@ -34,6 +34,12 @@ public class GitRepositoryUpdateDTO {
     @JsonProperty("tags")
     private String[] tags;
 
+    @JsonProperty("reviewIncludePaths")
+    private String[] reviewIncludePaths;
+
+    @JsonProperty("reviewExcludePaths")
+    private String[] reviewExcludePaths;
+
     // 默认构造函数
     public GitRepositoryUpdateDTO() {
     }
@@ -95,6 +101,22 @@ public class GitRepositoryUpdateDTO {
         this.tags = tags;
     }
 
+    public String[] getReviewIncludePaths() {
+        return reviewIncludePaths;
+    }
+
+    public void setReviewIncludePaths(String[] reviewIncludePaths) {
+        this.reviewIncludePaths = reviewIncludePaths;
+    }
+
+    public String[] getReviewExcludePaths() {
+        return reviewExcludePaths;
+    }
+
+    public void setReviewExcludePaths(String[] reviewExcludePaths) {
+        this.reviewExcludePaths = reviewExcludePaths;
+    }
+
     @Override
     public String toString() {
         return "GitRepositoryUpdateDTO{" +
@@ -0,0 +1,95 @@
+package com.example.gitreview.application.repository.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * 镜像预热结果DTO
+ */
+public class WarmUpResultDTO {
+
+    /** 已提交预取，未等待完成 */
+    public static final String STATUS_SCHEDULED = "SCHEDULED";
+    /** 预取已完成 */
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    /** 预取失败 */
+    public static final String STATUS_FAILED = "FAILED";
+
+    @JsonProperty("repositoryId")
+    private Long repositoryId;
+
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("message")
+    private String message;
+
+    @JsonProperty("duration")
+    private Long duration;
+
+    @JsonProperty("timestamp")
+    private Long timestamp;
+
+    // 默认构造函数
+    public WarmUpResultDTO() {
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public WarmUpResultDTO(Long repositoryId, String status, String message, Long duration) {
+        this.repositoryId = repositoryId;
+        this.status = status;
+        this.message = message;
+        this.duration = duration;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    // Getters and Setters
+    public Long getRepositoryId() {
+        return repositoryId;
+    }
+
+    public void setRepositoryId(Long repositoryId) {
+        this.repositoryId = repositoryId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Long duration) {
+        this.duration = duration;
+    }
+
+    public Long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "WarmUpResultDTO{" +
+                "repositoryId=" + repositoryId +
+                ", status='" + status + '\'' +
+                ", message='" + message + '\'' +
+                ", duration=" + duration +
+                '}';
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.gitreview.application.storage.api;
+
+import com.example.gitreview.infrastructure.storage.backup.BackupInfo;
+import com.example.gitreview.infrastructure.storage.backup.BackupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 存储备份REST API控制器
+ * 恢复会替换全部数据，只通过启动参数json.storage.restore-from执行，不提供接口
+ */
+@RestController
+@RequestMapping("/api/storage/backups")
+@CrossOrigin(origins = "*")
+public class StorageBackupController {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageBackupController.class);
+
+    @Autowired
+    private BackupService backupService;
+
+    /**
+     * 创建备份
+     */
+    @PostMapping
+    public ResponseEntity<BackupInfo> createBackup() {
+        logger.info("Creating storage backup");
+        try {
+            return ResponseEntity.ok(backupService.backup());
+        } catch (IOException e) {
+            logger.error("Failed to create storage backup", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * 获取已有备份，最新的在前
+     */
+    @GetMapping
+    public ResponseEntity<List<BackupInfo>> listBackups() {
+        logger.info("Listing storage backups");
+        try {
+            return ResponseEntity.ok(backupService.listBackups());
+        } catch (IOException e) {
+            logger.error("Failed to list storage backups", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
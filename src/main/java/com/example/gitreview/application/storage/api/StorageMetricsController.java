@@ -0,0 +1,34 @@
+package com.example.gitreview.application.storage.api;
+
+import com.example.gitreview.infrastructure.storage.StorageAdapterFactory;
+import com.example.gitreview.infrastructure.storage.commit.GroupCommitMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 存储指标REST API控制器（只读）
+ */
+@RestController
+@RequestMapping("/api/storage/metrics")
+@CrossOrigin(origins = "*")
+public class StorageMetricsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageMetricsController.class);
+
+    @Autowired
+    private StorageAdapterFactory storageAdapterFactory;
+
+    /**
+     * 获取各存储的组提交指标（批次数、平均批次大小、提交延迟和fsync耗时），按存储文件路径索引
+     */
+    @GetMapping("/group-commit")
+    public ResponseEntity<Map<String, GroupCommitMetrics>> getGroupCommitMetrics() {
+        logger.debug("Getting group commit metrics");
+        return ResponseEntity.ok(storageAdapterFactory.getGroupCommitMetrics());
+    }
+}
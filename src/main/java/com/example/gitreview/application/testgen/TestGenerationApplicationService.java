@@ -5,12 +5,17 @@ import com.example.gitreview.application.testgen.dto.TestGenerationResultDTO;
 import com.example.gitreview.application.testgen.dto.TestSuiteDTO;
 import com.example.gitreview.application.testgen.dto.TestStatusDTO;
 import com.example.gitreview.application.testgen.assembler.TestGenerationAssembler;
+import com.example.gitreview.domain.testgen.model.aggregate.TestBatch;
 import com.example.gitreview.domain.testgen.model.aggregate.TestSuite;
 import com.example.gitreview.domain.testgen.model.valueobject.JavaClass;
 import com.example.gitreview.domain.testgen.model.valueobject.TestTemplate;
+import com.example.gitreview.domain.testgen.model.valueobject.TestSuiteSummary;
 import com.example.gitreview.domain.testgen.service.TestGenerationDomainService;
 import com.example.gitreview.domain.shared.model.aggregate.Repository;
+import com.example.gitreview.domain.shared.model.valueobject.Page;
+import com.example.gitreview.domain.shared.model.valueobject.PageRequest;
 import com.example.gitreview.domain.shared.repository.GitRepositoryRepository;
+import com.example.gitreview.domain.testgen.repository.TestBatchRepository;
 import com.example.gitreview.domain.testgen.repository.TestSuiteRepository;
 import com.example.gitreview.infrastructure.claude.ClaudeQueryPort;
 import com.example.gitreview.infrastructure.claude.ClaudeQueryResponse;
@@ -19,6 +24,7 @@ import com.example.gitreview.infrastructure.git.GitOperationPort;
 import com.example.gitreview.infrastructure.git.GitCommitService;
 import com.example.gitreview.infrastructure.compilation.CodeCompilationService;
 import com.example.gitreview.infrastructure.compilation.CompilationResult;
+import com.example.gitreview.infrastructure.workspace.TempWorkspaceManager;
 import com.example.gitreview.domain.shared.exception.ResourceNotFoundException;
 import com.example.gitreview.domain.shared.exception.BusinessRuleException;
 import com.example.gitreview.domain.shared.exception.ValidationException;
@@ -54,12 +60,14 @@ public class TestGenerationApplicationService {
     private final TestGenerationDomainService testGenerationDomainService;
     private final GitRepositoryRepository repositoryRepository;
     private final TestSuiteRepository testSuiteRepository;
+    private final TestBatchRepository testBatchRepository;
     private final ClaudeQueryPort claudeQueryPort;
     private final GitOperationPort gitOperationPort;
     private final TestGenerationAssembler assembler;
     private final CodeCompilationService compilationService;
     private final ClaudeCodePort claudeCodePort;
     private final GitCommitService gitCommitService;
+    private final TempWorkspaceManager tempWorkspaceManager;
 
     @Value("${test.generation.max-fix-retries:3}")
     private int maxFixRetries;
@@ -72,21 +80,25 @@ public class TestGenerationApplicationService {
             TestGenerationDomainService testGenerationDomainService,
             GitRepositoryRepository repositoryRepository,
             TestSuiteRepository testSuiteRepository,
+            TestBatchRepository testBatchRepository,
             ClaudeQueryPort claudeQueryPort,
             GitOperationPort gitOperationPort,
             TestGenerationAssembler assembler,
             CodeCompilationService compilationService,
             ClaudeCodePort claudeCodePort,
-            GitCommitService gitCommitService) {
+            GitCommitService gitCommitService,
+            TempWorkspaceManager tempWorkspaceManager) {
         this.testGenerationDomainService = testGenerationDomainService;
         this.repositoryRepository = repositoryRepository;
         this.testSuiteRepository = testSuiteRepository;
+        this.testBatchRepository = testBatchRepository;
         this.claudeQueryPort = claudeQueryPort;
         this.gitOperationPort = gitOperationPort;
         this.assembler = assembler;
         this.compilationService = compilationService;
         this.claudeCodePort = claudeCodePort;
         this.gitCommitService = gitCommitService;
+        this.tempWorkspaceManager = tempWorkspaceManager;
     }
 
     /**
@@ -285,12 +297,12 @@ public class TestGenerationApplicationService {
     @Transactional(readOnly = true)
     public List<TestSuiteDTO> getUserTestSuites(Long repositoryId) {
         String currentUser = getCurrentUser();
-        List<TestSuite> testSuites;
+        List<TestSuiteSummary> testSuites;
 
         if (repositoryId != null) {
-            testSuites = testSuiteRepository.findByRepositoryIdAndCreatedBy(repositoryId, currentUser);
+            testSuites = testSuiteRepository.findSummariesByRepositoryIdAndCreatedBy(repositoryId, currentUser);
         } else {
-            testSuites = testSuiteRepository.findByCreatedBy(currentUser);
+            testSuites = testSuiteRepository.findSummariesByCreatedBy(currentUser);
         }
 
         return testSuites.stream()
@@ -298,6 +310,20 @@ public class TestGenerationApplicationService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 分页获取用户的测试套件
+     * @param repositoryId 仓库ID（可选）
+     * @param status 生成状态（可选）
+     * @param pageRequest 分页请求
+     * @return 一页测试套件
+     */
+    @Transactional(readOnly = true)
+    public Page<TestSuiteDTO> getUserTestSuitePage(Long repositoryId, TestSuite.GenerationStatus status,
+                                                   PageRequest pageRequest) {
+        return testSuiteRepository.findSummaryPage(repositoryId, status, getCurrentUser(), pageRequest)
+                .map(assembler::toTestSuiteDTO);
+    }
+
     // 私有方法
 
     /**
@@ -479,7 +505,9 @@ public class TestGenerationApplicationService {
         Repository repo = repositoryRepository.findById(repositoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Repository not found: " + repositoryId));
         
-        Long batchId = System.currentTimeMillis();
+        TestBatch batch = testBatchRepository.save(
+                new TestBatch(repositoryId, branch, classNames.size(), getCurrentUser()));
+        Long batchId = batch.getId();
         
         CompletableFuture.runAsync(() -> 
             executeBatchGenerationInternal(batchId, repo, branch, classNames, testType, qualityLevel, gateId, requirement)
@@ -490,16 +518,17 @@ public class TestGenerationApplicationService {
 
     /**
      * 获取批次状态
+     * 直接读取批次上按状态维护的计数，不加载成员套件
      */
     public Map<String, Object> getBatchStatus(Long batchId) {
-        String marker = String.valueOf(batchId);
-        List<TestSuite> suites = testSuiteRepository.findBySuiteNameContaining(marker);
+        TestBatch batch = testBatchRepository.findById(batchId)
+                .orElseThrow(() -> new ResourceNotFoundException("Test batch not found: " + batchId));
         
-        long total = suites.size();
-        long generating = suites.stream().filter(s -> s.getStatus() == TestSuite.GenerationStatus.GENERATING).count();
-        long validating = suites.stream().filter(s -> s.getStatus() == TestSuite.GenerationStatus.VALIDATING).count();
-        long completed = suites.stream().filter(s -> s.getStatus() == TestSuite.GenerationStatus.COMPLETED).count();
-        long failed = suites.stream().filter(s -> s.getStatus() == TestSuite.GenerationStatus.FAILED).count();
+        long total = batch.getTotal();
+        long generating = batch.countOf(TestSuite.GenerationStatus.GENERATING);
+        long validating = batch.countOf(TestSuite.GenerationStatus.VALIDATING);
+        long completed = batch.countOf(TestSuite.GenerationStatus.COMPLETED);
+        long failed = batch.countOf(TestSuite.GenerationStatus.FAILED);
         
         // 计算进度和状态
         // 前端步骤映射：0-25%=分析源码, 25-50%=生成测试, 50-75%=验证编译, 75-100%=执行测试
@@ -590,17 +619,19 @@ public class TestGenerationApplicationService {
             TestSuite suite = new TestSuite(repo.getId(), className + "Tests_" + batchId, "Batch test generation",
                     target, template, getCurrentUser());
             suite.startGeneration(); // 状态: GENERATING
-            testSuiteRepository.save(suite);
-            suites.add(suite);
+            suites.add(testSuiteRepository.save(suite));
         }
+        testBatchRepository.update(batchId, batch -> suites.forEach(batch::addMember));
         
         try {
-            // 克隆仓库
-            repoDir = gitOperationPort.cloneRepository(
+            // 创建与镜像共享对象库的工作区（只检出文件，不复制历史）
+            repoDir = gitOperationPort.createWorkspace(
+                    repo.getId(),
                     repo.getUrl(),
                     repo.getCredential() != null ? repo.getCredential().getUsername() : null,
                     repo.getCredential() != null ? repo.getCredential().getPassword() : null,
-                    branch
+                    branch,
+                    "testgen-batch-" + batchId
             );
 
             int success = 0;
@@ -644,7 +675,7 @@ public class TestGenerationApplicationService {
                 } catch (Exception ex) {
                     logger.warn("Generate test for {} failed: {}", className, ex.getMessage());
                     suite.markAsFailed("Generation failed: " + ex.getMessage());
-                    testSuiteRepository.save(suite);
+                    saveBatchMember(batchId, suite);
                 }
             }
 
@@ -657,7 +688,7 @@ public class TestGenerationApplicationService {
                 for (TestSuite suite : suites) {
                     if (suite.getStatus() == TestSuite.GenerationStatus.GENERATING) {
                         suite.startValidation();
-                        testSuiteRepository.save(suite);
+                        saveBatchMember(batchId, suite);
                     }
                 }
                 
@@ -685,7 +716,7 @@ public class TestGenerationApplicationService {
                     } else {
                         suite.markAsFailed(compilationOk ? "Tests failed" : "Compilation failed");
                     }
-                    testSuiteRepository.save(suite);
+                    saveBatchMember(batchId, suite);
                 }
             }
 
@@ -694,9 +725,25 @@ public class TestGenerationApplicationService {
                 batchId, success, classNames.size(), cost);
         } catch (Exception e) {
             logger.error("Batch generation failed: {}", e.getMessage(), e);
+        } finally {
+            if (repoDir != null) {
+                try {
+                    tempWorkspaceManager.cleanupWorkspace(repoDir);
+                } catch (Exception e) {
+                    logger.error("Failed to clean up workspace: {}", repoDir.getAbsolutePath(), e);
+                }
+            }
         }
     }
 
+    /**
+     * 保存批次成员套件，并把其状态变化计入批次的状态计数
+     */
+    private void saveBatchMember(Long batchId, TestSuite suite) {
+        TestSuite saved = testSuiteRepository.save(suite);
+        testBatchRepository.update(batchId, batch -> batch.recordStatus(saved));
+    }
+
     /**
      * 使用 Claude Code CLI 修复编译错误
      */
@@ -881,9 +928,14 @@ public class TestGenerationApplicationService {
      */
     private void updateBatchStatus(Long batchId, boolean compilationOk, boolean testsOk) {
         try {
-            String marker = String.valueOf(batchId);
-            List<TestSuite> suites = testSuiteRepository.findBySuiteNameContaining(marker);
-            for (TestSuite s : suites) {
+            List<Long> memberIds = testBatchRepository.findById(batchId)
+                    .map(TestBatch::getMemberIds)
+                    .orElse(List.of());
+            for (Long memberId : memberIds) {
+                TestSuite s = testSuiteRepository.findById(memberId).orElse(null);
+                if (s == null) {
+                    continue;
+                }
                 try {
                     if (!compilationOk) {
                         s.markAsFailed("编译失败");
@@ -896,7 +948,7 @@ public class TestGenerationApplicationService {
                         );
                         s.completeValidation(result);
                     }
-                    testSuiteRepository.save(s);
+                    saveBatchMember(batchId, s);
                 } catch (Exception ignore) {
                     logger.warn("Update suite status failed: {}", ignore.getMessage());
                 }
@@ -3,7 +3,12 @@ package com.example.gitreview.application.testgen.api;
 import com.example.gitreview.application.testgen.TestGenerationApplicationService;
 import com.example.gitreview.application.repository.GitRepositoryApplicationService;
 import com.example.gitreview.application.repository.dto.GitRepositoryDTO;
+import com.example.gitreview.application.testgen.dto.TestSuiteDTO;
+import com.example.gitreview.infrastructure.git.CloneOptions;
 import com.example.gitreview.infrastructure.git.GitOperationPort;
+import com.example.gitreview.domain.shared.model.valueobject.Page;
+import com.example.gitreview.domain.shared.model.valueobject.PageRequest;
+import com.example.gitreview.domain.testgen.model.aggregate.TestSuite;
 import com.example.gitreview.domain.testgen.service.TestGenerationDomainService;
 import com.example.gitreview.infrastructure.claude.ClaudeQueryPort;
 import org.slf4j.Logger;
@@ -107,6 +112,23 @@ public class TestGenerationController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * 分页查询当前用户的测试套件
+     * GET /api/test-generation/suites?repositoryId=1&sort=createTime&direction=desc&limit=20&cursor=...
+     */
+    @GetMapping("/suites")
+    public ResponseEntity<Page<TestSuiteDTO>> listTestSuites(
+            @RequestParam(required = false) Long repositoryId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        PageRequest pageRequest = PageRequest.of(limit, cursor, sort, direction);
+        TestSuite.GenerationStatus suiteStatus = status == null ? null : TestSuite.GenerationStatus.valueOf(status.toUpperCase());
+        return ResponseEntity.ok(applicationService.getUserTestSuitePage(repositoryId, suiteStatus, pageRequest));
+    }
+
     /**
      * 生成单个类的测试代码
      */
@@ -131,12 +153,14 @@ public class TestGenerationController {
                         .body(Map.of("error", "Repository not found: " + repositoryId));
             }
 
-            // 克隆仓库
+            // 克隆仓库（只需要分支最新的文件）
             File repoDir = gitOperationPort.cloneRepository(
+                    repositoryId,
                     repository.getUrl(),
                     repository.getUsername(),
                     repository.getEncryptedPassword(),
-                    branch
+                    branch,
+                    CloneOptions.shallow(1)
             );
 
             // 列出所有类
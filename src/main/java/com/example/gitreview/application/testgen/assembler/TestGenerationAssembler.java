@@ -4,6 +4,7 @@ import com.example.gitreview.application.testgen.dto.*;
 import com.example.gitreview.domain.testgen.model.aggregate.TestSuite;
 import com.example.gitreview.domain.testgen.model.entity.TestCase;
 import com.example.gitreview.domain.testgen.model.entity.TestMethod;
+import com.example.gitreview.domain.testgen.model.valueobject.TestSuiteSummary;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -93,6 +94,45 @@ public class TestGenerationAssembler {
         return dto;
     }
 
+    /**
+     * 由测试套件摘要转换为测试套件DTO，用于列表查询
+     * @param summary 测试套件摘要
+     * @return 测试套件DTO
+     */
+    public TestSuiteDTO toTestSuiteDTO(TestSuiteSummary summary) {
+        TestSuiteDTO dto = new TestSuiteDTO();
+
+        dto.setId(summary.getId());
+        dto.setRepositoryId(summary.getRepositoryId());
+        dto.setSuiteName(summary.getSuiteName());
+        dto.setDescription(summary.getDescription());
+        dto.setClassName(summary.getClassName());
+        dto.setPackageName(summary.getPackageName());
+        dto.setStatus(summary.getStatus().name());
+        dto.setStatusDescription(summary.getStatusDescription());
+        dto.setProgress(summary.getProgress());
+        dto.setCreateTime(summary.getCreateTime());
+        dto.setUpdateTime(summary.getUpdateTime());
+        dto.setCreatedBy(summary.getCreatedBy());
+        dto.setTestCaseCount(summary.getTestCaseCount());
+        dto.setTestMethodCount(summary.getTestMethodCount());
+        dto.setCoveragePercentage(summary.getCoveragePercentage());
+        dto.setQualityScore(summary.getQualityScore());
+
+        if (summary.getTestType() != null) {
+            dto.setTestType(summary.getTestType().name().toLowerCase());
+            dto.setQualityLevel(summary.getQualityLevel());
+            dto.setMockFramework(summary.getMockFramework());
+            dto.setAssertionFramework(summary.getAssertionFramework());
+        }
+
+        dto.setHasExecutionResult(summary.hasExecutionResult());
+        dto.setCanRegenerate(summary.canRegenerate());
+        dto.setCanExecute(summary.canExecute());
+
+        return dto;
+    }
+
     /**
      * 转换为测试生成结果DTO
      * @param testSuite 测试套件聚合根
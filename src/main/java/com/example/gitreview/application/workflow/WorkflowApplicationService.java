@@ -1,6 +1,11 @@
 package com.example.gitreview.application.workflow;
 
 import com.example.gitreview.application.workflow.dto.*;
+import com.example.gitreview.domain.shared.exception.ResourceNotFoundException;
+import com.example.gitreview.domain.shared.model.aggregate.Repository;
+import com.example.gitreview.domain.shared.model.valueobject.Page;
+import com.example.gitreview.domain.shared.model.valueobject.PageRequest;
+import com.example.gitreview.domain.shared.repository.GitRepositoryRepository;
 import com.example.gitreview.domain.workflow.exception.WorkflowNotFoundException;
 import com.example.gitreview.domain.workflow.model.WorkflowStatus;
 import com.example.gitreview.domain.workflow.model.aggregate.DevelopmentWorkflow;
@@ -9,6 +14,7 @@ import com.example.gitreview.domain.workflow.model.valueobject.Specification;
 import com.example.gitreview.domain.workflow.model.valueobject.Task;
 import com.example.gitreview.domain.workflow.model.valueobject.TaskList;
 import com.example.gitreview.domain.workflow.model.valueobject.TechnicalDesign;
+import com.example.gitreview.domain.workflow.model.valueobject.WorkflowSummary;
 import com.example.gitreview.domain.workflow.repository.WorkflowRepository;
 import com.example.gitreview.domain.workflow.service.WorkflowDomainService;
 import com.example.gitreview.infrastructure.claude.ClaudeCodePort;
@@ -59,6 +65,9 @@ public class WorkflowApplicationService {
     @Autowired
     private GitOperationPort gitOperationPort;
 
+    @Autowired
+    private GitRepositoryRepository gitRepositoryRepository;
+
     @Autowired
     private TaskListParser taskListParser;
 
@@ -261,18 +270,38 @@ public class WorkflowApplicationService {
     public List<WorkflowStatusDTO> getAllWorkflows() {
         logger.debug("获取所有工作流");
 
-        return workflowRepository.findAll().stream()
-                .map(workflow -> new WorkflowStatusDTO(
-                        workflow.getId(),
-                        workflow.getName(),
-                        workflow.getStatus().name(),
-                        workflow.getProgress(),
-                        workflow.getCreatedAt(),
-                        workflow.getUpdatedAt()
-                ))
+        return workflowRepository.findAllSummaries().stream()
+                .map(this::toWorkflowStatusDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 分页获取工作流
+     *
+     * @param repositoryId 仓库ID（可选）
+     * @param status 工作流状态（可选）
+     * @param pageRequest 分页请求
+     * @return 一页工作流状态
+     */
+    @Transactional(readOnly = true)
+    public Page<WorkflowStatusDTO> getWorkflowPage(Long repositoryId, WorkflowStatus status, PageRequest pageRequest) {
+        logger.debug("分页获取工作流: repositoryId={}, status={}, {}", repositoryId, status, pageRequest);
+
+        return workflowRepository.findSummaryPage(repositoryId, status, pageRequest)
+                .map(this::toWorkflowStatusDTO);
+    }
+
+    private WorkflowStatusDTO toWorkflowStatusDTO(WorkflowSummary workflow) {
+        return new WorkflowStatusDTO(
+                workflow.getId(),
+                workflow.getName(),
+                workflow.getStatus().name(),
+                workflow.getProgress(),
+                workflow.getCreatedAt(),
+                workflow.getUpdatedAt()
+        );
+    }
+
     /**
      * 生成技术方案（异步）
      *
@@ -472,14 +501,19 @@ public class WorkflowApplicationService {
             workflow.startCodeGeneration();
             workflowRepository.save(workflow);
 
-            // TODO: 后续需要实现完整的Repository对象和GitOperationPort接口
-            // 暂时使用简化逻辑，直接创建临时工作目录
-            logger.info("创建临时工作空间，工作流ID: {}", workflowId);
-            repoDir = tempWorkspaceManager.createWorkspace("workflow-" + workflowId);
-
-            // TODO: 后续需要实现完整的Git克隆逻辑
-            // gitOperationPort.cloneRepository(...);
-            logger.warn("Git克隆功能暂未完全实现，跳过克隆步骤");
+            // 从仓库镜像创建共享对象库的工作区，检出远程默认分支
+            Long repositoryId = workflow.getRepositoryId();
+            Repository repository = gitRepositoryRepository.findById(repositoryId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Repository not found: " + repositoryId));
+            logger.info("创建工作空间，工作流ID: {}, 仓库ID: {}", workflowId, repository.getId());
+            repoDir = gitOperationPort.createWorkspace(
+                repository.getId(),
+                repository.getGitUrl().getUrl(),
+                repository.getCredential().getUsername(),
+                repository.getCredential().getPassword(),
+                null,
+                "workflow-" + workflowId
+            );
 
             String branchName = branchPrefix + workflowId;
             boolean branchCreated = workflowGitService.checkoutBranch(repoDir, branchName);
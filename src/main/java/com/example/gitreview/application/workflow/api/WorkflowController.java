@@ -2,8 +2,11 @@ package com.example.gitreview.application.workflow.api;
 
 import com.example.gitreview.application.workflow.WorkflowApplicationService;
 import com.example.gitreview.application.workflow.dto.*;
+import com.example.gitreview.domain.shared.model.valueobject.Page;
+import com.example.gitreview.domain.shared.model.valueobject.PageRequest;
 import com.example.gitreview.domain.workflow.exception.InvalidWorkflowTransitionException;
 import com.example.gitreview.domain.workflow.exception.WorkflowNotFoundException;
+import com.example.gitreview.domain.workflow.model.WorkflowStatus;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,6 +59,23 @@ public class WorkflowController {
         return ResponseEntity.ok(workflows);
     }
 
+    /**
+     * 分页获取工作流
+     * GET /api/workflow/page?repositoryId=1&status=COMPLETED&sort=updateTime&limit=20&cursor=...
+     */
+    @GetMapping("/page")
+    public ResponseEntity<Page<WorkflowStatusDTO>> getWorkflowPage(
+            @RequestParam(required = false) Long repositoryId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        PageRequest pageRequest = PageRequest.of(limit, cursor, sort, direction);
+        WorkflowStatus workflowStatus = status == null ? null : WorkflowStatus.valueOf(status.toUpperCase());
+        return ResponseEntity.ok(workflowApplicationService.getWorkflowPage(repositoryId, workflowStatus, pageRequest));
+    }
+
     /**
      * 获取工作流状态
      */
@@ -6,6 +6,8 @@ import com.example.gitreview.domain.codereview.model.valueobject.ReviewResult;
 import com.example.gitreview.domain.codereview.model.valueobject.ReviewStrategy;
 import com.example.gitreview.domain.shared.exception.BusinessRuleException;
 import com.example.gitreview.domain.shared.exception.ValidationException;
+import com.example.gitreview.domain.shared.model.valueobject.PathFilter;
+import com.fasterxml.jackson.annotation.JsonSetter;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -29,11 +31,13 @@ public class CodeReview {
     private String createdBy;
     private String workspaceId;
     private int progress = 0; // 审查进度 0-100
+    private Long version; // 乐观锁版本，由持久化层维护
 
     // 聚合内的实体和值对象
     private final List<ReviewSession> sessions = new ArrayList<>();
     private CodeDiff codeDiff;
     private ReviewResult finalResult;
+    private PathFilter pathFilter; // 审查范围，为空时使用仓库默认配置
 
     public enum ReviewStatus {
         PENDING,      // 待审查
@@ -71,6 +75,26 @@ public class CodeReview {
         this.updateTime = LocalDateTime.now();
     }
 
+    /**
+     * 从存储读取时恢复工作空间ID，不改变更新时间
+     */
+    @JsonSetter("workspaceId")
+    private void restoreWorkspaceId(String workspaceId) {
+        this.workspaceId = workspaceId;
+    }
+
+    /**
+     * 限定审查范围
+     * @param pathFilter 路径过滤，可为null表示不限定
+     */
+    public void scopeToPaths(PathFilter pathFilter) {
+        if (status != ReviewStatus.PENDING) {
+            throw new BusinessRuleException("Cannot change review scope in current status: " + status);
+        }
+        this.pathFilter = pathFilter;
+        this.updateTime = LocalDateTime.now();
+    }
+
     /**
      * 开始代码审查
      * @param codeDiff 代码差异
@@ -389,11 +413,23 @@ public class CodeReview {
         return finalResult;
     }
 
+    public PathFilter getPathFilter() {
+        return pathFilter != null ? pathFilter : PathFilter.none();
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
     // 用于持久化的setter（仅限基础设施层使用）
     public void setId(Long id) {
         this.id = id;
     }
 
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public void setCreateTime(LocalDateTime createTime) {
         this.createTime = createTime;
     }
@@ -402,6 +438,10 @@ public class CodeReview {
         this.updateTime = updateTime;
     }
 
+    public void setPathFilter(PathFilter pathFilter) {
+        this.pathFilter = pathFilter;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
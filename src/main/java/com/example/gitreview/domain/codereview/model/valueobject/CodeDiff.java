@@ -1,6 +1,9 @@
 package com.example.gitreview.domain.codereview.model.valueobject;
 
 import com.example.gitreview.domain.shared.exception.ValidationException;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -9,6 +12,7 @@ import java.util.*;
  * CodeDiff值对象
  * 表示代码差异的领域概念
  */
+@JsonIgnoreProperties(value = "stats", allowGetters = true)
 public class CodeDiff {
 
     private final String baseBranch;
@@ -22,6 +26,13 @@ public class CodeDiff {
     // 工作空间ID（可变，用于上下文提取）
     private String workspaceId;
 
+    // 基础和目标提交SHA（可变，用于从对象库读取文件）
+    private String baseCommitId;
+    private String targetCommitId;
+
+    // 完整差异内容的引用（可变）；差异过大时diffContent只保存开头部分，完整内容按引用流式读取
+    private String contentRef;
+
     // 文件变更类型
     public enum ChangeType {
         ADDED,      // 新增
@@ -44,7 +55,12 @@ public class CodeDiff {
             this(filePath, changeType, addedLines, deletedLines, null);
         }
 
-        public FileChange(String filePath, ChangeType changeType, int addedLines, int deletedLines, String oldFilePath) {
+        @JsonCreator
+        public FileChange(@JsonProperty("filePath") String filePath,
+                          @JsonProperty("changeType") ChangeType changeType,
+                          @JsonProperty("addedLines") int addedLines,
+                          @JsonProperty("deletedLines") int deletedLines,
+                          @JsonProperty("oldFilePath") String oldFilePath) {
             this.filePath = validateFilePath(filePath);
             this.changeType = Objects.requireNonNull(changeType, "Change type cannot be null");
             this.addedLines = Math.max(0, addedLines);
@@ -124,8 +140,12 @@ public class CodeDiff {
     }
 
     // 构造函数
-    public CodeDiff(Long repositoryId, String baseBranch, String targetBranch,
-                   String diffContent, List<FileChange> fileChanges) {
+    @JsonCreator
+    public CodeDiff(@JsonProperty("repositoryId") Long repositoryId,
+                   @JsonProperty("baseBranch") String baseBranch,
+                   @JsonProperty("targetBranch") String targetBranch,
+                   @JsonProperty("diffContent") String diffContent,
+                   @JsonProperty("fileChanges") List<FileChange> fileChanges) {
         this.repositoryId = Objects.requireNonNull(repositoryId, "Repository ID cannot be null");
         this.baseBranch = validateBranch(baseBranch, "Base branch");
         this.targetBranch = validateBranch(targetBranch, "Target branch");
@@ -271,7 +291,10 @@ public class CodeDiff {
         String truncatedContent = diffContent.substring(0, Math.min(diffContent.length(), maxSizeBytes / 2));
         truncatedContent += "\n\n[注意：差异内容过大，已截取前" + (maxSizeBytes / 2) + "字节进行审查]";
 
-        return new CodeDiff(repositoryId, baseBranch, targetBranch, truncatedContent, fileChanges);
+        CodeDiff limited = new CodeDiff(repositoryId, baseBranch, targetBranch, truncatedContent, fileChanges);
+        limited.setCommitIds(baseCommitId, targetCommitId);
+        limited.setContentRef(contentRef);
+        return limited;
     }
 
     // 私有验证方法
@@ -326,6 +349,35 @@ public class CodeDiff {
         this.workspaceId = workspaceId;
     }
 
+    public String getBaseCommitId() {
+        return baseCommitId;
+    }
+
+    public String getTargetCommitId() {
+        return targetCommitId;
+    }
+
+    public void setCommitIds(String baseCommitId, String targetCommitId) {
+        this.baseCommitId = baseCommitId;
+        this.targetCommitId = targetCommitId;
+    }
+
+    public String getContentRef() {
+        return contentRef;
+    }
+
+    public void setContentRef(String contentRef) {
+        this.contentRef = contentRef;
+    }
+
+    /**
+     * 检查差异内容是否只保存了开头部分
+     * @return 是否有外置的完整内容
+     */
+    public boolean hasExternalContent() {
+        return contentRef != null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
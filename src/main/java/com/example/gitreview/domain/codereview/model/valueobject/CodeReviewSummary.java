@@ -0,0 +1,85 @@
+package com.example.gitreview.domain.codereview.model.valueobject;
+
+import com.example.gitreview.domain.codereview.model.aggregate.CodeReview;
+
+import java.time.LocalDateTime;
+
+/**
+ * CodeReviewSummary值对象
+ * 代码审查的列表摘要，不包含代码差异、审查会话和详细结果
+ */
+public class CodeReviewSummary {
+
+    private final Long id;
+    private final Long repositoryId;
+    private final String title;
+    private final CodeReview.ReviewStatus status;
+    private final int progress;
+    private final int qualityScore;
+    private final String createdBy;
+    private final LocalDateTime createTime;
+    private final LocalDateTime updateTime;
+
+    private CodeReviewSummary(CodeReview review) {
+        this.id = review.getId();
+        this.repositoryId = review.getRepositoryId();
+        this.title = review.getTitle();
+        this.status = review.getStatus();
+        this.progress = review.getProgress();
+        this.qualityScore = review.getQualityScore();
+        this.createdBy = review.getCreatedBy();
+        this.createTime = review.getCreateTime();
+        this.updateTime = review.getUpdateTime();
+    }
+
+    /**
+     * 从代码审查聚合生成摘要
+     * @param review 代码审查
+     * @return 摘要
+     */
+    public static CodeReviewSummary of(CodeReview review) {
+        return new CodeReviewSummary(review);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getRepositoryId() {
+        return repositoryId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public CodeReview.ReviewStatus getStatus() {
+        return status;
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public int getQualityScore() {
+        return qualityScore;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    public LocalDateTime getUpdateTime() {
+        return updateTime;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CodeReviewSummary{id=%d, title='%s', status=%s, progress=%d}",
+                id, title, status, progress);
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.gitreview.domain.codereview.model.valueobject;
 
 import com.example.gitreview.domain.shared.exception.ValidationException;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -9,6 +12,7 @@ import java.util.*;
  * ReviewResult值对象
  * 表示代码审查结果的领域概念
  */
+@JsonIgnoreProperties(value = "metrics", allowGetters = true)
 public class ReviewResult {
 
     private final String summary;
@@ -92,8 +96,13 @@ public class ReviewResult {
         private final int estimatedMinutes;
         private final List<String> references;
 
-        public FixSuggestion(String rootCause, String fixApproach, String codeExample,
-                           String testStrategy, int estimatedMinutes, List<String> references) {
+        @JsonCreator
+        public FixSuggestion(@JsonProperty("rootCause") String rootCause,
+                           @JsonProperty("fixApproach") String fixApproach,
+                           @JsonProperty("codeExample") String codeExample,
+                           @JsonProperty("testStrategy") String testStrategy,
+                           @JsonProperty("estimatedMinutes") int estimatedMinutes,
+                           @JsonProperty("references") List<String> references) {
             this.rootCause = rootCause;
             this.fixApproach = fixApproach;
             this.codeExample = codeExample;
@@ -141,9 +150,16 @@ public class ReviewResult {
         }
 
         // 新的完整构造函数
-        public Issue(String filePath, int lineNumber, IssueSeverity severity, IssuePriority priority,
-                    String category, String description, String codeSnippet, String impact,
-                    FixSuggestion fixSuggestion) {
+        @JsonCreator
+        public Issue(@JsonProperty("filePath") String filePath,
+                    @JsonProperty("lineNumber") int lineNumber,
+                    @JsonProperty("severity") IssueSeverity severity,
+                    @JsonProperty("priority") IssuePriority priority,
+                    @JsonProperty("category") String category,
+                    @JsonProperty("description") String description,
+                    @JsonProperty("codeSnippet") String codeSnippet,
+                    @JsonProperty("impact") String impact,
+                    @JsonProperty("fixSuggestion") FixSuggestion fixSuggestion) {
             this.filePath = validateFilePath(filePath);
             this.lineNumber = Math.max(0, lineNumber);
             this.severity = Objects.requireNonNull(severity, "Severity cannot be null");
@@ -229,7 +245,10 @@ public class ReviewResult {
         private final String description;
         private final int priority; // 1-10, 10最高
 
-        public Suggestion(String category, String description, int priority) {
+        @JsonCreator
+        public Suggestion(@JsonProperty("category") String category,
+                          @JsonProperty("description") String description,
+                          @JsonProperty("priority") int priority) {
             this.category = validateCategory(category);
             this.description = validateDescription(description);
             this.priority = Math.max(1, Math.min(10, priority));
@@ -322,8 +341,12 @@ public class ReviewResult {
     }
 
     // 构造函数
-    public ReviewResult(String summary, String detailedReport, int qualityScore,
-                       List<Issue> issues, List<Suggestion> suggestions) {
+    @JsonCreator
+    public ReviewResult(@JsonProperty("summary") String summary,
+                       @JsonProperty("detailedReport") String detailedReport,
+                       @JsonProperty("qualityScore") int qualityScore,
+                       @JsonProperty("issues") List<Issue> issues,
+                       @JsonProperty("suggestions") List<Suggestion> suggestions) {
         this.summary = validateSummary(summary);
         this.detailedReport = validateDetailedReport(detailedReport);
         this.qualityScore = validateQualityScore(qualityScore);
@@ -1,6 +1,8 @@
 package com.example.gitreview.domain.codereview.model.valueobject;
 
 import com.example.gitreview.domain.shared.exception.ValidationException;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.Objects;
 
@@ -61,8 +63,13 @@ public class ReviewStrategy {
              getDefaultIncludeContext(mode), getDefaultEnableDeepAnalysis(mode), null);
     }
 
-    public ReviewStrategy(ReviewMode mode, int maxRetries, int timeoutMinutes,
-                         boolean includeContext, boolean enableDeepAnalysis, String customPrompt) {
+    @JsonCreator
+    public ReviewStrategy(@JsonProperty("mode") ReviewMode mode,
+                         @JsonProperty("maxRetries") int maxRetries,
+                         @JsonProperty("timeoutMinutes") int timeoutMinutes,
+                         @JsonProperty("includeContext") boolean includeContext,
+                         @JsonProperty("enableDeepAnalysis") boolean enableDeepAnalysis,
+                         @JsonProperty("customPrompt") String customPrompt) {
         this.mode = Objects.requireNonNull(mode, "Review mode cannot be null");
         this.maxRetries = validateMaxRetries(maxRetries);
         this.timeoutMinutes = validateTimeoutMinutes(timeoutMinutes);
@@ -1,10 +1,14 @@
 package com.example.gitreview.domain.codereview.repository;
 
 import com.example.gitreview.domain.codereview.model.aggregate.CodeReview;
+import com.example.gitreview.domain.codereview.model.valueobject.CodeReviewSummary;
+import com.example.gitreview.domain.shared.model.valueobject.Page;
+import com.example.gitreview.domain.shared.model.valueobject.PageRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * CodeReviewRepository
@@ -20,12 +24,35 @@ public interface CodeReviewRepository {
     CodeReview save(CodeReview codeReview);
 
     /**
-     * 根据ID查找代码审查
+     * 根据ID查找代码审查，包括已归档的记录
      * @param id 代码审查ID
      * @return 代码审查（如果存在）
      */
     Optional<CodeReview> findById(Long id);
 
+    /**
+     * 基于最新数据修改代码审查，并发修改时自动重试
+     * @param id 代码审查ID
+     * @param modifier 修改操作
+     * @return 修改后的代码审查（如果存在）
+     */
+    Optional<CodeReview> update(Long id, Consumer<CodeReview> modifier);
+
+    /**
+     * 根据ID查找代码审查，不加载差异内容和详细报告（为空文本），用于查询状态和进度；包括已归档的记录
+     * @param id 代码审查ID
+     * @return 代码审查（如果存在）
+     */
+    Optional<CodeReview> findWithoutContentById(Long id);
+
+    /**
+     * 基于最新数据修改代码审查中差异内容和详细报告以外的字段（如进度、状态），不加载也不重新保存这些大文本
+     * @param id 代码审查ID
+     * @param modifier 修改操作，不能读取差异内容和详细报告
+     * @return 代码审查是否存在
+     */
+    boolean updateWithoutContent(Long id, Consumer<CodeReview> modifier);
+
     /**
      * 根据仓库ID查找代码审查列表
      * @param repositoryId 仓库ID
@@ -48,7 +75,32 @@ public interface CodeReviewRepository {
     List<CodeReview> findByCreatedBy(String createdBy);
 
     /**
-     * 查找指定时间范围内的代码审查
+     * 根据仓库ID查找代码审查摘要列表
+     * @param repositoryId 仓库ID
+     * @return 代码审查摘要列表
+     */
+    List<CodeReviewSummary> findSummariesByRepositoryId(Long repositoryId);
+
+    /**
+     * 根据创建者查找代码审查摘要列表
+     * @param createdBy 创建者
+     * @return 代码审查摘要列表
+     */
+    List<CodeReviewSummary> findSummariesByCreatedBy(String createdBy);
+
+    /**
+     * 分页查询代码审查摘要，过滤条件为null时不限
+     * @param repositoryId 仓库ID
+     * @param status 审查状态
+     * @param createdBy 创建者
+     * @param pageRequest 分页请求，可按createTime、updateTime、qualityScore排序
+     * @return 一页代码审查摘要
+     */
+    Page<CodeReviewSummary> findSummaryPage(Long repositoryId, CodeReview.ReviewStatus status, String createdBy,
+                                            PageRequest pageRequest);
+
+    /**
+     * 查找指定时间范围内的代码审查，包括已归档的记录
      * @param startTime 开始时间
      * @param endTime 结束时间
      * @return 代码审查列表
@@ -77,14 +129,14 @@ public interface CodeReviewRepository {
     List<CodeReview> findByRepositoryAndBranches(Long repositoryId, String baseBranch, String targetBranch);
 
     /**
-     * 删除代码审查
+     * 删除代码审查（包括已归档的记录）
      * @param id 代码审查ID
      * @return 是否删除成功
      */
     boolean deleteById(Long id);
 
     /**
-     * 检查代码审查是否存在
+     * 检查代码审查是否存在（包括已归档的记录）
      * @param id 代码审查ID
      * @return 是否存在
      */
@@ -119,9 +171,17 @@ public interface CodeReviewRepository {
     int updateStatusBatch(List<Long> ids, CodeReview.ReviewStatus newStatus);
 
     /**
-     * 删除指定时间之前的代码审查记录
+     * 删除指定时间之前的代码审查记录，包括已归档的记录
      * @param beforeTime 时间阈值
      * @return 删除的记录数
      */
     int deleteOldRecords(LocalDateTime beforeTime);
+
+    /**
+     * 将指定时间之前创建的代码审查移到按月压缩的归档段
+     * 归档后的记录不再出现在常规查询中，只能按ID或创建时间范围查询
+     * @param beforeTime 时间阈值
+     * @return 归档的记录数
+     */
+    int archiveOldRecords(LocalDateTime beforeTime);
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.example.gitreview.domain.shared.model.aggregate;
 import com.example.gitreview.domain.shared.model.valueobject.Branch;
 import com.example.gitreview.domain.shared.model.valueobject.Credential;
 import com.example.gitreview.domain.shared.model.valueobject.GitUrl;
+import com.example.gitreview.domain.shared.model.valueobject.PathFilter;
 import com.fasterxml.jackson.annotation.JsonSetter;
 
 import java.time.LocalDateTime;
@@ -46,6 +47,7 @@ public class Repository {
     private String createdBy;
     private Long accessCount;
     private RepositoryStatus status;
+    private PathFilter reviewPathFilter; // 审查默认的路径过滤
 
     // 临时字段用于兼容旧JSON格式反序列化
     private transient String tempUsername;
@@ -105,6 +107,15 @@ public class Repository {
         this.updateTime = LocalDateTime.now();
     }
 
+    /**
+     * 更新审查默认的路径过滤，审查未指定时使用，排除模式与审查的合并
+     * @param reviewPathFilter 路径过滤，可为null表示不过滤
+     */
+    public void updateReviewPathFilter(PathFilter reviewPathFilter) {
+        this.reviewPathFilter = reviewPathFilter;
+        this.updateTime = LocalDateTime.now();
+    }
+
     /**
      * 激活仓库
      */
@@ -245,6 +256,10 @@ public class Repository {
         return status;
     }
 
+    public PathFilter getReviewPathFilter() {
+        return reviewPathFilter != null ? reviewPathFilter : PathFilter.none();
+    }
+
     // 用于持久化的setter（仅限基础设施层使用）
     public void setId(Long id) {
         this.id = id;
@@ -298,6 +313,10 @@ public class Repository {
         this.credential = credential;
     }
 
+    public void setReviewPathFilter(PathFilter reviewPathFilter) {
+        this.reviewPathFilter = reviewPathFilter;
+    }
+
     /**
      * 兼容旧JSON格式: repositoryUrl -> gitUrl
      */
@@ -0,0 +1,99 @@
+package com.example.gitreview.domain.shared.model.valueobject;
+
+import com.example.gitreview.domain.shared.exception.ValidationException;
+
+import java.util.Objects;
+
+/**
+ * PageRequest值对象
+ * 基于游标的分页请求：按排序字段加ID定位，翻页时传入上一页返回的游标
+ */
+public class PageRequest {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+    public static final String DEFAULT_SORT = "createTime";
+
+    private final int limit;
+    private final String cursor;
+    private final String sort;
+    private final boolean descending;
+
+    private PageRequest(int limit, String cursor, String sort, boolean descending) {
+        this.limit = limit;
+        this.cursor = cursor;
+        this.sort = sort;
+        this.descending = descending;
+    }
+
+    /**
+     * 创建分页请求，参数为空时使用默认值（每页20条，按创建时间倒序）
+     * @param limit 每页条数，1~100
+     * @param cursor 上一页返回的游标，首页为空
+     * @param sort 排序字段
+     * @param direction 排序方向，asc或desc
+     * @return 分页请求
+     */
+    public static PageRequest of(Integer limit, String cursor, String sort, String direction) {
+        int pageSize = limit != null ? limit : DEFAULT_LIMIT;
+        if (pageSize < 1 || pageSize > MAX_LIMIT) {
+            throw new ValidationException("分页大小必须在1到" + MAX_LIMIT + "之间: " + pageSize);
+        }
+        boolean descending;
+        if (direction == null || direction.isBlank() || "desc".equalsIgnoreCase(direction)) {
+            descending = true;
+        } else if ("asc".equalsIgnoreCase(direction)) {
+            descending = false;
+        } else {
+            throw new ValidationException("排序方向只能是asc或desc: " + direction);
+        }
+        String sortField = sort == null || sort.isBlank() ? DEFAULT_SORT : sort;
+        String pageCursor = cursor == null || cursor.isBlank() ? null : cursor;
+        return new PageRequest(pageSize, pageCursor, sortField, descending);
+    }
+
+    /**
+     * 首页请求，使用默认排序
+     * @param limit 每页条数
+     * @return 分页请求
+     */
+    public static PageRequest first(int limit) {
+        return of(limit, null, null, null);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PageRequest that = (PageRequest) o;
+        return limit == that.limit && descending == that.descending
+                && Objects.equals(cursor, that.cursor) && Objects.equals(sort, that.sort);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(limit, cursor, sort, descending);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PageRequest{limit=%d, sort=%s %s, cursor=%s}",
+                limit, sort, descending ? "desc" : "asc", cursor);
+    }
+}
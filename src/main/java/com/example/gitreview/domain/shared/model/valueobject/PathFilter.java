@@ -0,0 +1,110 @@
+package com.example.gitreview.domain.shared.model.valueobject;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * PathFilter值对象
+ * 审查范围的路径过滤：包含和排除的glob模式（如"src/main/**"、"*.min.js"、"vendor/**"）。
+ * 不含"/"的模式匹配任意目录下的文件名；包含列表为空时包含所有路径，排除优先于包含。
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class PathFilter {
+
+    private static final PathFilter NONE = new PathFilter(Collections.emptyList(), Collections.emptyList());
+
+    private final List<String> includes;
+    private final List<String> excludes;
+
+    @JsonCreator
+    public PathFilter(@JsonProperty("includes") List<String> includes,
+                      @JsonProperty("excludes") List<String> excludes) {
+        this.includes = normalize(includes);
+        this.excludes = normalize(excludes);
+    }
+
+    /**
+     * 不过滤任何路径
+     */
+    public static PathFilter none() {
+        return NONE;
+    }
+
+    /**
+     * 以另一个过滤器作为默认值合并：本过滤器未指定包含模式时使用默认的包含模式，排除模式取并集
+     * @param defaults 默认过滤器（通常是仓库级配置），可为null
+     * @return 合并后的过滤器
+     */
+    public PathFilter withDefaults(PathFilter defaults) {
+        if (defaults == null || defaults.isEmpty()) {
+            return this;
+        }
+        Set<String> mergedExcludes = new LinkedHashSet<>(defaults.excludes);
+        mergedExcludes.addAll(excludes);
+        return new PathFilter(includes.isEmpty() ? defaults.includes : includes, new ArrayList<>(mergedExcludes));
+    }
+
+    /**
+     * @return 是否没有任何过滤模式
+     */
+    @JsonIgnore
+    public boolean isEmpty() {
+        return includes.isEmpty() && excludes.isEmpty();
+    }
+
+    public List<String> getIncludes() {
+        return includes;
+    }
+
+    public List<String> getExcludes() {
+        return excludes;
+    }
+
+    private static List<String> normalize(List<String> patterns) {
+        if (patterns == null) {
+            return Collections.emptyList();
+        }
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String pattern : patterns) {
+            if (pattern == null || pattern.trim().isEmpty()) {
+                continue;
+            }
+            String trimmed = pattern.trim();
+            if (trimmed.startsWith("/")) {
+                trimmed = trimmed.substring(1);
+            }
+            normalized.add(trimmed);
+        }
+        return Collections.unmodifiableList(new ArrayList<>(normalized));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PathFilter that = (PathFilter) o;
+        return includes.equals(that.includes) && excludes.equals(that.excludes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(includes, excludes);
+    }
+
+    @Override
+    public String toString() {
+        return "PathFilter{" +
+                "includes=" + includes +
+                ", excludes=" + excludes +
+                '}';
+    }
+}
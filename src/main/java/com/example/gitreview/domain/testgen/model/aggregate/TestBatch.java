@@ -0,0 +1,203 @@
+package com.example.gitreview.domain.testgen.model.aggregate;
+
+import com.example.gitreview.domain.shared.exception.BusinessRuleException;
+import com.example.gitreview.domain.shared.exception.ValidationException;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * TestBatch聚合根
+ * 一次批量测试生成，记录成员测试套件及其当前状态，并维护按状态的计数
+ * 成员状态变化时更新计数，查询批次进度只需读取批次本身，不必加载成员套件
+ */
+public class TestBatch {
+
+    private Long id;
+    private Long repositoryId;
+    private String branch;
+    private int expectedSize;
+    private LocalDateTime createTime;
+    private LocalDateTime updateTime;
+    private String createdBy;
+    private Long version; // 乐观锁版本，由持久化层维护
+
+    /**
+     * 成员套件ID到其最近记录的状态，按加入顺序
+     */
+    private final Map<Long, TestSuite.GenerationStatus> memberStatuses = new LinkedHashMap<>();
+
+    /**
+     * 各状态的成员数
+     */
+    private final Map<TestSuite.GenerationStatus, Integer> statusCounts = new EnumMap<>(TestSuite.GenerationStatus.class);
+
+    // 构造函数
+    protected TestBatch() {
+        // 反序列化需要的默认构造函数
+    }
+
+    public TestBatch(Long repositoryId, String branch, int expectedSize, String createdBy) {
+        this.repositoryId = Objects.requireNonNull(repositoryId, "Repository ID cannot be null");
+        if (expectedSize <= 0) {
+            throw new ValidationException("Batch must contain at least one class");
+        }
+        if (createdBy == null || createdBy.trim().isEmpty()) {
+            throw new ValidationException("CreatedBy cannot be null or empty");
+        }
+        this.branch = branch;
+        this.expectedSize = expectedSize;
+        this.createdBy = createdBy.trim();
+        this.createTime = LocalDateTime.now();
+        this.updateTime = this.createTime;
+    }
+
+    // 业务方法
+
+    /**
+     * 加入成员套件
+     * @param suite 已保存（有ID）的测试套件
+     */
+    public void addMember(TestSuite suite) {
+        Objects.requireNonNull(suite.getId(), "Test suite must be saved before joining a batch");
+        if (memberStatuses.containsKey(suite.getId())) {
+            throw new BusinessRuleException("Test suite already in batch: " + suite.getId());
+        }
+        memberStatuses.put(suite.getId(), suite.getStatus());
+        statusCounts.merge(suite.getStatus(), 1, Integer::sum);
+        this.updateTime = LocalDateTime.now();
+    }
+
+    /**
+     * 记录成员套件的状态变化，状态未变或不是成员时忽略
+     * @param suite 测试套件
+     * @return 是否有变化
+     */
+    public boolean recordStatus(TestSuite suite) {
+        TestSuite.GenerationStatus previous = memberStatuses.get(suite.getId());
+        if (previous == null || previous == suite.getStatus()) {
+            return false;
+        }
+        memberStatuses.put(suite.getId(), suite.getStatus());
+        statusCounts.computeIfPresent(previous, (status, count) -> count > 1 ? count - 1 : null);
+        statusCounts.merge(suite.getStatus(), 1, Integer::sum);
+        this.updateTime = LocalDateTime.now();
+        return true;
+    }
+
+    /**
+     * 处于指定状态的成员数
+     */
+    public int countOf(TestSuite.GenerationStatus status) {
+        return statusCounts.getOrDefault(status, 0);
+    }
+
+    /**
+     * 已加入的成员数
+     */
+    @JsonIgnore
+    public int getTotal() {
+        return memberStatuses.size();
+    }
+
+    /**
+     * 是否包含指定套件
+     */
+    public boolean contains(Long suiteId) {
+        return memberStatuses.containsKey(suiteId);
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getRepositoryId() {
+        return repositoryId;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    public int getExpectedSize() {
+        return expectedSize;
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    public LocalDateTime getUpdateTime() {
+        return updateTime;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    @JsonIgnore
+    public List<Long> getMemberIds() {
+        return new ArrayList<>(memberStatuses.keySet());
+    }
+
+    public Map<Long, TestSuite.GenerationStatus> getMemberStatuses() {
+        return new LinkedHashMap<>(memberStatuses);
+    }
+
+    public Map<TestSuite.GenerationStatus, Integer> getStatusCounts() {
+        return new EnumMap<>(statusCounts);
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    // 用于持久化的setter（仅限基础设施层使用）
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public void setMemberStatuses(Map<Long, TestSuite.GenerationStatus> memberStatuses) {
+        this.memberStatuses.clear();
+        this.memberStatuses.putAll(memberStatuses);
+    }
+
+    public void setStatusCounts(Map<TestSuite.GenerationStatus, Integer> statusCounts) {
+        this.statusCounts.clear();
+        this.statusCounts.putAll(statusCounts);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TestBatch testBatch = (TestBatch) o;
+        return Objects.equals(id, testBatch.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "TestBatch{" +
+                "id=" + id +
+                ", repositoryId=" + repositoryId +
+                ", members=" + memberStatuses.size() + "/" + expectedSize +
+                ", statusCounts=" + statusCounts +
+                '}';
+    }
+}
@@ -31,6 +31,7 @@ public class TestSuite {
     private LocalDateTime createTime;
     private LocalDateTime updateTime;
     private String createdBy;
+    private Long version; // 乐观锁版本，由持久化层维护
 
     // 聚合内的实体
     private final List<TestCase> testCases = new ArrayList<>();
@@ -329,7 +330,7 @@ public class TestSuite {
      */
     public boolean canRegenerate() {
         return status == GenerationStatus.FAILED ||
-               (status == GenerationStatus.VALIDATED && !executionResult.allTestsPassed());
+               (status == GenerationStatus.VALIDATED && executionResult != null && !executionResult.allTestsPassed());
     }
 
     /**
@@ -472,11 +473,19 @@ public class TestSuite {
         return executionResult;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     // 用于持久化的setter（仅限基础设施层使用）
     public void setId(Long id) {
         this.id = id;
     }
 
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public void setCreateTime(LocalDateTime createTime) {
         this.createTime = createTime;
     }
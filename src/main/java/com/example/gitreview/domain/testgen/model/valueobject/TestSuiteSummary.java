@@ -0,0 +1,175 @@
+package com.example.gitreview.domain.testgen.model.valueobject;
+
+import com.example.gitreview.domain.testgen.model.aggregate.TestSuite;
+
+import java.time.LocalDateTime;
+
+/**
+ * TestSuiteSummary值对象
+ * 测试套件的列表摘要，只保留统计数字，不包含测试用例和执行报告
+ */
+public class TestSuiteSummary {
+
+    private final Long id;
+    private final Long repositoryId;
+    private final String suiteName;
+    private final String description;
+    private final String className;
+    private final String packageName;
+    private final TestSuite.GenerationStatus status;
+    private final String statusDescription;
+    private final int progress;
+    private final LocalDateTime createTime;
+    private final LocalDateTime updateTime;
+    private final String createdBy;
+    private final int testCaseCount;
+    private final int testMethodCount;
+    private final double coveragePercentage;
+    private final int qualityScore;
+    private final TestTemplate.TestType testType;
+    private final Integer qualityLevel;
+    private final String mockFramework;
+    private final String assertionFramework;
+    private final boolean hasExecutionResult;
+    private final boolean canRegenerate;
+    private final boolean canExecute;
+
+    private TestSuiteSummary(TestSuite suite) {
+        this.id = suite.getId();
+        this.repositoryId = suite.getRepositoryId();
+        this.suiteName = suite.getSuiteName();
+        this.description = suite.getDescription();
+        this.className = suite.getTargetClass().getSimpleName();
+        this.packageName = suite.getTargetClass().getPackageName();
+        this.status = suite.getStatus();
+        this.statusDescription = suite.getStatusDescription();
+        this.progress = suite.getProgress();
+        this.createTime = suite.getCreateTime();
+        this.updateTime = suite.getUpdateTime();
+        this.createdBy = suite.getCreatedBy();
+        this.testCaseCount = suite.getTestCases().size();
+        this.testMethodCount = suite.getTotalTestMethods();
+        this.coveragePercentage = suite.getCoveragePercentage();
+        this.qualityScore = suite.getQualityScore();
+
+        TestTemplate template = suite.getTemplate();
+        this.testType = template != null ? template.getTestType() : null;
+        this.qualityLevel = template != null ? template.getQualityLevel() : null;
+        this.mockFramework = template != null ? template.getMockFramework() : null;
+        this.assertionFramework = template != null ? template.getAssertionFramework() : null;
+
+        this.hasExecutionResult = suite.getExecutionResult() != null;
+        this.canRegenerate = suite.canRegenerate();
+        this.canExecute = suite.canExecuteTests();
+    }
+
+    /**
+     * 从测试套件聚合生成摘要
+     * @param suite 测试套件
+     * @return 摘要
+     */
+    public static TestSuiteSummary of(TestSuite suite) {
+        return new TestSuiteSummary(suite);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getRepositoryId() {
+        return repositoryId;
+    }
+
+    public String getSuiteName() {
+        return suiteName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public TestSuite.GenerationStatus getStatus() {
+        return status;
+    }
+
+    public String getStatusDescription() {
+        return statusDescription;
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    public LocalDateTime getUpdateTime() {
+        return updateTime;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public int getTestCaseCount() {
+        return testCaseCount;
+    }
+
+    public int getTestMethodCount() {
+        return testMethodCount;
+    }
+
+    public double getCoveragePercentage() {
+        return coveragePercentage;
+    }
+
+    public int getQualityScore() {
+        return qualityScore;
+    }
+
+    /**
+     * 测试类型，未设置模板时为null
+     */
+    public TestTemplate.TestType getTestType() {
+        return testType;
+    }
+
+    public Integer getQualityLevel() {
+        return qualityLevel;
+    }
+
+    public String getMockFramework() {
+        return mockFramework;
+    }
+
+    public String getAssertionFramework() {
+        return assertionFramework;
+    }
+
+    public boolean hasExecutionResult() {
+        return hasExecutionResult;
+    }
+
+    public boolean canRegenerate() {
+        return canRegenerate;
+    }
+
+    public boolean canExecute() {
+        return canExecute;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TestSuiteSummary{id=%d, suiteName='%s', status=%s, qualityScore=%d}",
+                id, suiteName, status, qualityScore);
+    }
+}
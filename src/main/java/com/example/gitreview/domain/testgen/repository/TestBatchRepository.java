@@ -0,0 +1,42 @@
+package com.example.gitreview.domain.testgen.repository;
+
+import com.example.gitreview.domain.testgen.model.aggregate.TestBatch;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * TestBatchRepository
+ * 批量测试生成聚合根的仓储接口
+ */
+public interface TestBatchRepository {
+
+    /**
+     * 保存批次
+     * @param testBatch 批次聚合根
+     * @return 保存后的批次
+     */
+    TestBatch save(TestBatch testBatch);
+
+    /**
+     * 根据ID查找批次
+     * @param id 批次ID
+     * @return 批次（如果存在）
+     */
+    Optional<TestBatch> findById(Long id);
+
+    /**
+     * 基于最新数据修改批次，并发修改时自动重试
+     * @param id 批次ID
+     * @param modifier 修改操作
+     * @return 修改后的批次（如果存在）
+     */
+    Optional<TestBatch> update(Long id, Consumer<TestBatch> modifier);
+
+    /**
+     * 删除批次
+     * @param id 批次ID
+     * @return 是否删除成功
+     */
+    boolean deleteById(Long id);
+}
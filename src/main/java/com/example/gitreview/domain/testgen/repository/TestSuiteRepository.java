@@ -1,11 +1,15 @@
 package com.example.gitreview.domain.testgen.repository;
 
+import com.example.gitreview.domain.shared.model.valueobject.Page;
+import com.example.gitreview.domain.shared.model.valueobject.PageRequest;
 import com.example.gitreview.domain.testgen.model.aggregate.TestSuite;
 import com.example.gitreview.domain.testgen.model.valueobject.JavaClass;
+import com.example.gitreview.domain.testgen.model.valueobject.TestSuiteSummary;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * TestSuiteRepository
@@ -21,12 +25,20 @@ public interface TestSuiteRepository {
     TestSuite save(TestSuite testSuite);
 
     /**
-     * 根据ID查找测试套件
+     * 根据ID查找测试套件，包括已归档的记录
      * @param id 测试套件ID
      * @return 测试套件（如果存在）
      */
     Optional<TestSuite> findById(Long id);
 
+    /**
+     * 基于最新数据修改测试套件，并发修改时自动重试
+     * @param id 测试套件ID
+     * @param modifier 修改操作
+     * @return 修改后的测试套件（如果存在）
+     */
+    Optional<TestSuite> update(Long id, Consumer<TestSuite> modifier);
+
     /**
      * 根据仓库ID查找测试套件列表
      * @param repositoryId 仓库ID
@@ -56,6 +68,32 @@ public interface TestSuiteRepository {
      */
     List<TestSuite> findByCreatedBy(String createdBy);
 
+    /**
+     * 根据创建者查找测试套件摘要列表
+     * @param createdBy 创建者
+     * @return 测试套件摘要列表
+     */
+    List<TestSuiteSummary> findSummariesByCreatedBy(String createdBy);
+
+    /**
+     * 根据仓库ID和创建者查找测试套件摘要列表
+     * @param repositoryId 仓库ID
+     * @param createdBy 创建者
+     * @return 测试套件摘要列表
+     */
+    List<TestSuiteSummary> findSummariesByRepositoryIdAndCreatedBy(Long repositoryId, String createdBy);
+
+    /**
+     * 分页查询测试套件摘要，过滤条件为null时不限
+     * @param repositoryId 仓库ID
+     * @param status 生成状态
+     * @param createdBy 创建者
+     * @param pageRequest 分页请求，可按createTime、updateTime、qualityScore排序
+     * @return 一页测试套件摘要
+     */
+    Page<TestSuiteSummary> findSummaryPage(Long repositoryId, TestSuite.GenerationStatus status, String createdBy,
+                                           PageRequest pageRequest);
+
     /**
      * 根据套件名称查找测试套件
      * @param suiteName 套件名称
@@ -79,7 +117,7 @@ public interface TestSuiteRepository {
     Optional<TestSuite> findByRepositoryIdAndTargetClass(Long repositoryId, JavaClass targetClass);
 
     /**
-     * 查找指定时间范围内的测试套件
+     * 查找指定时间范围内的测试套件，包括已归档的记录
      * @param startTime 开始时间
      * @param endTime 结束时间
      * @return 测试套件列表
@@ -121,14 +159,14 @@ public interface TestSuiteRepository {
     List<TestSuite> findByCoverageRange(double minCoverage, double maxCoverage);
 
     /**
-     * 删除测试套件
+     * 删除测试套件（包括已归档的记录）
      * @param id 测试套件ID
      * @return 是否删除成功
      */
     boolean deleteById(Long id);
 
     /**
-     * 检查测试套件是否存在
+     * 检查测试套件是否存在（包括已归档的记录）
      * @param id 测试套件ID
      * @return 是否存在
      */
@@ -177,12 +215,20 @@ public interface TestSuiteRepository {
     int updateStatusBatch(List<Long> ids, TestSuite.GenerationStatus newStatus);
 
     /**
-     * 删除指定时间之前的测试套件记录
+     * 删除指定时间之前的测试套件记录，包括已归档的记录
      * @param beforeTime 时间阈值
      * @return 删除的记录数
      */
     int deleteOldRecords(LocalDateTime beforeTime);
 
+    /**
+     * 将指定时间之前创建的测试套件移到按月压缩的归档段
+     * 归档后的记录不再出现在常规查询中，只能按ID或创建时间范围查询
+     * @param beforeTime 时间阈值
+     * @return 归档的记录数
+     */
+    int archiveOldRecords(LocalDateTime beforeTime);
+
     /**
      * 根据套件名称模糊查询
      * @param namePattern 名称模式
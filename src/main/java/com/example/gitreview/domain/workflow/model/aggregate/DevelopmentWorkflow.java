@@ -36,6 +36,7 @@ public class DevelopmentWorkflow {
 
     private int progress;
     private String currentStage;
+    private Long version;
 
     public DevelopmentWorkflow() {
         this.codeGenerationTasks = new ArrayList<>();
@@ -221,6 +222,17 @@ public class DevelopmentWorkflow {
         this.id = id;
     }
 
+    /**
+     * 乐观锁版本，由持久化层维护
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
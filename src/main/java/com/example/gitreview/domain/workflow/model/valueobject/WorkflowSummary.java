@@ -0,0 +1,81 @@
+package com.example.gitreview.domain.workflow.model.valueobject;
+
+import com.example.gitreview.domain.workflow.model.WorkflowStatus;
+import com.example.gitreview.domain.workflow.model.aggregate.DevelopmentWorkflow;
+
+import java.time.LocalDateTime;
+
+/**
+ * Workflow summary value object.
+ * List view of a workflow without specification, design, task list or generated code.
+ */
+public class WorkflowSummary {
+
+    private final Long id;
+    private final String name;
+    private final Long repositoryId;
+    private final WorkflowStatus status;
+    private final int progress;
+    private final String currentStage;
+    private final String createdBy;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    private WorkflowSummary(DevelopmentWorkflow workflow) {
+        this.id = workflow.getId();
+        this.name = workflow.getName();
+        this.repositoryId = workflow.getRepositoryId();
+        this.status = workflow.getStatus();
+        this.progress = workflow.getProgress();
+        this.currentStage = workflow.getCurrentStage();
+        this.createdBy = workflow.getCreatedBy();
+        this.createdAt = workflow.getCreatedAt();
+        this.updatedAt = workflow.getUpdatedAt();
+    }
+
+    /**
+     * Create a summary of the given workflow.
+     *
+     * @param workflow workflow aggregate
+     * @return summary
+     */
+    public static WorkflowSummary of(DevelopmentWorkflow workflow) {
+        return new WorkflowSummary(workflow);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Long getRepositoryId() {
+        return repositoryId;
+    }
+
+    public WorkflowStatus getStatus() {
+        return status;
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public String getCurrentStage() {
+        return currentStage;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
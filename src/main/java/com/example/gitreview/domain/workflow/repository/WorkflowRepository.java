@@ -1,9 +1,14 @@
 package com.example.gitreview.domain.workflow.repository;
 
+import com.example.gitreview.domain.shared.model.valueobject.Page;
+import com.example.gitreview.domain.shared.model.valueobject.PageRequest;
+import com.example.gitreview.domain.workflow.model.WorkflowStatus;
 import com.example.gitreview.domain.workflow.model.aggregate.DevelopmentWorkflow;
+import com.example.gitreview.domain.workflow.model.valueobject.WorkflowSummary;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Workflow repository interface.
@@ -28,6 +33,15 @@ public interface WorkflowRepository {
      * @return workflow if found
      */
     Optional<DevelopmentWorkflow> findById(Long id);
+
+    /**
+     * Apply a modification to the latest stored workflow, retrying on concurrent modification.
+     *
+     * @param id workflow ID
+     * @param modifier modification to apply
+     * @return updated workflow if found
+     */
+    Optional<DevelopmentWorkflow> update(Long id, Consumer<DevelopmentWorkflow> modifier);
     
     /**
      * Find all workflows.
@@ -35,6 +49,23 @@ public interface WorkflowRepository {
      * @return all workflows
      */
     List<DevelopmentWorkflow> findAll();
+
+    /**
+     * Find summaries of all workflows without loading their documents and tasks.
+     *
+     * @return all workflow summaries
+     */
+    List<WorkflowSummary> findAllSummaries();
+
+    /**
+     * Find one page of workflow summaries. Null filters match every workflow.
+     *
+     * @param repositoryId repository ID filter
+     * @param status status filter
+     * @param pageRequest page request, sortable by createTime and updateTime
+     * @return one page of workflow summaries
+     */
+    Page<WorkflowSummary> findSummaryPage(Long repositoryId, WorkflowStatus status, PageRequest pageRequest);
     
     /**
      * Delete workflow by ID.
@@ -5,6 +5,7 @@ import com.example.gitreview.domain.shared.exception.ResourceNotFoundException;
 import com.example.gitreview.domain.shared.exception.ValidationException;
 import com.example.gitreview.domain.workflow.exception.InvalidWorkflowTransitionException;
 import com.example.gitreview.domain.workflow.exception.WorkflowNotFoundException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -115,6 +116,22 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    /**
+     * 处理并发修改冲突异常
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        logger.warn("Concurrent modification detected: {}", e.getMessage());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "CONFLICT");
+        response.put("message", "Resource was modified concurrently, please retry");
+        response.put("error", e.getMessage());
+        response.put("timestamp", System.currentTimeMillis());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
     /**
      * 处理工作流未找到异常
      */
@@ -30,6 +30,17 @@ public interface ClaudeQueryPort {
     ClaudeQueryResponse reviewCodeChanges(String diffContent, String projectContext,
                                          String commitMessage, String reviewMode);
 
+    /**
+     * 代码审查查询，差异内容边读边写入提示词，不在内存中拼接完整提示词
+     * @param diffReader 代码差异内容读取器，调用方负责关闭
+     * @param projectContext 项目上下文
+     * @param commitMessage 提交信息
+     * @param reviewMode 审查模式
+     * @return 审查响应
+     */
+    ClaudeQueryResponse reviewCodeChangesFromReader(java.io.Reader diffReader, String projectContext,
+                                         String commitMessage, String reviewMode);
+
     /**
      * 获取版本信息
      * @return 版本信息
@@ -26,6 +26,8 @@ public class ClaudeCliAdapter implements ClaudeQueryPort {
 
     private static final Logger logger = LoggerFactory.getLogger(ClaudeCliAdapter.class);
 
+    private static final String PROMPT_FOOTER = "\n```\n";
+
     @Value("${claude.command:claude}")
     private String claudeCommand;
 
@@ -127,6 +129,12 @@ public class ClaudeCliAdapter implements ClaudeQueryPort {
     @Override
     public ClaudeQueryResponse reviewCodeChanges(String diffContent, String projectContext,
                                                String commitMessage, String reviewMode) {
+        return reviewCodeChangesFromReader(new StringReader(diffContent), projectContext, commitMessage, reviewMode);
+    }
+
+    @Override
+    public ClaudeQueryResponse reviewCodeChangesFromReader(Reader diffReader, String projectContext,
+                                               String commitMessage, String reviewMode) {
         if (!isAvailable()) {
             return ClaudeQueryResponse.failure(-1, "Claude CLI is not available", 0, "N/A");
         }
@@ -134,10 +142,8 @@ public class ClaudeCliAdapter implements ClaudeQueryPort {
         try {
             long startTime = System.currentTimeMillis();
 
-            // 构建审查提示词
-            String prompt = buildReviewPrompt(diffContent, projectContext, commitMessage, reviewMode);
-
-            logger.debug("Executing Claude review with prompt length: {}", prompt.length());
+            // 构建审查提示词（差异内容之前的部分）
+            String promptHeader = buildReviewPromptHeader(projectContext, commitMessage, reviewMode);
 
             // 执行 Claude CLI 命令 - 使用管道输入
             List<String> command = new ArrayList<>();
@@ -147,12 +153,19 @@ public class ClaudeCliAdapter implements ClaudeQueryPort {
             pb.redirectErrorStream(true);
             Process process = pb.start();
 
-            // 通过标准输入发送提示词
-            try (OutputStreamWriter writer = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8)) {
-                writer.write(prompt);
+            // 通过标准输入发送提示词，差异内容直接从读取器转写
+            long diffChars;
+            try (Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8))) {
+                writer.write(promptHeader);
+                diffChars = diffReader.transferTo(writer);
+                writer.write(PROMPT_FOOTER);
                 writer.flush();
             }
 
+            logger.debug("Executing Claude review with prompt length: {}",
+                    promptHeader.length() + diffChars + PROMPT_FOOTER.length());
+
             // 读取输出
             String output = readProcessOutput(process);
 
@@ -235,10 +248,9 @@ public class ClaudeCliAdapter implements ClaudeQueryPort {
     }
 
     /**
-     * 构建审查提示词
+     * 构建审查提示词中差异内容之前的部分，差异内容和结尾由调用方写入
      */
-    private String buildReviewPrompt(String diffContent, String projectContext,
-                                     String commitMessage, String reviewMode) {
+    private String buildReviewPromptHeader(String projectContext, String commitMessage, String reviewMode) {
         // 从配置文件加载对应模式的 Prompt 模板
         String promptKey = "review.prompt." + reviewMode.toLowerCase();
         String promptTemplate = reviewPrompts.getProperty(promptKey);
@@ -269,8 +281,6 @@ public class ClaudeCliAdapter implements ClaudeQueryPort {
         // 添加代码变更内容
         prompt.append("## 代码变更\n");
         prompt.append("```diff\n");
-        prompt.append(diffContent);
-        prompt.append("\n```\n");
 
         return prompt.toString();
     }
@@ -0,0 +1,98 @@
+package com.example.gitreview.infrastructure.git;
+
+import java.util.Objects;
+
+/**
+ * 工作副本克隆选项
+ * 默认克隆全部分支的完整历史；需要工作区但不需要历史时（如编译生成的测试）使用单分支浅克隆，
+ * 需要两个分支的合并基点时使用{@link #withMergeBase}，深度按镜像中到合并基点的距离加大，只克隆到合并基点为止。
+ */
+public final class CloneOptions {
+
+    private static final CloneOptions FULL = new CloneOptions(false, 0, null);
+
+    private final boolean singleBranch;
+    private final int depth;
+    private final String mergeBaseBranch;
+
+    private CloneOptions(boolean singleBranch, int depth, String mergeBaseBranch) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Depth cannot be negative: " + depth);
+        }
+        this.singleBranch = singleBranch;
+        this.depth = depth;
+        this.mergeBaseBranch = mergeBaseBranch;
+    }
+
+    /**
+     * 全部分支的完整历史
+     */
+    public static CloneOptions full() {
+        return FULL;
+    }
+
+    /**
+     * 只克隆检出分支的完整历史
+     */
+    public static CloneOptions singleBranch() {
+        return new CloneOptions(true, 0, null);
+    }
+
+    /**
+     * 只克隆检出分支的最近depth个提交
+     * @param depth 深度，至少为1
+     */
+    public static CloneOptions shallow(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Shallow clone depth must be at least 1: " + depth);
+        }
+        return new CloneOptions(true, depth, null);
+    }
+
+    /**
+     * 同时克隆另一个分支，浅克隆时深度加大到包含两个分支的合并基点
+     * @param baseBranch 另一个分支（通常是差异的基础分支）
+     */
+    public CloneOptions withMergeBase(String baseBranch) {
+        return new CloneOptions(true, depth, Objects.requireNonNull(baseBranch, "Base branch cannot be null"));
+    }
+
+    /**
+     * 相同分支选择、不同深度的选项
+     * @param depth 深度，0表示完整历史
+     */
+    public CloneOptions withDepth(int depth) {
+        return new CloneOptions(singleBranch, depth, mergeBaseBranch);
+    }
+
+    public boolean isSingleBranch() {
+        return singleBranch;
+    }
+
+    /**
+     * @return 克隆深度，0表示完整历史
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public boolean isShallow() {
+        return depth > 0;
+    }
+
+    /**
+     * @return 需要找到合并基点的另一个分支，未设置时为null
+     */
+    public String getMergeBaseBranch() {
+        return mergeBaseBranch;
+    }
+
+    @Override
+    public String toString() {
+        return "CloneOptions{" +
+                "singleBranch=" + singleBranch +
+                ", depth=" + depth +
+                ", mergeBaseBranch='" + mergeBaseBranch + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.gitreview.infrastructure.git;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 差异生成选项
+ * 路径过滤在扫描树时生效，被排除的路径不会被比较、格式化或发送审查；
+ * 超过大小上限的文件和二进制文件只输出一行摘要。
+ */
+public final class DiffOptions {
+
+    /** 默认单文件大小上限 */
+    public static final long DEFAULT_MAX_FILE_SIZE = 512 * 1024;
+
+    private static final DiffOptions DEFAULTS =
+            new DiffOptions(Collections.emptyList(), Collections.emptyList(), DEFAULT_MAX_FILE_SIZE);
+
+    private final List<String> includes;
+    private final List<String> excludes;
+    private final long maxFileSize;
+
+    private DiffOptions(List<String> includes, List<String> excludes, long maxFileSize) {
+        if (maxFileSize <= 0) {
+            throw new IllegalArgumentException("Max file size must be positive: " + maxFileSize);
+        }
+        this.includes = List.copyOf(includes);
+        this.excludes = List.copyOf(excludes);
+        this.maxFileSize = maxFileSize;
+    }
+
+    /**
+     * 不过滤路径，使用默认大小上限
+     */
+    public static DiffOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * 相同大小上限、指定路径过滤的选项
+     * @param includes 包含的glob模式，为空时包含所有路径
+     * @param excludes 排除的glob模式
+     */
+    public DiffOptions withPaths(List<String> includes, List<String> excludes) {
+        return new DiffOptions(includes != null ? includes : Collections.emptyList(),
+                excludes != null ? excludes : Collections.emptyList(), maxFileSize);
+    }
+
+    /**
+     * 相同路径过滤、指定大小上限的选项
+     * @param maxFileSize 单文件大小上限（字节），新旧版本任一超过时只输出摘要
+     */
+    public DiffOptions withMaxFileSize(long maxFileSize) {
+        return new DiffOptions(includes, excludes, maxFileSize);
+    }
+
+    public List<String> getIncludes() {
+        return includes;
+    }
+
+    public List<String> getExcludes() {
+        return excludes;
+    }
+
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public boolean hasPathFilter() {
+        return !includes.isEmpty() || !excludes.isEmpty();
+    }
+
+    /**
+     * @return 唯一描述差异生成方式的字符串，用作差异缓存键的一部分
+     */
+    public String toCacheKey() {
+        return "unified=3;include=" + String.join(",", includes)
+                + ";exclude=" + String.join(",", excludes)
+                + ";maxFileSize=" + maxFileSize;
+    }
+
+    @Override
+    public String toString() {
+        return "DiffOptions{" +
+                "includes=" + includes +
+                ", excludes=" + excludes +
+                ", maxFileSize=" + maxFileSize +
+                '}';
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.gitreview.infrastructure.git;
+
+import org.eclipse.jgit.diff.DiffEntry;
+
+/**
+ * 单个文件的格式化差异
+ * 增删行数来自差异编辑列表（与git diff --numstat一致）；二进制文件和超过大小上限的文件被跳过，
+ * 内容只有一行摘要，行数为0
+ */
+public final class FileDiff {
+
+    private final DiffEntry entry;
+    private final String content;
+    private final int addedLines;
+    private final int deletedLines;
+    private final String skipReason;
+
+    public FileDiff(DiffEntry entry, String content, int addedLines, int deletedLines) {
+        this(entry, content, addedLines, deletedLines, null);
+    }
+
+    private FileDiff(DiffEntry entry, String content, int addedLines, int deletedLines, String skipReason) {
+        this.entry = entry;
+        this.content = content;
+        this.addedLines = addedLines;
+        this.deletedLines = deletedLines;
+        this.skipReason = skipReason;
+    }
+
+    /**
+     * 被跳过的文件，内容为摘要
+     * @param entry 差异条目
+     * @param summary 摘要内容
+     * @param skipReason 跳过原因
+     */
+    public static FileDiff skipped(DiffEntry entry, String summary, String skipReason) {
+        return new FileDiff(entry, summary, 0, 0, skipReason);
+    }
+
+    public DiffEntry getEntry() {
+        return entry;
+    }
+
+    /**
+     * @return unified diff内容
+     */
+    public String getContent() {
+        return content;
+    }
+
+    public int getAddedLines() {
+        return addedLines;
+    }
+
+    public int getDeletedLines() {
+        return deletedLines;
+    }
+
+    public boolean isSkipped() {
+        return skipReason != null;
+    }
+
+    /**
+     * @return 跳过原因，未跳过时为null
+     */
+    public String getSkipReason() {
+        return skipReason;
+    }
+}
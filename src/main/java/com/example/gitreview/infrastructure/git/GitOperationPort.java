@@ -5,7 +5,9 @@ import org.eclipse.jgit.diff.DiffEntry;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Git操作端口接口
@@ -24,6 +26,48 @@ public interface GitOperationPort {
     File cloneRepository(String repositoryUrl, String username, String password, String branch)
             throws GitAPIException, IOException;
 
+    /**
+     * 从仓库的本地镜像克隆工作副本
+     * 镜像不存在时先完整克隆，存在时增量fetch后再从本地克隆，工作副本的origin仍指向远程仓库
+     * @param repositoryId 仓库ID，用于定位镜像
+     * @param repositoryUrl 仓库URL
+     * @param username 用户名
+     * @param password 密码
+     * @param branch 分支名
+     * @return 本地仓库目录
+     */
+    File cloneRepository(Long repositoryId, String repositoryUrl, String username, String password, String branch)
+            throws GitAPIException, IOException;
+
+    /**
+     * 按克隆选项从仓库的本地镜像克隆工作副本
+     * 单分支和浅克隆只传输检出分支需要的提交，适合只需要工作区的场景（如编译生成的测试）
+     * @param repositoryId 仓库ID，用于定位镜像
+     * @param repositoryUrl 仓库URL
+     * @param username 用户名
+     * @param password 密码
+     * @param branch 分支名
+     * @param options 克隆选项
+     * @return 本地仓库目录
+     */
+    File cloneRepository(Long repositoryId, String repositoryUrl, String username, String password, String branch,
+                         CloneOptions options) throws GitAPIException, IOException;
+
+    /**
+     * 创建与仓库本地镜像共享对象库的可写工作区
+     * 镜像增量fetch后，工作区通过objects/info/alternates引用镜像的对象，只检出文件而不复制历史，新提交写入工作区自己的对象库；
+     * 工作区的origin指向远程仓库。工作区清理前镜像不会被淘汰，使用完后必须通过TempWorkspaceManager清理
+     * @param repositoryId 仓库ID，用于定位镜像
+     * @param repositoryUrl 仓库URL
+     * @param username 用户名
+     * @param password 密码
+     * @param branch 检出的分支，为null时检出远程默认分支
+     * @param workspaceName 工作区名称（临时工作目录下的目录名），已存在的同名工作区会被清理
+     * @return 工作区目录
+     */
+    File createWorkspace(Long repositoryId, String repositoryUrl, String username, String password, String branch,
+                         String workspaceName) throws GitAPIException, IOException;
+
     /**
      * 获取分支列表
      * @param repositoryDir 仓库目录
@@ -41,6 +85,35 @@ public interface GitOperationPort {
     List<String> getRemoteBranches(String repositoryUrl, String username, String password)
             throws GitAPIException, IOException;
 
+    /**
+     * 获取已注册仓库的远程分支及其提交SHA，使用远程分支缓存
+     * 缓存过期后先返回旧结果并在后台刷新；没有缓存时若本地镜像存在则先返回镜像中的分支
+     * @param repositoryId 仓库ID
+     * @param repositoryUrl 仓库URL
+     * @param username 用户名
+     * @param password 密码
+     * @return 分支快照
+     */
+    RemoteRefs getRemoteRefs(Long repositoryId, String repositoryUrl, String username, String password)
+            throws GitAPIException, IOException;
+
+    /**
+     * 获取已注册仓库远程的最新分支：缓存中没有未过期的远程查询结果时同步执行ls-remote
+     * @param repositoryId 仓库ID
+     * @param repositoryUrl 仓库URL
+     * @param username 用户名
+     * @param password 密码
+     * @return 来源为远程的分支快照
+     */
+    RemoteRefs getFreshRemoteRefs(Long repositoryId, String repositoryUrl, String username, String password)
+            throws GitAPIException, IOException;
+
+    /**
+     * 使仓库的远程分支缓存失效
+     * @param repositoryId 仓库ID
+     */
+    void invalidateRemoteRefs(Long repositoryId);
+
     /**
      * 获取分支间差异
      * @param repositoryDir 仓库目录
@@ -59,6 +132,48 @@ public interface GitOperationPort {
      */
     String getDiffContent(File repositoryDir, DiffEntry diffEntry) throws IOException;
 
+    /**
+     * 从仓库镜像的对象库打开两个分支之间的差异，不检出工作区
+     * @param repositoryId 仓库ID，用于定位镜像
+     * @param repositoryUrl 仓库URL
+     * @param username 用户名
+     * @param password 密码
+     * @param baseBranch 基础分支，不存在时使用HEAD
+     * @param targetBranch 目标分支
+     * @return 差异会话，使用完后必须关闭
+     */
+    RevisionDiff openRevisionDiff(Long repositoryId, String repositoryUrl, String username, String password,
+                                  String baseBranch, String targetBranch) throws GitAPIException, IOException;
+
+    /**
+     * 按差异选项从仓库镜像的对象库打开两个分支之间的差异
+     * 路径过滤在扫描树时生效，被排除的路径不会出现在差异条目中
+     * @param repositoryId 仓库ID，用于定位镜像
+     * @param repositoryUrl 仓库URL
+     * @param username 用户名
+     * @param password 密码
+     * @param baseBranch 基础分支，不存在时使用HEAD
+     * @param targetBranch 目标分支
+     * @param options 差异选项
+     * @return 差异会话，使用完后必须关闭
+     */
+    RevisionDiff openRevisionDiff(Long repositoryId, String repositoryUrl, String username, String password,
+                                  String baseBranch, String targetBranch, DiffOptions options)
+            throws GitAPIException, IOException;
+
+    /**
+     * 从仓库镜像的对象库读取指定提交中的文件，不检出工作区
+     * @param repositoryId 仓库ID，用于定位镜像
+     * @param repositoryUrl 仓库URL
+     * @param username 用户名
+     * @param password 密码
+     * @param commitId 提交SHA
+     * @param paths 仓库内相对路径
+     * @return 路径到文件内容，不存在的文件不包含在内
+     */
+    Map<String, String> readFilesAtCommit(Long repositoryId, String repositoryUrl, String username, String password,
+                                          String commitId, Collection<String> paths) throws GitAPIException, IOException;
+
     /**
      * 查找指定类的源码文件
      * @param repositoryDir 仓库目录
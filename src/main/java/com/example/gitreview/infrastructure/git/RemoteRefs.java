@@ -0,0 +1,93 @@
+package com.example.gitreview.infrastructure.git;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Ref;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 远程仓库的分支快照
+ * 分支名到提交SHA的映射，以及取得时间和来源：直接查询远程（ls-remote或镜像fetch时远程公布的引用），
+ * 或读取本地镜像中的引用（只反映镜像最近一次fetch时的状态）。
+ */
+public final class RemoteRefs {
+
+    /**
+     * 快照来源
+     */
+    public enum Source {
+        /** 直接来自远程仓库 */
+        REMOTE,
+        /** 来自本地镜像，可能落后于远程 */
+        MIRROR
+    }
+
+    private final Map<String, String> branches;
+    private final Source source;
+    private final long fetchedAt;
+
+    public RemoteRefs(Map<String, String> branches, Source source, long fetchedAt) {
+        this.branches = Collections.unmodifiableMap(new TreeMap<>(branches));
+        this.source = source;
+        this.fetchedAt = fetchedAt;
+    }
+
+    /**
+     * 从引用列表中提取分支（refs/heads/*），忽略标签和其他引用
+     * @param refs 引用列表
+     * @param source 来源
+     */
+    public static RemoteRefs fromRefs(Collection<Ref> refs, Source source) {
+        Map<String, String> branches = new TreeMap<>();
+        for (Ref ref : refs) {
+            String name = ref.getName();
+            if (!name.startsWith(Constants.R_HEADS) || ref.isSymbolic() || ref.getObjectId() == null) {
+                continue;
+            }
+            String branch = name.substring(Constants.R_HEADS.length());
+            if (!branch.isEmpty()) {
+                branches.put(branch, ref.getObjectId().getName());
+            }
+        }
+        return new RemoteRefs(branches, source, System.currentTimeMillis());
+    }
+
+    /**
+     * @return 分支名到提交SHA的映射，按分支名排序
+     */
+    public Map<String, String> getBranches() {
+        return branches;
+    }
+
+    /**
+     * @return 排序后的分支名
+     */
+    public List<String> getBranchNames() {
+        return new ArrayList<>(branches.keySet());
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * @return 取得快照的时间（毫秒时间戳）
+     */
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "RemoteRefs{" +
+                "branches=" + branches.size() +
+                ", source=" + source +
+                ", fetchedAt=" + fetchedAt +
+                '}';
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.gitreview.infrastructure.git;
+
+import org.eclipse.jgit.diff.DiffEntry;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 两个提交之间的差异会话
+ * 直接从对象库读取树和blob，不检出工作区；会话持有仓库镜像，使用完后必须关闭
+ */
+public interface RevisionDiff extends AutoCloseable {
+
+    /**
+     * @return 基础提交SHA
+     */
+    String getBaseCommitId();
+
+    /**
+     * @return 目标提交SHA
+     */
+    String getTargetCommitId();
+
+    /**
+     * 差异条目列表，首次调用时才扫描两个提交的树；只需要提交SHA时（如查询缓存）不会产生扫描开销
+     * @return 差异条目列表，两个提交相同时为空
+     */
+    List<DiffEntry> getEntries() throws IOException;
+
+    /**
+     * 格式化单个差异条目为unified diff
+     * @param diffEntry 差异条目
+     * @return 差异内容字符串
+     */
+    String formatDiff(DiffEntry diffEntry) throws IOException;
+
+    /**
+     * 格式化单个差异条目并按编辑列表统计增删行数
+     * 每次调用使用独立的ObjectReader，可以在多个线程中并行调用；会话关闭前必须全部完成
+     * @param diffEntry 差异条目
+     * @return 文件差异
+     */
+    FileDiff formatFile(DiffEntry diffEntry) throws IOException;
+
+    /**
+     * 读取目标提交中的文件内容
+     * @param path 仓库内相对路径
+     * @return 文件内容，文件不存在时为null
+     */
+    String readTargetFile(String path) throws IOException;
+
+    @Override
+    void close();
+}
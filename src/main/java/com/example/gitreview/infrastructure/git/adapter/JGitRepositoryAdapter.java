@@ -1,19 +1,38 @@
 package com.example.gitreview.infrastructure.git.adapter;
 
+import com.example.gitreview.infrastructure.git.CloneOptions;
+import com.example.gitreview.infrastructure.git.DiffOptions;
 import com.example.gitreview.infrastructure.git.GitOperationPort;
+import com.example.gitreview.infrastructure.git.RemoteRefs;
+import com.example.gitreview.infrastructure.git.RevisionDiff;
+import com.example.gitreview.infrastructure.git.mirror.GitMirrorCache;
+import com.example.gitreview.infrastructure.git.mirror.RemoteRefCache;
+import com.example.gitreview.infrastructure.workspace.TempWorkspaceManager;
+import org.eclipse.jgit.api.CloneCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.ListBranchCommand;
+import org.eclipse.jgit.api.ResetCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.lib.BatchRefUpdate;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.transport.ReceiveCommand;
+import org.eclipse.jgit.transport.CredentialsProvider;
 import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.ByteArrayOutputStream;
@@ -24,7 +43,10 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * JGit仓库操作适配器
@@ -35,24 +57,174 @@ public class JGitRepositoryAdapter implements GitOperationPort {
 
     private static final Logger logger = LoggerFactory.getLogger(JGitRepositoryAdapter.class);
 
+    @Autowired
+    private GitMirrorCache mirrorCache;
+
+    @Autowired
+    private RemoteRefCache remoteRefCache;
+
+    @Autowired
+    private TempWorkspaceManager tempWorkspaceManager;
+
     @Override
     public File cloneRepository(String repositoryUrl, String username, String password, String branch)
             throws GitAPIException, IOException {
-        Path tempDir = Files.createTempDirectory("git-review-");
-        File localDir = tempDir.toFile();
-
         UsernamePasswordCredentialsProvider credentials = new UsernamePasswordCredentialsProvider(
             username, password);
 
         logger.info("Cloning repository {} with branch: {}", repositoryUrl, branch);
+        return cloneWorkingCopy(repositoryUrl, credentials, branch);
+    }
+
+    @Override
+    public File cloneRepository(Long repositoryId, String repositoryUrl, String username, String password,
+                                String branch) throws GitAPIException, IOException {
+        return cloneRepository(repositoryId, repositoryUrl, username, password, branch, CloneOptions.full());
+    }
+
+    @Override
+    public File cloneRepository(Long repositoryId, String repositoryUrl, String username, String password,
+                                String branch, CloneOptions options) throws GitAPIException, IOException {
+        return mirrorCache.withMirror(repositoryId, repositoryUrl, username, password, mirror -> {
+            CloneOptions effective = options;
+            if (options.isShallow() && options.getMergeBaseBranch() != null) {
+                effective = options.withDepth(depthToMergeBase(mirror, branch, options.getMergeBaseBranch(),
+                    options.getDepth()));
+            }
+            logger.info("Cloning repository {} from local mirror with branch: {}, {}", repositoryUrl, branch, effective);
+            File localDir = cloneWorkingCopy(mirror.toURI().toString(), null, branch, effective);
+
+            // 工作副本的origin指回远程仓库，推送不经过镜像
+            try (Git git = Git.open(localDir)) {
+                StoredConfig config = git.getRepository().getConfig();
+                config.setString("remote", "origin", "url", repositoryUrl);
+                config.save();
+            }
+            return localDir;
+        });
+    }
+
+    @Override
+    public File createWorkspace(Long repositoryId, String repositoryUrl, String username, String password,
+                                String branch, String workspaceName) throws GitAPIException, IOException {
+        long start = System.currentTimeMillis();
+        GitMirrorCache.MirrorLease lease = mirrorCache.acquire(repositoryId, repositoryUrl, username, password, true);
+        File workspace = tempWorkspaceManager.getWorkspaceFile(workspaceName);
+        try {
+            // 清理异常退出时遗留的同名工作区
+            tempWorkspaceManager.cleanupWorkspace(workspace);
+            workspace = tempWorkspaceManager.createWorkspace(workspaceName);
+            String checkedOut = initSharedWorkspace(lease, workspace, repositoryUrl, branch);
+            tempWorkspaceManager.attachResource(workspace, lease);
+            logger.info("Created workspace {} of repository {} on branch {} from mirror objects in {} ms",
+                workspace, repositoryId, checkedOut, System.currentTimeMillis() - start);
+            return workspace;
+        } catch (GitAPIException | IOException | RuntimeException e) {
+            try {
+                tempWorkspaceManager.cleanupWorkspace(workspace);
+            } catch (IOException cleanupError) {
+                logger.warn("Failed to clean up workspace {}: {}", workspace, cleanupError.getMessage());
+            }
+            lease.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 初始化引用镜像对象库的工作区：在镜像中以工作区名固定检出的提交，写入alternates，
+     * 把镜像的分支复制为origin的远程跟踪分支，创建本地分支并检出
+     * 固定引用随租约释放，期间远程删除分支后镜像fetch和gc不会清理工作区依赖的对象
+     * @return 检出的分支
+     */
+    private String initSharedWorkspace(GitMirrorCache.MirrorLease lease, File workspace, String repositoryUrl,
+                                       String branch) throws GitAPIException, IOException {
+        File mirror = lease.getMirror();
+        Map<String, ObjectId> branches = new LinkedHashMap<>();
+        String target = branch;
+        try (Repository mirrorRepository = new FileRepositoryBuilder().setGitDir(mirror).setMustExist(true).build()) {
+            for (Ref ref : mirrorRepository.getRefDatabase().getRefsByPrefix(Constants.R_HEADS)) {
+                if (!ref.isSymbolic() && ref.getObjectId() != null) {
+                    branches.put(ref.getName().substring(Constants.R_HEADS.length()), ref.getObjectId());
+                }
+            }
+            if (target == null) {
+                Ref head = mirrorRepository.exactRef(Constants.HEAD);
+                if (head == null || !head.isSymbolic()) {
+                    throw new IOException("Mirror has no default branch: " + mirror);
+                }
+                target = Repository.shortenRefName(head.getTarget().getName());
+            }
+        }
+        ObjectId commit = branches.get(target);
+        if (commit == null) {
+            throw new IOException("Branch '" + target + "' not found. Available branches: " + branches.keySet());
+        }
+        lease.pin(workspace.getName(), commit);
+
+        try (Git git = Git.init().setDirectory(workspace).setInitialBranch(target).call()) {
+            Path alternates = git.getRepository().getDirectory().toPath().resolve("objects/info/alternates");
+            Files.createDirectories(alternates.getParent());
+            Files.writeString(alternates, new File(mirror, "objects").getAbsolutePath() + "\n", StandardCharsets.UTF_8);
+        }
+
+        // 重新打开，使对象库加载alternates
+        try (Git git = Git.open(workspace)) {
+            Repository repository = git.getRepository();
+            StoredConfig config = repository.getConfig();
+            config.setString("remote", "origin", "url", repositoryUrl);
+            config.setString("remote", "origin", "fetch", "+refs/heads/*:refs/remotes/origin/*");
+            config.setString("branch", target, "remote", "origin");
+            config.setString("branch", target, "merge", Constants.R_HEADS + target);
+            config.save();
+
+            BatchRefUpdate update = repository.getRefDatabase().newBatchUpdate();
+            branches.forEach((name, id) -> update.addCommand(
+                new ReceiveCommand(ObjectId.zeroId(), id, Constants.R_REMOTES + "origin/" + name)));
+            update.addCommand(new ReceiveCommand(ObjectId.zeroId(), commit, Constants.R_HEADS + target));
+            try (RevWalk walk = new RevWalk(repository)) {
+                update.execute(walk, null);
+            }
+            for (ReceiveCommand command : update.getCommands()) {
+                if (command.getResult() != ReceiveCommand.Result.OK) {
+                    throw new IOException("Failed to create " + command.getRefName() + ": " + command.getResult());
+                }
+            }
+
+            git.reset().setMode(ResetCommand.ResetType.HARD).setRef(Constants.R_HEADS + target).call();
+        }
+        return target;
+    }
+
+    private File cloneWorkingCopy(String uri, CredentialsProvider credentials, String branch)
+            throws GitAPIException, IOException {
+        return cloneWorkingCopy(uri, credentials, branch, CloneOptions.full());
+    }
+
+    private File cloneWorkingCopy(String uri, CredentialsProvider credentials, String branch, CloneOptions options)
+            throws GitAPIException, IOException {
+        Path tempDir = Files.createTempDirectory("git-review-");
+        File localDir = tempDir.toFile();
 
-        try (Git git = Git.cloneRepository()
-            .setURI(repositoryUrl)
+        CloneCommand clone = Git.cloneRepository()
+            .setURI(uri)
             .setDirectory(localDir)
             .setBranch(branch)
-            .setCloneAllBranches(true)
-            .setCredentialsProvider(credentials)
-            .call()) {
+            .setCredentialsProvider(credentials);
+        if (options.isSingleBranch()) {
+            List<String> branches = new ArrayList<>();
+            branches.add(Constants.R_HEADS + branch);
+            if (options.getMergeBaseBranch() != null) {
+                branches.add(Constants.R_HEADS + options.getMergeBaseBranch());
+            }
+            clone.setCloneAllBranches(false).setBranchesToClone(branches);
+        } else {
+            clone.setCloneAllBranches(true);
+        }
+        if (options.isShallow()) {
+            clone.setDepth(options.getDepth());
+        }
+
+        try (Git git = clone.call()) {
 
             // 打印可用分支用于调试
             logger.debug("Available branches after clone:");
@@ -68,11 +240,49 @@ public class JGitRepositoryAdapter implements GitOperationPort {
                     logger.warn("Could not checkout branch {}: {}", branch, e.getMessage());
                 }
             }
+
         }
 
         return localDir;
     }
 
+    /**
+     * 在完整镜像中计算包含两个分支合并基点所需的克隆深度
+     * 深度取两个分支各自独有的提交数加一，不小于minDepth；没有合并基点时返回0（完整历史）
+     */
+    private int depthToMergeBase(File mirror, String branch, String otherBranch, int minDepth) throws IOException {
+        try (Repository repository = new FileRepositoryBuilder().setGitDir(mirror).setMustExist(true).build();
+             RevWalk walk = new RevWalk(repository)) {
+            RevCommit first = resolveBranchCommit(repository, walk, branch);
+            RevCommit second = resolveBranchCommit(repository, walk, otherBranch);
+            walk.setRevFilter(RevFilter.MERGE_BASE);
+            walk.markStart(first);
+            walk.markStart(second);
+            RevCommit mergeBase = walk.next();
+            if (mergeBase == null) {
+                logger.info("Branches {} and {} have no merge base, cloning full history", branch, otherBranch);
+                return 0;
+            }
+
+            int depth = Math.max(countCommitsSince(walk, first, mergeBase), countCommitsSince(walk, second, mergeBase)) + 1;
+            logger.debug("Merge base of {} and {} is {} at depth {}", branch, otherBranch,
+                mergeBase.getId().abbreviate(8).name(), depth);
+            return Math.max(minDepth, depth);
+        }
+    }
+
+    private int countCommitsSince(RevWalk walk, RevCommit tip, RevCommit base) throws IOException {
+        walk.reset();
+        walk.setRevFilter(RevFilter.ALL);
+        walk.markStart(tip);
+        walk.markUninteresting(base);
+        int count = 0;
+        while (walk.next() != null) {
+            count++;
+        }
+        return count;
+    }
+
     @Override
     public List<String> getBranches(File repositoryDir) throws GitAPIException, IOException {
         try (Git git = Git.open(repositoryDir)) {
@@ -87,37 +297,26 @@ public class JGitRepositoryAdapter implements GitOperationPort {
     @Override
     public List<String> getRemoteBranches(String repositoryUrl, String username, String password)
             throws GitAPIException, IOException {
-        UsernamePasswordCredentialsProvider credentials = new UsernamePasswordCredentialsProvider(
-            username, password);
-
-        logger.info("Fetching remote branches from: {}", repositoryUrl);
-
-        // 使用ls-remote获取分支，避免完整克隆
-        try {
-            java.util.Collection<org.eclipse.jgit.lib.Ref> refs = Git.lsRemoteRepository()
-                .setHeads(true)
-                .setTags(false)
-                .setRemote(repositoryUrl)
-                .setCredentialsProvider(credentials)
-                .setTimeout(30) // 设置30秒超时
-                .call();
+        return listRemoteRefs(repositoryUrl, username, password).getBranchNames();
+    }
 
-            List<String> branches = refs.stream()
-                .map(ref -> ref.getName())
-                .map(name -> name.replace("refs/heads/", ""))
-                .filter(branch -> !branch.isEmpty())
-                .sorted()
-                .collect(java.util.stream.Collectors.toList());
+    @Override
+    public RemoteRefs getRemoteRefs(Long repositoryId, String repositoryUrl, String username, String password)
+            throws GitAPIException, IOException {
+        return remoteRefCache.get(repositoryId,
+            () -> listRemoteRefs(repositoryUrl, username, password),
+            () -> readMirrorRefs(repositoryId));
+    }
 
-            logger.info("Successfully fetched {} remote branches", branches.size());
-            logger.debug("Remote branches: {}", branches);
-            return branches;
+    @Override
+    public RemoteRefs getFreshRemoteRefs(Long repositoryId, String repositoryUrl, String username, String password)
+            throws GitAPIException, IOException {
+        return remoteRefCache.getFresh(repositoryId, () -> listRemoteRefs(repositoryUrl, username, password));
+    }
 
-        } catch (Exception e) {
-            logger.error("Failed to fetch remote branches using ls-remote: {}", e.getMessage());
-            // 回退到克隆方式
-            return getRemoteBranchesByClone(repositoryUrl, username, password);
-        }
+    @Override
+    public void invalidateRemoteRefs(Long repositoryId) {
+        remoteRefCache.invalidate(repositoryId);
     }
 
     @Override
@@ -188,70 +387,159 @@ public class JGitRepositoryAdapter implements GitOperationPort {
         }
     }
 
-    // 私有辅助方法
-    private List<String> getRemoteBranchesByClone(String repositoryUrl, String username, String password)
+    @Override
+    public RevisionDiff openRevisionDiff(Long repositoryId, String repositoryUrl, String username, String password,
+                                         String baseBranch, String targetBranch) throws GitAPIException, IOException {
+        return openRevisionDiff(repositoryId, repositoryUrl, username, password, baseBranch, targetBranch,
+            DiffOptions.defaults());
+    }
+
+    @Override
+    public RevisionDiff openRevisionDiff(Long repositoryId, String repositoryUrl, String username, String password,
+                                         String baseBranch, String targetBranch, DiffOptions options)
             throws GitAPIException, IOException {
-        Path tempDir = Files.createTempDirectory("git-remote-");
-        File localDir = tempDir.toFile();
+        GitMirrorCache.MirrorLease lease = mirrorCache.acquire(repositoryId, repositoryUrl, username, password, true);
+        Repository repository = null;
+        ObjectReader reader = null;
+        try {
+            repository = new FileRepositoryBuilder().setGitDir(lease.getMirror()).setMustExist(true).build();
+            reader = repository.newObjectReader();
+            logger.info("Getting diff between branches from object database: {} -> {}", baseBranch, targetBranch);
 
-        UsernamePasswordCredentialsProvider credentials = new UsernamePasswordCredentialsProvider(
-            username, password);
+            RevCommit baseCommit;
+            RevCommit targetCommit;
+            try (RevWalk walk = new RevWalk(reader)) {
+                try {
+                    baseCommit = resolveBranchCommit(repository, walk, baseBranch);
+                } catch (IOException e) {
+                    logger.warn("Base branch '{}' not found: {}", baseBranch, e.getMessage());
+                    baseCommit = resolveBranchCommit(repository, walk, Constants.HEAD);
+                    logger.info("Using HEAD as base instead: {}", baseCommit.getId().getName());
+                }
+                try {
+                    targetCommit = resolveBranchCommit(repository, walk, targetBranch);
+                } catch (IOException e) {
+                    throw new IOException("Target branch '" + targetBranch + "' not found: " + e.getMessage());
+                }
+            }
 
-        try (Git git = Git.cloneRepository()
-            .setURI(repositoryUrl)
-            .setDirectory(localDir)
-            .setCloneAllBranches(true)
-            .setCredentialsProvider(credentials)
-            .call()) {
+            logger.info("Resolved {} -> {} to {}..{}", baseBranch, targetBranch,
+                baseCommit.getId().abbreviate(8).name(), targetCommit.getId().abbreviate(8).name());
+            return new JGitRevisionDiff(lease, repository, reader, baseCommit, targetCommit, options);
+        } catch (IOException | RuntimeException e) {
+            if (reader != null) {
+                reader.close();
+            }
+            if (repository != null) {
+                repository.close();
+            }
+            lease.close();
+            throw e;
+        }
+    }
 
-            List<String> branches = git.branchList()
-                .setListMode(ListBranchCommand.ListMode.ALL)
-                .call()
-                .stream()
-                .map(ref -> {
-                    String name = ref.getName();
-                    if (name.startsWith("refs/remotes/origin/")) {
-                        return name.replace("refs/remotes/origin/", "");
-                    } else if (name.startsWith("refs/heads/")) {
-                        return name.replace("refs/heads/", "");
+    @Override
+    public Map<String, String> readFilesAtCommit(Long repositoryId, String repositoryUrl, String username,
+                                                 String password, String commitId, Collection<String> paths)
+            throws GitAPIException, IOException {
+        ObjectId commit = ObjectId.fromString(commitId);
+        try (GitMirrorCache.MirrorLease lease = mirrorCache.acquire(repositoryId, repositoryUrl, username, password, false);
+             Git git = Git.open(lease.getMirror())) {
+            Repository repository = git.getRepository();
+            if (!repository.getObjectDatabase().has(commit)) {
+                // 镜像是在该提交产生之前取得的
+                mirrorCache.refresh(repositoryId, repositoryUrl, username, password);
+            }
+
+            Map<String, String> contents = new LinkedHashMap<>();
+            try (ObjectReader reader = repository.newObjectReader();
+                 RevWalk walk = new RevWalk(reader)) {
+                RevCommit revCommit = walk.parseCommit(commit);
+                for (String path : paths) {
+                    String content = JGitRevisionDiff.readFile(reader, revCommit, path);
+                    if (content != null) {
+                        contents.put(path, content);
                     }
-                    return name;
-                })
-                .filter(branch -> !branch.equals("HEAD") && !branch.isEmpty())
-                .distinct()
-                .sorted()
-                .collect(java.util.stream.Collectors.toList());
+                }
+            }
+            logger.debug("Read {} of {} files at commit {}", contents.size(), paths.size(), commitId);
+            return contents;
+        }
+    }
+
+    // 私有辅助方法
+
+    /**
+     * 使用ls-remote获取远程分支，不下载任何对象
+     */
+    private RemoteRefs listRemoteRefs(String repositoryUrl, String username, String password)
+            throws GitAPIException {
+        UsernamePasswordCredentialsProvider credentials = new UsernamePasswordCredentialsProvider(
+            username != null ? username : "", password != null ? password : "");
 
-            logger.info("Found branches by clone: {}", branches);
-            return branches;
+        logger.info("Fetching remote branches from: {}", repositoryUrl);
+        long started = System.currentTimeMillis();
+        Collection<org.eclipse.jgit.lib.Ref> refs = Git.lsRemoteRepository()
+            .setHeads(true)
+            .setTags(false)
+            .setRemote(repositoryUrl)
+            .setCredentialsProvider(credentials)
+            .setTimeout(30) // 设置30秒超时
+            .call();
+
+        RemoteRefs remoteRefs = RemoteRefs.fromRefs(refs, RemoteRefs.Source.REMOTE);
+        logger.info("Successfully fetched {} remote branches in {} ms", remoteRefs.getBranches().size(),
+            System.currentTimeMillis() - started);
+        logger.debug("Remote branches: {}", remoteRefs.getBranchNames());
+        return remoteRefs;
+    }
 
-        } finally {
-            deleteTempDirectory(localDir);
+    /**
+     * 读取本地镜像中的分支
+     * @return 分支快照，镜像不存在时为null
+     */
+    private RemoteRefs readMirrorRefs(Long repositoryId) throws IOException {
+        try (GitMirrorCache.MirrorLease lease = mirrorCache.acquireExisting(repositoryId)) {
+            if (lease == null) {
+                return null;
+            }
+            try (Repository repository = new FileRepositoryBuilder().setGitDir(lease.getMirror())
+                    .setMustExist(true).build()) {
+                RemoteRefs remoteRefs = RemoteRefs.fromRefs(
+                    repository.getRefDatabase().getRefsByPrefix(Constants.R_HEADS), RemoteRefs.Source.MIRROR);
+                logger.debug("Read {} branches from mirror of repository {}", remoteRefs.getBranches().size(),
+                    repositoryId);
+                return remoteRefs;
+            }
         }
     }
 
     private RevCommit getBranchCommit(Repository repository, String branchName) throws IOException {
         try (RevWalk walk = new RevWalk(repository)) {
-            // 尝试不同的分支引用模式
-            String[] refPatterns = {
-                "refs/heads/" + branchName,
-                "refs/remotes/origin/" + branchName,
-                branchName,
-                "origin/" + branchName
-            };
-
-            for (String refPattern : refPatterns) {
-                org.eclipse.jgit.lib.ObjectId objectId = repository.resolve(refPattern);
-                if (objectId != null) {
-                    logger.debug("Found branch reference: {} -> {}", refPattern, objectId.getName());
-                    return walk.parseCommit(objectId);
-                }
-            }
+            return resolveBranchCommit(repository, walk, branchName);
+        }
+    }
 
-            // 如果没有找到引用，抛出描述性异常
-            throw new IOException("Branch '" + branchName + "' not found. Available references: " +
-                getAllRefs(repository));
+    private RevCommit resolveBranchCommit(Repository repository, RevWalk walk, String branchName) throws IOException {
+        // 尝试不同的分支引用模式
+        String[] refPatterns = {
+            "refs/heads/" + branchName,
+            "refs/remotes/origin/" + branchName,
+            branchName,
+            "origin/" + branchName
+        };
+
+        for (String refPattern : refPatterns) {
+            org.eclipse.jgit.lib.ObjectId objectId = repository.resolve(refPattern);
+            if (objectId != null) {
+                logger.debug("Found branch reference: {} -> {}", refPattern, objectId.getName());
+                return walk.parseCommit(objectId);
+            }
         }
+
+        // 如果没有找到引用，抛出描述性异常
+        throw new IOException("Branch '" + branchName + "' not found. Available references: " +
+            getAllRefs(repository));
     }
 
     private String getAllRefs(Repository repository) {
@@ -267,24 +555,6 @@ public class JGitRepositoryAdapter implements GitOperationPort {
         }
     }
 
-    private void deleteTempDirectory(File directory) {
-        if (directory != null && directory.exists()) {
-            deleteRecursively(directory);
-        }
-    }
-
-    private void deleteRecursively(File file) {
-        if (file.isDirectory()) {
-            File[] files = file.listFiles();
-            if (files != null) {
-                for (File child : files) {
-                    deleteRecursively(child);
-                }
-            }
-        }
-        file.delete();
-    }
-
     // 以下方法将在后续的适配器中实现，这里提供基本实现
     @Override
     public List<File> findClassFiles(File repositoryDir, String className) throws IOException {
@@ -511,4 +781,17 @@ public class JGitRepositoryAdapter implements GitOperationPort {
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    // 用于测试的setter
+    public void setMirrorCache(GitMirrorCache mirrorCache) {
+        this.mirrorCache = mirrorCache;
+    }
+
+    public void setRemoteRefCache(RemoteRefCache remoteRefCache) {
+        this.remoteRefCache = remoteRefCache;
+    }
+
+    public void setTempWorkspaceManager(TempWorkspaceManager tempWorkspaceManager) {
+        this.tempWorkspaceManager = tempWorkspaceManager;
+    }
+}
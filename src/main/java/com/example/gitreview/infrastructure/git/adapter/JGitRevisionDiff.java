@@ -0,0 +1,196 @@
+package com.example.gitreview.infrastructure.git.adapter;
+
+import com.example.gitreview.infrastructure.git.DiffOptions;
+import com.example.gitreview.infrastructure.git.FileDiff;
+import com.example.gitreview.infrastructure.git.RevisionDiff;
+import com.example.gitreview.infrastructure.git.mirror.GitMirrorCache;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.lib.AbbreviatedObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.patch.FileHeader;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于JGit对象库的差异会话
+ * 打开时只解析两个提交，差异在首次获取条目时才扫描；差异扫描、格式化和文件读取共用同一个ObjectReader，只解压用到的树和blob；
+ * ObjectReader不是线程安全的，格式化和读取方法按会话串行执行；{@link #formatFile}使用独立的ObjectReader，可以并行调用。
+ * 路径过滤作用于树扫描，被排除的子树不会被读取；二进制文件和超过大小上限的文件只输出摘要。
+ */
+class JGitRevisionDiff implements RevisionDiff {
+
+    private static final Logger logger = LoggerFactory.getLogger(JGitRevisionDiff.class);
+
+    private final GitMirrorCache.MirrorLease lease;
+    private final Repository repository;
+    private final ObjectReader reader;
+    private final RevCommit baseCommit;
+    private final RevCommit targetCommit;
+    private final DiffOptions options;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final DiffFormatter formatter = new DiffFormatter(buffer);
+    private List<DiffEntry> entries;
+
+    /**
+     * @param lease 镜像租约，会话关闭时释放
+     * @param repository 镜像仓库，会话关闭时关闭
+     * @param reader 解析提交时使用的ObjectReader，会话关闭时关闭
+     * @param options 差异选项
+     */
+    JGitRevisionDiff(GitMirrorCache.MirrorLease lease, Repository repository, ObjectReader reader,
+                     RevCommit baseCommit, RevCommit targetCommit, DiffOptions options) {
+        this.lease = lease;
+        this.repository = repository;
+        this.reader = reader;
+        this.baseCommit = baseCommit;
+        this.targetCommit = targetCommit;
+        this.options = options;
+        formatter.setReader(reader, repository.getConfig());
+        formatter.setPathFilter(PathGlobTreeFilter.create(options.getIncludes(), options.getExcludes()));
+    }
+
+    @Override
+    public String getBaseCommitId() {
+        return baseCommit.getId().getName();
+    }
+
+    @Override
+    public String getTargetCommitId() {
+        return targetCommit.getId().getName();
+    }
+
+    @Override
+    public synchronized List<DiffEntry> getEntries() throws IOException {
+        if (entries == null) {
+            entries = baseCommit.getId().equals(targetCommit.getId())
+                    ? new ArrayList<>()
+                    : formatter.scan(baseCommit.getTree(), targetCommit.getTree());
+            logger.info("Generated {} diff entries between {} and {}", entries.size(),
+                    baseCommit.getId().abbreviate(8).name(), targetCommit.getId().abbreviate(8).name());
+        }
+        return entries;
+    }
+
+    @Override
+    public synchronized String formatDiff(DiffEntry diffEntry) throws IOException {
+        buffer.reset();
+        formatter.format(diffEntry);
+        formatter.flush();
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public FileDiff formatFile(DiffEntry diffEntry) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectReader fileReader = repository.newObjectReader();
+             DiffFormatter fileFormatter = new DiffFormatter(out)) {
+            fileFormatter.setReader(fileReader, repository.getConfig());
+
+            // 超过大小上限的文件不加载内容，只输出摘要
+            long oldSize = blobSize(fileReader, diffEntry.getOldId());
+            long newSize = blobSize(fileReader, diffEntry.getNewId());
+            if (Math.max(oldSize, newSize) > options.getMaxFileSize()) {
+                return FileDiff.skipped(diffEntry, summary(diffEntry, "文件过大", oldSize, newSize), "too large");
+            }
+
+            // 文件头只计算一次编辑列表，行数统计和格式化共用
+            FileHeader header = fileFormatter.toFileHeader(diffEntry);
+            if (header.getPatchType() != FileHeader.PatchType.UNIFIED) {
+                return FileDiff.skipped(diffEntry, summary(diffEntry, "二进制文件", oldSize, newSize), "binary");
+            }
+            int addedLines = 0;
+            int deletedLines = 0;
+            for (Edit edit : header.toEditList()) {
+                addedLines += edit.getLengthB();
+                deletedLines += edit.getLengthA();
+            }
+
+            if (isGitlink(diffEntry)) {
+                // 子模块的差异文本由DiffFormatter合成，不能从对象库读取
+                fileFormatter.format(diffEntry);
+            } else {
+                fileFormatter.format(header, readText(fileReader, diffEntry.getOldId()),
+                        readText(fileReader, diffEntry.getNewId()));
+            }
+            fileFormatter.flush();
+            return new FileDiff(diffEntry, out.toString(StandardCharsets.UTF_8), addedLines, deletedLines);
+        }
+    }
+
+    @Override
+    public synchronized String readTargetFile(String path) throws IOException {
+        return readFile(reader, targetCommit, path);
+    }
+
+    @Override
+    public synchronized void close() {
+        formatter.close();
+        reader.close();
+        repository.close();
+        lease.close();
+    }
+
+    /**
+     * 被跳过文件的摘要：diff头和一行说明，审查时可以看到文件有变更但不包含内容
+     */
+    private static String summary(DiffEntry diffEntry, String reason, long oldSize, long newSize) {
+        String oldPath = diffEntry.getChangeType() == DiffEntry.ChangeType.ADD ? diffEntry.getNewPath() : diffEntry.getOldPath();
+        String newPath = diffEntry.getChangeType() == DiffEntry.ChangeType.DELETE ? diffEntry.getOldPath() : diffEntry.getNewPath();
+        return "diff --git a/" + oldPath + " b/" + newPath + "\n"
+                + "[已跳过：" + reason + "，" + diffEntry.getChangeType() + "，" + oldSize + " -> " + newSize + " 字节]\n";
+    }
+
+    /**
+     * @return blob大小，不存在（新增或删除的一侧、子模块）时为0
+     */
+    private static long blobSize(ObjectReader reader, AbbreviatedObjectId id) throws IOException {
+        if (id == null || id.toObjectId().equals(ObjectId.zeroId())) {
+            return 0;
+        }
+        ObjectId objectId = id.toObjectId();
+        if (!reader.has(objectId, Constants.OBJ_BLOB)) {
+            return 0;
+        }
+        return reader.getObjectSize(objectId, Constants.OBJ_BLOB);
+    }
+
+    private static boolean isGitlink(DiffEntry diffEntry) {
+        return diffEntry.getOldMode() == FileMode.GITLINK || diffEntry.getNewMode() == FileMode.GITLINK;
+    }
+
+    private static RawText readText(ObjectReader reader, AbbreviatedObjectId id) throws IOException {
+        if (id == null || id.toObjectId().equals(ObjectId.zeroId())) {
+            return RawText.EMPTY_TEXT;
+        }
+        return new RawText(reader.open(id.toObjectId(), Constants.OBJ_BLOB).getCachedBytes());
+    }
+
+    /**
+     * 读取提交中的文件内容
+     * @return 文件内容，文件不存在时为null
+     */
+    static String readFile(ObjectReader reader, RevCommit commit, String path) throws IOException {
+        try (TreeWalk walk = TreeWalk.forPath(reader, path, commit.getTree())) {
+            if (walk == null) {
+                return null;
+            }
+            byte[] bytes = reader.open(walk.getObjectId(0), Constants.OBJ_BLOB).getBytes();
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
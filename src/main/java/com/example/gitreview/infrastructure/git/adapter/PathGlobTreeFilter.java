@@ -0,0 +1,132 @@
+package com.example.gitreview.infrastructure.git.adapter;
+
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 按glob模式过滤路径的树过滤器
+ * "*"匹配单级路径中的任意字符，"**"匹配任意多级目录，"?"匹配单个字符；不含"/"的模式匹配任意目录下的文件名。
+ * 以"/**"结尾的排除模式直接跳过整个子树，不读取其中的树对象。
+ */
+final class PathGlobTreeFilter extends TreeFilter {
+
+    private final List<Glob> includes = new ArrayList<>();
+    private final List<Glob> excludes = new ArrayList<>();
+    private final List<Glob> excludedDirectories = new ArrayList<>();
+
+    private PathGlobTreeFilter(List<String> includePatterns, List<String> excludePatterns) {
+        for (String pattern : includePatterns) {
+            includes.add(new Glob(pattern));
+        }
+        for (String pattern : excludePatterns) {
+            excludes.add(new Glob(pattern));
+            if (pattern.endsWith("/**")) {
+                excludedDirectories.add(new Glob(pattern.substring(0, pattern.length() - 3)));
+            }
+        }
+    }
+
+    /**
+     * 创建过滤器
+     * @return 没有任何模式时返回{@link TreeFilter#ALL}
+     */
+    static TreeFilter create(List<String> includePatterns, List<String> excludePatterns) {
+        if (includePatterns.isEmpty() && excludePatterns.isEmpty()) {
+            return TreeFilter.ALL;
+        }
+        return new PathGlobTreeFilter(includePatterns, excludePatterns);
+    }
+
+    @Override
+    public boolean include(TreeWalk walker) {
+        String path = walker.getPathString();
+        if (walker.isSubtree()) {
+            return !matchesAny(excludedDirectories, path);
+        }
+        if (matchesAny(excludes, path)) {
+            return false;
+        }
+        return includes.isEmpty() || matchesAny(includes, path);
+    }
+
+    @Override
+    public boolean shouldBeRecursive() {
+        return true;
+    }
+
+    @Override
+    public TreeFilter clone() {
+        // 不可变，可以共享
+        return this;
+    }
+
+    private static boolean matchesAny(List<Glob> globs, String path) {
+        for (Glob glob : globs) {
+            if (glob.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "PathGlobTreeFilter{includes=" + includes + ", excludes=" + excludes + '}';
+    }
+
+    /**
+     * 单个glob模式
+     */
+    private static final class Glob {
+        private final String pattern;
+        private final Pattern regex;
+        private final boolean nameOnly;
+
+        private Glob(String pattern) {
+            this.pattern = pattern;
+            this.regex = compile(pattern);
+            this.nameOnly = !pattern.contains("/");
+        }
+
+        private boolean matches(String path) {
+            String target = nameOnly ? path.substring(path.lastIndexOf('/') + 1) : path;
+            return regex.matcher(target).matches();
+        }
+
+        private static Pattern compile(String glob) {
+            StringBuilder regex = new StringBuilder();
+            int length = glob.length();
+            for (int i = 0; i < length; i++) {
+                char c = glob.charAt(i);
+                if (c == '*') {
+                    if (i + 1 < length && glob.charAt(i + 1) == '*') {
+                        i++;
+                        if (i + 1 < length && glob.charAt(i + 1) == '/') {
+                            // "**/"匹配零到多级目录
+                            i++;
+                            regex.append("(?:.*/)?");
+                        } else {
+                            regex.append(".*");
+                        }
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                } else if (c == '?') {
+                    regex.append("[^/]");
+                } else {
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+            return Pattern.compile(regex.toString());
+        }
+
+        @Override
+        public String toString() {
+            return pattern;
+        }
+    }
+}
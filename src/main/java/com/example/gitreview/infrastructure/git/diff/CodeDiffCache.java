@@ -0,0 +1,159 @@
+package com.example.gitreview.infrastructure.git.diff;
+
+import com.example.gitreview.domain.codereview.model.valueobject.CodeDiff;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 代码差异缓存
+ * 按(仓库ID, 基础提交SHA, 目标提交SHA, 差异选项)缓存差异结果。提交SHA不可变，相同键的差异永远相同，
+ * 因此不需要失效，只按估算的内存占用淘汰最久未使用的条目。
+ */
+@Component
+public class CodeDiffCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CodeDiffCache.class);
+
+    /** 每个条目和每个文件变更的固定开销估算（字节） */
+    private static final long ENTRY_OVERHEAD = 256;
+    private static final long FILE_CHANGE_OVERHEAD = 64;
+
+    @Value("${review.diff-cache.max-size-mb:64}")
+    private long maxSizeMb;
+
+    private final LinkedHashMap<Key, CachedDiff> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * 查找缓存的差异
+     * @return 缓存的差异，未命中时为null
+     */
+    public synchronized CodeDiff get(Long repositoryId, String baseCommitId, String targetCommitId, String options) {
+        CachedDiff cached = entries.get(new Key(repositoryId, baseCommitId, targetCommitId, options));
+        if (cached == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return cached.codeDiff;
+    }
+
+    /**
+     * 缓存差异，超过容量时淘汰最久未使用的条目；单个差异超过全部容量时不缓存
+     */
+    public synchronized void put(Long repositoryId, String baseCommitId, String targetCommitId, String options,
+                                 CodeDiff codeDiff) {
+        long weight = estimateWeight(codeDiff);
+        long budget = maxSizeMb * 1024 * 1024;
+        if (weight > budget) {
+            logger.debug("Diff {}..{} ({} bytes) exceeds cache budget, not cached", baseCommitId, targetCommitId, weight);
+            return;
+        }
+
+        CachedDiff previous = entries.put(new Key(repositoryId, baseCommitId, targetCommitId, options),
+                new CachedDiff(codeDiff, weight));
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        totalWeight += weight;
+
+        Iterator<Map.Entry<Key, CachedDiff>> iterator = entries.entrySet().iterator();
+        while (totalWeight > budget && iterator.hasNext()) {
+            Map.Entry<Key, CachedDiff> eldest = iterator.next();
+            totalWeight -= eldest.getValue().weight;
+            iterator.remove();
+            logger.debug("Evicted cached diff {}..{} of repository {}", eldest.getKey().baseCommitId,
+                    eldest.getKey().targetCommitId, eldest.getKey().repositoryId);
+        }
+    }
+
+    /**
+     * @return 缓存条目数
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return 所有条目估算占用的字节数
+     */
+    public synchronized long getTotalWeight() {
+        return totalWeight;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * 估算差异占用的内存：内容按UTF-16计算，文件变更按路径长度加固定开销
+     */
+    static long estimateWeight(CodeDiff codeDiff) {
+        long weight = ENTRY_OVERHEAD;
+        if (codeDiff.getDiffContent() != null) {
+            weight += 2L * codeDiff.getDiffContent().length();
+        }
+        for (CodeDiff.FileChange change : codeDiff.getFileChanges()) {
+            weight += FILE_CHANGE_OVERHEAD + 2L * change.getFilePath().length();
+        }
+        return weight;
+    }
+
+    // 用于测试的setter
+    public void setMaxSizeMb(long maxSizeMb) {
+        this.maxSizeMb = maxSizeMb;
+    }
+
+    private static final class Key {
+        private final Long repositoryId;
+        private final String baseCommitId;
+        private final String targetCommitId;
+        private final String options;
+
+        private Key(Long repositoryId, String baseCommitId, String targetCommitId, String options) {
+            this.repositoryId = repositoryId;
+            this.baseCommitId = Objects.requireNonNull(baseCommitId, "Base commit cannot be null");
+            this.targetCommitId = Objects.requireNonNull(targetCommitId, "Target commit cannot be null");
+            this.options = options;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(repositoryId, key.repositoryId) &&
+                    baseCommitId.equals(key.baseCommitId) &&
+                    targetCommitId.equals(key.targetCommitId) &&
+                    Objects.equals(options, key.options);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(repositoryId, baseCommitId, targetCommitId, options);
+        }
+    }
+
+    private static final class CachedDiff {
+        private final CodeDiff codeDiff;
+        private final long weight;
+
+        private CachedDiff(CodeDiff codeDiff, long weight) {
+            this.codeDiff = codeDiff;
+            this.weight = weight;
+        }
+    }
+}
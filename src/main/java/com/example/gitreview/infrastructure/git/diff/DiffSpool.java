@@ -0,0 +1,179 @@
+package com.example.gitreview.infrastructure.git.diff;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * 差异溢出目录
+ * 创建{@link SpooledDiff}并管理溢出到磁盘的差异文件。差异按引用（仓库、提交对和差异选项）命名，
+ * 提交SHA不可变，相同引用的内容相同，审查异步执行、提取上下文时可以按引用重新打开；
+ * 所有差异文件合计超过max-size-mb时删除最久未使用的文件。
+ */
+@Component
+public class DiffSpool {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiffSpool.class);
+
+    @Value("${review.diff.spool-dir:data/diff-spool}")
+    private String spoolDir;
+
+    @Value("${review.diff.inline-limit-kb:1024}")
+    private int inlineLimitKb;
+
+    @Value("${review.diff.spool-max-size-mb:2048}")
+    private long maxSizeMb;
+
+    /**
+     * 生成差异引用，差异选项取SHA-256，不同选项不会共用同一个差异文件
+     * @param repositoryId 仓库ID
+     * @param baseCommitId 基础提交SHA
+     * @param targetCommitId 目标提交SHA
+     * @param options 差异选项
+     */
+    public static String ref(Long repositoryId, String baseCommitId, String targetCommitId, String options) {
+        return "repo-" + repositoryId + "-" + baseCommitId + "-" + targetCommitId + "-"
+                + sha256(options == null ? "" : options);
+    }
+
+    /**
+     * 创建待写入的差异，超过内存上限后溢出到磁盘
+     * @param ref 差异引用，溢出后写入完成时按引用保留；为null时关闭即删除
+     */
+    public SpooledDiff create(String ref) {
+        boolean persistent = ref != null;
+        String name = persistent ? ref : "tmp-" + UUID.randomUUID();
+        return new SpooledDiff(contentFile(name), persistent, getInlineLimitBytes());
+    }
+
+    /**
+     * 按引用打开溢出到磁盘的差异
+     * @return 差异，不存在（未溢出或已淘汰）时为null
+     */
+    public SpooledDiff open(String ref) throws IOException {
+        Path contentFile = contentFile(ref);
+        try {
+            SpooledDiff diff = SpooledDiff.open(contentFile);
+            Files.setLastModifiedTime(contentFile, FileTime.fromMillis(System.currentTimeMillis()));
+            return diff;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return 引用对应的差异文件是否仍在磁盘上（未被淘汰）
+     */
+    public boolean exists(String ref) {
+        return Files.exists(contentFile(ref));
+    }
+
+    /**
+     * 写入完成后调用，删除超出磁盘预算的最久未使用差异
+     * @param keepRef 保留的差异引用，可为null
+     * @return 删除的差异数
+     */
+    public int evictOverBudget(String keepRef) {
+        Path root = Paths.get(spoolDir);
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        try {
+            List<Path> contents = new ArrayList<>();
+            long total = 0;
+            try (Stream<Path> children = Files.list(root)) {
+                for (Path child : (Iterable<Path>) children::iterator) {
+                    if (child.getFileName().toString().endsWith(SpooledDiff.CONTENT_SUFFIX)) {
+                        contents.add(child);
+                        total += Files.size(child);
+                    }
+                }
+            }
+            long budget = maxSizeMb * 1024 * 1024;
+            if (total <= budget) {
+                return 0;
+            }
+
+            contents.sort(Comparator.comparing(DiffSpool::lastModified));
+            Path keep = keepRef == null ? null : contentFile(keepRef);
+            int evicted = 0;
+            for (Path content : contents) {
+                if (total <= budget) {
+                    break;
+                }
+                if (content.equals(keep)) {
+                    continue;
+                }
+                long size = Files.size(content);
+                // 已打开的差异持有文件通道，删除后仍可读完
+                Files.deleteIfExists(SpooledDiff.indexFileOf(content));
+                Files.deleteIfExists(content);
+                total -= size;
+                evicted++;
+                logger.info("Evicted spooled diff {} ({} bytes)", content.getFileName(), size);
+            }
+            return evicted;
+        } catch (IOException e) {
+            logger.warn("Failed to evict spooled diffs in {}", spoolDir, e);
+            return 0;
+        }
+    }
+
+    /**
+     * @return 内存中保存和内联到审查记录的最大字节数
+     */
+    public int getInlineLimitBytes() {
+        return inlineLimitKb * 1024;
+    }
+
+    private static String sha256(String text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private Path contentFile(String name) {
+        return Paths.get(spoolDir).resolve(name + SpooledDiff.CONTENT_SUFFIX);
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    // 用于测试的setter
+    public void setSpoolDir(String spoolDir) {
+        this.spoolDir = spoolDir;
+    }
+
+    public void setInlineLimitKb(int inlineLimitKb) {
+        this.inlineLimitKb = inlineLimitKb;
+    }
+
+    public void setMaxSizeMb(long maxSizeMb) {
+        this.maxSizeMb = maxSizeMb;
+    }
+}
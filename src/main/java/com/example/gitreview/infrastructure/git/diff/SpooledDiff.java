@@ -0,0 +1,298 @@
+package com.example.gitreview.infrastructure.git.diff;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 溢出到磁盘的格式化差异
+ * 按文件追加差异内容，总大小不超过内存上限时只保存在内存中；超过后把已写入的内容转存到文件，之后直接追加到文件，
+ * 堆内存占用不随差异大小增长。读取按文件块或流式进行，不会一次性加载整个差异。
+ * 写入完成后可以通过{@link DiffSpool#open}按引用重新打开（仅溢出到磁盘的差异）。
+ */
+public class SpooledDiff implements Closeable {
+
+    static final String CONTENT_SUFFIX = ".diff";
+    static final String INDEX_SUFFIX = ".idx";
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final Path contentFile;
+    private final Path indexFile;
+    private final boolean persistent;
+    private final int memoryLimit;
+    private final Map<String, Chunk> chunks = new LinkedHashMap<>();
+
+    private Buffer memory = new Buffer();
+    private Path spillFile;
+    private OutputStream spillOut;
+    private FileChannel channel;
+    private long size;
+    private boolean finished;
+
+    /**
+     * 创建待写入的差异
+     * @param contentFile 溢出时的内容文件
+     * @param persistent 关闭后是否保留内容文件和索引
+     * @param memoryLimit 内存中最多保存的字节数
+     */
+    SpooledDiff(Path contentFile, boolean persistent, int memoryLimit) {
+        this.contentFile = contentFile;
+        this.indexFile = indexFileOf(contentFile);
+        this.persistent = persistent;
+        this.memoryLimit = memoryLimit;
+    }
+
+    /**
+     * 打开已写入磁盘的差异
+     */
+    static SpooledDiff open(Path contentFile) throws IOException {
+        SpooledDiff diff = new SpooledDiff(contentFile, true, 0);
+        for (String line : Files.readAllLines(diff.indexFile, StandardCharsets.UTF_8)) {
+            String[] parts = line.split("\t", 3);
+            Chunk chunk = new Chunk(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+            diff.chunks.put(parts[2], chunk);
+        }
+        diff.memory = null;
+        diff.channel = FileChannel.open(contentFile, StandardOpenOption.READ);
+        diff.size = diff.channel.size();
+        diff.finished = true;
+        return diff;
+    }
+
+    /**
+     * 追加一个文件的差异内容，内容后附加换行分隔
+     * @param path 文件路径，用于按文件读取
+     * @param content 格式化后的差异内容
+     */
+    public synchronized void append(String path, String content) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Spooled diff already finished");
+        }
+        byte[] bytes = (content + "\n").getBytes(StandardCharsets.UTF_8);
+        if (spillOut == null && size + bytes.length > memoryLimit) {
+            spill();
+        }
+        if (spillOut != null) {
+            spillOut.write(bytes);
+        } else {
+            memory.write(bytes);
+        }
+        chunks.put(path == null ? "" : path, new Chunk(size, bytes.length));
+        size += bytes.length;
+    }
+
+    /**
+     * 结束写入；溢出到磁盘的持久化差异在此时写入索引并原子替换到最终位置
+     */
+    public synchronized void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (spillOut == null) {
+            return;
+        }
+        spillOut.close();
+        spillOut = null;
+        if (persistent) {
+            // 同一引用可能被多个审查同时写入，索引和溢出文件一样使用独立的临时文件，内容相同，后完成的覆盖先完成的
+            Path indexTemp = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+            try {
+                List<String> lines = new ArrayList<>(chunks.size());
+                chunks.forEach((path, chunk) -> lines.add(chunk.offset + "\t" + chunk.length + "\t" + path));
+                Files.write(indexTemp, lines, StandardCharsets.UTF_8);
+                Files.move(indexTemp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(indexTemp);
+            }
+            Files.move(spillFile, contentFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            spillFile = contentFile;
+        }
+        channel = FileChannel.open(spillFile, StandardOpenOption.READ);
+    }
+
+    /**
+     * @return 差异内容的总字节数
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * @return 是否已溢出到磁盘
+     */
+    public synchronized boolean isSpilled() {
+        return memory == null;
+    }
+
+    /**
+     * @return 按写入顺序的文件路径
+     */
+    public synchronized List<String> getPaths() {
+        return Collections.unmodifiableList(new ArrayList<>(chunks.keySet()));
+    }
+
+    /**
+     * 读取单个文件的差异内容
+     * @return 差异内容，文件不在差异中时为null
+     */
+    public synchronized String readFile(String path) throws IOException {
+        Chunk chunk = chunks.get(path);
+        if (chunk == null) {
+            return null;
+        }
+        return new String(read(chunk.offset, chunk.length), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 读取全部内容，仅适用于未溢出的差异
+     */
+    public synchronized String readAll() {
+        if (isSpilled()) {
+            throw new IllegalStateException("Spooled diff is on disk, use openReader() or readPrefix()");
+        }
+        return memory.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 读取开头的内容，末尾不完整的多字节字符会被丢弃
+     * @param maxBytes 最多读取的字节数
+     */
+    public synchronized String readPrefix(int maxBytes) throws IOException {
+        int length = (int) Math.min(size, maxBytes);
+        String prefix = new String(read(0, length), StandardCharsets.UTF_8);
+        if (length < size && prefix.endsWith("\uFFFD")) {
+            prefix = prefix.substring(0, prefix.length() - 1);
+        }
+        return prefix;
+    }
+
+    /**
+     * 流式读取全部内容；读取期间不能关闭差异
+     */
+    public synchronized Reader openReader() throws IOException {
+        checkFinished();
+        if (!isSpilled()) {
+            return new InputStreamReader(new ByteArrayInputStream(memory.array(), 0, memory.size()),
+                    StandardCharsets.UTF_8);
+        }
+        // 按位置读取共享的文件通道，不依赖文件路径（文件被淘汰删除后仍可读完）
+        FileChannel readChannel = channel;
+        long total = size;
+        InputStream in = new InputStream() {
+            private long position;
+
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (position >= total) {
+                    return -1;
+                }
+                int n = readChannel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, total - position)), position);
+                if (n > 0) {
+                    position += n;
+                }
+                return n;
+            }
+        };
+        return new InputStreamReader(new BufferedInputStream(in, READ_BUFFER_SIZE), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 释放文件句柄；非持久化的差异同时删除溢出文件
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (spillOut != null) {
+                spillOut.close();
+                spillOut = null;
+            }
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            if (spillFile != null && (!persistent || !finished)) {
+                Files.deleteIfExists(spillFile);
+            }
+        }
+    }
+
+    private void spill() throws IOException {
+        Files.createDirectories(contentFile.getParent());
+        spillFile = Files.createTempFile(contentFile.getParent(), contentFile.getFileName().toString(), ".tmp");
+        spillOut = Files.newOutputStream(spillFile);
+        memory.writeTo(spillOut);
+        memory = null;
+    }
+
+    private byte[] read(long offset, int length) throws IOException {
+        checkFinished();
+        if (!isSpilled()) {
+            byte[] bytes = new byte[length];
+            System.arraycopy(memory.array(), (int) offset, bytes, 0, length);
+            return bytes;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of spooled diff " + spillFile);
+            }
+        }
+        return buffer.array();
+    }
+
+    private void checkFinished() {
+        if (!finished) {
+            throw new IllegalStateException("Spooled diff not finished");
+        }
+    }
+
+    static Path indexFileOf(Path contentFile) {
+        String name = contentFile.getFileName().toString();
+        return contentFile.resolveSibling(name.substring(0, name.length() - CONTENT_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    /**
+     * 可直接访问内部数组的缓冲区，避免读取时复制全部内容
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+        byte[] array() {
+            return buf;
+        }
+    }
+
+    private static final class Chunk {
+        private final long offset;
+        private final int length;
+
+        private Chunk(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,604 @@
+package com.example.gitreview.infrastructure.git.mirror;
+
+import com.example.gitreview.infrastructure.git.RemoteRefs;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.transport.FetchResult;
+import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Stream;
+
+/**
+ * 仓库镜像缓存
+ * 每个已注册仓库在mirror.dir下维护一个bare镜像（repo-&lt;仓库ID&gt;），首次使用时完整克隆，之后只做增量fetch；
+ * 同一仓库的并发刷新合并为一次fetch，后到的请求等待进行中的fetch并共享结果。
+ * 每次使用都会更新镜像目录的修改时间；只有fetch会增大镜像，因此每次刷新后记录该镜像的大小，
+ * 总大小超过max-size-mb时按最久未使用的顺序删除，正在被使用（刷新或从镜像克隆）的镜像不会被删除。fetch时远程公布的分支写入远程分支缓存。
+ */
+@Component
+public class GitMirrorCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(GitMirrorCache.class);
+
+    private static final String MIRROR_PREFIX = "repo-";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String REMOTE = "origin";
+    private static final List<String> MIRROR_REFSPECS = List.of("+refs/heads/*:refs/heads/*", "+refs/tags/*:refs/tags/*");
+    private static final String WORKSPACE_REFS = "refs/workspaces/";
+
+    @Value("${git.mirror.dir:data/git-mirrors}")
+    private String mirrorDir;
+
+    @Value("${git.mirror.max-size-mb:10240}")
+    private long maxSizeMb;
+
+    @Value("${git.mirror.fetch-timeout-seconds:300}")
+    private int fetchTimeoutSeconds;
+
+    @Autowired(required = false)
+    private RemoteRefCache remoteRefCache;
+
+    /**
+     * 进行中的刷新，按仓库ID合并
+     */
+    private final Map<Long, CompletableFuture<File>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 使用中的镜像持有读锁，淘汰时尝试获取写锁，获取不到则跳过
+     * 使用StampedLock是因为租约可能在另一个线程释放
+     */
+    private final Map<Long, StampedLock> usageLocks = new ConcurrentHashMap<>();
+
+    /**
+     * 各镜像的大小（字节），首次检查预算时扫描一次已有镜像，之后在每次刷新后更新
+     */
+    private final Map<Long, Long> mirrorSizes = new ConcurrentHashMap<>();
+    private volatile boolean sizesLoaded;
+
+    /**
+     * 各镜像中由租约持有的固定引用，刷新时删除不在其中的遗留引用
+     */
+    private final Map<Long, Set<String>> pins = new ConcurrentHashMap<>();
+
+    /**
+     * 使用镜像时的回调
+     */
+    @FunctionalInterface
+    public interface MirrorAction<T> {
+        T apply(File mirror) throws GitAPIException, IOException;
+    }
+
+    /**
+     * 镜像租约，持有期间镜像不会被淘汰，关闭时释放
+     */
+    public final class MirrorLease implements AutoCloseable {
+
+        private final Long repositoryId;
+        private final File mirror;
+        private final long stamp;
+        private final List<String> pinnedRefs = new ArrayList<>();
+        private boolean closed;
+
+        private MirrorLease(Long repositoryId, File mirror, long stamp) {
+            this.repositoryId = repositoryId;
+            this.mirror = mirror;
+            this.stamp = stamp;
+        }
+
+        public File getMirror() {
+            return mirror;
+        }
+
+        /**
+         * 在镜像中以refs/workspaces/&lt;name&gt;固定提交，租约关闭时删除
+         * 通过alternates读取镜像对象库的工作区依赖这些对象，固定后即使远程删除或强推分支，镜像fetch和自动gc也不会清理它们
+         * @param name 固定引用名，通常为工作区名
+         * @param commit 固定的提交
+         */
+        public synchronized void pin(String name, ObjectId commit) throws IOException {
+            if (closed) {
+                throw new IllegalStateException("Mirror lease already closed");
+            }
+            String refName = WORKSPACE_REFS + name;
+            if (!Repository.isValidRefName(refName)) {
+                throw new IOException("Invalid workspace ref name: " + refName);
+            }
+            // 先登记再创建，刷新时不会把它当作遗留引用删除
+            pinsFor(repositoryId).add(refName);
+            pinnedRefs.add(refName);
+            try (Git git = Git.open(mirror)) {
+                RefUpdate update = git.getRepository().updateRef(refName);
+                update.setNewObjectId(commit);
+                update.setForceUpdate(true);
+                update.disableRefLog();
+                RefUpdate.Result result = update.update();
+                if (result != RefUpdate.Result.NEW && result != RefUpdate.Result.FORCED
+                        && result != RefUpdate.Result.NO_CHANGE && result != RefUpdate.Result.FAST_FORWARD) {
+                    throw new IOException("Failed to create " + refName + ": " + result);
+                }
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (!pinnedRefs.isEmpty()) {
+                    unpin(repositoryId, mirror, pinnedRefs);
+                }
+            } finally {
+                lockFor(repositoryId).unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * 刷新仓库镜像后在持有镜像的情况下执行操作，执行期间镜像不会被淘汰
+     * @param repositoryId 仓库ID
+     * @param repositoryUrl 远程仓库URL
+     * @param username 用户名
+     * @param password 密码
+     * @param action 对镜像目录的操作
+     * @return 操作结果
+     */
+    public <T> T withMirror(Long repositoryId, String repositoryUrl, String username, String password,
+                            MirrorAction<T> action) throws GitAPIException, IOException {
+        try (MirrorLease lease = acquire(repositoryId, repositoryUrl, username, password, true)) {
+            return action.apply(lease.getMirror());
+        }
+    }
+
+    /**
+     * 获取镜像租约
+     * @param repositoryId 仓库ID
+     * @param repositoryUrl 远程仓库URL
+     * @param username 用户名
+     * @param password 密码
+     * @param fetch 是否先增量fetch；为false时只在镜像不存在时克隆
+     * @return 租约，使用完后必须关闭
+     */
+    public MirrorLease acquire(Long repositoryId, String repositoryUrl, String username, String password,
+                               boolean fetch) throws GitAPIException, IOException {
+        Objects.requireNonNull(repositoryId, "Repository ID cannot be null");
+        StampedLock lock = lockFor(repositoryId);
+        long stamp = lock.readLock();
+        try {
+            File mirror = getMirrorDir(repositoryId);
+            if (fetch || !isMirror(mirror)) {
+                mirror = refresh(repositoryId, repositoryUrl, username, password);
+            } else {
+                Files.setLastModifiedTime(mirror.toPath(), FileTime.fromMillis(System.currentTimeMillis()));
+            }
+            return new MirrorLease(repositoryId, mirror, stamp);
+        } catch (GitAPIException | IOException | RuntimeException e) {
+            lock.unlockRead(stamp);
+            throw e;
+        }
+    }
+
+    /**
+     * 仅在镜像已存在时获取租约，不访问远程
+     * @param repositoryId 仓库ID
+     * @return 租约，镜像不存在时为null；使用完后必须关闭
+     */
+    public MirrorLease acquireExisting(Long repositoryId) throws IOException {
+        Objects.requireNonNull(repositoryId, "Repository ID cannot be null");
+        StampedLock lock = lockFor(repositoryId);
+        long stamp = lock.readLock();
+        try {
+            File mirror = getMirrorDir(repositoryId);
+            if (!isMirror(mirror)) {
+                lock.unlockRead(stamp);
+                return null;
+            }
+            Files.setLastModifiedTime(mirror.toPath(), FileTime.fromMillis(System.currentTimeMillis()));
+            return new MirrorLease(repositoryId, mirror, stamp);
+        } catch (IOException | RuntimeException e) {
+            lock.unlockRead(stamp);
+            throw e;
+        }
+    }
+
+    /**
+     * 刷新仓库镜像：不存在时克隆，存在时增量fetch，之后记录镜像大小并检查磁盘预算
+     * 同一仓库已有刷新在进行时等待其完成并返回同一结果
+     * @return 镜像目录
+     */
+    public File refresh(Long repositoryId, String repositoryUrl, String username, String password)
+            throws GitAPIException, IOException {
+        CompletableFuture<File> mine = new CompletableFuture<>();
+        CompletableFuture<File> running = inFlight.putIfAbsent(repositoryId, mine);
+        if (running != null) {
+            logger.debug("Joining in-flight fetch for repository {}", repositoryId);
+            return await(running);
+        }
+
+        try {
+            File mirror = doRefresh(repositoryId, repositoryUrl, username, password);
+            mirrorSizes.put(repositoryId, directorySize(mirror.toPath()));
+            mine.complete(mirror);
+            evictOverBudget(repositoryId);
+            return mirror;
+        } catch (GitAPIException | IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(repositoryId, mine);
+        }
+    }
+
+    /**
+     * 后台预取：刷新镜像但不计为一次使用，保持按最久未使用淘汰的顺序
+     * @return 镜像目录
+     */
+    public File prefetch(Long repositoryId, String repositoryUrl, String username, String password)
+            throws GitAPIException, IOException {
+        Objects.requireNonNull(repositoryId, "Repository ID cannot be null");
+        StampedLock lock = lockFor(repositoryId);
+        long stamp = lock.readLock();
+        try {
+            File mirror = getMirrorDir(repositoryId);
+            FileTime lastUsed = isMirror(mirror) ? Files.getLastModifiedTime(mirror.toPath()) : null;
+            mirror = refresh(repositoryId, repositoryUrl, username, password);
+            if (lastUsed != null) {
+                Files.setLastModifiedTime(mirror.toPath(), lastUsed);
+            }
+            return mirror;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 仓库镜像目录（不保证存在）
+     */
+    public File getMirrorDir(Long repositoryId) {
+        return Paths.get(mirrorDir, MIRROR_PREFIX + repositoryId).toFile();
+    }
+
+    /**
+     * 仓库是否已有本地镜像
+     */
+    public boolean hasMirror(Long repositoryId) {
+        return isMirror(getMirrorDir(repositoryId));
+    }
+
+    /**
+     * 删除超出磁盘预算的最久未使用镜像
+     * @return 删除的镜像数
+     */
+    public int evictOverBudget() {
+        return evictOverBudget(null);
+    }
+
+    /**
+     * 删除超出磁盘预算的最久未使用镜像，刚使用过的镜像保留
+     * @param keepRepositoryId 保留的仓库ID，可为null
+     */
+    private int evictOverBudget(Long keepRepositoryId) {
+        Path root = Paths.get(mirrorDir);
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        try {
+            loadSizes(root);
+            long total = mirrorSizes.values().stream().mapToLong(Long::longValue).sum();
+            long budget = maxSizeMb * 1024 * 1024;
+            if (total <= budget) {
+                return 0;
+            }
+
+            List<MirrorEntry> entries = new ArrayList<>();
+            for (Map.Entry<Long, Long> size : mirrorSizes.entrySet()) {
+                Path path = getMirrorDir(size.getKey()).toPath();
+                if (!Files.isDirectory(path)) {
+                    // 镜像已在外部被删除
+                    total -= size.getValue();
+                    mirrorSizes.remove(size.getKey(), size.getValue());
+                    continue;
+                }
+                entries.add(new MirrorEntry(size.getKey(), path, size.getValue(), Files.getLastModifiedTime(path)));
+            }
+
+            entries.sort(Comparator.comparing(MirrorEntry::lastUsed));
+            int evicted = 0;
+            for (MirrorEntry entry : entries) {
+                if (total <= budget) {
+                    break;
+                }
+                if (entry.repositoryId().equals(keepRepositoryId)) {
+                    continue;
+                }
+                StampedLock lock = lockFor(entry.repositoryId());
+                long stamp = lock.tryWriteLock();
+                if (stamp == 0) {
+                    continue;
+                }
+                try {
+                    if (inFlight.containsKey(entry.repositoryId())) {
+                        continue;
+                    }
+                    deleteRecursively(entry.path());
+                    mirrorSizes.remove(entry.repositoryId());
+                    total -= entry.size();
+                    evicted++;
+                    logger.info("Evicted mirror of repository {} ({} bytes), mirrors now use {} bytes",
+                            entry.repositoryId(), entry.size(), total);
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+            }
+            return evicted;
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Failed to evict git mirrors under {}: {}", mirrorDir, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 执行一次克隆或fetch，由{@link #refresh}保证同一仓库同时只有一个
+     */
+    protected File doRefresh(Long repositoryId, String repositoryUrl, String username, String password)
+            throws GitAPIException, IOException {
+        File mirror = getMirrorDir(repositoryId);
+        UsernamePasswordCredentialsProvider credentials = new UsernamePasswordCredentialsProvider(
+                username != null ? username : "", password != null ? password : "");
+        long started = System.currentTimeMillis();
+
+        FetchResult result;
+        if (isMirror(mirror)) {
+            try (Git git = Git.open(mirror)) {
+                configureMirror(git, repositoryUrl);
+                removeStalePins(git.getRepository(), repositoryId);
+                result = fetch(git, credentials);
+            }
+            logger.info("Fetched mirror of repository {} in {} ms", repositoryId, System.currentTimeMillis() - started);
+        } else {
+            // 先在临时目录中建好镜像再改名，避免留下不完整的镜像
+            Files.createDirectories(mirror.getParentFile().toPath());
+            Path temporary = Paths.get(mirror.getPath() + TEMPORARY_SUFFIX);
+            deleteRecursively(temporary);
+            try (Git git = Git.init().setBare(true).setDirectory(temporary.toFile()).call()) {
+                configureMirror(git, repositoryUrl);
+                result = fetch(git, credentials);
+                linkHead(git, result);
+            } catch (GitAPIException | IOException | RuntimeException e) {
+                deleteRecursively(temporary);
+                throw e;
+            }
+            Files.move(temporary, mirror.toPath());
+            logger.info("Created mirror of repository {} in {} ms", repositoryId, System.currentTimeMillis() - started);
+        }
+
+        Files.setLastModifiedTime(mirror.toPath(), FileTime.fromMillis(System.currentTimeMillis()));
+        if (remoteRefCache != null) {
+            remoteRefCache.put(repositoryId, RemoteRefs.fromRefs(result.getAdvertisedRefs(), RemoteRefs.Source.REMOTE));
+        }
+        return mirror;
+    }
+
+    /**
+     * 首次检查预算时扫描已有镜像的大小（如重启后），之后只依赖刷新时记录的大小
+     */
+    private synchronized void loadSizes(Path root) throws IOException {
+        if (sizesLoaded) {
+            return;
+        }
+        try (Stream<Path> children = Files.list(root)) {
+            for (Path child : (Iterable<Path>) children::iterator) {
+                Long id = parseRepositoryId(child);
+                if (id != null && !mirrorSizes.containsKey(id)) {
+                    mirrorSizes.put(id, directorySize(child));
+                }
+            }
+        }
+        sizesLoaded = true;
+    }
+
+    private StampedLock lockFor(Long repositoryId) {
+        return usageLocks.computeIfAbsent(repositoryId, id -> new StampedLock());
+    }
+
+    private Set<String> pinsFor(Long repositoryId) {
+        return pins.computeIfAbsent(repositoryId, id -> ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * 删除租约固定的引用，之后其提交可以被gc回收；删除失败只记录日志，遗留的引用在下次刷新时删除
+     */
+    private void unpin(Long repositoryId, File mirror, List<String> refNames) {
+        try (Git git = Git.open(mirror)) {
+            for (String refName : refNames) {
+                deleteRef(git.getRepository(), refName);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to remove workspace refs {} from mirror {}: {}", refNames, mirror, e.getMessage());
+        } finally {
+            pinsFor(repositoryId).removeAll(refNames);
+        }
+    }
+
+    /**
+     * 删除没有租约持有的固定引用（如进程异常退出时遗留的）
+     */
+    private void removeStalePins(Repository repository, Long repositoryId) throws IOException {
+        Set<String> live = pinsFor(repositoryId);
+        for (Ref ref : repository.getRefDatabase().getRefsByPrefix(WORKSPACE_REFS)) {
+            if (!live.contains(ref.getName())) {
+                deleteRef(repository, ref.getName());
+                logger.info("Removed stale workspace ref {} from mirror of repository {}", ref.getName(), repositoryId);
+            }
+        }
+    }
+
+    private static void deleteRef(Repository repository, String refName) throws IOException {
+        RefUpdate update = repository.updateRef(refName);
+        update.setForceUpdate(true);
+        update.disableRefLog();
+        RefUpdate.Result result = update.delete();
+        if (result != RefUpdate.Result.FORCED && result != RefUpdate.Result.NO_CHANGE && result != RefUpdate.Result.NEW) {
+            throw new IOException("Failed to delete " + refName + ": " + result);
+        }
+    }
+
+    private static boolean isMirror(File mirror) {
+        return new File(mirror, "HEAD").isFile();
+    }
+
+    /**
+     * 镜像配置：获取全部分支和标签，fetch时删除远程已删除的分支；refs/workspaces/下的固定引用不在refspec范围内，不会被删除。
+     * 自动gc在fetch内同步执行，不在后台线程运行，以免与淘汰删除目录冲突
+     */
+    private void configureMirror(Git git, String repositoryUrl) throws IOException {
+        StoredConfig config = git.getRepository().getConfig();
+        boolean changed = false;
+        if (!repositoryUrl.equals(config.getString("remote", REMOTE, "url"))) {
+            config.setString("remote", REMOTE, "url", repositoryUrl);
+            changed = true;
+            logger.info("Set mirror remote URL to {}", repositoryUrl);
+        }
+        if (!MIRROR_REFSPECS.equals(Arrays.asList(config.getStringList("remote", REMOTE, "fetch")))) {
+            config.setStringList("remote", REMOTE, "fetch", MIRROR_REFSPECS);
+            config.setBoolean("remote", REMOTE, "mirror", true);
+            changed = true;
+        }
+        if (config.getBoolean(ConfigConstants.CONFIG_GC_SECTION, ConfigConstants.CONFIG_KEY_AUTODETACH, true)) {
+            config.setBoolean(ConfigConstants.CONFIG_GC_SECTION, null, ConfigConstants.CONFIG_KEY_AUTODETACH, false);
+            changed = true;
+        }
+        if (changed) {
+            config.save();
+        }
+    }
+
+    private FetchResult fetch(Git git, UsernamePasswordCredentialsProvider credentials) throws GitAPIException {
+        return git.fetch()
+                .setRemote(REMOTE)
+                .setRemoveDeletedRefs(true)
+                .setCredentialsProvider(credentials)
+                .setTimeout(fetchTimeoutSeconds)
+                .call();
+    }
+
+    /**
+     * 让镜像的HEAD指向远程HEAD所指的分支
+     */
+    private static void linkHead(Git git, FetchResult result) throws IOException {
+        Ref remoteHead = result.getAdvertisedRef(Constants.HEAD);
+        if (remoteHead == null || !remoteHead.isSymbolic()) {
+            return;
+        }
+        RefUpdate update = git.getRepository().updateRef(Constants.HEAD);
+        update.disableRefLog();
+        update.link(remoteHead.getTarget().getName());
+    }
+
+    private static File await(CompletableFuture<File> running) throws GitAPIException, IOException {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for mirror fetch", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof GitAPIException gitException) {
+                throw gitException;
+            }
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Mirror fetch failed", cause);
+        }
+    }
+
+    private static Long parseRepositoryId(Path child) {
+        String name = child.getFileName().toString();
+        if (!name.startsWith(MIRROR_PREFIX) || !Files.isDirectory(child)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(name.substring(MIRROR_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long directorySize(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> {
+                try {
+                    return Files.size(file);
+                } catch (IOException e) {
+                    return 0L;
+                }
+            }).sum();
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private record MirrorEntry(Long repositoryId, Path path, long size, FileTime lastUsed) {
+    }
+
+    // 用于测试的setter
+    public void setMirrorDir(String mirrorDir) {
+        this.mirrorDir = mirrorDir;
+    }
+
+    public void setMaxSizeMb(long maxSizeMb) {
+        this.maxSizeMb = maxSizeMb;
+    }
+
+    public void setFetchTimeoutSeconds(int fetchTimeoutSeconds) {
+        this.fetchTimeoutSeconds = fetchTimeoutSeconds;
+    }
+
+    public void setRemoteRefCache(RemoteRefCache remoteRefCache) {
+        this.remoteRefCache = remoteRefCache;
+    }
+}
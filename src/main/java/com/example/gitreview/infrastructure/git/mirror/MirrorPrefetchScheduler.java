@@ -0,0 +1,250 @@
+package com.example.gitreview.infrastructure.git.mirror;
+
+import com.example.gitreview.domain.codereview.repository.CodeReviewRepository;
+import com.example.gitreview.domain.shared.model.aggregate.Repository;
+import com.example.gitreview.domain.shared.repository.GitRepositoryRepository;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/**
+ * 仓库镜像预取调度
+ * 定期对活跃仓库的镜像做增量fetch，使审查和测试生成使用镜像前的fetch只需协商、几乎不传输对象。
+ * 每个仓库的预取间隔按activity-window-hours内的审查次数自适应：没有审查时为max-interval-seconds，审查越多间隔越短，最短min-interval-seconds；失败后按指数退避。
+ * 同时进行的预取数不超过max-concurrent；还没有镜像且窗口内没有审查的仓库不会被预取克隆，避免占用镜像磁盘预算。
+ * CI在推送后可调用{@link #warmUp}立即预取。
+ */
+@Component
+public class MirrorPrefetchScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(MirrorPrefetchScheduler.class);
+
+    /** 连续失败时退避的最大倍数（2^n） */
+    private static final int MAX_BACKOFF_EXPONENT = 10;
+
+    @Value("${git.prefetch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${git.prefetch.min-interval-seconds:120}")
+    private long minIntervalSeconds;
+
+    @Value("${git.prefetch.max-interval-seconds:3600}")
+    private long maxIntervalSeconds;
+
+    @Value("${git.prefetch.activity-window-hours:168}")
+    private long activityWindowHours;
+
+    @Value("${git.prefetch.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Autowired
+    private GitMirrorCache mirrorCache;
+
+    @Autowired
+    private GitRepositoryRepository repositoryRepository;
+
+    @Autowired
+    private CodeReviewRepository codeReviewRepository;
+
+    @Autowired
+    @Qualifier("mirrorPrefetchExecutor")
+    private Executor prefetchExecutor;
+
+    private final Map<Long, PrefetchState> states = new ConcurrentHashMap<>();
+
+    /**
+     * 已提交（排队或进行中）的预取，按仓库ID合并
+     */
+    private final Map<Long, PrefetchTask> scheduled = new ConcurrentHashMap<>();
+
+    /**
+     * 提交到期的仓库，每次最多补满max-concurrent个，使按需预热不会排在大量计划预取之后
+     */
+    @Scheduled(fixedDelayString = "${git.prefetch.tick-ms:30000}",
+               initialDelayString = "${git.prefetch.initial-delay-ms:60000}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            List<Repository> active = new ArrayList<>(repositoryRepository.findByActive(true));
+            Set<Long> activeIds = active.stream().map(Repository::getId).collect(Collectors.toSet());
+            states.keySet().retainAll(activeIds);
+
+            active.sort(Comparator.comparingLong(repository -> stateFor(repository.getId()).nextDueAt));
+            int slots = maxConcurrent - scheduled.size();
+            for (Repository repository : active) {
+                if (slots <= 0) {
+                    break;
+                }
+                if (stateFor(repository.getId()).nextDueAt > now || scheduled.containsKey(repository.getId())) {
+                    continue;
+                }
+                submit(repository, false);
+                slots--;
+            }
+        } catch (RuntimeException e) {
+            logger.error("Mirror prefetch run failed", e);
+        }
+    }
+
+    /**
+     * 立即预取仓库镜像（如推送后由CI调用）
+     * 已排队但未开始的预取直接复用；正在进行的预取可能早于推送，结束后再预取一次
+     * @param repository 仓库
+     * @return 预取完成时完成，失败时异常完成
+     */
+    public CompletableFuture<Void> warmUp(Repository repository) {
+        logger.info("Warm-up requested for repository {}", repository.getId());
+        PrefetchTask existing = scheduled.get(repository.getId());
+        if (existing == null || !existing.started) {
+            return submit(repository, true);
+        }
+        return existing.future.handle((result, error) -> null)
+                .thenCompose(ignored -> submit(repository, true));
+    }
+
+    /**
+     * @return 仓库下次计划预取的时间（毫秒时间戳），还未调度过时为0
+     */
+    public long getNextDueAt(Long repositoryId) {
+        PrefetchState state = states.get(repositoryId);
+        return state != null ? state.nextDueAt : 0;
+    }
+
+    /**
+     * 按窗口内的审查次数计算预取间隔：max-interval / (1 + 审查次数)，不短于min-interval
+     * @return 间隔（毫秒）
+     */
+    long intervalFor(long recentReviews) {
+        long interval = maxIntervalSeconds * 1000 / (1 + recentReviews);
+        return Math.max(minIntervalSeconds * 1000, interval);
+    }
+
+    private CompletableFuture<Void> submit(Repository repository, boolean onDemand) {
+        PrefetchTask task = new PrefetchTask();
+        PrefetchTask existing = scheduled.putIfAbsent(repository.getId(), task);
+        if (existing != null) {
+            return existing.future;
+        }
+        prefetchExecutor.execute(() -> {
+            task.started = true;
+            try {
+                prefetch(repository, onDemand);
+                task.future.complete(null);
+            } catch (Exception e) {
+                task.future.completeExceptionally(e);
+            } finally {
+                scheduled.remove(repository.getId(), task);
+            }
+        });
+        return task.future;
+    }
+
+    private void prefetch(Repository repository, boolean onDemand) throws GitAPIException, IOException {
+        Long repositoryId = repository.getId();
+        PrefetchState state = stateFor(repositoryId);
+        long started = System.currentTimeMillis();
+        long recentReviews = countRecentReviews(repositoryId);
+
+        if (!onDemand && recentReviews == 0 && !mirrorCache.hasMirror(repositoryId)) {
+            state.nextDueAt = started + maxIntervalSeconds * 1000;
+            logger.debug("Repository {} has no mirror and no recent reviews, not prefetching", repositoryId);
+            return;
+        }
+
+        try {
+            mirrorCache.prefetch(repositoryId, repository.getGitUrl().getUrl(),
+                    repository.getCredential().getUsername(), repository.getCredential().getPassword());
+            long interval = intervalFor(recentReviews);
+            state.failures = 0;
+            state.nextDueAt = System.currentTimeMillis() + interval;
+            logger.info("Prefetched mirror of repository {} in {} ms ({} recent reviews), next in {} s",
+                    repositoryId, System.currentTimeMillis() - started, recentReviews, interval / 1000);
+        } catch (GitAPIException | IOException | RuntimeException e) {
+            state.failures++;
+            long backoff = Math.min(maxIntervalSeconds * 1000,
+                    minIntervalSeconds * 1000 << Math.min(state.failures, MAX_BACKOFF_EXPONENT));
+            state.nextDueAt = System.currentTimeMillis() + backoff;
+            logger.warn("Prefetch of repository {} failed ({} consecutive), retrying in {} s: {}",
+                    repositoryId, state.failures, backoff / 1000, e.getMessage());
+            throw e;
+        }
+    }
+
+    private long countRecentReviews(Long repositoryId) {
+        LocalDateTime since = LocalDateTime.now().minusHours(activityWindowHours);
+        return codeReviewRepository.findSummariesByRepositoryId(repositoryId).stream()
+                .filter(summary -> summary.getCreateTime() != null && summary.getCreateTime().isAfter(since))
+                .count();
+    }
+
+    private PrefetchState stateFor(Long repositoryId) {
+        return states.computeIfAbsent(repositoryId, id -> new PrefetchState());
+    }
+
+    private static final class PrefetchState {
+        private volatile long nextDueAt;
+        private volatile int failures;
+    }
+
+    private static final class PrefetchTask {
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private volatile boolean started;
+    }
+
+    // 用于测试的setter
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setMinIntervalSeconds(long minIntervalSeconds) {
+        this.minIntervalSeconds = minIntervalSeconds;
+    }
+
+    public void setMaxIntervalSeconds(long maxIntervalSeconds) {
+        this.maxIntervalSeconds = maxIntervalSeconds;
+    }
+
+    public void setActivityWindowHours(long activityWindowHours) {
+        this.activityWindowHours = activityWindowHours;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public void setMirrorCache(GitMirrorCache mirrorCache) {
+        this.mirrorCache = mirrorCache;
+    }
+
+    public void setRepositoryRepository(GitRepositoryRepository repositoryRepository) {
+        this.repositoryRepository = repositoryRepository;
+    }
+
+    public void setCodeReviewRepository(CodeReviewRepository codeReviewRepository) {
+        this.codeReviewRepository = codeReviewRepository;
+    }
+
+    public void setPrefetchExecutor(Executor prefetchExecutor) {
+        this.prefetchExecutor = prefetchExecutor;
+    }
+}
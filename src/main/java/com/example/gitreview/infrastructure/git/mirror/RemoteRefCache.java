@@ -0,0 +1,231 @@
+package com.example.gitreview.infrastructure.git.mirror;
+
+import com.example.gitreview.infrastructure.git.RemoteRefs;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 远程分支缓存
+ * 按仓库ID缓存ls-remote的结果（分支和提交SHA）。ttl-seconds内的结果直接返回；超过ttl但未超过max-stale-seconds时
+ * 先返回旧结果，同时在后台重新查询；没有可用结果时，若本地镜像存在则先返回镜像中的分支并在后台查询远程，
+ * 否则同步查询。同一仓库的并发查询合并为一次。镜像fetch时远程公布的引用也会写入缓存。
+ */
+@Component
+public class RemoteRefCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteRefCache.class);
+
+    @Value("${git.remote-refs.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${git.remote-refs.max-stale-seconds:900}")
+    private long maxStaleSeconds;
+
+    @Autowired
+    @Qualifier("gitMetadataExecutor")
+    private Executor refreshExecutor = Runnable::run;
+
+    private final Map<Long, RemoteRefs> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 进行中的查询，按仓库ID合并；失效时移除，查询结果不再写入缓存
+     */
+    private final Map<Long, CompletableFuture<RemoteRefs>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong staleCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * 分支查询
+     */
+    @FunctionalInterface
+    public interface RefLoader {
+        /**
+         * @return 分支快照；本地回退查询没有结果时返回null
+         */
+        RemoteRefs load() throws GitAPIException, IOException;
+    }
+
+    /**
+     * 获取分支，允许返回过期结果或镜像中的分支
+     * @param repositoryId 仓库ID
+     * @param remoteLoader 查询远程（ls-remote）
+     * @param localLoader 读取本地镜像，镜像不存在时返回null；可为null
+     * @return 分支快照
+     */
+    public RemoteRefs get(Long repositoryId, RefLoader remoteLoader, RefLoader localLoader)
+            throws GitAPIException, IOException {
+        RemoteRefs cached = entries.get(repositoryId);
+        long now = System.currentTimeMillis();
+        if (cached != null && isFresh(cached, now)) {
+            hitCount.incrementAndGet();
+            return cached;
+        }
+        if (cached != null && now - cached.getFetchedAt() < maxStaleSeconds * 1000) {
+            staleCount.incrementAndGet();
+            refreshInBackground(repositoryId, remoteLoader);
+            return cached;
+        }
+
+        if (localLoader != null) {
+            RemoteRefs local = localLoader.load();
+            if (local != null) {
+                staleCount.incrementAndGet();
+                entries.putIfAbsent(repositoryId, local);
+                refreshInBackground(repositoryId, remoteLoader);
+                return local;
+            }
+        }
+
+        missCount.incrementAndGet();
+        return load(repositoryId, remoteLoader);
+    }
+
+    /**
+     * 获取远程的最新分支：ttl内直接查询过远程时返回缓存，否则同步查询远程
+     * @param repositoryId 仓库ID
+     * @param remoteLoader 查询远程（ls-remote）
+     * @return 来源为远程的分支快照
+     */
+    public RemoteRefs getFresh(Long repositoryId, RefLoader remoteLoader) throws GitAPIException, IOException {
+        RemoteRefs cached = entries.get(repositoryId);
+        if (cached != null && isFresh(cached, System.currentTimeMillis())) {
+            hitCount.incrementAndGet();
+            return cached;
+        }
+        missCount.incrementAndGet();
+        return load(repositoryId, remoteLoader);
+    }
+
+    /**
+     * 写入缓存（如镜像fetch时远程公布的引用）
+     */
+    public void put(Long repositoryId, RemoteRefs refs) {
+        entries.put(repositoryId, refs);
+    }
+
+    /**
+     * 缓存的分支快照，不触发查询
+     * @return 快照，没有时为null
+     */
+    public RemoteRefs peek(Long repositoryId) {
+        return entries.get(repositoryId);
+    }
+
+    /**
+     * 使仓库的缓存失效，进行中的查询结果不再写入缓存
+     */
+    public void invalidate(Long repositoryId) {
+        entries.remove(repositoryId);
+        inFlight.remove(repositoryId);
+        logger.debug("Invalidated remote refs of repository {}", repositoryId);
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return 返回过期结果或镜像分支（同时在后台刷新）的次数
+     */
+    public long getStaleCount() {
+        return staleCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private boolean isFresh(RemoteRefs refs, long now) {
+        return refs.getSource() == RemoteRefs.Source.REMOTE && now - refs.getFetchedAt() < ttlSeconds * 1000;
+    }
+
+    /**
+     * 查询远程并写入缓存；同一仓库已有查询在进行时等待其完成并返回同一结果
+     */
+    private RemoteRefs load(Long repositoryId, RefLoader remoteLoader) throws GitAPIException, IOException {
+        CompletableFuture<RemoteRefs> mine = new CompletableFuture<>();
+        CompletableFuture<RemoteRefs> running = inFlight.putIfAbsent(repositoryId, mine);
+        if (running != null) {
+            logger.debug("Joining in-flight ls-remote for repository {}", repositoryId);
+            return await(running);
+        }
+
+        try {
+            RemoteRefs refs = remoteLoader.load();
+            // 期间被失效的查询结果不写入
+            if (inFlight.get(repositoryId) == mine) {
+                entries.put(repositoryId, refs);
+            }
+            mine.complete(refs);
+            return refs;
+        } catch (GitAPIException | IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(repositoryId, mine);
+        }
+    }
+
+    private void refreshInBackground(Long repositoryId, RefLoader remoteLoader) {
+        if (inFlight.containsKey(repositoryId)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                RemoteRefs refs = load(repositoryId, remoteLoader);
+                logger.debug("Refreshed remote refs of repository {}: {}", repositoryId, refs);
+            } catch (Exception e) {
+                logger.warn("Background ls-remote failed for repository {}: {}", repositoryId, e.getMessage());
+            }
+        });
+    }
+
+    private static RemoteRefs await(CompletableFuture<RemoteRefs> running) throws GitAPIException, IOException {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for ls-remote", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof GitAPIException gitException) {
+                throw gitException;
+            }
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("ls-remote failed", cause);
+        }
+    }
+
+    // 用于测试的setter
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public void setMaxStaleSeconds(long maxStaleSeconds) {
+        this.maxStaleSeconds = maxStaleSeconds;
+    }
+
+    public void setRefreshExecutor(Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
+    }
+}
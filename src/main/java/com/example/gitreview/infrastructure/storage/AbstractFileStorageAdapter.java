@@ -0,0 +1,1181 @@
+package com.example.gitreview.infrastructure.storage;
+
+import com.example.gitreview.infrastructure.storage.archive.ArchiveStore;
+import com.example.gitreview.infrastructure.storage.backup.StoreBackup;
+import com.example.gitreview.infrastructure.storage.blob.BlobFields;
+import com.example.gitreview.infrastructure.storage.commit.GroupCommitMetrics;
+import com.example.gitreview.infrastructure.storage.index.EntityIndex;
+import com.example.gitreview.infrastructure.storage.index.HashIndex;
+import com.example.gitreview.infrastructure.storage.index.Projection;
+import com.example.gitreview.infrastructure.storage.index.SortedIndex;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 文件存储适配器基类
+ * 封装各存储引擎共用的实体类型信息、ID生成、JSON映射和二级索引
+ *
+ * 二级索引只在启用内存缓存时维护：各引擎在写锁内随save/delete更新索引，
+ * init时根据已加载的数据重建。关闭缓存时索引查询退化为全量扫描（引擎可下推为按列查询），以便感知外部修改。
+ * 投影（Projection）作为一种索引维护，列表查询可只读取摘要而不反序列化完整实体。
+ *
+ * 配置了BlobFields时，大文本字段在序列化后外置为引用，仅在反序列化实体时才读取。
+ *
+ * 并发写入按实体ID分段加锁：同一实体的读-改-写串行执行，不同实体的序列化互不阻塞，
+ * 引擎只在提交到内存和文件的短暂阶段持有全局写锁。实体带有getVersion/setVersion时启用乐观锁：
+ * 保存时版本与存储中的不一致则抛出OptimisticLockingFailureException，update方法在冲突时自动重试。
+ * 批量操作（saveAll、updateWhere、deleteWhere等）持有全部分段锁，只读取一次并作为一个整体提交。
+ *
+ * 设置了组提交窗口时，窗口内到达的写操作由引擎合并为一次文件写入和一次fsync，调用方阻塞到落盘为止。
+ * @param <T> 实体类型
+ */
+public abstract class AbstractFileStorageAdapter<T> implements StoragePort<T, Long> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractFileStorageAdapter.class);
+
+    protected static final String ID_FIELD = "id";
+    protected static final String VERSION_FIELD = "version";
+
+    private static final int LOCK_STRIPES = 64;
+    private static final int MAX_UPDATE_ATTEMPTS = 5;
+    protected static final int MAX_GROUP_COMMIT_BATCH = 256;
+
+    protected final ObjectMapper objectMapper = new ObjectMapper();
+    protected final AtomicLong idCounter = new AtomicLong(1);
+
+    private String storageFile = "data/repositories.json";
+
+    /**
+     * 是否启用内存缓存，关闭后每次操作都重新读取文件（仅JSON引擎支持关闭）
+     */
+    private boolean cacheEnabled = true;
+
+    /**
+     * 组提交窗口（毫秒），0表示每次写操作单独落盘
+     */
+    private long groupCommitWindowMillis = 0;
+
+    /**
+     * 是否维护启动快照（仅文件引擎使用）
+     */
+    private boolean snapshotEnabled = true;
+
+    /**
+     * 两次定期快照之间的变更数，0表示只在关闭时写快照
+     */
+    private int snapshotInterval = 1000;
+
+    protected Class<T> entityClass;
+    protected TypeReference<List<T>> typeReference;
+    protected Function<T, Long> idExtractor;
+    protected Function<T, T> idSetter;
+
+    private final List<EntityIndex<T, ?>> indexes = new CopyOnWriteArrayList<>();
+
+    private BlobFields blobFields = BlobFields.none();
+
+    private final Lock[] stripes = new Lock[LOCK_STRIPES];
+    private Method versionGetter;
+    private Method versionSetter;
+
+    protected AbstractFileStorageAdapter() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+
+        // 配置ObjectMapper
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * 初始化存储（需在configure和setStorageFile之后调用）
+     */
+    public abstract void init();
+
+    /**
+     * 释放存储持有的文件句柄和后台线程
+     */
+    public void close() {
+        // 默认无需释放资源
+    }
+
+    /**
+     * 持有引擎写锁执行操作：期间没有批次在提交，看到的是最近一次提交后的状态
+     * 可嵌套调用多个存储的该方法，在全部写锁内捕获跨存储一致的时间点
+     */
+    public abstract void holdingWriteLock(Runnable action);
+
+    /**
+     * 捕获最近一次提交后的状态用于备份，只交换或记录引用，不复制数据
+     * 返回的备份在释放写锁后写出
+     */
+    public abstract StoreBackup captureBackup() throws IOException;
+
+    /**
+     * 组提交指标：批次大小和提交延迟
+     */
+    public abstract GroupCommitMetrics getGroupCommitMetrics();
+
+    /**
+     * 读取实体当前持久化的JSON节点
+     * @return 节点，不存在时返回null
+     */
+    protected abstract JsonNode currentNode(Long id) throws IOException;
+
+    /**
+     * 读取全部实体当前持久化的JSON节点，按存储顺序
+     */
+    protected abstract Map<Long, JsonNode> currentNodes() throws IOException;
+
+    /**
+     * 在引擎写锁内将一组变更作为整体提交，只写一次文件，阻塞到落盘为止
+     * 提交前用verifyAll校验每个变更的expected仍是当前节点，任一校验失败则整组不生效
+     * @return 实际生效的变更数（删除不存在的实体不计入）
+     */
+    protected abstract int commitAll(List<Change<T>> changes) throws IOException;
+
+    @Override
+    public T save(T entity) {
+        Long id = idExtractor.apply(entity);
+        if (id == null) {
+            id = idCounter.getAndIncrement();
+            entity = setEntityId(entity, id);
+            logger.debug("Creating new entity with ID: {}", id);
+        }
+
+        Lock lock = lockFor(id);
+        lock.lock();
+        try {
+            return upsertAll(Collections.singletonList(entity)).get(0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        Lock lock = lockFor(id);
+        lock.lock();
+        try {
+            return commitAll(Collections.singletonList(Change.delete(id, null))) > 0;
+        } catch (IOException e) {
+            logger.error("Failed to delete entity by ID: {}", id, e);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 批量保存：所有实体一次性校验版本并在同一次写入中落盘
+     * 任一实体版本冲突时整批不生效
+     */
+    @Override
+    public List<T> saveAll(List<T> entities) {
+        if (entities.isEmpty()) {
+            return new ArrayList<>();
+        }
+        lockAll();
+        try {
+            return upsertAll(entities);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * 修改满足条件的实体，所有修改在同一次写入中落盘
+     * 单个实体的修改抛出异常时跳过该实体
+     */
+    @Override
+    public int updateWhere(Predicate<T> filter, Consumer<T> modifier) {
+        return bulkUpdate(allIds(), filter, modifier);
+    }
+
+    /**
+     * 修改指定ID的实体，所有修改在同一次写入中落盘
+     * 不存在的ID被忽略，单个实体的修改抛出异常时跳过该实体
+     * @return 修改的实体数
+     */
+    public int updateAllById(Collection<Long> ids, Consumer<T> modifier) {
+        return bulkUpdate(ids, entity -> true, modifier);
+    }
+
+    /**
+     * 删除满足条件的实体，所有删除在同一次写入中落盘
+     * 条件判断时不读取外置的大文本字段
+     */
+    @Override
+    public int deleteWhere(Predicate<T> filter) {
+        return bulkDelete(allIds(), filter);
+    }
+
+    /**
+     * 按有序索引删除键严格小于bound的实体，所有删除在同一次写入中落盘
+     * @return 删除的实体数
+     */
+    public <K extends Comparable<? super K>> int deleteBefore(SortedIndex<T, K> index, K bound) {
+        Predicate<T> matches = entity -> {
+            K key = index.keyOf(entity);
+            return key != null && key.compareTo(bound) < 0;
+        };
+        Collection<Long> candidates = isCacheEnabled() ? index.findBefore(bound) : allIds();
+        return bulkDelete(candidates, matches);
+    }
+
+    /**
+     * 把时间索引键严格小于bound的实体移到按月分区的归档段，所有删除在同一次写入中落盘
+     * 归档段先写入并fsync再从存储删除；删除失败时实体同时存在于存储和归档，读取时以存储为准。
+     * 归档节点内联外置的大文本，不依赖BlobStore
+     * @return 归档的实体数
+     */
+    public int archiveBefore(SortedIndex<T, LocalDateTime> index, LocalDateTime bound, ArchiveStore archive) {
+        lockAll();
+        try {
+            Collection<Long> candidates = isCacheEnabled() ? index.findBefore(bound) : allIds();
+            Map<YearMonth, Map<Long, JsonNode>> partitions = new TreeMap<>();
+            List<Change<T>> changes = new ArrayList<>();
+            for (Long id : new LinkedHashSet<>(candidates)) {
+                JsonNode node = currentNode(id);
+                if (node == null) {
+                    continue;
+                }
+                LocalDateTime key = index.keyOf(toLightEntity(node));
+                if (key == null || !key.isBefore(bound)) {
+                    continue;
+                }
+                partitions.computeIfAbsent(YearMonth.from(key), month -> new LinkedHashMap<>())
+                        .put(id, blobFields.resolve(node));
+                changes.add(Change.delete(id, node));
+            }
+            if (changes.isEmpty()) {
+                return 0;
+            }
+            archive.append(partitions);
+            return commitAll(changes);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Failed to archive entities", e);
+            throw new RuntimeException("Failed to archive entities", e);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * 删除归档中时间索引键严格小于bound的实体：早于bound所在月份的段整体删除，只重写bound所在月份的段
+     * @return 删除的实体数
+     */
+    public int purgeArchivedBefore(SortedIndex<T, LocalDateTime> index, LocalDateTime bound, ArchiveStore archive) {
+        YearMonth boundary = YearMonth.from(bound);
+        try {
+            int purged = archive.dropBefore(boundary);
+            if (archive.months().contains(boundary)) {
+                Map<Long, JsonNode> kept = new LinkedHashMap<>();
+                List<JsonNode> nodes = archive.read(boundary);
+                for (JsonNode node : nodes) {
+                    LocalDateTime key = index.keyOf(toLightEntity(node));
+                    if (key == null || !key.isBefore(bound)) {
+                        kept.put(readId(node), node);
+                    }
+                }
+                if (kept.size() < nodes.size()) {
+                    archive.replace(boundary, kept);
+                    purged += nodes.size() - kept.size();
+                }
+            }
+            return purged;
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Failed to purge archived entities", e);
+            throw new RuntimeException("Failed to purge archived entities", e);
+        }
+    }
+
+    /**
+     * 用备份中的节点替换存储的全部内容，并保证之后分配的ID不小于nextId
+     * 写入备份中的节点和删除备份中没有的实体在同一次提交中完成，中途失败时存储保持原样；
+     * 节点按原样写入，不校验版本；外置大文本的引用需在恢复前已存在于BlobStore
+     * @return 恢复的实体数
+     */
+    public int restore(Collection<JsonNode> nodes, long nextId) {
+        lockAll();
+        try {
+            Map<Long, JsonNode> current = currentNodes();
+            List<Change<T>> changes = new ArrayList<>(nodes.size() + current.size());
+            // 先删除全部现有实体再按备份顺序写入，同一提交内的变更依次生效
+            current.forEach((id, node) -> changes.add(Change.delete(id, node)));
+            int restored = 0;
+            for (JsonNode node : nodes) {
+                Long id = readId(node);
+                if (id == null) {
+                    logger.warn("Skipping entity without valid ID in backup of: {}", storageFile);
+                    continue;
+                }
+                changes.add(Change.upsert(id, null, node, toLightEntity(node)));
+                restored++;
+            }
+            if (!changes.isEmpty()) {
+                commitAll(changes);
+            }
+            reserveIds(nextId);
+            return restored;
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Failed to restore entities", e);
+            throw new RuntimeException("Failed to restore entities", e);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * 读取最新实体、应用修改并保存，整个过程持有该实体的分段锁
+     * 版本冲突（如文件被外部修改）时重新读取后重试
+     * @param modifier 修改操作，不应在其中写入其他实体
+     * @return 保存后的实体，实体不存在时返回空
+     */
+    @Override
+    public Optional<T> update(Long id, Consumer<T> modifier) {
+        return update(id, modifier, false);
+    }
+
+    /**
+     * 与update相同，但不读取外置的大文本字段：实体中这些字段为占位文本，保存时还原为原引用，
+     * 不重新读取和哈希大文本。适合只修改状态、进度等字段的频繁更新
+     * @param modifier 修改操作，不能读取或拼接外置字段（只能原样保留或整体替换）
+     * @return 实体是否存在
+     */
+    public boolean updateLight(Long id, Consumer<T> modifier) {
+        return update(id, modifier, true).isPresent();
+    }
+
+    /**
+     * 按ID读取实体，外置的大文本字段为空文本，不读取BlobStore（如查询状态和进度）
+     * @return 实体，不存在时返回空
+     */
+    public Optional<T> findLightById(Long id) {
+        try {
+            JsonNode node = currentNode(id);
+            return node == null ? Optional.empty() : Optional.of(toLightEntity(node));
+        } catch (IOException e) {
+            logger.error("Failed to find entity by ID: {}", id, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 把当前实体引用的BlobStore哈希加入集合（归档节点内联大文本，不引用BlobStore）
+     */
+    public void collectBlobReferences(Set<String> into) {
+        if (blobFields.isEmpty()) {
+            return;
+        }
+        try {
+            currentNodes().values().forEach(node -> blobFields.collectReferences(node, into));
+        } catch (IOException e) {
+            logger.error("Failed to collect blob references", e);
+            throw new RuntimeException("Failed to collect blob references", e);
+        }
+    }
+
+    private Optional<T> update(Long id, Consumer<T> modifier, boolean light) {
+        Lock lock = lockFor(id);
+        lock.lock();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                Optional<T> current = light ? findWithPlaceholders(id) : findById(id);
+                if (current.isEmpty()) {
+                    return Optional.empty();
+                }
+                T entity = current.get();
+                modifier.accept(entity);
+                try {
+                    return Optional.of(save(entity));
+                } catch (OptimisticLockingFailureException e) {
+                    if (attempt >= MAX_UPDATE_ATTEMPTS) {
+                        throw e;
+                    }
+                    logger.debug("Version conflict on entity {}, retrying ({}/{})", id, attempt, MAX_UPDATE_ATTEMPTS);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Optional<T> findWithPlaceholders(Long id) {
+        try {
+            JsonNode node = currentNode(id);
+            return node == null ? Optional.empty()
+                    : Optional.of(objectMapper.treeToValue(blobFields.withPlaceholders(node), entityClass));
+        } catch (IOException e) {
+            logger.error("Failed to update entity: {}", id, e);
+            throw new RuntimeException("Failed to update entity", e);
+        }
+    }
+
+    /**
+     * 校验并写入一组实体（调用方已持有相关分段锁）
+     * 同一批中重复出现的ID以前一次写入的节点作为期望值
+     */
+    private List<T> upsertAll(List<T> entities) {
+        Map<Long, JsonNode> pending = new HashMap<>();
+        List<Change<T>> changes = new ArrayList<>(entities.size());
+        List<T> saved = new ArrayList<>(entities.size());
+        List<Long> previousVersions = new ArrayList<>(entities.size());
+        try {
+            for (T entity : entities) {
+                Long id = idExtractor.apply(entity);
+                boolean isNew = id == null;
+                if (isNew) {
+                    id = idCounter.getAndIncrement();
+                    entity = setEntityId(entity, id);
+                    logger.debug("Creating new entity with ID: {}", id);
+                }
+                Long previousVersion = readVersion(entity);
+                saved.add(entity);
+                previousVersions.add(previousVersion);
+
+                JsonNode current = isNew ? null : pending.containsKey(id) ? pending.get(id) : currentNode(id);
+                checkVersion(id, previousVersion, current);
+                writeVersion(entity, versionOf(current) + 1);
+                JsonNode node = toNode(entity);
+                pending.put(id, node);
+                changes.add(Change.upsert(id, current, node, entity));
+            }
+            commitAll(changes);
+            return saved;
+        } catch (IOException | IllegalArgumentException e) {
+            restoreVersions(saved, previousVersions);
+            logger.error("Failed to save entity", e);
+            throw new RuntimeException("Failed to save entity", e);
+        } catch (OptimisticLockingFailureException e) {
+            restoreVersions(saved, previousVersions);
+            throw e;
+        }
+    }
+
+    private int bulkUpdate(Collection<Long> ids, Predicate<T> filter, Consumer<T> modifier) {
+        lockAll();
+        try {
+            List<T> modified = new ArrayList<>();
+            for (Long id : new LinkedHashSet<>(ids)) {
+                JsonNode node = currentNode(id);
+                if (node == null) {
+                    continue;
+                }
+                T entity = toEntity(node);
+                if (!filter.test(entity)) {
+                    continue;
+                }
+                try {
+                    modifier.accept(entity);
+                } catch (RuntimeException e) {
+                    logger.warn("Skipping entity {} in bulk update: {}", id, e.getMessage());
+                    continue;
+                }
+                modified.add(entity);
+            }
+            if (!modified.isEmpty()) {
+                upsertAll(modified);
+            }
+            return modified.size();
+        } catch (IOException e) {
+            logger.error("Failed to update entities", e);
+            throw new RuntimeException("Failed to update entities", e);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private int bulkDelete(Collection<Long> ids, Predicate<T> filter) {
+        lockAll();
+        try {
+            List<Change<T>> changes = new ArrayList<>();
+            for (Long id : new LinkedHashSet<>(ids)) {
+                JsonNode node = currentNode(id);
+                if (node != null && filter.test(toLightEntity(node))) {
+                    changes.add(Change.delete(id, node));
+                }
+            }
+            return changes.isEmpty() ? 0 : commitAll(changes);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Failed to delete entities", e);
+            throw new RuntimeException("Failed to delete entities", e);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private Collection<Long> allIds() {
+        try {
+            return new ArrayList<>(currentNodes().keySet());
+        } catch (IOException e) {
+            logger.error("Failed to load entity IDs", e);
+            throw new RuntimeException("Failed to load entity IDs", e);
+        }
+    }
+
+    /**
+     * 校验一组变更的期望节点（由引擎在写锁内调用）
+     * @param current 读取批次中实体当前节点的函数
+     */
+    protected void verifyAll(List<Change<T>> changes, Function<Long, JsonNode> current) {
+        Map<Long, JsonNode> applied = new HashMap<>();
+        for (Change<T> change : changes) {
+            Long id = change.getId();
+            JsonNode actual = applied.containsKey(id) ? applied.get(id) : current.apply(id);
+            if (change.isUpsert() || change.getExpected() != null) {
+                verifyUnchanged(id, change.getExpected(), actual);
+            }
+            applied.put(id, change.getNode());
+        }
+    }
+
+    /**
+     * 变更发布后更新索引（由引擎在写锁内调用）
+     */
+    protected void reindex(Change<T> change) {
+        if (!change.isUpsert()) {
+            unindexEntity(change.getId());
+            return;
+        }
+        try {
+            indexEntity(change.getId(), change.getEntity());
+        } catch (RuntimeException e) {
+            // 变更已落盘，索引不可用时移除该实体的旧索引项，避免查询到过期数据
+            logger.warn("Failed to index entity {}: {}", change.getId(), e.getMessage());
+            unindexEntity(change.getId());
+        }
+    }
+
+    private void lockAll() {
+        for (Lock stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+
+    private void restoreVersions(List<T> entities, List<Long> versions) {
+        for (int i = 0; i < entities.size(); i++) {
+            writeVersion(entities.get(i), versions.get(i));
+        }
+    }
+
+    /**
+     * 获取实体ID对应的分段锁
+     */
+    protected Lock lockFor(Long id) {
+        return stripes[Math.floorMod(Long.hashCode(id), LOCK_STRIPES)];
+    }
+
+    /**
+     * 实体类型是否支持乐观锁版本
+     */
+    protected boolean isVersioned() {
+        return versionGetter != null && versionSetter != null;
+    }
+
+    /**
+     * 提交前确认实体在序列化期间未被修改或删除
+     */
+    private void verifyUnchanged(Long id, JsonNode expected, JsonNode actual) {
+        if (!isVersioned() || expected == actual) {
+            return;
+        }
+        if (expected == null || actual == null || versionOf(expected) != versionOf(actual)) {
+            throw conflict(id, versionOf(expected), versionOf(actual));
+        }
+    }
+
+    private void checkVersion(Long id, Long expected, JsonNode current) {
+        // 未携带版本的实体（如旧数据）和已被删除的实体不做校验
+        if (!isVersioned() || expected == null || current == null) {
+            return;
+        }
+        long stored = versionOf(current);
+        if (expected != stored) {
+            throw conflict(id, expected, stored);
+        }
+    }
+
+    private OptimisticLockingFailureException conflict(Long id, long expected, long actual) {
+        return new OptimisticLockingFailureException(String.format(
+                "%s %d was modified concurrently: expected version %d but found %d",
+                entityClass.getSimpleName(), id, expected, actual));
+    }
+
+    private long versionOf(JsonNode node) {
+        return node == null ? 0 : node.path(VERSION_FIELD).asLong(0);
+    }
+
+    private Long readVersion(T entity) {
+        if (!isVersioned()) {
+            return null;
+        }
+        try {
+            Object version = versionGetter.invoke(entity);
+            return version == null ? null : ((Number) version).longValue();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read entity version", e);
+        }
+    }
+
+    private void writeVersion(T entity, Long version) {
+        if (!isVersioned()) {
+            return;
+        }
+        try {
+            versionSetter.invoke(entity, version);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to set entity version", e);
+        }
+    }
+
+    private void resolveVersionAccessors() {
+        try {
+            versionGetter = entityClass.getMethod("getVersion");
+            versionSetter = entityClass.getMethod("setVersion", Long.class);
+        } catch (NoSuchMethodException e) {
+            versionGetter = null;
+            versionSetter = null;
+        }
+    }
+
+    /**
+     * 设置实体类型信息
+     * @param entityClass 实体类
+     * @param typeReference 类型引用
+     * @param idExtractor ID提取器
+     * @param idSetter ID设置器（接收实体和ID，返回设置了ID的实体）
+     */
+    public void configure(Class<T> entityClass, TypeReference<List<T>> typeReference,
+                         Function<T, Long> idExtractor, BiFunction<T, Long, T> idSetter) {
+        this.entityClass = entityClass;
+        this.typeReference = typeReference;
+        this.idExtractor = idExtractor;
+        this.idSetter = entity -> idSetter.apply(entity, idCounter.get() - 1); // 适配原接口
+        resolveVersionAccessors();
+    }
+
+    /**
+     * 设置实体类型信息（简化版本，使用反射设置ID）
+     */
+    public void configure(Class<T> entityClass, TypeReference<List<T>> typeReference,
+                         Function<T, Long> idExtractor, String idSetterMethodName) {
+        this.entityClass = entityClass;
+        this.typeReference = typeReference;
+        this.idExtractor = idExtractor;
+
+        // 使用反射创建ID设置器
+        this.idSetter = entity -> {
+            try {
+                Long newId = idCounter.get() - 1;
+                Method setIdMethod = entityClass.getMethod(idSetterMethodName, Long.class);
+                setIdMethod.invoke(entity, newId);
+                return entity;
+            } catch (Exception e) {
+                logger.error("Failed to set ID using reflection", e);
+                throw new RuntimeException("Failed to set entity ID", e);
+            }
+        };
+        resolveVersionAccessors();
+    }
+
+    /**
+     * 注册二级索引（需在init之前调用）
+     */
+    public void addIndex(EntityIndex<T, ?> index) {
+        indexes.add(index);
+    }
+
+    /**
+     * 按等值索引查询实体
+     * 返回前按索引键再校验一次，避免读到查询期间被并发修改的实体
+     */
+    public <K> List<T> findByIndex(HashIndex<T, K> index, K key) {
+        Predicate<T> matches = entity -> Objects.equals(index.keyOf(entity), key);
+        if (!isCacheEnabled()) {
+            return loadByIndex(index, key);
+        }
+        return findAllById(index.find(key), matches);
+    }
+
+    /**
+     * 按等值索引统计实体数量
+     */
+    public <K> long countByIndex(HashIndex<T, K> index, K key) {
+        if (!isCacheEnabled()) {
+            return loadByIndex(index, key).size();
+        }
+        return index.count(key);
+    }
+
+    /**
+     * 按有序索引查询键在闭区间[from, to]内的实体，按键升序
+     */
+    public <K extends Comparable<? super K>> List<T> findByRange(SortedIndex<T, K> index, K from, K to) {
+        Predicate<T> matches = entity -> {
+            K key = index.keyOf(entity);
+            return key != null && key.compareTo(from) >= 0 && key.compareTo(to) <= 0;
+        };
+        if (!isCacheEnabled()) {
+            return scan(matches);
+        }
+        return findAllById(index.findBetween(from, to), matches);
+    }
+
+    /**
+     * 按有序索引查询键严格小于bound的实体，按键升序
+     */
+    public <K extends Comparable<? super K>> List<T> findBefore(SortedIndex<T, K> index, K bound) {
+        Predicate<T> matches = entity -> {
+            K key = index.keyOf(entity);
+            return key != null && key.compareTo(bound) < 0;
+        };
+        if (!isCacheEnabled()) {
+            return scan(matches);
+        }
+        return findAllById(index.findBefore(bound), matches);
+    }
+
+    /**
+     * 查询归档中时间索引键在闭区间[from, to]内的实体，按键升序
+     * 只打开与区间重叠的月份段；存储中仍存在的ID以存储为准，不在结果中重复出现
+     */
+    public List<T> findArchivedBetween(SortedIndex<T, LocalDateTime> index, LocalDateTime from, LocalDateTime to,
+                                       ArchiveStore archive) {
+        List<T> result = new ArrayList<>();
+        try {
+            for (YearMonth month : archive.monthsBetween(YearMonth.from(from), YearMonth.from(to))) {
+                for (JsonNode node : archive.read(month)) {
+                    Long id = readId(node);
+                    if (id == null || existsById(id)) {
+                        continue;
+                    }
+                    T entity = toEntity(node);
+                    LocalDateTime key = index.keyOf(entity);
+                    if (key != null && !key.isBefore(from) && !key.isAfter(to)) {
+                        result.add(entity);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to read archived entities", e);
+            throw new RuntimeException("Failed to read archived entities", e);
+        }
+        result.sort(Comparator.comparing(index::keyOf));
+        return result;
+    }
+
+    /**
+     * 按ID查询归档中的实体，只打开该ID所在的段
+     */
+    public Optional<T> findArchivedById(Long id, ArchiveStore archive) {
+        try {
+            Optional<JsonNode> node = archive.find(id);
+            return node.isPresent() ? Optional.of(toEntity(node.get())) : Optional.empty();
+        } catch (IOException e) {
+            logger.error("Failed to read archived entity: {}", id, e);
+            throw new RuntimeException("Failed to read archived entity", e);
+        }
+    }
+
+    /**
+     * 从归档中删除实体，只重写该ID所在的段
+     * @return 实体是否在归档中
+     */
+    public boolean deleteArchivedById(Long id, ArchiveStore archive) {
+        try {
+            return archive.remove(id);
+        } catch (IOException e) {
+            logger.error("Failed to delete archived entity: {}", id, e);
+            throw new RuntimeException("Failed to delete archived entity", e);
+        }
+    }
+
+    /**
+     * 获取全部实体的摘要，按ID升序
+     */
+    public <S> List<S> findProjections(Projection<T, S> projection) {
+        if (!isCacheEnabled()) {
+            return project(findAll(), projection);
+        }
+        return projection.findAll();
+    }
+
+    /**
+     * 按等值索引查询实体摘要，按ID升序
+     */
+    public <K, S> List<S> findProjectionsByIndex(HashIndex<T, K> index, K key, Projection<T, S> projection) {
+        if (!isCacheEnabled()) {
+            return project(loadByIndex(index, key), projection);
+        }
+        return projection.findAllById(index.find(key));
+    }
+
+    /**
+     * 按多个等值条件查询实体摘要，按ID升序
+     * 从命中最少的索引取候选ID，再用其余索引求交集，全程不反序列化实体；键为null的条件视为不限
+     */
+    @SafeVarargs
+    public final <S> List<S> findProjectionsByIndexes(Projection<T, S> projection,
+                                                      HashIndex.Condition<T, ?>... conditions) {
+        List<HashIndex.Condition<T, ?>> bounded = Arrays.stream(conditions)
+                .filter(condition -> !condition.isUnbounded())
+                .sorted(Comparator.comparingLong(HashIndex.Condition::count))
+                .collect(Collectors.toList());
+        if (!isCacheEnabled()) {
+            return project(scan(entity -> bounded.stream().allMatch(condition -> condition.matches(entity))), projection);
+        }
+        if (bounded.isEmpty()) {
+            return projection.findAll();
+        }
+        List<HashIndex.Condition<T, ?>> rest = bounded.subList(1, bounded.size());
+        List<Long> ids = bounded.get(0).ids().stream()
+                .filter(id -> rest.stream().allMatch(condition -> condition.contains(id)))
+                .collect(Collectors.toList());
+        return projection.findAllById(ids);
+    }
+
+    private <S> List<S> project(List<T> entities, Projection<T, S> projection) {
+        return entities.stream()
+                .map(projection::keyOf)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 写入实体后更新全部索引（由引擎在写锁内调用）
+     */
+    protected void indexEntity(Long id, T entity) {
+        if (!isCacheEnabled()) {
+            return;
+        }
+        for (EntityIndex<T, ?> index : indexes) {
+            index.update(id, entity);
+        }
+    }
+
+    /**
+     * 删除实体后从全部索引中移除（由引擎在写锁内调用）
+     */
+    protected void unindexEntity(Long id) {
+        for (EntityIndex<T, ?> index : indexes) {
+            index.remove(id);
+        }
+    }
+
+    /**
+     * 清空全部索引
+     */
+    protected void clearIndexes() {
+        for (EntityIndex<T, ?> index : indexes) {
+            index.clear();
+        }
+    }
+
+    /**
+     * 根据已加载的JSON节点重建全部索引
+     */
+    protected void rebuildIndexes(Map<Long, JsonNode> nodes) {
+        clearIndexes();
+        if (indexes.isEmpty() || !isCacheEnabled()) {
+            return;
+        }
+        // 反序列化是重建的主要开销，各实体相互独立，并行执行；索引仍在当前线程按存储顺序更新
+        // 索引字段都是小字段，重建时不读取外置的大文本
+        List<Map.Entry<Long, JsonNode>> entries = new ArrayList<>(nodes.entrySet());
+        List<T> entities = entries.parallelStream()
+                .map(entry -> {
+                    try {
+                        return toLightEntity(entry.getValue());
+                    } catch (IOException | RuntimeException e) {
+                        logger.debug("Failed to index entity {}: {}", entry.getKey(), e.getMessage());
+                        return null;
+                    }
+                })
+                .collect(Collectors.toList());
+        int skipped = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            T entity = entities.get(i);
+            if (entity == null) {
+                skipped++;
+                continue;
+            }
+            try {
+                indexEntity(entries.get(i).getKey(), entity);
+            } catch (RuntimeException e) {
+                logger.debug("Failed to index entity {}: {}", entries.get(i).getKey(), e.getMessage());
+                skipped++;
+            }
+        }
+        if (skipped > 0) {
+            logger.warn("Skipped {} unreadable entities while building indexes for {}", skipped, storageFile);
+        }
+        logger.debug("Built {} indexes over {} entities for {}", indexes.size(), nodes.size() - skipped, storageFile);
+    }
+
+    private List<T> findAllById(List<Long> ids, Predicate<T> matches) {
+        List<T> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Optional<T> entity = findById(id);
+            if (entity.isPresent() && matches.test(entity.get())) {
+                result.add(entity.get());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 未启用缓存时按等值索引读取实体，按ID升序
+     * 默认全量扫描后过滤，能在底层存储按索引列查询的引擎可覆盖此方法
+     */
+    protected <K> List<T> loadByIndex(HashIndex<T, K> index, K key) {
+        return scan(entity -> Objects.equals(index.keyOf(entity), key));
+    }
+
+    /**
+     * 已注册的二级索引
+     */
+    protected List<EntityIndex<T, ?>> getIndexes() {
+        return Collections.unmodifiableList(indexes);
+    }
+
+    private List<T> scan(Predicate<T> matches) {
+        return findAll().stream()
+                .filter(matches)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 设置实体ID的辅助方法
+     */
+    protected T setEntityId(T entity, Long id) {
+        try {
+            Method setIdMethod = entityClass.getMethod("setId", Long.class);
+            setIdMethod.invoke(entity, id);
+            return entity;
+        } catch (Exception e) {
+            logger.error("Failed to set entity ID", e);
+            throw new RuntimeException("Failed to set entity ID", e);
+        }
+    }
+
+    /**
+     * 将JSON节点反序列化为新的实体实例，外置的大文本在此时读取
+     */
+    protected T toEntity(JsonNode node) throws IOException {
+        return objectMapper.treeToValue(blobFields.resolve(node), entityClass);
+    }
+
+    /**
+     * 将JSON节点反序列化为不含外置大文本的实体，用于建立索引和判断条件
+     */
+    protected T toLightEntity(JsonNode node) throws IOException {
+        return objectMapper.treeToValue(blobFields.strip(node), entityClass);
+    }
+
+    /**
+     * 将实体序列化为JSON节点，超过阈值的大文本外置为引用
+     */
+    protected JsonNode toNode(T entity) throws IOException {
+        return blobFields.externalize(objectMapper.valueToTree(entity));
+    }
+
+    /**
+     * 读取JSON节点中的实体ID
+     * @return 实体ID，缺失或非法时返回null
+     */
+    protected Long readId(JsonNode node) {
+        JsonNode idNode = node.get(ID_FIELD);
+        if (idNode == null || !idNode.canConvertToLong()) {
+            return null;
+        }
+        return idNode.asLong();
+    }
+
+    /**
+     * 保证之后分配的ID不小于nextId，用于避开已移出存储（如已归档）的ID
+     */
+    public void reserveIds(long nextId) {
+        idCounter.accumulateAndGet(nextId, Math::max);
+    }
+
+    /**
+     * 根据已有ID初始化ID计数器
+     */
+    protected void initializeIdCounter(Collection<Long> ids) {
+        long maxId = ids.stream()
+                .mapToLong(Long::longValue)
+                .max()
+                .orElse(0L);
+        idCounter.set(maxId + 1);
+        logger.debug("Initialized ID counter to: {}", idCounter.get());
+    }
+
+    public BlobFields getBlobFields() {
+        return blobFields;
+    }
+
+    /**
+     * 设置需要外置的大文本字段（需在init之前调用）
+     */
+    public void setBlobFields(BlobFields blobFields) {
+        this.blobFields = blobFields;
+    }
+
+    /**
+     * 获取存储文件路径
+     */
+    public String getStorageFile() {
+        return storageFile;
+    }
+
+    /**
+     * 设置存储文件路径
+     */
+    public void setStorageFile(String storageFile) {
+        this.storageFile = storageFile;
+    }
+
+    /**
+     * 是否启用内存缓存
+     */
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    /**
+     * 设置是否启用内存缓存（需在init之前调用）
+     */
+    public void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
+
+    public long getGroupCommitWindowMillis() {
+        return groupCommitWindowMillis;
+    }
+
+    /**
+     * 设置组提交窗口（需在init之前调用）
+     */
+    public void setGroupCommitWindowMillis(long groupCommitWindowMillis) {
+        this.groupCommitWindowMillis = groupCommitWindowMillis;
+    }
+
+    public boolean isSnapshotEnabled() {
+        return snapshotEnabled;
+    }
+
+    /**
+     * 设置是否维护启动快照（需在init之前调用）
+     */
+    public void setSnapshotEnabled(boolean snapshotEnabled) {
+        this.snapshotEnabled = snapshotEnabled;
+    }
+
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    /**
+     * 设置两次定期快照之间的变更数（需在init之前调用）
+     */
+    public void setSnapshotInterval(int snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * 一条待提交的变更：写入新节点，或node为null时删除
+     */
+    protected static final class Change<T> {
+        private final Long id;
+        private final JsonNode expected;
+        private final JsonNode node;
+        private final T entity;
+
+        private Change(Long id, JsonNode expected, JsonNode node, T entity) {
+            this.id = id;
+            this.expected = expected;
+            this.node = node;
+            this.entity = entity;
+        }
+
+        /**
+         * @param expected 读取到的当前节点，新实体为null
+         */
+        static <T> Change<T> upsert(Long id, JsonNode expected, JsonNode node, T entity) {
+            return new Change<>(id, expected, node, entity);
+        }
+
+        /**
+         * @param expected 读取到的当前节点，为null时不校验，直接删除
+         */
+        static <T> Change<T> delete(Long id, JsonNode expected) {
+            return new Change<>(id, expected, null, null);
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public JsonNode getExpected() {
+            return expected;
+        }
+
+        /**
+         * 新节点，删除时为null
+         */
+        public JsonNode getNode() {
+            return node;
+        }
+
+        public T getEntity() {
+            return entity;
+        }
+
+        public boolean isUpsert() {
+            return node != null;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.gitreview.infrastructure.storage;
+
+import com.example.gitreview.infrastructure.storage.archive.ArchiveStore;
+import com.example.gitreview.infrastructure.storage.blob.BlobFields;
+import com.example.gitreview.infrastructure.storage.blob.BlobStore;
+import com.example.gitreview.infrastructure.storage.codec.StorageCodec;
+import com.example.gitreview.infrastructure.storage.commit.GroupCommitMetrics;
+import com.example.gitreview.infrastructure.storage.index.EntityIndex;
+import com.example.gitreview.infrastructure.storage.jdbc.H2StorageAdapter;
+import com.example.gitreview.infrastructure.storage.journal.JournalStorageAdapter;
+import com.example.gitreview.infrastructure.storage.json.JsonStorageAdapter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 存储适配器工厂
+ * 根据每个存储配置的引擎类型创建并初始化底层存储，并汇总各存储的组提交指标
+ */
+@Component
+public class StorageAdapterFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageAdapterFactory.class);
+
+    @Value("${json.storage.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${json.storage.journal.compaction-threshold:1000}")
+    private int compactionThreshold;
+
+    @Value("${json.storage.blob.min-size:4096}")
+    private int blobMinSize;
+
+    @Value("${json.storage.group-commit.window-ms:5}")
+    private long groupCommitWindowMillis;
+
+    @Value("${json.storage.snapshot.enabled:true}")
+    private boolean snapshotEnabled;
+
+    @Value("${json.storage.snapshot.interval:1000}")
+    private int snapshotInterval;
+
+    @Value("${json.storage.archive.codec:smile+lz4}")
+    private String archiveCodec;
+
+    @Value("${json.storage.h2.url:jdbc:h2:file:./data/git-review}")
+    private String h2Url;
+
+    @Value("${json.storage.h2.username:sa}")
+    private String h2Username;
+
+    @Value("${json.storage.h2.password:}")
+    private String h2Password;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    private final Map<String, AbstractFileStorageAdapter<?>> adapters = new ConcurrentHashMap<>();
+
+    /**
+     * 创建并初始化存储适配器
+     * @param engineCode 引擎类型（json/journal/h2），无法识别时使用json
+     * @param codecCode json引擎的文件编码，如json、compact-json、smile+lz4，无法识别时使用json
+     * @param storageFile 存储文件路径
+     * @param entityClass 实体类
+     * @param typeReference 类型引用
+     * @param idExtractor ID提取器
+     * @param indexes 需要维护的二级索引
+     * @return 已初始化的存储适配器
+     */
+    @SafeVarargs
+    public final <T> AbstractFileStorageAdapter<T> create(String engineCode, String codecCode, String storageFile,
+                                                          Class<T> entityClass,
+                                                          TypeReference<List<T>> typeReference,
+                                                          Function<T, Long> idExtractor,
+                                                          EntityIndex<T, ?>... indexes) {
+        return create(engineCode, codecCode, storageFile, entityClass, typeReference, idExtractor,
+                Collections.emptyList(), indexes);
+    }
+
+    /**
+     * 创建并初始化存储适配器，并将指定的大文本字段外置到BlobStore
+     * @param blobPaths 需要外置的字段路径，如"codeDiff.diffContent"
+     * @see BlobFields
+     */
+    @SafeVarargs
+    public final <T> AbstractFileStorageAdapter<T> create(String engineCode, String codecCode, String storageFile,
+                                                          Class<T> entityClass,
+                                                          TypeReference<List<T>> typeReference,
+                                                          Function<T, Long> idExtractor,
+                                                          List<String> blobPaths,
+                                                          EntityIndex<T, ?>... indexes) {
+        StorageEngine engine = resolveEngine(engineCode);
+
+        AbstractFileStorageAdapter<T> adapter;
+        if (engine == StorageEngine.JOURNAL) {
+            JournalStorageAdapter<T> journalAdapter = new JournalStorageAdapter<>();
+            journalAdapter.setCompactionThreshold(compactionThreshold);
+            adapter = journalAdapter;
+        } else if (engine == StorageEngine.H2) {
+            H2StorageAdapter<T> h2Adapter = new H2StorageAdapter<>();
+            h2Adapter.setJdbcUrl(h2Url);
+            h2Adapter.setUsername(h2Username);
+            h2Adapter.setPassword(h2Password);
+            adapter = h2Adapter;
+        } else {
+            JsonStorageAdapter<T> jsonAdapter = new JsonStorageAdapter<>();
+            jsonAdapter.setCodec(resolveCodec(codecCode));
+            adapter = jsonAdapter;
+        }
+
+        adapter.configure(entityClass, typeReference, idExtractor, "setId");
+        adapter.setStorageFile(storageFile);
+        adapter.setCacheEnabled(cacheEnabled);
+        adapter.setGroupCommitWindowMillis(groupCommitWindowMillis);
+        adapter.setSnapshotEnabled(snapshotEnabled);
+        adapter.setSnapshotInterval(snapshotInterval);
+        if (!blobPaths.isEmpty()) {
+            adapter.setBlobFields(new BlobFields(blobStore, blobPaths, blobMinSize));
+        }
+        for (EntityIndex<T, ?> index : indexes) {
+            adapter.addIndex(index);
+        }
+        adapter.init();
+        adapters.put(storageFile, adapter);
+
+        logger.info("Created {} storage for {} with file: {}", engine.getCode(), entityClass.getSimpleName(), storageFile);
+        return adapter;
+    }
+
+    /**
+     * 打开存储对应的归档段目录，并让存储之后分配的ID避开已归档的ID
+     * @param adapter 已初始化的存储适配器
+     * @return 已初始化的归档
+     */
+    public ArchiveStore createArchive(AbstractFileStorageAdapter<?> adapter) {
+        ArchiveStore archive = new ArchiveStore(ArchiveStore.directoryFor(adapter.getStorageFile()),
+                resolveCodec(archiveCodec));
+        try {
+            archive.init();
+        } catch (IOException e) {
+            logger.error("Failed to open archive: {}", archive.getDirectory(), e);
+            throw new RuntimeException("Failed to open archive", e);
+        }
+        adapter.reserveIds(archive.maxId() + 1);
+        return archive;
+    }
+
+    /**
+     * 获取各存储的组提交指标
+     * @return 存储文件路径到指标的映射
+     */
+    public Map<String, GroupCommitMetrics> getGroupCommitMetrics() {
+        Map<String, GroupCommitMetrics> metrics = new LinkedHashMap<>();
+        adapters.forEach((file, adapter) -> metrics.put(file, adapter.getGroupCommitMetrics()));
+        return metrics;
+    }
+
+    /**
+     * 收集各存储当前引用的BlobStore哈希
+     * @return 仍被引用的哈希
+     */
+    public Set<String> collectBlobReferences() {
+        Set<String> referenced = new HashSet<>();
+        adapters.values().forEach(adapter -> adapter.collectBlobReferences(referenced));
+        return referenced;
+    }
+
+    /**
+     * 获取已创建的存储适配器
+     * @return 存储文件路径到适配器的映射
+     */
+    public Map<String, AbstractFileStorageAdapter<?>> getAdapters() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(adapters));
+    }
+
+    private StorageEngine resolveEngine(String engineCode) {
+        if (engineCode == null || engineCode.trim().isEmpty()) {
+            return StorageEngine.JSON;
+        }
+        try {
+            return StorageEngine.fromCode(engineCode.trim());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown storage engine: {}, using json", engineCode);
+            return StorageEngine.JSON;
+        }
+    }
+
+    private StorageCodec resolveCodec(String codecCode) {
+        try {
+            return StorageCodec.parse(codecCode);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown storage codec: {}, using json", codecCode);
+            return StorageCodec.json();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.gitreview.infrastructure.storage;
+
+/**
+ * 存储引擎类型
+ */
+public enum StorageEngine {
+    JSON("json"),        // 整文件JSON数组
+    JOURNAL("journal"),  // 追加写日志
+    H2("h2");            // 嵌入式H2数据库表
+
+    private final String code;
+
+    StorageEngine(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public static StorageEngine fromCode(String code) {
+        for (StorageEngine engine : values()) {
+            if (engine.code.equalsIgnoreCase(code)) {
+                return engine;
+            }
+        }
+        throw new IllegalArgumentException("Unknown storage engine: " + code);
+    }
+}
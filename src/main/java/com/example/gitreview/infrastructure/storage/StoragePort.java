@@ -2,6 +2,8 @@ package com.example.gitreview.infrastructure.storage;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * 存储端口接口
@@ -31,6 +33,14 @@ public interface StoragePort<T, ID> {
      */
     List<T> findAll();
 
+    /**
+     * 读取实体、应用修改并保存，并发修改时自动重试
+     * @param id 主键
+     * @param modifier 修改操作
+     * @return 保存后的实体（如果存在）
+     */
+    Optional<T> update(ID id, Consumer<T> modifier);
+
     /**
      * 根据ID删除实体
      * @param id 主键
@@ -52,12 +62,27 @@ public interface StoragePort<T, ID> {
     long count();
 
     /**
-     * 批量保存
+     * 批量保存，所有实体一次性持久化
      * @param entities 实体列表
      * @return 保存后的实体列表
      */
     List<T> saveAll(List<T> entities);
 
+    /**
+     * 批量修改满足条件的实体，所有修改一次性持久化
+     * @param filter 筛选条件
+     * @param modifier 修改操作
+     * @return 修改的实体数
+     */
+    int updateWhere(Predicate<T> filter, Consumer<T> modifier);
+
+    /**
+     * 批量删除满足条件的实体，所有删除一次性持久化
+     * @param filter 筛选条件
+     * @return 删除的实体数
+     */
+    int deleteWhere(Predicate<T> filter);
+
     /**
      * 删除所有数据
      */
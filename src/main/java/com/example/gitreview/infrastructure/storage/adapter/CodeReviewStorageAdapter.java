@@ -1,52 +1,107 @@
 package com.example.gitreview.infrastructure.storage.adapter;
 
 import com.example.gitreview.domain.codereview.model.aggregate.CodeReview;
+import com.example.gitreview.domain.codereview.model.valueobject.CodeReviewSummary;
 import com.example.gitreview.domain.codereview.repository.CodeReviewRepository;
-import com.example.gitreview.infrastructure.storage.json.JsonStorageAdapter;
+import com.example.gitreview.domain.shared.model.valueobject.Page;
+import com.example.gitreview.domain.shared.model.valueobject.PageRequest;
+import com.example.gitreview.infrastructure.storage.AbstractFileStorageAdapter;
+import com.example.gitreview.infrastructure.storage.StorageAdapterFactory;
+import com.example.gitreview.infrastructure.storage.archive.ArchiveStore;
+import com.example.gitreview.infrastructure.storage.index.HashIndex;
+import com.example.gitreview.infrastructure.storage.index.Projection;
+import com.example.gitreview.infrastructure.storage.index.SortedIndex;
+import com.example.gitreview.infrastructure.storage.query.KeysetPaginator;
 import com.fasterxml.jackson.core.type.TypeReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * CodeReview持久化适配器
  * 基于JSON文件实现CodeReview的持久化操作
+ * 按仓库、状态、创建人和创建时间的查询走内存二级索引，不再扫描全部记录
+ * 列表查询返回内存中的摘要投影，不反序列化会话和报告；分页查询在索引上过滤后按游标取页
+ * 超过一定时间的记录按创建月份移到压缩的归档段，常规查询不再读取；按ID和创建时间范围的查询会打开相关的段
  */
 @Component
 public class CodeReviewStorageAdapter implements CodeReviewRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(CodeReviewStorageAdapter.class);
 
+    /**
+     * 外置到BlobStore的大文本字段，会话中重复的差异内容只存储一份
+     */
+    private static final List<String> BLOB_FIELDS = List.of(
+            "codeDiff.diffContent",
+            "finalResult.detailedReport",
+            "sessions.*.codeDiff.diffContent",
+            "sessions.*.result.detailedReport"
+    );
+
     @Value("${json.storage.codereview.file:data/code-reviews.json}")
     private String storageFile;
 
-    private final JsonStorageAdapter<CodeReview> storageAdapter;
+    @Value("${json.storage.codereview.engine:json}")
+    private String storageEngine;
 
-    public CodeReviewStorageAdapter() {
-        this.storageAdapter = new JsonStorageAdapter<>();
-    }
+    @Value("${json.storage.codereview.codec:json}")
+    private String storageCodec;
+
+    @Autowired
+    private StorageAdapterFactory storageAdapterFactory;
+
+    private AbstractFileStorageAdapter<CodeReview> storageAdapter;
+    private ArchiveStore archive;
+
+    private final HashIndex<CodeReview, Long> repositoryIndex =
+            new HashIndex<>("repositoryId", CodeReview::getRepositoryId);
+    private final HashIndex<CodeReview, CodeReview.ReviewStatus> statusIndex =
+            new HashIndex<>("status", CodeReview::getStatus);
+    private final HashIndex<CodeReview, String> createdByIndex =
+            new HashIndex<>("createdBy", CodeReview::getCreatedBy);
+    private final SortedIndex<CodeReview, LocalDateTime> createTimeIndex =
+            new SortedIndex<>("createTime", CodeReview::getCreateTime);
+    private final Projection<CodeReview, CodeReviewSummary> summaryProjection =
+            new Projection<>("summary", CodeReviewSummary::of);
+    private final KeysetPaginator<CodeReviewSummary> paginator = new KeysetPaginator<>(CodeReviewSummary::getId)
+            .sortBy("createTime", CodeReviewSummary::getCreateTime, LocalDateTime::parse)
+            .sortBy("updateTime", CodeReviewSummary::getUpdateTime, LocalDateTime::parse)
+            .sortBy("qualityScore", CodeReviewSummary::getQualityScore, Integer::valueOf);
 
     @PostConstruct
     public void init() {
-        // 配置存储适配器
-        storageAdapter.setStorageFile(storageFile);
-        storageAdapter.configure(
+        storageAdapter = storageAdapterFactory.create(
+                storageEngine,
+                storageCodec,
+                storageFile,
                 CodeReview.class,
                 new TypeReference<List<CodeReview>>() {},
                 CodeReview::getId,
-                "setId"
+                BLOB_FIELDS,
+                repositoryIndex, statusIndex, createdByIndex, createTimeIndex, summaryProjection
         );
-        storageAdapter.init();
+        archive = storageAdapterFactory.createArchive(storageAdapter);
         logger.info("CodeReviewStorageAdapter initialized with file: {}", storageFile);
     }
 
+    @PreDestroy
+    public void destroy() {
+        storageAdapter.close();
+    }
+
     @Override
     public CodeReview save(CodeReview codeReview) {
         logger.debug("Saving CodeReview: {}", codeReview.getId());
@@ -56,44 +111,79 @@ public class CodeReviewStorageAdapter implements CodeReviewRepository {
     @Override
     public Optional<CodeReview> findById(Long id) {
         logger.debug("Finding CodeReview by ID: {}", id);
-        return storageAdapter.findById(id);
+        Optional<CodeReview> found = storageAdapter.findById(id);
+        return found.isPresent() ? found : storageAdapter.findArchivedById(id, archive);
+    }
+
+    @Override
+    public Optional<CodeReview> update(Long id, Consumer<CodeReview> modifier) {
+        logger.debug("Updating CodeReview: {}", id);
+        return storageAdapter.update(id, modifier);
+    }
+
+    @Override
+    public Optional<CodeReview> findWithoutContentById(Long id) {
+        logger.debug("Finding CodeReview without content by ID: {}", id);
+        Optional<CodeReview> found = storageAdapter.findLightById(id);
+        return found.isPresent() ? found : storageAdapter.findArchivedById(id, archive);
+    }
+
+    @Override
+    public boolean updateWithoutContent(Long id, Consumer<CodeReview> modifier) {
+        logger.debug("Updating CodeReview without content: {}", id);
+        return storageAdapter.updateLight(id, modifier);
     }
 
     @Override
     public List<CodeReview> findByRepositoryId(Long repositoryId) {
         logger.debug("Finding CodeReviews by repository ID: {}", repositoryId);
-        return storageAdapter.findAll().stream()
-                .filter(review -> repositoryId.equals(review.getRepositoryId()))
-                .collect(Collectors.toList());
+        return storageAdapter.findByIndex(repositoryIndex, repositoryId);
     }
 
     @Override
     public List<CodeReview> findByStatus(CodeReview.ReviewStatus status) {
         logger.debug("Finding CodeReviews by status: {}", status);
-        return storageAdapter.findAll().stream()
-                .filter(review -> status.equals(review.getStatus()))
-                .collect(Collectors.toList());
+        return storageAdapter.findByIndex(statusIndex, status);
     }
 
     @Override
     public List<CodeReview> findByCreatedBy(String createdBy) {
         logger.debug("Finding CodeReviews by createdBy: {}", createdBy);
-        return storageAdapter.findAll().stream()
-                .filter(review -> createdBy.equals(review.getCreatedBy()))
-                .collect(Collectors.toList());
+        return storageAdapter.findByIndex(createdByIndex, createdBy);
+    }
+
+    @Override
+    public List<CodeReviewSummary> findSummariesByRepositoryId(Long repositoryId) {
+        logger.debug("Finding CodeReview summaries by repository ID: {}", repositoryId);
+        return storageAdapter.findProjectionsByIndex(repositoryIndex, repositoryId, summaryProjection);
+    }
+
+    @Override
+    public List<CodeReviewSummary> findSummariesByCreatedBy(String createdBy) {
+        logger.debug("Finding CodeReview summaries by createdBy: {}", createdBy);
+        return storageAdapter.findProjectionsByIndex(createdByIndex, createdBy, summaryProjection);
+    }
+
+    @Override
+    public Page<CodeReviewSummary> findSummaryPage(Long repositoryId, CodeReview.ReviewStatus status, String createdBy,
+                                                   PageRequest pageRequest) {
+        logger.debug("Finding CodeReview summary page: repositoryId={}, status={}, createdBy={}, {}",
+                repositoryId, status, createdBy, pageRequest);
+        List<CodeReviewSummary> candidates = storageAdapter.findProjectionsByIndexes(summaryProjection,
+                repositoryIndex.eq(repositoryId), statusIndex.eq(status), createdByIndex.eq(createdBy));
+        return paginator.page(candidates, pageRequest);
     }
 
     @Override
     public List<CodeReview> findByCreateTimeBetween(LocalDateTime startTime, LocalDateTime endTime) {
         logger.debug("Finding CodeReviews between {} and {}", startTime, endTime);
-        return storageAdapter.findAll().stream()
-                .filter(review -> {
-                    LocalDateTime createTime = review.getCreateTime();
-                    return createTime != null &&
-                           !createTime.isBefore(startTime) &&
-                           !createTime.isAfter(endTime);
-                })
-                .collect(Collectors.toList());
+        List<CodeReview> result = new ArrayList<>(storageAdapter.findByRange(createTimeIndex, startTime, endTime));
+        List<CodeReview> archived = storageAdapter.findArchivedBetween(createTimeIndex, startTime, endTime, archive);
+        if (!archived.isEmpty()) {
+            result.addAll(archived);
+            result.sort(Comparator.comparing(CodeReview::getCreateTime));
+        }
+        return result;
     }
 
     @Override
@@ -105,7 +195,10 @@ public class CodeReviewStorageAdapter implements CodeReviewRepository {
     @Override
     public List<CodeReview> findRetryableFailures() {
         logger.debug("Finding retryable failed CodeReviews");
-        return storageAdapter.findAll().stream()
+        // 只有失败或进行中的评审可能可重试
+        List<CodeReview> candidates = new ArrayList<>(findByStatus(CodeReview.ReviewStatus.FAILED));
+        candidates.addAll(findByStatus(CodeReview.ReviewStatus.IN_PROGRESS));
+        return candidates.stream()
                 .filter(CodeReview::canRetry)
                 .collect(Collectors.toList());
     }
@@ -114,8 +207,7 @@ public class CodeReviewStorageAdapter implements CodeReviewRepository {
     public List<CodeReview> findByRepositoryAndBranches(Long repositoryId, String baseBranch, String targetBranch) {
         logger.debug("Finding CodeReviews by repository {} and branches {} -> {}",
                     repositoryId, baseBranch, targetBranch);
-        return storageAdapter.findAll().stream()
-                .filter(review -> repositoryId.equals(review.getRepositoryId()))
+        return findByRepositoryId(repositoryId).stream()
                 .filter(review -> {
                     // 这里需要检查CodeDiff中的分支信息
                     // 暂时简化处理，实际项目中可能需要更复杂的查询
@@ -127,12 +219,14 @@ public class CodeReviewStorageAdapter implements CodeReviewRepository {
     @Override
     public boolean deleteById(Long id) {
         logger.debug("Deleting CodeReview by ID: {}", id);
-        return storageAdapter.deleteById(id);
+        // 归档中途失败时实体可能同时存在于存储和归档，两处都删除
+        boolean deleted = storageAdapter.deleteById(id);
+        return storageAdapter.deleteArchivedById(id, archive) || deleted;
     }
 
     @Override
     public boolean existsById(Long id) {
-        return storageAdapter.existsById(id);
+        return storageAdapter.existsById(id) || archive.locate(id).isPresent();
     }
 
     @Override
@@ -142,65 +236,47 @@ public class CodeReviewStorageAdapter implements CodeReviewRepository {
 
     @Override
     public long countByRepositoryId(Long repositoryId) {
-        return findByRepositoryId(repositoryId).size();
+        return storageAdapter.countByIndex(repositoryIndex, repositoryId);
     }
 
     @Override
     public long countByStatus(CodeReview.ReviewStatus status) {
-        return findByStatus(status).size();
+        return storageAdapter.countByIndex(statusIndex, status);
     }
 
     @Override
     public int updateStatusBatch(List<Long> ids, CodeReview.ReviewStatus newStatus) {
         logger.debug("Updating status to {} for {} reviews", newStatus, ids.size());
-        int updateCount = 0;
-
-        for (Long id : ids) {
-            Optional<CodeReview> reviewOpt = findById(id);
-            if (reviewOpt.isPresent()) {
-                CodeReview review = reviewOpt.get();
-                try {
-                    // 根据新状态执行相应的业务操作
-                    switch (newStatus) {
-                        case CANCELLED:
-                            review.cancel("Batch operation");
-                            break;
-                        case FAILED:
-                            review.markAsFailed("Batch operation");
-                            break;
-                        case PENDING:
-                            review.restart();
-                            break;
-                        default:
-                            // 对于其他状态，直接设置可能不安全，跳过
-                            continue;
-                    }
-                    save(review);
-                    updateCount++;
-                } catch (Exception e) {
-                    logger.warn("Failed to update status for review {}: {}", id, e.getMessage());
-                }
-            }
+        Consumer<CodeReview> transition;
+        // 根据新状态执行相应的业务操作
+        switch (newStatus) {
+            case CANCELLED:
+                transition = review -> review.cancel("Batch operation");
+                break;
+            case FAILED:
+                transition = review -> review.markAsFailed("Batch operation");
+                break;
+            case PENDING:
+                transition = CodeReview::restart;
+                break;
+            default:
+                // 对于其他状态，直接设置可能不安全，跳过
+                return 0;
         }
-
-        return updateCount;
+        // 不允许该状态转换的评审会被跳过，其余评审一次性写入
+        return storageAdapter.updateAllById(ids, transition);
     }
 
     @Override
     public int deleteOldRecords(LocalDateTime beforeTime) {
         logger.debug("Deleting CodeReviews before {}", beforeTime);
-        List<CodeReview> allReviews = storageAdapter.findAll();
-        List<CodeReview> toDelete = allReviews.stream()
-                .filter(review -> review.getCreateTime().isBefore(beforeTime))
-                .collect(Collectors.toList());
-
-        int deleteCount = 0;
-        for (CodeReview review : toDelete) {
-            if (deleteById(review.getId())) {
-                deleteCount++;
-            }
-        }
+        return storageAdapter.deleteBefore(createTimeIndex, beforeTime)
+                + storageAdapter.purgeArchivedBefore(createTimeIndex, beforeTime, archive);
+    }
 
-        return deleteCount;
+    @Override
+    public int archiveOldRecords(LocalDateTime beforeTime) {
+        logger.debug("Archiving CodeReviews before {}", beforeTime);
+        return storageAdapter.archiveBefore(createTimeIndex, beforeTime, archive);
     }
 }
\ No newline at end of file
@@ -3,14 +3,17 @@ package com.example.gitreview.infrastructure.storage.adapter;
 import com.example.gitreview.domain.shared.model.aggregate.Repository;
 import com.example.gitreview.domain.shared.model.valueobject.GitUrl;
 import com.example.gitreview.domain.shared.repository.GitRepositoryRepository;
-import com.example.gitreview.infrastructure.storage.json.JsonStorageAdapter;
+import com.example.gitreview.infrastructure.storage.AbstractFileStorageAdapter;
+import com.example.gitreview.infrastructure.storage.StorageAdapterFactory;
 import com.fasterxml.jackson.core.type.TypeReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.time.LocalDateTime;
 import java.util.Comparator;
 import java.util.List;
@@ -29,28 +32,35 @@ public class GitRepositoryStorageAdapter implements GitRepositoryRepository {
     @Value("${json.storage.repository.file:data/repositories.json}")
     private String storageFile;
 
-    private final JsonStorageAdapter<Repository> storageAdapter;
+    @Value("${json.storage.repository.engine:json}")
+    private String storageEngine;
 
-    public GitRepositoryStorageAdapter() {
-        this.storageAdapter = new JsonStorageAdapter<>();
-    }
+    @Value("${json.storage.repository.codec:json}")
+    private String storageCodec;
+
+    @Autowired
+    private StorageAdapterFactory storageAdapterFactory;
+
+    private AbstractFileStorageAdapter<Repository> storageAdapter;
 
     @PostConstruct
     public void init() {
-        // 先配置存储适配器
-        storageAdapter.configure(
+        storageAdapter = storageAdapterFactory.create(
+                storageEngine,
+                storageCodec,
+                storageFile,
                 Repository.class,
                 new TypeReference<List<Repository>>() {},
-                Repository::getId,
-                "setId"
+                Repository::getId
         );
-        // 设置存储文件路径
-        storageAdapter.setStorageFile(storageFile);
-        // 然后初始化
-        storageAdapter.init();
         logger.info("GitRepositoryStorageAdapter initialized with file: {}", storageFile);
     }
 
+    @PreDestroy
+    public void destroy() {
+        storageAdapter.close();
+    }
+
     @Override
     public Repository save(Repository repository) {
         logger.debug("Saving Repository: {}", repository.getId());
@@ -185,45 +195,14 @@ public class GitRepositoryStorageAdapter implements GitRepositoryRepository {
     @Override
     public int updateActiveStatusBatch(List<Long> ids, boolean active) {
         logger.debug("Updating active status to {} for {} repositories", active, ids.size());
-        int updateCount = 0;
-
-        for (Long id : ids) {
-            Optional<Repository> repoOpt = findById(id);
-            if (repoOpt.isPresent()) {
-                Repository repo = repoOpt.get();
-                try {
-                    if (active) {
-                        repo.activate();
-                    } else {
-                        repo.deactivate();
-                    }
-                    save(repo);
-                    updateCount++;
-                } catch (Exception e) {
-                    logger.warn("Failed to update active status for repository {}: {}", id, e.getMessage());
-                }
-            }
-        }
-
-        return updateCount;
+        return storageAdapter.updateAllById(ids, active ? Repository::activate : Repository::deactivate);
     }
 
     @Override
     public int deleteOldRecords(LocalDateTime beforeTime) {
         logger.debug("Deleting Repositories before {}", beforeTime);
-        List<Repository> allRepos = storageAdapter.findAll();
-        List<Repository> toDelete = allRepos.stream()
-                .filter(repo -> repo.getCreateTime().isBefore(beforeTime))
-                .collect(Collectors.toList());
-
-        int deleteCount = 0;
-        for (Repository repo : toDelete) {
-            if (deleteById(repo.getId())) {
-                deleteCount++;
-            }
-        }
-
-        return deleteCount;
+        return storageAdapter.deleteWhere(repo -> repo.getCreateTime() != null
+                && repo.getCreateTime().isBefore(beforeTime));
     }
 
     @Override
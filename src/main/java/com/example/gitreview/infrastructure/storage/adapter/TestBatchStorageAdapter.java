@@ -0,0 +1,84 @@
+package com.example.gitreview.infrastructure.storage.adapter;
+
+import com.example.gitreview.domain.testgen.model.aggregate.TestBatch;
+import com.example.gitreview.domain.testgen.repository.TestBatchRepository;
+import com.example.gitreview.infrastructure.storage.AbstractFileStorageAdapter;
+import com.example.gitreview.infrastructure.storage.StorageAdapterFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * TestBatch持久化适配器
+ * 批次只按ID读写，不需要二级索引
+ */
+@Component
+public class TestBatchStorageAdapter implements TestBatchRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestBatchStorageAdapter.class);
+
+    @Value("${json.storage.testbatch.file:data/test-batches.json}")
+    private String storageFile;
+
+    @Value("${json.storage.testbatch.engine:json}")
+    private String storageEngine;
+
+    @Value("${json.storage.testbatch.codec:json}")
+    private String storageCodec;
+
+    @Autowired
+    private StorageAdapterFactory storageAdapterFactory;
+
+    private AbstractFileStorageAdapter<TestBatch> storageAdapter;
+
+    @PostConstruct
+    public void init() {
+        storageAdapter = storageAdapterFactory.create(
+                storageEngine,
+                storageCodec,
+                storageFile,
+                TestBatch.class,
+                new TypeReference<List<TestBatch>>() {},
+                TestBatch::getId
+        );
+        logger.info("TestBatchStorageAdapter initialized with file: {}", storageFile);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        storageAdapter.close();
+    }
+
+    @Override
+    public TestBatch save(TestBatch testBatch) {
+        logger.debug("Saving TestBatch: {}", testBatch.getId());
+        return storageAdapter.save(testBatch);
+    }
+
+    @Override
+    public Optional<TestBatch> findById(Long id) {
+        logger.debug("Finding TestBatch by ID: {}", id);
+        return storageAdapter.findById(id);
+    }
+
+    @Override
+    public Optional<TestBatch> update(Long id, Consumer<TestBatch> modifier) {
+        logger.debug("Updating TestBatch: {}", id);
+        return storageAdapter.update(id, modifier);
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        logger.debug("Deleting TestBatch by ID: {}", id);
+        return storageAdapter.deleteById(id);
+    }
+}
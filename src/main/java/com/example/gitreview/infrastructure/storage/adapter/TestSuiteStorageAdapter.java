@@ -1,25 +1,41 @@
 package com.example.gitreview.infrastructure.storage.adapter;
 
+import com.example.gitreview.domain.shared.model.valueobject.Page;
+import com.example.gitreview.domain.shared.model.valueobject.PageRequest;
 import com.example.gitreview.domain.testgen.model.aggregate.TestSuite;
 import com.example.gitreview.domain.testgen.model.valueobject.JavaClass;
+import com.example.gitreview.domain.testgen.model.valueobject.TestSuiteSummary;
 import com.example.gitreview.domain.testgen.repository.TestSuiteRepository;
-import com.example.gitreview.infrastructure.storage.json.JsonStorageAdapter;
+import com.example.gitreview.infrastructure.storage.AbstractFileStorageAdapter;
+import com.example.gitreview.infrastructure.storage.StorageAdapterFactory;
+import com.example.gitreview.infrastructure.storage.archive.ArchiveStore;
+import com.example.gitreview.infrastructure.storage.index.HashIndex;
+import com.example.gitreview.infrastructure.storage.index.Projection;
+import com.example.gitreview.infrastructure.storage.index.SortedIndex;
+import com.example.gitreview.infrastructure.storage.query.KeysetPaginator;
 import com.fasterxml.jackson.core.type.TypeReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * TestSuite持久化适配器
  * 基于JSON文件实现TestSuite的持久化操作
+ * 按仓库、状态、创建人和创建时间的查询走内存二级索引，不再扫描全部记录
+ * 列表查询返回内存中的摘要投影，不反序列化测试用例和生成的代码；分页查询在索引上过滤后按游标取页
+ * 超过一定时间的记录按创建月份移到压缩的归档段，常规查询不再读取；按ID和创建时间范围的查询会打开相关的段
  */
 @Component
 public class TestSuiteStorageAdapter implements TestSuiteRepository {
@@ -29,26 +45,53 @@ public class TestSuiteStorageAdapter implements TestSuiteRepository {
     @Value("${json.storage.testsuite.file:data/test-suites.json}")
     private String storageFile;
 
-    private final JsonStorageAdapter<TestSuite> storageAdapter;
-
-    public TestSuiteStorageAdapter() {
-        this.storageAdapter = new JsonStorageAdapter<>();
-    }
+    @Value("${json.storage.testsuite.engine:json}")
+    private String storageEngine;
+
+    @Value("${json.storage.testsuite.codec:json}")
+    private String storageCodec;
+
+    @Autowired
+    private StorageAdapterFactory storageAdapterFactory;
+
+    private AbstractFileStorageAdapter<TestSuite> storageAdapter;
+    private ArchiveStore archive;
+
+    private final HashIndex<TestSuite, Long> repositoryIndex =
+            new HashIndex<>("repositoryId", TestSuite::getRepositoryId);
+    private final HashIndex<TestSuite, TestSuite.GenerationStatus> statusIndex =
+            new HashIndex<>("status", TestSuite::getStatus);
+    private final HashIndex<TestSuite, String> createdByIndex =
+            new HashIndex<>("createdBy", TestSuite::getCreatedBy);
+    private final SortedIndex<TestSuite, LocalDateTime> createTimeIndex =
+            new SortedIndex<>("createTime", TestSuite::getCreateTime);
+    private final Projection<TestSuite, TestSuiteSummary> summaryProjection =
+            new Projection<>("summary", TestSuiteSummary::of);
+    private final KeysetPaginator<TestSuiteSummary> paginator = new KeysetPaginator<>(TestSuiteSummary::getId)
+            .sortBy("createTime", TestSuiteSummary::getCreateTime, LocalDateTime::parse)
+            .sortBy("updateTime", TestSuiteSummary::getUpdateTime, LocalDateTime::parse)
+            .sortBy("qualityScore", TestSuiteSummary::getQualityScore, Integer::valueOf);
 
     @PostConstruct
     public void init() {
-        // 配置存储适配器
-        storageAdapter.setStorageFile(storageFile);
-        storageAdapter.configure(
+        storageAdapter = storageAdapterFactory.create(
+                storageEngine,
+                storageCodec,
+                storageFile,
                 TestSuite.class,
                 new TypeReference<List<TestSuite>>() {},
                 TestSuite::getId,
-                "setId"
+                repositoryIndex, statusIndex, createdByIndex, createTimeIndex, summaryProjection
         );
-        storageAdapter.init();
+        archive = storageAdapterFactory.createArchive(storageAdapter);
         logger.info("TestSuiteStorageAdapter initialized with file: {}", storageFile);
     }
 
+    @PreDestroy
+    public void destroy() {
+        storageAdapter.close();
+    }
+
     @Override
     public TestSuite save(TestSuite testSuite) {
         logger.debug("Saving TestSuite: {}", testSuite.getId());
@@ -58,40 +101,63 @@ public class TestSuiteStorageAdapter implements TestSuiteRepository {
     @Override
     public Optional<TestSuite> findById(Long id) {
         logger.debug("Finding TestSuite by ID: {}", id);
-        return storageAdapter.findById(id);
+        Optional<TestSuite> found = storageAdapter.findById(id);
+        return found.isPresent() ? found : storageAdapter.findArchivedById(id, archive);
+    }
+
+    @Override
+    public Optional<TestSuite> update(Long id, Consumer<TestSuite> modifier) {
+        logger.debug("Updating TestSuite: {}", id);
+        return storageAdapter.update(id, modifier);
     }
 
     @Override
     public List<TestSuite> findByRepositoryId(Long repositoryId) {
         logger.debug("Finding TestSuites by repository ID: {}", repositoryId);
-        return storageAdapter.findAll().stream()
-                .filter(suite -> repositoryId.equals(suite.getRepositoryId()))
-                .collect(Collectors.toList());
+        return storageAdapter.findByIndex(repositoryIndex, repositoryId);
     }
 
     @Override
     public List<TestSuite> findByRepositoryIdAndCreatedBy(Long repositoryId, String createdBy) {
         logger.debug("Finding TestSuites by repository ID: {} and createdBy: {}", repositoryId, createdBy);
-        return storageAdapter.findAll().stream()
-                .filter(suite -> repositoryId.equals(suite.getRepositoryId()) &&
-                               createdBy.equals(suite.getCreatedBy()))
+        return findByRepositoryId(repositoryId).stream()
+                .filter(suite -> createdBy.equals(suite.getCreatedBy()))
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<TestSuite> findByStatus(TestSuite.GenerationStatus status) {
         logger.debug("Finding TestSuites by status: {}", status);
-        return storageAdapter.findAll().stream()
-                .filter(suite -> status.equals(suite.getStatus()))
-                .collect(Collectors.toList());
+        return storageAdapter.findByIndex(statusIndex, status);
     }
 
     @Override
     public List<TestSuite> findByCreatedBy(String createdBy) {
         logger.debug("Finding TestSuites by createdBy: {}", createdBy);
-        return storageAdapter.findAll().stream()
-                .filter(suite -> createdBy.equals(suite.getCreatedBy()))
-                .collect(Collectors.toList());
+        return storageAdapter.findByIndex(createdByIndex, createdBy);
+    }
+
+    @Override
+    public List<TestSuiteSummary> findSummariesByCreatedBy(String createdBy) {
+        logger.debug("Finding TestSuite summaries by createdBy: {}", createdBy);
+        return storageAdapter.findProjectionsByIndex(createdByIndex, createdBy, summaryProjection);
+    }
+
+    @Override
+    public List<TestSuiteSummary> findSummariesByRepositoryIdAndCreatedBy(Long repositoryId, String createdBy) {
+        logger.debug("Finding TestSuite summaries by repository ID: {} and createdBy: {}", repositoryId, createdBy);
+        return storageAdapter.findProjectionsByIndexes(summaryProjection,
+                repositoryIndex.eq(repositoryId), createdByIndex.eq(createdBy));
+    }
+
+    @Override
+    public Page<TestSuiteSummary> findSummaryPage(Long repositoryId, TestSuite.GenerationStatus status, String createdBy,
+                                                  PageRequest pageRequest) {
+        logger.debug("Finding TestSuite summary page: repositoryId={}, status={}, createdBy={}, {}",
+                repositoryId, status, createdBy, pageRequest);
+        List<TestSuiteSummary> candidates = storageAdapter.findProjectionsByIndexes(summaryProjection,
+                repositoryIndex.eq(repositoryId), statusIndex.eq(status), createdByIndex.eq(createdBy));
+        return paginator.page(candidates, pageRequest);
     }
 
     @Override
@@ -113,32 +179,29 @@ public class TestSuiteStorageAdapter implements TestSuiteRepository {
     @Override
     public Optional<TestSuite> findByRepositoryIdAndTargetClass(Long repositoryId, JavaClass targetClass) {
         logger.debug("Finding TestSuite by repository {} and target class {}", repositoryId, targetClass);
-        return storageAdapter.findAll().stream()
-                .filter(suite -> repositoryId.equals(suite.getRepositoryId()) &&
-                               targetClass.equals(suite.getTargetClass()))
+        return findByRepositoryId(repositoryId).stream()
+                .filter(suite -> targetClass.equals(suite.getTargetClass()))
                 .findFirst();
     }
 
     @Override
     public List<TestSuite> findByCreateTimeBetween(LocalDateTime startTime, LocalDateTime endTime) {
         logger.debug("Finding TestSuites between {} and {}", startTime, endTime);
-        return storageAdapter.findAll().stream()
-                .filter(suite -> {
-                    LocalDateTime createTime = suite.getCreateTime();
-                    return createTime != null &&
-                           !createTime.isBefore(startTime) &&
-                           !createTime.isAfter(endTime);
-                })
-                .collect(Collectors.toList());
+        List<TestSuite> result = new ArrayList<>(storageAdapter.findByRange(createTimeIndex, startTime, endTime));
+        List<TestSuite> archived = storageAdapter.findArchivedBetween(createTimeIndex, startTime, endTime, archive);
+        if (!archived.isEmpty()) {
+            result.addAll(archived);
+            result.sort(Comparator.comparing(TestSuite::getCreateTime));
+        }
+        return result;
     }
 
     @Override
     public List<TestSuite> findInProgress() {
         logger.debug("Finding in-progress TestSuites");
-        return storageAdapter.findAll().stream()
-                .filter(suite -> suite.getStatus() == TestSuite.GenerationStatus.GENERATING ||
-                               suite.getStatus() == TestSuite.GenerationStatus.VALIDATING)
-                .collect(Collectors.toList());
+        List<TestSuite> suites = new ArrayList<>(findByStatus(TestSuite.GenerationStatus.GENERATING));
+        suites.addAll(findByStatus(TestSuite.GenerationStatus.VALIDATING));
+        return suites;
     }
 
     @Override
@@ -150,7 +213,10 @@ public class TestSuiteStorageAdapter implements TestSuiteRepository {
     @Override
     public List<TestSuite> findRetryableFailures() {
         logger.debug("Finding retryable failed TestSuites");
-        return storageAdapter.findAll().stream()
+        // 只有失败或已验证的测试套件可能需要重新生成
+        List<TestSuite> candidates = new ArrayList<>(findByStatus(TestSuite.GenerationStatus.FAILED));
+        candidates.addAll(findByStatus(TestSuite.GenerationStatus.VALIDATED));
+        return candidates.stream()
                 .filter(TestSuite::canRegenerate)
                 .collect(Collectors.toList());
     }
@@ -180,12 +246,14 @@ public class TestSuiteStorageAdapter implements TestSuiteRepository {
     @Override
     public boolean deleteById(Long id) {
         logger.debug("Deleting TestSuite by ID: {}", id);
-        return storageAdapter.deleteById(id);
+        // 归档中途失败时实体可能同时存在于存储和归档，两处都删除
+        boolean deleted = storageAdapter.deleteById(id);
+        return storageAdapter.deleteArchivedById(id, archive) || deleted;
     }
 
     @Override
     public boolean existsById(Long id) {
-        return storageAdapter.existsById(id);
+        return storageAdapter.existsById(id) || archive.locate(id).isPresent();
     }
 
     @Override
@@ -200,68 +268,50 @@ public class TestSuiteStorageAdapter implements TestSuiteRepository {
 
     @Override
     public long countByRepositoryId(Long repositoryId) {
-        return findByRepositoryId(repositoryId).size();
+        return storageAdapter.countByIndex(repositoryIndex, repositoryId);
     }
 
     @Override
     public long countByStatus(TestSuite.GenerationStatus status) {
-        return findByStatus(status).size();
+        return storageAdapter.countByIndex(statusIndex, status);
     }
 
     @Override
     public long countByCreatedBy(String createdBy) {
-        return findByCreatedBy(createdBy).size();
+        return storageAdapter.countByIndex(createdByIndex, createdBy);
     }
 
     @Override
     public int updateStatusBatch(List<Long> ids, TestSuite.GenerationStatus newStatus) {
         logger.debug("Updating status to {} for {} test suites", newStatus, ids.size());
-        int updateCount = 0;
-
-        for (Long id : ids) {
-            Optional<TestSuite> suiteOpt = findById(id);
-            if (suiteOpt.isPresent()) {
-                TestSuite suite = suiteOpt.get();
-                try {
-                    // 根据新状态执行相应的业务操作
-                    switch (newStatus) {
-                        case FAILED:
-                            suite.markAsFailed("Batch operation");
-                            break;
-                        case PENDING:
-                            suite.restart();
-                            break;
-                        default:
-                            // 对于其他状态，直接设置可能不安全，跳过
-                            continue;
-                    }
-                    save(suite);
-                    updateCount++;
-                } catch (Exception e) {
-                    logger.warn("Failed to update status for test suite {}: {}", id, e.getMessage());
-                }
-            }
+        Consumer<TestSuite> transition;
+        // 根据新状态执行相应的业务操作
+        switch (newStatus) {
+            case FAILED:
+                transition = suite -> suite.markAsFailed("Batch operation");
+                break;
+            case PENDING:
+                transition = TestSuite::restart;
+                break;
+            default:
+                // 对于其他状态，直接设置可能不安全，跳过
+                return 0;
         }
-
-        return updateCount;
+        // 不允许该状态转换的测试套件会被跳过，其余测试套件一次性写入
+        return storageAdapter.updateAllById(ids, transition);
     }
 
     @Override
     public int deleteOldRecords(LocalDateTime beforeTime) {
         logger.debug("Deleting TestSuites before {}", beforeTime);
-        List<TestSuite> allSuites = storageAdapter.findAll();
-        List<TestSuite> toDelete = allSuites.stream()
-                .filter(suite -> suite.getCreateTime().isBefore(beforeTime))
-                .collect(Collectors.toList());
-
-        int deleteCount = 0;
-        for (TestSuite suite : toDelete) {
-            if (deleteById(suite.getId())) {
-                deleteCount++;
-            }
-        }
+        return storageAdapter.deleteBefore(createTimeIndex, beforeTime)
+                + storageAdapter.purgeArchivedBefore(createTimeIndex, beforeTime, archive);
+    }
 
-        return deleteCount;
+    @Override
+    public int archiveOldRecords(LocalDateTime beforeTime) {
+        logger.debug("Archiving TestSuites before {}", beforeTime);
+        return storageAdapter.archiveBefore(createTimeIndex, beforeTime, archive);
     }
 
     @Override
@@ -285,9 +335,8 @@ public class TestSuiteStorageAdapter implements TestSuiteRepository {
     @Override
     public List<TestSuite> findByRepositoryIdAndStatus(Long repositoryId, TestSuite.GenerationStatus status) {
         logger.debug("Finding TestSuites by repository {} and status {}", repositoryId, status);
-        return storageAdapter.findAll().stream()
-                .filter(suite -> repositoryId.equals(suite.getRepositoryId()) &&
-                               status.equals(suite.getStatus()))
+        return findByStatus(status).stream()
+                .filter(suite -> repositoryId.equals(suite.getRepositoryId()))
                 .collect(Collectors.toList());
     }
 
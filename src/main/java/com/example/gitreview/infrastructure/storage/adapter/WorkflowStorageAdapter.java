@@ -1,22 +1,34 @@
 package com.example.gitreview.infrastructure.storage.adapter;
 
+import com.example.gitreview.domain.shared.model.valueobject.Page;
+import com.example.gitreview.domain.shared.model.valueobject.PageRequest;
+import com.example.gitreview.domain.workflow.model.WorkflowStatus;
 import com.example.gitreview.domain.workflow.model.aggregate.DevelopmentWorkflow;
+import com.example.gitreview.domain.workflow.model.valueobject.WorkflowSummary;
 import com.example.gitreview.domain.workflow.repository.WorkflowRepository;
-import com.example.gitreview.infrastructure.storage.json.JsonStorageAdapter;
+import com.example.gitreview.infrastructure.storage.AbstractFileStorageAdapter;
+import com.example.gitreview.infrastructure.storage.StorageAdapterFactory;
+import com.example.gitreview.infrastructure.storage.index.HashIndex;
+import com.example.gitreview.infrastructure.storage.index.Projection;
+import com.example.gitreview.infrastructure.storage.query.KeysetPaginator;
 import com.fasterxml.jackson.core.type.TypeReference;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * 工作流存储适配器
  * 基于JSON文件实现工作流的持久化操作
+ * 工作流列表返回内存中的摘要投影，不反序列化规格文档、任务和代码生成记录；分页查询在索引上过滤后按游标取页
  *
  * @author zhourui(V33215020)
  * @since 2025/10/04
@@ -26,28 +38,59 @@ public class WorkflowStorageAdapter implements WorkflowRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(WorkflowStorageAdapter.class);
 
+    /**
+     * 外置到BlobStore的大文本字段
+     */
+    private static final List<String> BLOB_FIELDS = List.of(
+            "specification.prdContent",
+            "specification.generatedContent",
+            "technicalDesign.content"
+    );
+
     @Value("${workflow.storage.file:data/workflows.json}")
     private String storageFile;
 
-    private final JsonStorageAdapter<DevelopmentWorkflow> storageAdapter;
+    @Value("${json.storage.workflow.engine:json}")
+    private String storageEngine;
 
-    public WorkflowStorageAdapter() {
-        this.storageAdapter = new JsonStorageAdapter<>();
-    }
+    @Value("${json.storage.workflow.codec:json}")
+    private String storageCodec;
+
+    @Autowired
+    private StorageAdapterFactory storageAdapterFactory;
+
+    private AbstractFileStorageAdapter<DevelopmentWorkflow> storageAdapter;
+
+    private final HashIndex<DevelopmentWorkflow, Long> repositoryIndex =
+            new HashIndex<>("repositoryId", DevelopmentWorkflow::getRepositoryId);
+    private final HashIndex<DevelopmentWorkflow, WorkflowStatus> statusIndex =
+            new HashIndex<>("status", DevelopmentWorkflow::getStatus);
+    private final Projection<DevelopmentWorkflow, WorkflowSummary> summaryProjection =
+            new Projection<>("summary", WorkflowSummary::of);
+    private final KeysetPaginator<WorkflowSummary> paginator = new KeysetPaginator<>(WorkflowSummary::getId)
+            .sortBy("createTime", WorkflowSummary::getCreatedAt, LocalDateTime::parse)
+            .sortBy("updateTime", WorkflowSummary::getUpdatedAt, LocalDateTime::parse);
 
     @PostConstruct
     public void init() {
-        storageAdapter.configure(
+        storageAdapter = storageAdapterFactory.create(
+                storageEngine,
+                storageCodec,
+                storageFile,
                 DevelopmentWorkflow.class,
                 new TypeReference<List<DevelopmentWorkflow>>() {},
                 DevelopmentWorkflow::getId,
-                "setId"
+                BLOB_FIELDS,
+                repositoryIndex, statusIndex, summaryProjection
         );
-        storageAdapter.setStorageFile(storageFile);
-        storageAdapter.init();
         logger.info("WorkflowStorageAdapter initialized with file: {}", storageFile);
     }
 
+    @PreDestroy
+    public void destroy() {
+        storageAdapter.close();
+    }
+
     @Override
     public DevelopmentWorkflow save(DevelopmentWorkflow workflow) {
         logger.debug("Saving DevelopmentWorkflow: {}", workflow.getId());
@@ -60,12 +103,33 @@ public class WorkflowStorageAdapter implements WorkflowRepository {
         return storageAdapter.findById(id);
     }
 
+    @Override
+    public Optional<DevelopmentWorkflow> update(Long id, Consumer<DevelopmentWorkflow> modifier) {
+        logger.debug("Updating DevelopmentWorkflow: {}", id);
+        return storageAdapter.update(id, modifier);
+    }
+
     @Override
     public List<DevelopmentWorkflow> findAll() {
         logger.debug("Finding all DevelopmentWorkflows");
         return storageAdapter.findAll();
     }
 
+    @Override
+    public List<WorkflowSummary> findAllSummaries() {
+        logger.debug("Finding all DevelopmentWorkflow summaries");
+        return storageAdapter.findProjections(summaryProjection);
+    }
+
+    @Override
+    public Page<WorkflowSummary> findSummaryPage(Long repositoryId, WorkflowStatus status, PageRequest pageRequest) {
+        logger.debug("Finding DevelopmentWorkflow summary page: repositoryId={}, status={}, {}",
+                repositoryId, status, pageRequest);
+        List<WorkflowSummary> candidates = storageAdapter.findProjectionsByIndexes(summaryProjection,
+                repositoryIndex.eq(repositoryId), statusIndex.eq(status));
+        return paginator.page(candidates, pageRequest);
+    }
+
     @Override
     public void deleteById(Long id) {
         logger.debug("Deleting DevelopmentWorkflow by ID: {}", id);
@@ -74,8 +138,6 @@ public class WorkflowStorageAdapter implements WorkflowRepository {
 
     public List<DevelopmentWorkflow> findByRepositoryId(Long repositoryId) {
         logger.debug("Finding DevelopmentWorkflows by repositoryId: {}", repositoryId);
-        return storageAdapter.findAll().stream()
-                .filter(workflow -> repositoryId.equals(workflow.getRepositoryId()))
-                .collect(Collectors.toList());
+        return storageAdapter.findByIndex(repositoryIndex, repositoryId);
     }
 }
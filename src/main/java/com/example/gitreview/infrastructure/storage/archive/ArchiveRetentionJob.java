@@ -0,0 +1,93 @@
+package com.example.gitreview.infrastructure.storage.archive;
+
+import com.example.gitreview.domain.codereview.repository.CodeReviewRepository;
+import com.example.gitreview.domain.testgen.repository.TestSuiteRepository;
+import com.example.gitreview.infrastructure.storage.StorageAdapterFactory;
+import com.example.gitreview.infrastructure.storage.blob.BlobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * 审查和测试套件历史的归档与保留任务
+ * 按计划把创建时间超过after-days的记录移到按月压缩的归档段；
+ * retention-days大于0时再删除超过保留期的记录（包括归档段），删除按创建时间索引一次性完成。
+ * 最后清理BlobStore中不再被任何存储引用、且超过blob.gc-grace-hours未被写入的大文本（归档段内联大文本，不依赖BlobStore）。
+ */
+@Component
+@ConditionalOnProperty(name = "json.storage.archive.enabled", havingValue = "true")
+public class ArchiveRetentionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveRetentionJob.class);
+
+    @Value("${json.storage.archive.after-days:180}")
+    private int archiveAfterDays;
+
+    @Value("${json.storage.archive.retention-days:0}")
+    private int retentionDays;
+
+    @Value("${json.storage.blob.gc-grace-hours:24}")
+    private long blobGraceHours;
+
+    @Autowired
+    private CodeReviewRepository codeReviewRepository;
+
+    @Autowired
+    private TestSuiteRepository testSuiteRepository;
+
+    @Autowired
+    private StorageAdapterFactory storageAdapterFactory;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Scheduled(cron = "${json.storage.archive.cron:0 30 3 * * *}")
+    public void run() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            if (retentionDays > 0) {
+                LocalDateTime expiry = now.minusDays(retentionDays);
+                int reviews = codeReviewRepository.deleteOldRecords(expiry);
+                int suites = testSuiteRepository.deleteOldRecords(expiry);
+                logger.info("Deleted {} code reviews and {} test suites created before {}", reviews, suites, expiry);
+            }
+            if (archiveAfterDays > 0) {
+                LocalDateTime cutoff = now.minusDays(archiveAfterDays);
+                int reviews = codeReviewRepository.archiveOldRecords(cutoff);
+                int suites = testSuiteRepository.archiveOldRecords(cutoff);
+                logger.info("Archived {} code reviews and {} test suites created before {}", reviews, suites, cutoff);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Archive retention run failed", e);
+        }
+        sweepBlobs();
+    }
+
+    private void sweepBlobs() {
+        try {
+            blobStore.sweep(storageAdapterFactory.collectBlobReferences(), Duration.ofHours(blobGraceHours));
+        } catch (IOException | RuntimeException e) {
+            logger.error("Blob sweep failed", e);
+        }
+    }
+
+    public void setArchiveAfterDays(int archiveAfterDays) {
+        this.archiveAfterDays = archiveAfterDays;
+    }
+
+    public void setRetentionDays(int retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+
+    public void setBlobGraceHours(long blobGraceHours) {
+        this.blobGraceHours = blobGraceHours;
+    }
+}
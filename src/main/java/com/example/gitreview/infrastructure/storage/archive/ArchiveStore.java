@@ -0,0 +1,383 @@
+package com.example.gitreview.infrastructure.storage.archive;
+
+import com.example.gitreview.infrastructure.storage.codec.StorageCodec;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按月分区的归档段
+ * 每个自然月一个段文件（如data/archive/code-reviews/2025-03.seg），内容是该月实体节点的数组，
+ * 默认以smile+lz4编码；另有一个清单文件记录每个段包含的ID，用于按ID定位和分配新ID时避让。
+ * 段只在归档和清理时整体重写（临时文件+原子替换），查询按月份只打开相关的段。
+ * 清单缺失或损坏时通过读取全部段重建。
+ */
+public class ArchiveStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveStore.class);
+
+    private static final String SEGMENT_EXTENSION = ".seg";
+    private static final String MANIFEST_FILE = "manifest.json";
+
+    private final Path directory;
+    private final StorageCodec codec;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 月份到段内ID的映射，按月份升序
+     */
+    private final NavigableMap<YearMonth, List<Long>> segments = new TreeMap<>();
+
+    /**
+     * ID到所在月份的映射
+     */
+    private final Map<Long, YearMonth> locations = new ConcurrentHashMap<>();
+
+    private final Object lock = new Object();
+
+    /**
+     * @param directory 段文件目录
+     * @param codec 写入段使用的编码，读取时自动识别
+     */
+    public ArchiveStore(Path directory, StorageCodec codec) {
+        this.directory = directory;
+        this.codec = codec;
+    }
+
+    /**
+     * 存储文件对应的归档目录，如data/code-reviews.json → data/archive/code-reviews
+     */
+    public static Path directoryFor(String storageFile) {
+        Path file = Paths.get(storageFile);
+        String name = file.getFileName().toString();
+        String base = name.endsWith(".json") ? name.substring(0, name.length() - ".json".length()) : name;
+        Path parent = file.getParent() != null ? file.getParent() : Paths.get("");
+        return parent.resolve("archive").resolve(base);
+    }
+
+    /**
+     * 创建目录并加载清单
+     */
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+        synchronized (lock) {
+            if (!loadManifest()) {
+                rebuildManifest();
+            }
+        }
+        logger.info("Archive {} opened with {} segments and {} entities", directory, segments.size(), locations.size());
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 已有段的月份，升序
+     */
+    public List<YearMonth> months() {
+        synchronized (lock) {
+            return new ArrayList<>(segments.keySet());
+        }
+    }
+
+    /**
+     * 与闭区间[from, to]重叠的段的月份，升序
+     */
+    public List<YearMonth> monthsBetween(YearMonth from, YearMonth to) {
+        synchronized (lock) {
+            if (from.isAfter(to)) {
+                return Collections.emptyList();
+            }
+            return new ArrayList<>(segments.subMap(from, true, to, true).keySet());
+        }
+    }
+
+    /**
+     * 已归档的实体数
+     */
+    public long count() {
+        return locations.size();
+    }
+
+    /**
+     * 已归档实体中最大的ID，没有归档时为0
+     */
+    public long maxId() {
+        return locations.keySet().stream().mapToLong(Long::longValue).max().orElse(0);
+    }
+
+    /**
+     * 实体所在段的月份
+     */
+    public Optional<YearMonth> locate(Long id) {
+        return Optional.ofNullable(locations.get(id));
+    }
+
+    /**
+     * 读取段内全部节点，段不存在时返回空列表
+     */
+    public List<JsonNode> read(YearMonth month) throws IOException {
+        Path segment = segmentPath(month);
+        if (!Files.exists(segment)) {
+            return Collections.emptyList();
+        }
+        JsonNode root = StorageCodec.read(segment);
+        List<JsonNode> nodes = new ArrayList<>();
+        if (root != null && root.isArray()) {
+            root.forEach(nodes::add);
+        }
+        return nodes;
+    }
+
+    /**
+     * 按ID读取归档节点
+     */
+    public Optional<JsonNode> find(Long id) throws IOException {
+        YearMonth month = locations.get(id);
+        if (month == null) {
+            return Optional.empty();
+        }
+        for (JsonNode node : read(month)) {
+            if (id.equals(idOf(node))) {
+                return Optional.of(node);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 把节点合并到各自月份的段中，同一ID以新节点为准
+     * 每个段重写完成后再更新清单，中途失败时已写入的段仍然有效
+     * @param partitions 月份到按ID索引的节点
+     */
+    public void append(Map<YearMonth, Map<Long, JsonNode>> partitions) throws IOException {
+        synchronized (lock) {
+            for (Map.Entry<YearMonth, Map<Long, JsonNode>> partition : partitions.entrySet()) {
+                Map<Long, JsonNode> merged = new LinkedHashMap<>();
+                for (JsonNode node : read(partition.getKey())) {
+                    merged.put(idOf(node), node);
+                }
+                merged.putAll(partition.getValue());
+                writeSegment(partition.getKey(), merged);
+            }
+            writeManifest();
+        }
+    }
+
+    /**
+     * 用给定节点替换段的全部内容，节点为空时删除该段
+     */
+    public void replace(YearMonth month, Map<Long, JsonNode> nodes) throws IOException {
+        synchronized (lock) {
+            if (nodes.isEmpty()) {
+                dropSegment(month);
+            } else {
+                writeSegment(month, nodes);
+            }
+            writeManifest();
+        }
+    }
+
+    /**
+     * 从所在段中删除实体，段中没有其他实体时删除该段
+     * @return 实体是否在归档中
+     */
+    public boolean remove(Long id) throws IOException {
+        synchronized (lock) {
+            YearMonth month = locations.get(id);
+            if (month == null) {
+                return false;
+            }
+            Map<Long, JsonNode> kept = new LinkedHashMap<>();
+            for (JsonNode node : read(month)) {
+                kept.put(idOf(node), node);
+            }
+            boolean removed = kept.remove(id) != null;
+            replace(month, kept);
+            return removed;
+        }
+    }
+
+    /**
+     * 删除早于指定月份的全部段
+     * @return 删除的实体数
+     */
+    public int dropBefore(YearMonth month) throws IOException {
+        synchronized (lock) {
+            int dropped = 0;
+            for (YearMonth old : new ArrayList<>(segments.headMap(month, false).keySet())) {
+                dropped += dropSegment(old);
+            }
+            if (dropped > 0) {
+                writeManifest();
+            }
+            return dropped;
+        }
+    }
+
+    // 私有辅助方法
+
+    private Path segmentPath(YearMonth month) {
+        return directory.resolve(month + SEGMENT_EXTENSION);
+    }
+
+    private void writeSegment(YearMonth month, Map<Long, JsonNode> nodes) throws IOException {
+        ArrayNode array = objectMapper.createArrayNode();
+        array.addAll(nodes.values());
+        Path segment = segmentPath(month);
+        Path temporary = segment.resolveSibling(segment.getFileName() + ".tmp");
+        // 归档后热存储中的记录会被删除，段必须先落盘
+        try (FileOutputStream out = new FileOutputStream(temporary.toFile())) {
+            out.write(codec.encode(array));
+            out.getChannel().force(true);
+        }
+        move(temporary, segment);
+
+        List<Long> previous = segments.put(month, new ArrayList<>(nodes.keySet()));
+        if (previous != null) {
+            previous.forEach(id -> locations.remove(id, month));
+        }
+        nodes.keySet().forEach(id -> locations.put(id, month));
+    }
+
+    private int dropSegment(YearMonth month) throws IOException {
+        Files.deleteIfExists(segmentPath(month));
+        List<Long> ids = segments.remove(month);
+        if (ids == null) {
+            return 0;
+        }
+        ids.forEach(id -> locations.remove(id, month));
+        return ids.size();
+    }
+
+    private boolean loadManifest() {
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        if (!Files.exists(manifest)) {
+            return false;
+        }
+        try {
+            JsonNode root = objectMapper.readTree(manifest.toFile());
+            Map<YearMonth, List<Long>> loaded = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = root.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                YearMonth month = YearMonth.parse(field.getKey());
+                if (!Files.exists(segmentPath(month))) {
+                    return false;
+                }
+                List<Long> ids = new ArrayList<>();
+                field.getValue().forEach(id -> ids.add(id.asLong()));
+                loaded.put(month, ids);
+            }
+            if (countSegmentFiles() != loaded.size()) {
+                return false;
+            }
+            loaded.forEach((month, ids) -> {
+                segments.put(month, ids);
+                ids.forEach(id -> locations.put(id, month));
+            });
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable archive manifest {}: {}", manifest, e.getMessage());
+            return false;
+        }
+    }
+
+    private void rebuildManifest() throws IOException {
+        segments.clear();
+        locations.clear();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_EXTENSION)) {
+            for (Path file : files) {
+                YearMonth month = monthOf(file);
+                if (month == null) {
+                    continue;
+                }
+                List<Long> ids = new ArrayList<>();
+                for (JsonNode node : read(month)) {
+                    Long id = idOf(node);
+                    if (id != null) {
+                        ids.add(id);
+                        locations.put(id, month);
+                    }
+                }
+                segments.put(month, ids);
+            }
+        }
+        if (!segments.isEmpty()) {
+            logger.info("Rebuilt archive manifest for {} segments in {}", segments.size(), directory);
+        }
+        writeManifest();
+    }
+
+    private void writeManifest() throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        segments.forEach((month, ids) -> {
+            ArrayNode array = root.putArray(month.toString());
+            ids.forEach(array::add);
+        });
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        Path temporary = manifest.resolveSibling(MANIFEST_FILE + ".tmp");
+        objectMapper.writeValue(temporary.toFile(), root);
+        move(temporary, manifest);
+    }
+
+    private int countSegmentFiles() throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_EXTENSION)) {
+            for (Path file : files) {
+                if (monthOf(file) != null) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static YearMonth monthOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return YearMonth.parse(name.substring(0, name.length() - SEGMENT_EXTENSION.length()));
+        } catch (DateTimeParseException e) {
+            logger.warn("Ignoring unexpected file in archive: {}", file);
+            return null;
+        }
+    }
+
+    private static Long idOf(JsonNode node) {
+        JsonNode id = node.get("id");
+        return id != null && id.canConvertToLong() ? id.asLong() : null;
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
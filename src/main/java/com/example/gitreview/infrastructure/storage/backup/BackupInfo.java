@@ -0,0 +1,135 @@
+package com.example.gitreview.infrastructure.storage.backup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一份备份的清单，写在备份目录的manifest.json中
+ */
+public class BackupInfo {
+
+    private String id;
+    private LocalDateTime createdAt;
+
+    /**
+     * 捕获时同时持有全部存储写锁的时长（微秒）
+     */
+    private long lockMicros;
+
+    /**
+     * 从开始到备份目录就绪的总耗时（毫秒）
+     */
+    private long durationMillis;
+
+    private int blobCount;
+    private int archiveFileCount;
+    private List<StoreEntry> stores = new ArrayList<>();
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getLockMicros() {
+        return lockMicros;
+    }
+
+    public void setLockMicros(long lockMicros) {
+        this.lockMicros = lockMicros;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public int getBlobCount() {
+        return blobCount;
+    }
+
+    public void setBlobCount(int blobCount) {
+        this.blobCount = blobCount;
+    }
+
+    public int getArchiveFileCount() {
+        return archiveFileCount;
+    }
+
+    public void setArchiveFileCount(int archiveFileCount) {
+        this.archiveFileCount = archiveFileCount;
+    }
+
+    public List<StoreEntry> getStores() {
+        return stores;
+    }
+
+    public void setStores(List<StoreEntry> stores) {
+        this.stores = stores;
+    }
+
+    /**
+     * 备份中的一个存储
+     */
+    public static class StoreEntry {
+
+        /**
+         * 配置的存储文件路径，恢复时按它找到对应的存储
+         */
+        private String storageFile;
+
+        /**
+         * 备份目录内的数据文件名
+         */
+        private String file;
+
+        private int count;
+        private long nextId;
+
+        public String getStorageFile() {
+            return storageFile;
+        }
+
+        public void setStorageFile(String storageFile) {
+            this.storageFile = storageFile;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public long getNextId() {
+            return nextId;
+        }
+
+        public void setNextId(long nextId) {
+            this.nextId = nextId;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.gitreview.infrastructure.storage.backup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * 从备份恢复的一次性命令
+ * 设置json.storage.restore-from启动时，用指定备份替换全部存储和归档段后退出：
+ * java -jar app.jar --json.storage.restore-from=data/backups/20250301-033000-000
+ * 也可以只给出备份ID，从json.storage.backup.dir中查找。恢复完成后正常启动即可使用恢复的数据。
+ */
+@Component
+@ConditionalOnProperty(name = "json.storage.restore-from")
+public class BackupRestoreRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackupRestoreRunner.class);
+
+    @Value("${json.storage.restore-from}")
+    private String restoreFrom;
+
+    @Autowired
+    private BackupService backupService;
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int exitCode = 0;
+        try {
+            int restored = backupService.restore(restoreFrom);
+            logger.info("Restore from {} finished: {} entities", restoreFrom, restored);
+        } catch (IOException | RuntimeException e) {
+            exitCode = 1;
+            logger.error("Failed to restore from backup: {}", restoreFrom, e);
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> code));
+    }
+}
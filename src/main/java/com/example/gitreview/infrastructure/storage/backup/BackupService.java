@@ -0,0 +1,398 @@
+package com.example.gitreview.infrastructure.storage.backup;
+
+import com.example.gitreview.infrastructure.storage.AbstractFileStorageAdapter;
+import com.example.gitreview.infrastructure.storage.StorageAdapterFactory;
+import com.example.gitreview.infrastructure.storage.archive.ArchiveStore;
+import com.example.gitreview.infrastructure.storage.blob.BlobStore;
+import com.example.gitreview.infrastructure.storage.codec.StorageCodec;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * data目录的在线备份与恢复
+ * 备份时按固定顺序嵌套持有全部存储的写锁，在锁内只让每个引擎记录当前状态的引用
+ * （JSON引擎的写时复制副本、日志引擎的日志长度、H2引擎的快照事务），得到跨存储一致的时间点后立即释放；
+ * 之后在锁外把各存储写入备份目录，再硬链接（不支持时复制）BlobStore和归档段文件，
+ * 两者都只新增或整体替换文件，不会出现写到一半的内容。
+ * 备份先写到临时目录，完成后改名为最终目录，只保留最近keep份。
+ * 恢复通过{@link BackupRestoreRunner}以命令方式执行：每个存储的替换是一次提交，
+ * 归档段先复制到临时目录，存储替换成功后再改名换入。
+ */
+@Component
+public class BackupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackupService.class);
+
+    private static final String MANIFEST_FILE = "manifest.json";
+    private static final String STORES_DIR = "stores";
+    private static final String BLOBS_DIR = "blobs";
+    private static final String ARCHIVE_DIR = "archive";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String REPLACED_SUFFIX = ".old";
+    private static final String STORE_EXTENSION = ".bak";
+    private static final DateTimeFormatter ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    @Value("${json.storage.backup.dir:data/backups}")
+    private String backupDir;
+
+    @Value("${json.storage.backup.codec:compact-json+lz4}")
+    private String backupCodec;
+
+    @Value("${json.storage.backup.keep:7}")
+    private int keep;
+
+    @Autowired
+    private StorageAdapterFactory storageAdapterFactory;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public BackupService() {
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * 按计划备份，cron为"-"（默认）时不执行
+     */
+    @Scheduled(cron = "${json.storage.backup.cron:-}")
+    public void scheduledBackup() {
+        try {
+            backup();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Scheduled backup failed", e);
+        }
+    }
+
+    /**
+     * 创建一份全部存储的一致备份
+     * @return 备份清单
+     */
+    public synchronized BackupInfo backup() throws IOException {
+        long started = System.nanoTime();
+        LocalDateTime createdAt = LocalDateTime.now();
+        String id = createdAt.format(ID_FORMAT);
+        Path root = Paths.get(backupDir);
+        Path target = root.resolve(id);
+        Path temporary = root.resolve(id + TEMPORARY_SUFFIX);
+        Files.createDirectories(root);
+        deleteRecursively(temporary);
+
+        // 按存储文件排序，保证嵌套加锁的顺序固定
+        List<AbstractFileStorageAdapter<?>> adapters = new ArrayList<>(storageAdapterFactory.getAdapters().values());
+        adapters.sort(Comparator.comparing(AbstractFileStorageAdapter::getStorageFile));
+        Map<AbstractFileStorageAdapter<?>, StoreBackup> captured = new LinkedHashMap<>();
+        long lockStarted = System.nanoTime();
+        captureAll(adapters, 0, captured);
+        long lockMicros = (System.nanoTime() - lockStarted) / 1000;
+
+        BackupInfo info = new BackupInfo();
+        info.setId(id);
+        info.setCreatedAt(createdAt);
+        info.setLockMicros(lockMicros);
+        try {
+            StorageCodec codec = StorageCodec.parse(backupCodec);
+            Path stores = Files.createDirectories(temporary.resolve(STORES_DIR));
+            for (Map.Entry<AbstractFileStorageAdapter<?>, StoreBackup> entry : captured.entrySet()) {
+                String storageFile = entry.getKey().getStorageFile();
+                String file = baseName(storageFile) + STORE_EXTENSION;
+                BackupInfo.StoreEntry store = new BackupInfo.StoreEntry();
+                store.setStorageFile(storageFile);
+                store.setFile(file);
+                store.setCount(entry.getValue().writeTo(stores.resolve(file), codec));
+                store.setNextId(entry.getValue().getNextId());
+                info.getStores().add(store);
+            }
+
+            // 引用的大文本在实体提交前已写入，归档段在记录从存储删除前已落盘，捕获之后再链接不会缺失
+            info.setBlobCount(linkTree(Paths.get(blobStore.getBlobDir()), temporary.resolve(BLOBS_DIR)));
+            int archiveFiles = 0;
+            for (AbstractFileStorageAdapter<?> adapter : adapters) {
+                Path archive = ArchiveStore.directoryFor(adapter.getStorageFile());
+                archiveFiles += linkTree(archive, temporary.resolve(ARCHIVE_DIR).resolve(archive.getFileName()));
+            }
+            info.setArchiveFileCount(archiveFiles);
+
+            info.setDurationMillis((System.nanoTime() - started) / 1_000_000);
+            objectMapper.writeValue(temporary.resolve(MANIFEST_FILE).toFile(), info);
+            move(temporary, target);
+        } catch (IOException | RuntimeException e) {
+            deleteRecursively(temporary);
+            throw e;
+        }
+
+        logger.info("Created backup {} of {} stores in {} ms (write locks held for {} us)",
+                target, info.getStores().size(), info.getDurationMillis(), lockMicros);
+        prune(root);
+        return info;
+    }
+
+    /**
+     * 已完成的备份，最新的在前
+     */
+    public List<BackupInfo> listBackups() throws IOException {
+        List<BackupInfo> backups = new ArrayList<>();
+        for (Path directory : completedBackups(Paths.get(backupDir))) {
+            try {
+                backups.add(readManifest(directory));
+            } catch (IOException e) {
+                logger.warn("Ignoring unreadable backup manifest in: {}", directory, e);
+            }
+        }
+        return backups;
+    }
+
+    /**
+     * 用备份替换全部存储、归档段，并补齐缺失的大文本
+     * 只应在没有其他写入时执行（见{@link BackupRestoreRunner}）；备份中没有的存储保持不变
+     * @param directory 备份目录，或备份目录下的备份ID
+     * @return 恢复的实体总数
+     */
+    public synchronized int restore(String directory) throws IOException {
+        Path source = resolveBackup(directory);
+        BackupInfo info = readManifest(source);
+        Map<String, AbstractFileStorageAdapter<?>> adapters = storageAdapterFactory.getAdapters();
+
+        int blobs = copyMissing(source.resolve(BLOBS_DIR), Paths.get(blobStore.getBlobDir()));
+        int restored = 0;
+        for (BackupInfo.StoreEntry store : info.getStores()) {
+            AbstractFileStorageAdapter<?> adapter = adapters.get(store.getStorageFile());
+            if (adapter == null) {
+                logger.warn("Skipping {} from backup {}: store is not configured", store.getStorageFile(), info.getId());
+                continue;
+            }
+            Path archive = ArchiveStore.directoryFor(adapter.getStorageFile());
+            Path stagedArchive = archive.resolveSibling(archive.getFileName() + TEMPORARY_SUFFIX);
+            deleteRecursively(stagedArchive);
+            Files.createDirectories(stagedArchive);
+            int count;
+            try {
+                copyMissing(source.resolve(ARCHIVE_DIR).resolve(archive.getFileName()), stagedArchive);
+
+                JsonNode root = StorageCodec.read(source.resolve(STORES_DIR).resolve(store.getFile()));
+                List<JsonNode> nodes = new ArrayList<>();
+                if (root != null && root.isArray()) {
+                    root.forEach(nodes::add);
+                }
+                count = adapter.restore(nodes, store.getNextId());
+                replaceDirectory(stagedArchive, archive);
+            } finally {
+                deleteRecursively(stagedArchive);
+            }
+            logger.info("Restored {} entities into {} from backup {}", count, store.getStorageFile(), info.getId());
+            restored += count;
+        }
+        logger.info("Restored backup {} ({} entities, {} blobs copied)", info.getId(), restored, blobs);
+        return restored;
+    }
+
+    public void setBackupDir(String backupDir) {
+        this.backupDir = backupDir;
+    }
+
+    public void setBackupCodec(String backupCodec) {
+        this.backupCodec = backupCodec;
+    }
+
+    public void setKeep(int keep) {
+        this.keep = keep;
+    }
+
+    public void setStorageAdapterFactory(StorageAdapterFactory storageAdapterFactory) {
+        this.storageAdapterFactory = storageAdapterFactory;
+    }
+
+    public void setBlobStore(BlobStore blobStore) {
+        this.blobStore = blobStore;
+    }
+
+    // 私有辅助方法
+
+    /**
+     * 依次进入每个存储的写锁，在最内层捕获全部存储
+     */
+    private void captureAll(List<AbstractFileStorageAdapter<?>> adapters, int index,
+                            Map<AbstractFileStorageAdapter<?>, StoreBackup> captured) throws IOException {
+        if (index == adapters.size()) {
+            for (AbstractFileStorageAdapter<?> adapter : adapters) {
+                captured.put(adapter, adapter.captureBackup());
+            }
+            return;
+        }
+        try {
+            adapters.get(index).holdingWriteLock(() -> {
+                try {
+                    captureAll(adapters, index + 1, captured);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Path resolveBackup(String directory) throws IOException {
+        Path path = Paths.get(directory);
+        if (!Files.exists(path.resolve(MANIFEST_FILE))) {
+            path = Paths.get(backupDir).resolve(directory);
+        }
+        if (!Files.exists(path.resolve(MANIFEST_FILE))) {
+            throw new IOException("No backup found at: " + directory);
+        }
+        return path;
+    }
+
+    private BackupInfo readManifest(Path directory) throws IOException {
+        return objectMapper.readValue(directory.resolve(MANIFEST_FILE).toFile(), BackupInfo.class);
+    }
+
+    /**
+     * 已完成（有清单）的备份目录，按ID降序
+     */
+    private List<Path> completedBackups(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> children = Files.list(root)) {
+            return children
+                    .filter(path -> Files.exists(path.resolve(MANIFEST_FILE)))
+                    .sorted(Comparator.comparing((Path path) -> path.getFileName().toString()).reversed())
+                    .toList();
+        }
+    }
+
+    private void prune(Path root) {
+        if (keep <= 0) {
+            return;
+        }
+        try {
+            List<Path> backups = completedBackups(root);
+            for (Path old : backups.subList(Math.min(keep, backups.size()), backups.size())) {
+                deleteRecursively(old);
+                logger.info("Deleted old backup: {}", old);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to prune old backups in: {}", root, e);
+        }
+    }
+
+    /**
+     * 把目录下的文件硬链接到目标目录，跳过临时文件；不支持硬链接时复制
+     * @return 链接的文件数
+     */
+    private static int linkTree(Path source, Path target) throws IOException {
+        if (!Files.isDirectory(source)) {
+            return 0;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(source)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().endsWith(TEMPORARY_SUFFIX))
+                    .toList();
+        }
+        for (Path file : files) {
+            Path link = target.resolve(source.relativize(file).toString());
+            Files.createDirectories(link.getParent());
+            try {
+                Files.createLink(link, file);
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                Files.copy(file, link, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        return files.size();
+    }
+
+    /**
+     * 把目录下目标中不存在的文件复制过去
+     * @return 复制的文件数
+     */
+    private static int copyMissing(Path source, Path target) throws IOException {
+        if (!Files.isDirectory(source)) {
+            return 0;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(source)) {
+            files = walk.filter(Files::isRegularFile).toList();
+        }
+        int copied = 0;
+        for (Path file : files) {
+            Path copy = target.resolve(source.relativize(file).toString());
+            if (!Files.exists(copy)) {
+                Files.createDirectories(copy.getParent());
+                Files.copy(file, copy);
+                copied++;
+            }
+        }
+        return copied;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            paths = walk.sorted(Comparator.reverseOrder()).toList();
+        }
+        for (Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * 用已准备好的目录替换目标目录：先把目标改名让开，再把新目录改名到位，最后删除旧目录
+     */
+    private static void replaceDirectory(Path replacement, Path target) throws IOException {
+        Path replaced = target.resolveSibling(target.getFileName() + REPLACED_SUFFIX);
+        deleteRecursively(replaced);
+        if (Files.exists(target)) {
+            move(target, replaced);
+        }
+        move(replacement, target);
+        deleteRecursively(replaced);
+    }
+
+    private static String baseName(String storageFile) {
+        String name = Paths.get(storageFile).getFileName().toString();
+        return name.endsWith(".json") ? name.substring(0, name.length() - ".json".length()) : name;
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target);
+        }
+    }
+}
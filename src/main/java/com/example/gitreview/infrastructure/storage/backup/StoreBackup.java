@@ -0,0 +1,58 @@
+package com.example.gitreview.infrastructure.storage.backup;
+
+import com.example.gitreview.infrastructure.storage.codec.StorageCodec;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * 单个存储在某一时刻的备份
+ * 由引擎在写锁内捕获，只记录内存副本的引用、日志位置或数据库事务快照等，不复制数据；
+ * 释放写锁后再调用{@link #writeTo}读取捕获的状态并写出，写出期间写操作不受影响。
+ */
+public final class StoreBackup {
+
+    /**
+     * 读取捕获时刻的全部实体节点，在锁外调用，只调用一次
+     */
+    @FunctionalInterface
+    public interface NodeSource {
+        Collection<JsonNode> load() throws IOException;
+    }
+
+    private final long nextId;
+    private final NodeSource source;
+
+    /**
+     * @param nextId 捕获时刻的下一个可分配ID
+     * @param source 捕获时刻的实体节点
+     */
+    public StoreBackup(long nextId, NodeSource source) {
+        this.nextId = nextId;
+        this.source = source;
+    }
+
+    public long getNextId() {
+        return nextId;
+    }
+
+    /**
+     * 以JSON数组写出捕获的实体节点并fsync
+     * @return 写出的实体数
+     */
+    public int writeTo(Path file, StorageCodec codec) throws IOException {
+        Collection<JsonNode> nodes = source.load();
+        ArrayNode array = JsonNodeFactory.instance.arrayNode(nodes.size());
+        array.addAll(nodes);
+        try (FileOutputStream out = new FileOutputStream(file.toFile())) {
+            out.write(codec.encode(array));
+            out.getChannel().force(true);
+        }
+        return nodes.size();
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.gitreview.infrastructure.storage.blob;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+/**
+ * 实体JSON中需要外置到BlobStore的大文本字段
+ *
+ * 字段路径以点分隔，"*"匹配数组中的每个元素，例如"sessions.*.result.detailedReport"。
+ * 写入时超过阈值的文本被替换为引用节点 {"$blob": "&lt;sha256&gt;"}；
+ * 读取实体时才把引用解析回文本，常驻内存和日志中只保留引用。
+ * 旧数据中仍然内联的文本原样可读，下次保存时自动外置。
+ * 只修改其他字段的读-改-写可以用占位文本代替引用读取实体，保存时占位文本还原为原引用，不读取也不重新哈希大文本。
+ */
+public class BlobFields {
+
+    public static final String REFERENCE_FIELD = "$blob";
+
+    private static final String PLACEHOLDER_PREFIX = "\u0000" + REFERENCE_FIELD + ":";
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final BlobStore blobStore;
+    private final List<String[]> paths;
+    private final int minSize;
+
+    public BlobFields(BlobStore blobStore, List<String> paths, int minSize) {
+        this.blobStore = blobStore;
+        this.paths = new ArrayList<>();
+        for (String path : paths) {
+            this.paths.add(path.split("\\."));
+        }
+        this.minSize = minSize;
+    }
+
+    /**
+     * 不外置任何字段
+     */
+    public static BlobFields none() {
+        return new BlobFields(null, Collections.emptyList(), Integer.MAX_VALUE);
+    }
+
+    public boolean isEmpty() {
+        return paths.isEmpty();
+    }
+
+    /**
+     * 把超过阈值的文本写入BlobStore并替换为引用（直接修改传入的节点）
+     */
+    public JsonNode externalize(JsonNode node) throws IOException {
+        if (isEmpty()) {
+            return node;
+        }
+        try {
+            visitAll(node, value -> {
+                if (!value.isTextual()) {
+                    return value;
+                }
+                String placeholderHash = placeholderHash(value.textValue());
+                if (placeholderHash != null) {
+                    return reference(placeholderHash);
+                }
+                if (value.textValue().length() < minSize) {
+                    return value;
+                }
+                try {
+                    return reference(blobStore.put(value.textValue()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return node;
+    }
+
+    /**
+     * 返回引用已解析为文本的节点；没有引用时直接返回原节点，否则返回副本
+     */
+    public JsonNode resolve(JsonNode node) throws IOException {
+        if (!containsReference(node)) {
+            return node;
+        }
+        JsonNode copy = node.deepCopy();
+        try {
+            visitAll(copy, value -> {
+                if (!isReference(value)) {
+                    return value;
+                }
+                try {
+                    return TextNode.valueOf(blobStore.get(value.get(REFERENCE_FIELD).asText()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return copy;
+    }
+
+    /**
+     * 返回引用被替换为空文本的副本，用于无需大文本的场景（如重建索引），避免读取BlobStore
+     */
+    public JsonNode strip(JsonNode node) {
+        if (!containsReference(node)) {
+            return node;
+        }
+        JsonNode copy = node.deepCopy();
+        visitAll(copy, value -> isReference(value) ? TextNode.valueOf("") : value);
+        return copy;
+    }
+
+    /**
+     * 返回引用被替换为占位文本的副本，不读取BlobStore
+     * 占位文本在externalize时还原为原引用；实体中的占位文本不能被读取或拼接，只能原样保留或整体替换
+     */
+    public JsonNode withPlaceholders(JsonNode node) {
+        if (!containsReference(node)) {
+            return node;
+        }
+        JsonNode copy = node.deepCopy();
+        visitAll(copy, value -> isReference(value)
+                ? TextNode.valueOf(PLACEHOLDER_PREFIX + value.get(REFERENCE_FIELD).asText())
+                : value);
+        return copy;
+    }
+
+    /**
+     * 把节点中引用的哈希加入集合（用于BlobStore清理）
+     */
+    public void collectReferences(JsonNode node, Set<String> into) {
+        if (isEmpty()) {
+            return;
+        }
+        visitAll(node, value -> {
+            if (isReference(value)) {
+                into.add(value.get(REFERENCE_FIELD).asText());
+            }
+            return value;
+        });
+    }
+
+    private boolean containsReference(JsonNode node) {
+        if (isEmpty()) {
+            return false;
+        }
+        boolean[] found = new boolean[1];
+        visitAll(node, value -> {
+            found[0] |= isReference(value);
+            return value;
+        });
+        return found[0];
+    }
+
+    private static String placeholderHash(String text) {
+        if (!text.startsWith(PLACEHOLDER_PREFIX)) {
+            return null;
+        }
+        String hash = text.substring(PLACEHOLDER_PREFIX.length());
+        return HASH_PATTERN.matcher(hash).matches() ? hash : null;
+    }
+
+    private static boolean isReference(JsonNode value) {
+        return value != null && value.isObject() && value.path(REFERENCE_FIELD).isTextual();
+    }
+
+    private static JsonNode reference(String hash) {
+        ObjectNode ref = JsonNodeFactory.instance.objectNode();
+        ref.put(REFERENCE_FIELD, hash);
+        return ref;
+    }
+
+    private void visitAll(JsonNode node, UnaryOperator<JsonNode> operator) {
+        for (String[] path : paths) {
+            visit(node, path, 0, operator);
+        }
+    }
+
+    /**
+     * 沿路径访问叶子值，operator返回不同节点时原地替换
+     */
+    private static void visit(JsonNode container, String[] path, int depth, UnaryOperator<JsonNode> operator) {
+        if (container == null) {
+            return;
+        }
+        boolean leaf = depth == path.length - 1;
+        String segment = path[depth];
+
+        if ("*".equals(segment)) {
+            if (!container.isArray()) {
+                return;
+            }
+            ArrayNode array = (ArrayNode) container;
+            for (int i = 0; i < array.size(); i++) {
+                if (leaf) {
+                    JsonNode value = array.get(i);
+                    JsonNode replaced = operator.apply(value);
+                    if (replaced != value) {
+                        array.set(i, replaced);
+                    }
+                } else {
+                    visit(array.get(i), path, depth + 1, operator);
+                }
+            }
+            return;
+        }
+
+        if (!container.isObject()) {
+            return;
+        }
+        ObjectNode object = (ObjectNode) container;
+        JsonNode value = object.get(segment);
+        if (value == null || value.isNull()) {
+            return;
+        }
+        if (leaf) {
+            JsonNode replaced = operator.apply(value);
+            if (replaced != value) {
+                object.set(segment, replaced);
+            }
+        } else {
+            visit(value, path, depth + 1, operator);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.gitreview.infrastructure.storage.blob;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 内容寻址的大文本存储
+ * 以内容的SHA-256作为键，文件按哈希前两位分目录存放；相同内容只写入一次
+ * 写入时先fsync临时文件再原子重命名，并fsync所在目录，使引用它的实体落盘时内容已持久化。
+ * 实体更新或删除后不再被引用的内容由{@link #sweep}清理（归档保留任务在每次运行后调用）；
+ * 每次写入都会刷新文件的修改时间，清理只删除超过宽限期未被写入的内容，避免删除刚写入、引用它的实体还未提交的内容。
+ */
+@Component
+public class BlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlobStore.class);
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    @Value("${json.storage.blob.dir:data/blobs}")
+    private String blobDir;
+
+    private Path root;
+
+    /**
+     * 写入持有读锁，清理持有写锁，使"检查修改时间-删除"与刷新修改时间互斥
+     */
+    private final ReadWriteLock sweepLock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void init() {
+        root = Paths.get(blobDir);
+        try {
+            Files.createDirectories(root);
+            logger.info("BlobStore initialized with directory: {}", root.toAbsolutePath());
+        } catch (IOException e) {
+            logger.error("Failed to initialize BlobStore", e);
+            throw new RuntimeException("Failed to initialize blob store", e);
+        }
+    }
+
+    /**
+     * 写入内容
+     * @param content 文本内容
+     * @return 内容的SHA-256哈希（小写十六进制）
+     */
+    public String put(String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        String hash = sha256(bytes);
+        Path target = resolve(hash);
+        sweepLock.readLock().lock();
+        try {
+            if (Files.exists(target)) {
+                // 刷新修改时间，使正在进行的清理不会删除即将被引用的内容
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                logger.debug("Blob {} already stored, skipping write", hash);
+                return hash;
+            }
+
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+            try {
+                try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+                    out.write(bytes);
+                    out.getChannel().force(true);
+                }
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target);
+                }
+                forceDirectory(target.getParent());
+                logger.debug("Stored blob {} ({} bytes)", hash, bytes.length);
+            } catch (FileAlreadyExistsException e) {
+                // 并发写入了相同内容
+                logger.debug("Blob {} stored concurrently", hash);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return hash;
+        } finally {
+            sweepLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 读取内容
+     * @param hash 内容哈希
+     * @return 文本内容
+     */
+    public String get(String hash) throws IOException {
+        return Files.readString(resolve(hash), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 检查内容是否存在
+     */
+    public boolean exists(String hash) {
+        return HASH_PATTERN.matcher(hash).matches() && Files.exists(resolve(hash));
+    }
+
+    /**
+     * 删除不在引用集合中、且超过宽限期未被写入的内容
+     * 引用集合应在调用前从各存储收集；收集之后才写入的内容修改时间较新，不会被删除
+     * @param referenced 仍被实体引用的哈希
+     * @param grace 宽限期
+     * @return 删除的内容数
+     */
+    public int sweep(Set<String> referenced, Duration grace) throws IOException {
+        FileTime threshold = FileTime.from(Instant.now().minus(grace));
+        List<Path> candidates;
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            candidates = files.filter(Files::isRegularFile)
+                    .filter(file -> HASH_PATTERN.matcher(file.getFileName().toString()).matches())
+                    .filter(file -> !referenced.contains(file.getFileName().toString()))
+                    .toList();
+        }
+
+        int deleted = 0;
+        sweepLock.writeLock().lock();
+        try {
+            for (Path file : candidates) {
+                if (Files.exists(file) && Files.getLastModifiedTime(file).compareTo(threshold) < 0) {
+                    Files.delete(file);
+                    deleted++;
+                }
+            }
+        } finally {
+            sweepLock.writeLock().unlock();
+        }
+        logger.info("Swept {} unreferenced blobs ({} referenced)", deleted, referenced.size());
+        return deleted;
+    }
+
+    public String getBlobDir() {
+        return blobDir;
+    }
+
+    public void setBlobDir(String blobDir) {
+        this.blobDir = blobDir;
+    }
+
+    private Path resolve(String hash) {
+        if (!HASH_PATTERN.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Invalid blob hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    /**
+     * fsync目录，使重命名持久化；不支持打开目录的平台（如Windows）上忽略
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.debug("Cannot fsync directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.gitreview.infrastructure.storage.codec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 存储文件编码
+ * 由编码格式和可选的压缩方式组成，配置写法为"格式[+压缩]"，如json、compact-json、smile+lz4。
+ * 写入时按配置编码；读取时根据文件开头的魔数自动识别压缩方式和格式，与配置无关，
+ * 因此已有的JSON文件无需转换，切换编码后下一次写入即以新编码保存。
+ */
+public final class StorageCodec {
+
+    /**
+     * 编码格式
+     */
+    public enum Format {
+        JSON("json"),                  // 缩进的文本JSON，与旧版本文件一致
+        COMPACT_JSON("compact-json"),  // 无缩进的文本JSON
+        SMILE("smile");                // Smile二进制JSON
+
+        private final String code;
+
+        Format(String code) {
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+    }
+
+    /**
+     * 压缩方式
+     */
+    public enum Compression {
+        NONE("none"),
+        DEFLATE("deflate"),  // Deflate，使用gzip封装以便识别和校验
+        LZ4("lz4");          // LZ4帧格式
+
+        private final String code;
+
+        Compression(String code) {
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+    }
+
+    private static final byte[] GZIP_MAGIC = {(byte) 0x1F, (byte) 0x8B};
+    private static final byte[] LZ4_FRAME_MAGIC = {0x04, 0x22, 0x4D, 0x18};
+    private static final byte[] SMILE_MAGIC = {0x3A, 0x29, 0x0A};
+
+    private static final ObjectMapper TEXT_MAPPER = new ObjectMapper();
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory());
+
+    private static final StorageCodec DEFAULT = new StorageCodec(Format.JSON, Compression.NONE);
+
+    private final Format format;
+    private final Compression compression;
+    private final ObjectWriter writer;
+
+    public StorageCodec(Format format, Compression compression) {
+        this.format = format;
+        this.compression = compression;
+        if (format == Format.SMILE) {
+            this.writer = SMILE_MAPPER.writer();
+        } else if (format == Format.COMPACT_JSON) {
+            this.writer = TEXT_MAPPER.writer().without(SerializationFeature.INDENT_OUTPUT);
+        } else {
+            this.writer = TEXT_MAPPER.writer().with(SerializationFeature.INDENT_OUTPUT);
+        }
+    }
+
+    /**
+     * 默认编码：缩进的文本JSON，不压缩
+     */
+    public static StorageCodec json() {
+        return DEFAULT;
+    }
+
+    /**
+     * 解析配置的编码，如"smile+lz4"，为空时返回默认编码
+     * @throws IllegalArgumentException 无法识别的格式或压缩方式
+     */
+    public static StorageCodec parse(String code) {
+        if (code == null || code.trim().isEmpty()) {
+            return DEFAULT;
+        }
+        String[] parts = code.trim().toLowerCase().split("\\+", 2);
+        Format format = null;
+        for (Format candidate : Format.values()) {
+            if (candidate.code.equals(parts[0].trim())) {
+                format = candidate;
+            }
+        }
+        if (format == null) {
+            throw new IllegalArgumentException("Unknown storage format: " + parts[0]);
+        }
+        Compression compression = Compression.NONE;
+        if (parts.length > 1) {
+            compression = null;
+            for (Compression candidate : Compression.values()) {
+                if (candidate.code.equals(parts[1].trim())) {
+                    compression = candidate;
+                }
+            }
+            if (compression == null) {
+                throw new IllegalArgumentException("Unknown storage compression: " + parts[1]);
+            }
+        }
+        return new StorageCodec(format, compression);
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * 按当前编码序列化JSON树
+     */
+    public byte[] encode(JsonNode root) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = compress(bytes)) {
+            writer.writeValue(out, root);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 读取文件并自动识别编码
+     * @return JSON树，空文件返回null
+     */
+    public static JsonNode read(Path file) throws IOException {
+        return decode(Files.readAllBytes(file));
+    }
+
+    /**
+     * 自动识别压缩方式和格式并解析，支持本类写出的任意编码和旧版本的文本JSON
+     * @return JSON树，内容为空时返回null
+     */
+    public static JsonNode decode(byte[] content) throws IOException {
+        if (content.length == 0) {
+            return null;
+        }
+        if (startsWith(content, GZIP_MAGIC)) {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+                return decode(in.readAllBytes());
+            }
+        }
+        if (startsWith(content, LZ4_FRAME_MAGIC)) {
+            try (InputStream in = new LZ4FrameInputStream(new ByteArrayInputStream(content))) {
+                return decode(in.readAllBytes());
+            }
+        }
+        if (startsWith(content, SMILE_MAGIC)) {
+            return SMILE_MAPPER.readTree(content);
+        }
+        return TEXT_MAPPER.readTree(content);
+    }
+
+    @Override
+    public String toString() {
+        return compression == Compression.NONE ? format.code : format.code + "+" + compression.code;
+    }
+
+    // 私有辅助方法
+
+    private OutputStream compress(OutputStream out) throws IOException {
+        switch (compression) {
+            case DEFLATE:
+                return new GZIPOutputStream(out, 64 * 1024);
+            case LZ4:
+                return new LZ4FrameOutputStream(out);
+            default:
+                return out;
+        }
+    }
+
+    private static boolean startsWith(byte[] content, byte[] magic) {
+        if (content.length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (content[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
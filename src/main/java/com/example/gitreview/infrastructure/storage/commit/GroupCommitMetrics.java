@@ -0,0 +1,83 @@
+package com.example.gitreview.infrastructure.storage.commit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 组提交指标
+ * 批次大小反映合并效果，提交延迟为变更从排队到落盘的时间（含等待窗口）
+ */
+public class GroupCommitMetrics {
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder mutations = new LongAdder();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final LongAdder flushNanos = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    void recordBatch(int size, long flushDurationNanos) {
+        batches.increment();
+        mutations.add(size);
+        flushNanos.add(flushDurationNanos);
+        maxBatchSize.accumulateAndGet(size, Math::max);
+    }
+
+    void recordLatency(long nanos) {
+        latencyNanos.add(nanos);
+        maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * 已完成的持久化写入次数（每次一个fsync）
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * 已提交的变更数
+     */
+    public long getMutationCount() {
+        return mutations.sum();
+    }
+
+    public double getAverageBatchSize() {
+        long count = batches.sum();
+        return count == 0 ? 0 : (double) mutations.sum() / count;
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    public double getAverageCommitLatencyMillis() {
+        long count = mutations.sum();
+        return count == 0 ? 0 : toMillis(latencyNanos.sum()) / count;
+    }
+
+    public double getMaxCommitLatencyMillis() {
+        return toMillis(maxLatencyNanos.get());
+    }
+
+    /**
+     * 单次写文件加fsync的平均耗时
+     */
+    public double getAverageFlushMillis() {
+        long count = batches.sum();
+        return count == 0 ? 0 : toMillis(flushNanos.sum()) / count;
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("batches=%d, mutations=%d, avgBatchSize=%.2f, maxBatchSize=%d, "
+                        + "avgCommitLatency=%.2fms, maxCommitLatency=%.2fms, avgFlush=%.2fms",
+                getBatchCount(), getMutationCount(), getAverageBatchSize(), getMaxBatchSize(),
+                getAverageCommitLatencyMillis(), getMaxCommitLatencyMillis(), getAverageFlushMillis());
+    }
+}
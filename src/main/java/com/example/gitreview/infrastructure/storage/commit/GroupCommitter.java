@@ -0,0 +1,285 @@
+package com.example.gitreview.infrastructure.storage.commit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 组提交写入器
+ * 将提交窗口内到达的多个变更合并为一次持久化写入（一次fsync），调用方阻塞直到所在批次落盘。
+ *
+ * 窗口从批次中第一个变更到达时开始计时；窗口为0时不启动后台线程，变更在调用线程中单独提交。
+ * 每个批次依次执行：begin创建批次状态 → 逐个apply变更 → flush持久化 → publish发布到内存。
+ * 单个变更apply失败只影响该变更；flush失败则整个批次失败，内存状态保持不变。
+ * @param <B> 引擎的批次状态类型
+ */
+public class GroupCommitter<B> {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitter.class);
+
+    /**
+     * 存储引擎的批次回调，均在引擎写锁内调用
+     */
+    public interface Engine<B> {
+
+        /**
+         * 基于当前已提交状态开始新批次
+         */
+        B begin() throws IOException;
+
+        /**
+         * 将批次一次性写入文件并fsync
+         */
+        void flush(B batch) throws IOException;
+
+        /**
+         * 落盘成功后将批次发布到内存状态和索引
+         */
+        void publish(B batch);
+    }
+
+    /**
+     * 单个变更，应先校验再修改批次状态，校验失败时直接抛出异常
+     */
+    @FunctionalInterface
+    public interface Mutation<B, R> {
+        R apply(B batch) throws IOException;
+    }
+
+    private final String name;
+    private final Object lock;
+    private final Engine<B> engine;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final GroupCommitMetrics metrics = new GroupCommitMetrics();
+    private final LinkedBlockingQueue<Request<B, ?>> queue = new LinkedBlockingQueue<>();
+
+    private Thread committerThread;
+    private volatile boolean closed;
+
+    /**
+     * @param name 名称，用于线程名和日志
+     * @param lock 引擎写锁，批次在该锁内应用和落盘
+     * @param engine 引擎回调
+     * @param windowMillis 提交窗口（毫秒），0表示不合并
+     * @param maxBatchSize 单批次最多合并的变更数
+     */
+    public GroupCommitter(String name, Object lock, Engine<B> engine, long windowMillis, int maxBatchSize) {
+        this.name = name;
+        this.lock = lock;
+        this.engine = engine;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMillis));
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    /**
+     * 启动后台提交线程（窗口为0时无需启动）
+     */
+    public void start() {
+        if (windowNanos == 0 || committerThread != null) {
+            return;
+        }
+        committerThread = new Thread(this::run, "group-commit-" + name);
+        committerThread.setDaemon(true);
+        committerThread.start();
+    }
+
+    /**
+     * 停止接收新变更，等待已排队的变更提交完成
+     */
+    public void close() {
+        closed = true;
+        if (committerThread == null) {
+            return;
+        }
+        committerThread.interrupt();
+        try {
+            committerThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 线程退出后仍残留的变更直接在当前线程提交
+        List<Request<B, ?>> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            commitBatch(remaining);
+        }
+        logger.info("Group committer {} closed: {}", name, metrics);
+    }
+
+    /**
+     * 提交变更并阻塞直到其所在批次落盘
+     * @return 变更的返回值
+     */
+    public <R> R submit(Mutation<B, R> mutation) throws IOException {
+        Request<B, R> request = new Request<>(mutation);
+        if (committerThread == null || closed) {
+            commitBatch(List.of(request));
+        } else {
+            queue.add(request);
+            // 与close竞争时，未被后台线程取走的变更改为就地提交
+            if (closed && queue.remove(request)) {
+                commitBatch(List.of(request));
+            }
+        }
+        return request.await();
+    }
+
+    public GroupCommitMetrics getMetrics() {
+        return metrics;
+    }
+
+    public long getWindowMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(windowNanos);
+    }
+
+    private void run() {
+        List<Request<B, ?>> batch = new ArrayList<>();
+        while (!closed) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Request<B, ?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // close时中断，已取出的变更仍需提交
+            }
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            if (!batch.isEmpty()) {
+                commitBatch(batch);
+                batch = new ArrayList<>();
+            }
+        }
+    }
+
+    private void commitBatch(List<Request<B, ?>> requests) {
+        long flushNanos;
+        synchronized (lock) {
+            B batch;
+            try {
+                batch = engine.begin();
+            } catch (IOException | RuntimeException e) {
+                failAll(requests, e);
+                return;
+            }
+
+            List<Request<B, ?>> applied = new ArrayList<>(requests.size());
+            for (Request<B, ?> request : requests) {
+                if (request.apply(batch)) {
+                    applied.add(request);
+                }
+            }
+            if (applied.isEmpty()) {
+                return;
+            }
+
+            long flushStart = System.nanoTime();
+            try {
+                engine.flush(batch);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Group commit {} failed for {} mutations", name, applied.size(), e);
+                failAll(applied, e);
+                return;
+            }
+            flushNanos = System.nanoTime() - flushStart;
+            try {
+                engine.publish(batch);
+            } catch (RuntimeException e) {
+                // 数据已落盘，调用方仍视为成功；内存状态在重启后由文件重建
+                logger.error("Group commit {} persisted {} mutations but failed to publish them", name, applied.size(), e);
+            }
+
+            long now = System.nanoTime();
+            for (Request<B, ?> request : applied) {
+                metrics.recordLatency(now - request.enqueuedAt);
+                request.complete();
+            }
+            metrics.recordBatch(applied.size(), flushNanos);
+        }
+        if (requests.size() > 1) {
+            logger.debug("Group commit {}: {} mutations in one write, flush took {} µs",
+                    name, requests.size(), TimeUnit.NANOSECONDS.toMicros(flushNanos));
+        }
+    }
+
+    private void failAll(List<Request<B, ?>> requests, Exception cause) {
+        for (Request<B, ?> request : requests) {
+            request.future.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * 排队中的变更及其结果
+     */
+    private static final class Request<B, R> {
+        private final Mutation<B, R> mutation;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+        private R result;
+
+        private Request(Mutation<B, R> mutation) {
+            this.mutation = mutation;
+        }
+
+        /**
+         * 将变更应用到批次
+         * @return 是否成功，失败时已完成future
+         */
+        private boolean apply(B batch) {
+            try {
+                result = mutation.apply(batch);
+                return true;
+            } catch (IOException | RuntimeException e) {
+                future.completeExceptionally(e);
+                return false;
+            }
+        }
+
+        private void complete() {
+            future.complete(result);
+        }
+
+        private R await() throws IOException {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        return future.get();
+                    } catch (InterruptedException e) {
+                        // 变更已经排队，必须等到结果确定后再返回
+                        interrupted = true;
+                    }
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException("Group commit failed", cause);
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
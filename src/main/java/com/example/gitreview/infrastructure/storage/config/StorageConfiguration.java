@@ -1,13 +1,16 @@
 package com.example.gitreview.infrastructure.storage.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Storage Configuration
  * Storage adapters are directly annotated with @Component and implement repository interfaces
  * No additional bean configuration needed - Spring will automatically wire the implementations
+ * Scheduling is enabled for storage maintenance jobs such as archive retention
  */
 @Configuration
+@EnableScheduling
 public class StorageConfiguration {
     // All storage adapters are @Component beans that implement repository interfaces
     // Spring will automatically inject them where needed
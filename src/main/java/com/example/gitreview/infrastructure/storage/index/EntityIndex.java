@@ -0,0 +1,36 @@
+package com.example.gitreview.infrastructure.storage.index;
+
+/**
+ * 实体二级索引
+ * 由存储适配器在写锁内维护，读操作可并发访问
+ * @param <T> 实体类型
+ * @param <K> 索引键类型
+ */
+public interface EntityIndex<T, K> {
+
+    /**
+     * 索引名称，用于日志
+     */
+    String getName();
+
+    /**
+     * 从实体中提取索引键
+     * @return 索引键，为null时实体不进入该索引
+     */
+    K keyOf(T entity);
+
+    /**
+     * 新增或更新实体在索引中的位置
+     */
+    void update(Long id, T entity);
+
+    /**
+     * 从索引中移除实体
+     */
+    void remove(Long id);
+
+    /**
+     * 清空索引
+     */
+    void clear();
+}
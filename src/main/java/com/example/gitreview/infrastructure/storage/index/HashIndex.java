@@ -0,0 +1,139 @@
+package com.example.gitreview.infrastructure.storage.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 等值索引：键 → 实体ID集合
+ * 适用于repositoryId、status、createdBy等离散字段的精确查询和计数
+ * @param <T> 实体类型
+ * @param <K> 索引键类型
+ */
+public class HashIndex<T, K> implements EntityIndex<T, K> {
+
+    private final String name;
+    private final Function<T, K> keyExtractor;
+    private final Map<K, Set<Long>> idsByKey = new ConcurrentHashMap<>();
+    private final Map<Long, K> keyById = new ConcurrentHashMap<>();
+
+    public HashIndex(String name, Function<T, K> keyExtractor) {
+        this.name = name;
+        this.keyExtractor = keyExtractor;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public K keyOf(T entity) {
+        return keyExtractor.apply(entity);
+    }
+
+    @Override
+    public void update(Long id, T entity) {
+        K newKey = keyOf(entity);
+        K oldKey = keyById.get(id);
+        if (oldKey != null && oldKey.equals(newKey)) {
+            return;
+        }
+        remove(id);
+        if (newKey != null) {
+            idsByKey.computeIfAbsent(newKey, k -> ConcurrentHashMap.newKeySet()).add(id);
+            keyById.put(id, newKey);
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        K oldKey = keyById.remove(id);
+        if (oldKey == null) {
+            return;
+        }
+        idsByKey.computeIfPresent(oldKey, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    @Override
+    public void clear() {
+        idsByKey.clear();
+        keyById.clear();
+    }
+
+    /**
+     * 查询键对应的实体ID，按ID升序
+     */
+    public List<Long> find(K key) {
+        Set<Long> ids = key == null ? null : idsByKey.get(key);
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        List<Long> result = new ArrayList<>(ids);
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * 统计键对应的实体数量
+     */
+    public long count(K key) {
+        Set<Long> ids = key == null ? null : idsByKey.get(key);
+        return ids == null ? 0 : ids.size();
+    }
+
+    /**
+     * 实体当前是否以该键进入索引
+     */
+    public boolean contains(Long id, K key) {
+        return key != null && key.equals(keyById.get(id));
+    }
+
+    /**
+     * 构造等值查询条件，键为null时表示不限
+     */
+    public Condition<T, K> eq(K key) {
+        return new Condition<>(this, key);
+    }
+
+    /**
+     * 等值查询条件，多个条件组合查询时由存储适配器求交集
+     */
+    public static final class Condition<T, K> {
+        private final HashIndex<T, K> index;
+        private final K key;
+
+        private Condition(HashIndex<T, K> index, K key) {
+            this.index = index;
+            this.key = key;
+        }
+
+        public boolean isUnbounded() {
+            return key == null;
+        }
+
+        public List<Long> ids() {
+            return index.find(key);
+        }
+
+        public long count() {
+            return index.count(key);
+        }
+
+        public boolean contains(Long id) {
+            return index.contains(id, key);
+        }
+
+        public boolean matches(T entity) {
+            return Objects.equals(index.keyOf(entity), key);
+        }
+    }
+}
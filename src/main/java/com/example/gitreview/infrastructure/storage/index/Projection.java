@@ -0,0 +1,75 @@
+package com.example.gitreview.infrastructure.storage.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * 投影：每个实体对应一份轻量摘要
+ * 摘要在写入时计算并常驻内存，列表查询直接返回摘要，无需反序列化完整实体
+ * 摘要应为不可变对象，计算时不应依赖外置的大文本字段（重建时这些字段为空）
+ * @param <T> 实体类型
+ * @param <S> 摘要类型
+ */
+public class Projection<T, S> implements EntityIndex<T, S> {
+
+    private final String name;
+    private final Function<T, S> projector;
+    private final Map<Long, S> summaryById = new ConcurrentSkipListMap<>();
+
+    public Projection(String name, Function<T, S> projector) {
+        this.name = name;
+        this.projector = projector;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 计算实体的摘要
+     */
+    @Override
+    public S keyOf(T entity) {
+        return projector.apply(entity);
+    }
+
+    @Override
+    public void update(Long id, T entity) {
+        summaryById.put(id, keyOf(entity));
+    }
+
+    @Override
+    public void remove(Long id) {
+        summaryById.remove(id);
+    }
+
+    @Override
+    public void clear() {
+        summaryById.clear();
+    }
+
+    /**
+     * 获取全部摘要，按ID升序
+     */
+    public List<S> findAll() {
+        return new ArrayList<>(summaryById.values());
+    }
+
+    /**
+     * 按ID获取摘要，跳过已被删除的ID
+     */
+    public List<S> findAllById(List<Long> ids) {
+        List<S> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            S summary = summaryById.get(id);
+            if (summary != null) {
+                result.add(summary);
+            }
+        }
+        return result;
+    }
+}
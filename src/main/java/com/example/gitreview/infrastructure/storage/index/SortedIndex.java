@@ -0,0 +1,98 @@
+package com.example.gitreview.infrastructure.storage.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * 有序索引：按键排序的可导航索引
+ * 适用于createTime等时间字段的区间查询
+ * @param <T> 实体类型
+ * @param <K> 索引键类型
+ */
+public class SortedIndex<T, K extends Comparable<? super K>> implements EntityIndex<T, K> {
+
+    private final String name;
+    private final Function<T, K> keyExtractor;
+    private final ConcurrentSkipListMap<K, Set<Long>> idsByKey = new ConcurrentSkipListMap<>();
+    private final Map<Long, K> keyById = new ConcurrentHashMap<>();
+
+    public SortedIndex(String name, Function<T, K> keyExtractor) {
+        this.name = name;
+        this.keyExtractor = keyExtractor;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public K keyOf(T entity) {
+        return keyExtractor.apply(entity);
+    }
+
+    @Override
+    public void update(Long id, T entity) {
+        K newKey = keyOf(entity);
+        K oldKey = keyById.get(id);
+        if (oldKey != null && oldKey.equals(newKey)) {
+            return;
+        }
+        remove(id);
+        if (newKey != null) {
+            idsByKey.computeIfAbsent(newKey, k -> new ConcurrentSkipListSet<>()).add(id);
+            keyById.put(id, newKey);
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        K oldKey = keyById.remove(id);
+        if (oldKey == null) {
+            return;
+        }
+        idsByKey.computeIfPresent(oldKey, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    @Override
+    public void clear() {
+        idsByKey.clear();
+        keyById.clear();
+    }
+
+    /**
+     * 查询键在闭区间[from, to]内的实体ID，按键升序
+     */
+    public List<Long> findBetween(K from, K to) {
+        if (from.compareTo(to) > 0) {
+            return new ArrayList<>();
+        }
+        return flatten(idsByKey.subMap(from, true, to, true));
+    }
+
+    /**
+     * 查询键严格小于bound的实体ID，按键升序
+     */
+    public List<Long> findBefore(K bound) {
+        return flatten(idsByKey.headMap(bound, false));
+    }
+
+    private static <K> List<Long> flatten(NavigableMap<K, Set<Long>> range) {
+        List<Long> result = new ArrayList<>();
+        for (Collection<Long> ids : range.values()) {
+            result.addAll(ids);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,703 @@
+package com.example.gitreview.infrastructure.storage.jdbc;
+
+import com.example.gitreview.infrastructure.storage.AbstractFileStorageAdapter;
+import com.example.gitreview.infrastructure.storage.backup.StoreBackup;
+import com.example.gitreview.infrastructure.storage.codec.StorageCodec;
+import com.example.gitreview.infrastructure.storage.commit.GroupCommitMetrics;
+import com.example.gitreview.infrastructure.storage.commit.GroupCommitter;
+import com.example.gitreview.infrastructure.storage.index.EntityIndex;
+import com.example.gitreview.infrastructure.storage.index.HashIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 嵌入式H2数据库存储适配器
+ * 每个存储对应库中的一张表，表名由存储文件名得出（如code-reviews.json → CODE_REVIEWS）。
+ * 每个实体一行：ID主键、版本号、完整JSON文档，每个等值索引（HashIndex）另有一列并建立数据库索引。
+ *
+ * 启用缓存时与日志引擎一样在启动时加载全部文档，读操作只访问内存；
+ * 关闭缓存时读操作直接查询数据库，等值索引查询下推为按索引列的SQL查询，不再加载全部数据。
+ * 写操作在一个事务中按行MERGE/DELETE，只写入变更的行；启用组提交时窗口内的变更合并为一个事务。
+ * 首次启动时表为空而同名JSON文件存在会自动导入，也可调用{@link #importJsonFile(Path)}重新迁移。
+ * @param <T> 实体类型
+ */
+public class H2StorageAdapter<T> extends AbstractFileStorageAdapter<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(H2StorageAdapter.class);
+
+    private static final String COLUMN_ID = "ID";
+    private static final String COLUMN_VERSION = "VERSION";
+    private static final String COLUMN_DOCUMENT = "DOCUMENT";
+    private static final String INDEX_COLUMN_PREFIX = "IX_";
+    private static final int INDEX_COLUMN_LENGTH = 1024;
+
+    /**
+     * 启用缓存时的内存状态，按ID有序；写操作在writeLock内进行，读操作直接访问
+     */
+    private final ConcurrentSkipListMap<Long, JsonNode> entities = new ConcurrentSkipListMap<>();
+    private final Object writeLock = new Object();
+    private final ObjectWriter documentWriter;
+    private GroupCommitter<Batch> committer;
+
+    /**
+     * 等值索引到索引列名的映射
+     */
+    private final Map<HashIndex<T, ?>, String> indexColumns = new LinkedHashMap<>();
+
+    private String jdbcUrl;
+    private String username = "sa";
+    private String password = "";
+    private String tableName;
+
+    /**
+     * 写连接，关闭自动提交，只在writeLock内使用；读操作各自打开连接
+     */
+    private Connection writeConnection;
+
+    public H2StorageAdapter() {
+        this.documentWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    @Override
+    public void init() {
+        if (jdbcUrl == null || jdbcUrl.isBlank()) {
+            throw new IllegalStateException("JDBC URL is not configured for " + getStorageFile());
+        }
+        tableName = resolveTableName(getStorageFile());
+        for (EntityIndex<T, ?> index : getIndexes()) {
+            if (index instanceof HashIndex) {
+                indexColumns.put((HashIndex<T, ?>) index, INDEX_COLUMN_PREFIX + sanitize(index.getName()));
+            }
+        }
+
+        try {
+            writeConnection = DriverManager.getConnection(jdbcUrl, username, password);
+            writeConnection.setAutoCommit(false);
+            boolean backfill = createSchema();
+
+            synchronized (writeLock) {
+                if (countRows() == 0) {
+                    importRows(Paths.get(getStorageFile()));
+                } else if (backfill) {
+                    backfillIndexColumns();
+                }
+                reload();
+            }
+
+            committer = new GroupCommitter<>(tableName, writeLock,
+                    new BatchEngine(), getGroupCommitWindowMillis(), MAX_GROUP_COMMIT_BATCH);
+            committer.start();
+            logger.info("H2StorageAdapter initialized with table: {}, url: {}, entities: {}, cacheEnabled: {}",
+                    tableName, jdbcUrl, count(), isCacheEnabled());
+        } catch (SQLException | IOException e) {
+            logger.error("Failed to initialize H2StorageAdapter for table: {}", tableName, e);
+            close();
+            throw new RuntimeException("Failed to initialize storage", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (committer != null) {
+            committer.close();
+        }
+        synchronized (writeLock) {
+            try {
+                if (writeConnection != null && !writeConnection.isClosed()) {
+                    writeConnection.close();
+                }
+            } catch (SQLException e) {
+                logger.warn("Failed to close connection for table: {}", tableName, e);
+            }
+        }
+    }
+
+    @Override
+    public GroupCommitMetrics getGroupCommitMetrics() {
+        return committer.getMetrics();
+    }
+
+    @Override
+    public void holdingWriteLock(Runnable action) {
+        synchronized (writeLock) {
+            action.run();
+        }
+    }
+
+    /**
+     * 在锁内开启一个SNAPSHOT隔离级别的只读事务并执行一次查询固定其快照，
+     * 锁外在同一事务中读取全部文档，之后提交的写事务对其不可见
+     */
+    @Override
+    public StoreBackup captureBackup() throws IOException {
+        Connection connection = null;
+        long nextId;
+        try {
+            synchronized (writeLock) {
+                connection = openConnection();
+                connection.setAutoCommit(false);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET SESSION CHARACTERISTICS AS TRANSACTION ISOLATION LEVEL SNAPSHOT");
+                }
+                countRows(connection);
+                nextId = idCounter.get();
+            }
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw new IOException("Failed to open backup transaction on table " + tableName, e);
+        }
+        Connection snapshot = connection;
+        return new StoreBackup(nextId, () -> {
+            try (snapshot) {
+                Map<Long, JsonNode> nodes = queryNodes(snapshot, "SELECT " + COLUMN_ID + ", " + COLUMN_DOCUMENT
+                        + " FROM " + tableName + " ORDER BY " + COLUMN_ID);
+                snapshot.rollback();
+                return nodes.values();
+            } catch (SQLException e) {
+                throw new IOException("Failed to read backup of table " + tableName, e);
+            }
+        });
+    }
+
+    @Override
+    protected JsonNode currentNode(Long id) throws IOException {
+        if (isCacheEnabled()) {
+            return entities.get(id);
+        }
+        return queryNodes("SELECT " + COLUMN_ID + ", " + COLUMN_DOCUMENT + " FROM " + tableName
+                + " WHERE " + COLUMN_ID + " = ?", id).get(id);
+    }
+
+    @Override
+    protected Map<Long, JsonNode> currentNodes() throws IOException {
+        if (isCacheEnabled()) {
+            return entities;
+        }
+        return queryNodes("SELECT " + COLUMN_ID + ", " + COLUMN_DOCUMENT + " FROM " + tableName
+                + " ORDER BY " + COLUMN_ID);
+    }
+
+    @Override
+    protected int commitAll(List<Change<T>> changes) throws IOException {
+        return committer.submit(batch -> {
+            for (Change<T> change : changes) {
+                batch.prefetch(change.getId());
+            }
+            verifyAll(changes, batch::current);
+            int applied = 0;
+            for (Change<T> change : changes) {
+                Long id = change.getId();
+                if (!change.isUpsert() && batch.current(id) == null) {
+                    continue;
+                }
+                batch.stage(change);
+                applied++;
+            }
+            return applied;
+        });
+    }
+
+    @Override
+    public Optional<T> findById(Long id) {
+        try {
+            JsonNode node = currentNode(id);
+            return node == null ? Optional.empty() : Optional.of(toEntity(node));
+        } catch (IOException e) {
+            logger.error("Failed to find entity by ID: {}", id, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public List<T> findAll() {
+        try {
+            Collection<JsonNode> nodes = currentNodes().values();
+            List<T> result = new ArrayList<>(nodes.size());
+            for (JsonNode node : nodes) {
+                result.add(toEntity(node));
+            }
+            return result;
+        } catch (IOException e) {
+            logger.error("Failed to load all entities", e);
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        if (isCacheEnabled()) {
+            return entities.containsKey(id);
+        }
+        try (Connection connection = openConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT 1 FROM " + tableName + " WHERE " + COLUMN_ID + " = ?")) {
+            statement.setLong(1, id);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to check entity existence: {}", id, e);
+            return false;
+        }
+    }
+
+    @Override
+    public long count() {
+        if (isCacheEnabled()) {
+            return entities.size();
+        }
+        try (Connection connection = openConnection()) {
+            return countRows(connection);
+        } catch (SQLException e) {
+            logger.error("Failed to count entities in table: {}", tableName, e);
+            return 0;
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        synchronized (writeLock) {
+            try (Statement statement = writeConnection.createStatement()) {
+                statement.executeUpdate("DELETE FROM " + tableName);
+                writeConnection.commit();
+                entities.clear();
+                clearIndexes();
+                idCounter.set(1);
+                logger.info("Deleted all entities from table: {}", tableName);
+            } catch (SQLException e) {
+                rollbackQuietly();
+                logger.error("Failed to delete all entities", e);
+                throw new RuntimeException("Failed to delete all entities", e);
+            }
+        }
+    }
+
+    /**
+     * 未启用缓存时按索引列查询，只读取匹配的行
+     */
+    @Override
+    protected <K> List<T> loadByIndex(HashIndex<T, K> index, K key) {
+        String column = indexColumns.get(index);
+        if (column == null) {
+            return super.loadByIndex(index, key);
+        }
+        String sql = "SELECT " + COLUMN_ID + ", " + COLUMN_DOCUMENT + " FROM " + tableName + " WHERE " + column
+                + (key == null ? " IS NULL" : " = ?") + " ORDER BY " + COLUMN_ID;
+        try {
+            Map<Long, JsonNode> nodes = key == null ? queryNodes(sql) : queryNodes(sql, indexValue(key));
+            List<T> result = new ArrayList<>(nodes.size());
+            for (JsonNode node : nodes.values()) {
+                T entity = toEntity(node);
+                // 列值为键的字符串形式，返回前按原始键再校验一次
+                if (Objects.equals(index.keyOf(entity), key)) {
+                    result.add(entity);
+                }
+            }
+            return result;
+        } catch (IOException e) {
+            logger.error("Failed to query table {} by index {}", tableName, index.getName(), e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 从JSON数组文件导入实体，按ID覆盖已有的行，表中其他行保持不变
+     * 用于从JSON引擎一次性迁移，可重复执行；文件编码自动识别，见{@link StorageCodec}
+     * @return 导入的实体数
+     */
+    public int importJsonFile(Path jsonFile) throws IOException {
+        synchronized (writeLock) {
+            int imported = importRows(jsonFile);
+            reload();
+            return imported;
+        }
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public void setJdbcUrl(String jdbcUrl) {
+        this.jdbcUrl = jdbcUrl;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    // 私有辅助方法
+
+    /**
+     * 建表并补齐索引列
+     * @return 是否新增了索引列（已有数据需要回填）
+     */
+    private boolean createSchema() throws SQLException {
+        boolean added = false;
+        try (Statement statement = writeConnection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + tableName + " ("
+                    + COLUMN_ID + " BIGINT PRIMARY KEY, "
+                    + COLUMN_VERSION + " BIGINT DEFAULT 0 NOT NULL, "
+                    + COLUMN_DOCUMENT + " CLOB NOT NULL)");
+            for (String column : indexColumns.values()) {
+                if (!columnExists(column)) {
+                    statement.execute("ALTER TABLE " + tableName + " ADD COLUMN " + column
+                            + " VARCHAR(" + INDEX_COLUMN_LENGTH + ")");
+                    added = true;
+                }
+                statement.execute("CREATE INDEX IF NOT EXISTS " + tableName + "_" + column
+                        + " ON " + tableName + " (" + column + ")");
+            }
+            writeConnection.commit();
+        } catch (SQLException e) {
+            rollbackQuietly();
+            throw e;
+        }
+        return added;
+    }
+
+    private boolean columnExists(String column) throws SQLException {
+        DatabaseMetaData metaData = writeConnection.getMetaData();
+        try (ResultSet rs = metaData.getColumns(null, null, tableName, column)) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * 新增索引列后，根据已有文档回填列值
+     */
+    private void backfillIndexColumns() throws SQLException, IOException {
+        Map<Long, JsonNode> nodes = queryNodes("SELECT " + COLUMN_ID + ", " + COLUMN_DOCUMENT
+                + " FROM " + tableName + " ORDER BY " + COLUMN_ID);
+        StringBuilder sql = new StringBuilder("UPDATE ").append(tableName).append(" SET ");
+        List<String> columns = new ArrayList<>(indexColumns.values());
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i > 0 ? ", " : "").append(columns.get(i)).append(" = ?");
+        }
+        sql.append(" WHERE ").append(COLUMN_ID).append(" = ?");
+
+        try (PreparedStatement update = writeConnection.prepareStatement(sql.toString())) {
+            for (Map.Entry<Long, JsonNode> entry : nodes.entrySet()) {
+                int parameter = bindIndexColumns(update, 1, lightEntityOrNull(entry.getKey(), entry.getValue()));
+                update.setLong(parameter, entry.getKey());
+                update.addBatch();
+            }
+            update.executeBatch();
+            writeConnection.commit();
+        } catch (SQLException e) {
+            rollbackQuietly();
+            throw e;
+        }
+        logger.info("Backfilled index columns {} for {} rows in table: {}", columns, nodes.size(), tableName);
+    }
+
+    /**
+     * 将JSON数组文件中的实体写入表（调用方持有writeLock）
+     */
+    private int importRows(Path jsonFile) throws IOException {
+        if (!Files.exists(jsonFile)) {
+            return 0;
+        }
+        JsonNode root = StorageCodec.read(jsonFile);
+        if (root == null || !root.isArray()) {
+            return 0;
+        }
+
+        int imported = 0;
+        try (PreparedStatement upsert = writeConnection.prepareStatement(mergeSql())) {
+            for (JsonNode node : root) {
+                Long id = readId(node);
+                if (id == null) {
+                    continue;
+                }
+                bindUpsert(upsert, id, node, lightEntityOrNull(id, node));
+                upsert.addBatch();
+                imported++;
+            }
+            upsert.executeBatch();
+            writeConnection.commit();
+        } catch (SQLException e) {
+            rollbackQuietly();
+            throw new IOException("Failed to import " + jsonFile + " into table " + tableName, e);
+        }
+        logger.info("Imported {} entities from {} into table {}", imported, jsonFile, tableName);
+        return imported;
+    }
+
+    /**
+     * 从表中重新加载内存状态、索引和ID计数器（调用方持有writeLock）
+     */
+    private void reload() throws IOException {
+        entities.clear();
+        if (isCacheEnabled()) {
+            entities.putAll(queryNodes("SELECT " + COLUMN_ID + ", " + COLUMN_DOCUMENT
+                    + " FROM " + tableName + " ORDER BY " + COLUMN_ID));
+        }
+        rebuildIndexes(entities);
+        try (Statement statement = writeConnection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT MAX(" + COLUMN_ID + ") FROM " + tableName)) {
+            long maxId = rs.next() ? rs.getLong(1) : 0;
+            writeConnection.commit();
+            initializeIdCounter(Collections.singletonList(maxId));
+        } catch (SQLException e) {
+            throw new IOException("Failed to read max ID from table " + tableName, e);
+        }
+    }
+
+    private long countRows() throws SQLException {
+        long rows = countRows(writeConnection);
+        writeConnection.commit();
+        return rows;
+    }
+
+    private long countRows(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + tableName)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * 执行查询并把结果解析为按ID排列的文档，无法解析的行跳过
+     */
+    private Map<Long, JsonNode> queryNodes(String sql, Object... parameters) throws IOException {
+        try (Connection connection = openConnection()) {
+            return queryNodes(connection, sql, parameters);
+        } catch (SQLException e) {
+            throw new IOException("Failed to query table " + tableName, e);
+        }
+    }
+
+    private Map<Long, JsonNode> queryNodes(Connection connection, String sql, Object... parameters) throws IOException {
+        Map<Long, JsonNode> nodes = new LinkedHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    long id = rs.getLong(1);
+                    try {
+                        nodes.put(id, objectMapper.readTree(rs.getString(2)));
+                    } catch (IOException e) {
+                        logger.warn("Skipping unreadable row {} in table {}: {}", id, tableName, e.getMessage());
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to query table " + tableName, e);
+        }
+        return nodes;
+    }
+
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(jdbcUrl, username, password);
+    }
+
+    private String mergeSql() {
+        StringBuilder columns = new StringBuilder(COLUMN_ID + ", " + COLUMN_VERSION + ", " + COLUMN_DOCUMENT);
+        StringBuilder values = new StringBuilder("?, ?, ?");
+        for (String column : indexColumns.values()) {
+            columns.append(", ").append(column);
+            values.append(", ?");
+        }
+        return "MERGE INTO " + tableName + " (" + columns + ") KEY (" + COLUMN_ID + ") VALUES (" + values + ")";
+    }
+
+    private void bindUpsert(PreparedStatement statement, Long id, JsonNode node, T entity)
+            throws SQLException, IOException {
+        statement.setLong(1, id);
+        statement.setLong(2, node.path(VERSION_FIELD).asLong(0));
+        statement.setString(3, documentWriter.writeValueAsString(node));
+        bindIndexColumns(statement, 4, entity);
+    }
+
+    /**
+     * 绑定索引列的值，实体为null时全部置空
+     * @return 下一个参数位置
+     */
+    private int bindIndexColumns(PreparedStatement statement, int parameter, T entity) throws SQLException {
+        for (HashIndex<T, ?> index : indexColumns.keySet()) {
+            String value = null;
+            if (entity != null) {
+                try {
+                    value = indexValue(index.keyOf(entity));
+                } catch (RuntimeException e) {
+                    logger.debug("Failed to compute index {} for table {}: {}", index.getName(), tableName, e.getMessage());
+                }
+            }
+            statement.setString(parameter++, value);
+        }
+        return parameter;
+    }
+
+    private T lightEntityOrNull(Long id, JsonNode node) {
+        try {
+            return toLightEntity(node);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Failed to read entity {} from table {}: {}", id, tableName, e.getMessage());
+            return null;
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("Failed to close backup connection to table: {}", tableName, e);
+        }
+    }
+
+    private void rollbackQuietly() {
+        try {
+            writeConnection.rollback();
+        } catch (SQLException e) {
+            logger.warn("Failed to roll back transaction on table: {}", tableName, e);
+        }
+    }
+
+    private static String indexValue(Object key) {
+        if (key == null) {
+            return null;
+        }
+        String value = key instanceof Enum ? ((Enum<?>) key).name() : key.toString();
+        return value.length() > INDEX_COLUMN_LENGTH ? value.substring(0, INDEX_COLUMN_LENGTH) : value;
+    }
+
+    private static String resolveTableName(String storageFile) {
+        String name = Paths.get(storageFile).getFileName().toString();
+        if (name.endsWith(".json")) {
+            name = name.substring(0, name.length() - ".json".length());
+        }
+        return sanitize(name);
+    }
+
+    private static String sanitize(String name) {
+        String identifier = name.replaceAll("[^A-Za-z0-9]", "_").toUpperCase(Locale.ROOT);
+        return Character.isDigit(identifier.charAt(0)) ? "T_" + identifier : identifier;
+    }
+
+    /**
+     * 一个组提交批次：按ID暂存的最新节点和对应实体，提交成功后才应用到内存状态
+     */
+    private final class Batch {
+        /**
+         * 暂存的最新节点，值为null表示删除
+         */
+        private final Map<Long, JsonNode> staged = new LinkedHashMap<>();
+        private final Map<Long, T> stagedEntities = new HashMap<>();
+        private final Map<Long, JsonNode> loaded = new HashMap<>();
+        private final List<Change<T>> changes = new ArrayList<>();
+
+        /**
+         * 读取变更涉及实体的当前节点，关闭缓存时从数据库读取
+         */
+        private void prefetch(Long id) throws IOException {
+            if (!staged.containsKey(id) && !loaded.containsKey(id)) {
+                loaded.put(id, currentNode(id));
+            }
+        }
+
+        private JsonNode current(Long id) {
+            return staged.containsKey(id) ? staged.get(id) : loaded.get(id);
+        }
+
+        private void stage(Change<T> change) {
+            staged.put(change.getId(), change.getNode());
+            stagedEntities.put(change.getId(), change.getEntity());
+            changes.add(change);
+        }
+    }
+
+    private final class BatchEngine implements GroupCommitter.Engine<Batch> {
+
+        @Override
+        public Batch begin() {
+            return new Batch();
+        }
+
+        @Override
+        public void flush(Batch batch) throws IOException {
+            if (batch.staged.isEmpty()) {
+                return;
+            }
+            try (PreparedStatement upsert = writeConnection.prepareStatement(mergeSql());
+                 PreparedStatement delete = writeConnection.prepareStatement(
+                         "DELETE FROM " + tableName + " WHERE " + COLUMN_ID + " = ?")) {
+                boolean hasUpserts = false;
+                boolean hasDeletes = false;
+                for (Map.Entry<Long, JsonNode> entry : batch.staged.entrySet()) {
+                    if (entry.getValue() == null) {
+                        delete.setLong(1, entry.getKey());
+                        delete.addBatch();
+                        hasDeletes = true;
+                    } else {
+                        bindUpsert(upsert, entry.getKey(), entry.getValue(), batch.stagedEntities.get(entry.getKey()));
+                        upsert.addBatch();
+                        hasUpserts = true;
+                    }
+                }
+                if (hasUpserts) {
+                    upsert.executeBatch();
+                }
+                if (hasDeletes) {
+                    delete.executeBatch();
+                }
+                writeConnection.commit();
+            } catch (SQLException e) {
+                rollbackQuietly();
+                throw new IOException("Failed to commit " + batch.staged.size() + " changes to table " + tableName, e);
+            }
+        }
+
+        @Override
+        public void publish(Batch batch) {
+            if (isCacheEnabled()) {
+                for (Map.Entry<Long, JsonNode> entry : batch.staged.entrySet()) {
+                    if (entry.getValue() == null) {
+                        entities.remove(entry.getKey());
+                    } else {
+                        entities.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            batch.changes.forEach(H2StorageAdapter.this::reindex);
+        }
+    }
+}
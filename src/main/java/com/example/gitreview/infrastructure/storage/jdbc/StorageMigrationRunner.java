@@ -0,0 +1,61 @@
+package com.example.gitreview.infrastructure.storage.jdbc;
+
+import com.example.gitreview.infrastructure.storage.AbstractFileStorageAdapter;
+import com.example.gitreview.infrastructure.storage.StorageAdapterFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * JSON文件到H2的一次性迁移命令
+ * 以h2 profile并设置json.storage.migrate=true启动时，把每个h2存储对应的JSON文件导入到表中后退出：
+ * java -jar app.jar --spring.profiles.active=h2 --json.storage.migrate=true
+ * 导入按ID覆盖，可重复执行；JSON文件保持不变，可随时切回json引擎。
+ */
+@Component
+@ConditionalOnProperty(name = "json.storage.migrate", havingValue = "true")
+public class StorageMigrationRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageMigrationRunner.class);
+
+    @Autowired
+    private StorageAdapterFactory storageAdapterFactory;
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int failures = 0;
+        for (Map.Entry<String, AbstractFileStorageAdapter<?>> entry : storageAdapterFactory.getAdapters().entrySet()) {
+            String file = entry.getKey();
+            if (!(entry.getValue() instanceof H2StorageAdapter)) {
+                logger.warn("Skipping {}: store is not configured with the h2 engine", file);
+                continue;
+            }
+            H2StorageAdapter<?> adapter = (H2StorageAdapter<?>) entry.getValue();
+            try {
+                int imported = adapter.importJsonFile(Paths.get(file));
+                logger.info("Migrated {} entities from {} to table {} ({} rows total)",
+                        imported, file, adapter.getTableName(), adapter.count());
+            } catch (IOException | RuntimeException e) {
+                failures++;
+                logger.error("Failed to migrate {} to table {}", file, adapter.getTableName(), e);
+            }
+        }
+
+        int exitCode = failures == 0 ? 0 : 1;
+        logger.info("Storage migration finished with {} failure(s)", failures);
+        System.exit(SpringApplication.exit(applicationContext, () -> exitCode));
+    }
+}
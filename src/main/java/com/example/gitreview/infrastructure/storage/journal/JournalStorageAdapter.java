@@ -0,0 +1,728 @@
+package com.example.gitreview.infrastructure.storage.journal;
+
+import com.example.gitreview.infrastructure.storage.AbstractFileStorageAdapter;
+import com.example.gitreview.infrastructure.storage.backup.StoreBackup;
+import com.example.gitreview.infrastructure.storage.codec.StorageCodec;
+import com.example.gitreview.infrastructure.storage.commit.GroupCommitMetrics;
+import com.example.gitreview.infrastructure.storage.commit.GroupCommitter;
+import com.example.gitreview.infrastructure.storage.snapshot.Snapshot;
+import com.example.gitreview.infrastructure.storage.snapshot.SnapshotStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 追加写日志存储适配器
+ * 每次变更只向日志文件追加一行JSON记录（upsert或tombstone），写入成本与变更大小成正比。
+ *
+ * 启动时顺序重放日志重建内存状态；失效记录（被覆盖的旧版本和墓碑）
+ * 超过阈值且不少于存活记录数时，在后台线程中压缩日志。
+ * 日志文件与JSON文件同名，扩展名为.jsonl；首次启动时若日志不存在而JSON文件存在，会自动导入。
+ * 每批记录追加后fsync一次；启用组提交时，窗口内多个写操作的记录一次性追加。
+ * 关闭时和每隔一定数量的变更在后台写一份快照，记录其覆盖的日志前缀；
+ * 启动时前缀校验一致则从快照加载，只重放之后追加的记录。压缩或清空日志会使快照作废。
+ * @param <T> 实体类型
+ */
+public class JournalStorageAdapter<T> extends AbstractFileStorageAdapter<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalStorageAdapter.class);
+
+    private static final String JOURNAL_EXTENSION = ".jsonl";
+    private static final String FIELD_OP = "op";
+    private static final String FIELD_DATA = "data";
+    private static final String OP_UPSERT = "U";
+    private static final String OP_DELETE = "D";
+    private static final byte[] LINE_SEPARATOR = "\n".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 内存状态，按ID有序；写操作在writeLock内进行，读操作直接访问
+     */
+    private final ConcurrentSkipListMap<Long, JsonNode> entities = new ConcurrentSkipListMap<>();
+    private final Object writeLock = new Object();
+    private final ObjectWriter lineWriter;
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+    private GroupCommitter<Batch> committer;
+
+    private ExecutorService compactionExecutor;
+    private Path journalPath;
+    private FileChannel channel;
+    private long deadRecords;
+
+    private SnapshotStore snapshots;
+
+    /**
+     * 上次快照之后提交的变更数（writeLock内访问）
+     */
+    private long changesSinceSnapshot;
+
+    /**
+     * 最近一份已写出或已安排写出的快照是否包含全部日志（writeLock内访问）
+     */
+    private boolean snapshotCurrent;
+
+    /**
+     * deleteAll和压缩会重写日志，递增代数使进行中的压缩和快照作废
+     */
+    private long generation;
+
+    /**
+     * 触发压缩的失效记录数阈值
+     */
+    private int compactionThreshold = 1000;
+
+    public JournalStorageAdapter() {
+        this.lineWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    @Override
+    public void init() {
+        journalPath = resolveJournalPath(getStorageFile());
+        try {
+            if (journalPath.getParent() != null) {
+                Files.createDirectories(journalPath.getParent());
+            }
+
+            snapshots = new SnapshotStore(SnapshotStore.pathFor(getStorageFile()), SnapshotStore.SOURCE_JOURNAL,
+                    objectMapper);
+            if (!Files.exists(journalPath)) {
+                snapshots.delete();
+                importJsonFile(Paths.get(getStorageFile()));
+            }
+
+            long highestId = restore();
+            rebuildIndexes(entities);
+            channel = openChannel();
+            // 计数器基于日志中出现过的最大ID（含墓碑），而不仅是存活实体
+            initializeIdCounter(Collections.singletonList(highestId));
+
+            compactionExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "journal-maintenance-" + journalPath.getFileName());
+                thread.setDaemon(true);
+                return thread;
+            });
+            committer = new GroupCommitter<>(journalPath.getFileName().toString(), writeLock,
+                    new BatchEngine(), getGroupCommitWindowMillis(), MAX_GROUP_COMMIT_BATCH);
+            committer.start();
+
+            logger.info("JournalStorageAdapter initialized with file: {}, entities: {}, dead records: {}",
+                    journalPath, entities.size(), deadRecords);
+        } catch (IOException e) {
+            logger.error("Failed to initialize JournalStorageAdapter", e);
+            throw new RuntimeException("Failed to initialize storage", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (committer != null) {
+            committer.close();
+        }
+        if (compactionExecutor != null) {
+            compactionExecutor.shutdown();
+            try {
+                compactionExecutor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (writeLock) {
+            try {
+                if (channel != null && channel.isOpen()) {
+                    channel.force(true);
+                    if (isSnapshotEnabled() && !snapshotCurrent) {
+                        writeSnapshot();
+                    }
+                    channel.close();
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to close journal: {}", journalPath, e);
+            }
+        }
+    }
+
+    /**
+     * 日志引擎的状态始终常驻内存，缓存开关对其无效
+     */
+    @Override
+    public boolean isCacheEnabled() {
+        return true;
+    }
+
+    @Override
+    public GroupCommitMetrics getGroupCommitMetrics() {
+        return committer.getMetrics();
+    }
+
+    @Override
+    public void holdingWriteLock(Runnable action) {
+        synchronized (writeLock) {
+            action.run();
+        }
+    }
+
+    /**
+     * 在锁内只打开日志的只读句柄并记录当前长度，锁外重放该前缀得到捕获时刻的状态
+     * 日志只追加；压缩通过改名替换文件，已打开的句柄仍读到原文件，不受影响
+     */
+    @Override
+    public StoreBackup captureBackup() throws IOException {
+        FileChannel reader;
+        long length;
+        long nextId;
+        synchronized (writeLock) {
+            reader = FileChannel.open(journalPath, StandardOpenOption.READ);
+            length = channel.size();
+            nextId = idCounter.get();
+        }
+        return new StoreBackup(nextId, () -> {
+            try (reader) {
+                return replayPrefix(reader, length).values();
+            }
+        });
+    }
+
+    @Override
+    protected JsonNode currentNode(Long id) {
+        return entities.get(id);
+    }
+
+    @Override
+    protected Map<Long, JsonNode> currentNodes() {
+        return entities;
+    }
+
+    @Override
+    protected int commitAll(List<Change<T>> changes) throws IOException {
+        return committer.submit(batch -> {
+            verifyAll(changes, batch::current);
+            int applied = 0;
+            for (Change<T> change : changes) {
+                Long id = change.getId();
+                boolean exists = batch.current(id) != null;
+                if (change.isUpsert()) {
+                    batch.append(upsertRecord(id, change.getNode()));
+                    if (exists) {
+                        batch.deadRecords++;
+                    }
+                } else if (exists) {
+                    batch.append(deleteRecord(id));
+                    // 墓碑本身和被删除的记录都已失效
+                    batch.deadRecords += 2;
+                } else {
+                    continue;
+                }
+                batch.staged.put(id, change.getNode());
+                batch.changes.add(change);
+                applied++;
+            }
+            return applied;
+        });
+    }
+
+    @Override
+    public Optional<T> findById(Long id) {
+        JsonNode node = entities.get(id);
+        if (node == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(toEntity(node));
+        } catch (IOException e) {
+            logger.error("Failed to find entity by ID: {}", id, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public List<T> findAll() {
+        try {
+            List<T> result = new ArrayList<>(entities.size());
+            for (JsonNode node : entities.values()) {
+                result.add(toEntity(node));
+            }
+            return result;
+        } catch (IOException e) {
+            logger.error("Failed to load all entities", e);
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return entities.containsKey(id);
+    }
+
+    @Override
+    public long count() {
+        return entities.size();
+    }
+
+    @Override
+    public void deleteAll() {
+        synchronized (writeLock) {
+            try {
+                channel.truncate(0);
+                channel.force(true);
+                entities.clear();
+                clearIndexes();
+                deadRecords = 0;
+                generation++;
+                snapshots.delete();
+                snapshotCurrent = false;
+                changesSinceSnapshot = 0;
+                idCounter.set(1);
+                logger.info("Deleted all entities");
+            } catch (IOException e) {
+                logger.error("Failed to delete all entities", e);
+                throw new RuntimeException("Failed to delete all entities", e);
+            }
+        }
+    }
+
+    /**
+     * 立即压缩日志：只保留每个存活实体的最新记录
+     * 压缩期间写操作只在最后替换文件时短暂阻塞
+     */
+    public void compact() throws IOException {
+        Map<Long, JsonNode> snapshot;
+        long mark;
+        long deadAtMark;
+        long generationAtMark;
+        long highWaterMark;
+        synchronized (writeLock) {
+            snapshot = new LinkedHashMap<>(entities);
+            highWaterMark = idCounter.get() - 1;
+            mark = channel.size();
+            deadAtMark = deadRecords;
+            generationAtMark = generation;
+        }
+
+        Path compactPath = journalPath.resolveSibling(journalPath.getFileName() + ".compact");
+        try (OutputStream out = Files.newOutputStream(compactPath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<Long, JsonNode> entry : snapshot.entrySet()) {
+                out.write(lineWriter.writeValueAsBytes(upsertRecord(entry.getKey(), entry.getValue())));
+                out.write(LINE_SEPARATOR);
+            }
+            // 最大ID已被删除时保留其墓碑，避免重启后ID被复用
+            if (highWaterMark > 0 && !snapshot.containsKey(highWaterMark)) {
+                out.write(lineWriter.writeValueAsBytes(deleteRecord(highWaterMark)));
+                out.write(LINE_SEPARATOR);
+            }
+        }
+
+        synchronized (writeLock) {
+            if (generation != generationAtMark) {
+                Files.deleteIfExists(compactPath);
+                logger.info("Journal {} was cleared during compaction, discarding compacted copy", journalPath);
+                return;
+            }
+
+            // 追加快照之后写入的尾部记录
+            try (FileChannel target = FileChannel.open(compactPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                long position = mark;
+                long end = channel.size();
+                while (position < end) {
+                    position += channel.transferTo(position, end - position, target);
+                }
+                target.force(true);
+            }
+
+            channel.close();
+            moveReplacing(compactPath, journalPath);
+            channel = openChannel();
+            generation++;
+            snapshots.delete();
+            snapshotCurrent = false;
+            deadRecords -= deadAtMark;
+            if (highWaterMark > 0 && !snapshot.containsKey(highWaterMark)) {
+                deadRecords++;
+            }
+        }
+        logger.info("Compacted journal {}: {} live entities, {} dead records remaining",
+                journalPath, snapshot.size(), deadRecords);
+    }
+
+    /**
+     * 当前失效记录数
+     */
+    public long getDeadRecords() {
+        synchronized (writeLock) {
+            return deadRecords;
+        }
+    }
+
+    /**
+     * 获取日志文件路径
+     */
+    public Path getJournalPath() {
+        return journalPath;
+    }
+
+    public int getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    public void setCompactionThreshold(int compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    // 私有辅助方法
+
+    private void maybeScheduleCompaction() {
+        if (deadRecords < compactionThreshold || deadRecords < entities.size()) {
+            return;
+        }
+        if (!compacting.compareAndSet(false, true)) {
+            return;
+        }
+        compactionExecutor.execute(() -> {
+            try {
+                compact();
+            } catch (Exception e) {
+                logger.error("Failed to compact journal: {}", journalPath, e);
+            } finally {
+                compacting.set(false);
+            }
+        });
+    }
+
+
+    private ObjectNode upsertRecord(Long id, JsonNode data) {
+        ObjectNode record = objectMapper.createObjectNode();
+        record.put(FIELD_OP, OP_UPSERT);
+        record.put(ID_FIELD, id);
+        record.set(FIELD_DATA, data);
+        return record;
+    }
+
+    private ObjectNode deleteRecord(Long id) {
+        ObjectNode record = objectMapper.createObjectNode();
+        record.put(FIELD_OP, OP_DELETE);
+        record.put(ID_FIELD, id);
+        return record;
+    }
+
+    /**
+     * 恢复内存状态：快照覆盖的日志前缀与当前日志一致时从快照加载，只重放其后的记录，否则重放整个日志
+     * @return 出现过的最大ID
+     */
+    private long restore() throws IOException {
+        entities.clear();
+        deadRecords = 0;
+        if (isSnapshotEnabled() && Files.exists(journalPath)) {
+            Optional<Snapshot> loaded = snapshots.read(true);
+            if (loaded.isPresent() && coversJournalPrefix(loaded.get())) {
+                Snapshot snapshot = loaded.get();
+                entities.putAll(snapshot.getNodes());
+                deadRecords = snapshot.getDeadRecords();
+                long highestId = Math.max(snapshot.getNextId() - 1, replay(snapshot.getSourceLength()));
+                snapshotCurrent = Files.size(journalPath) == snapshot.getSourceLength();
+                logger.info("Restored {} entities from snapshot {}, replayed journal from offset {}",
+                        snapshot.getRecordCount(), snapshots.getPath(), snapshot.getSourceLength());
+                return highestId;
+            }
+            if (loaded.isPresent()) {
+                logger.info("Snapshot {} does not match journal {}, replaying full journal",
+                        snapshots.getPath(), journalPath);
+            }
+        }
+        return replay(0);
+    }
+
+    private boolean coversJournalPrefix(Snapshot snapshot) throws IOException {
+        return snapshot.getSourceLength() <= Files.size(journalPath)
+                && snapshot.getSourceChecksum() == SnapshotStore.checksum(journalPath, snapshot.getSourceLength());
+    }
+
+    /**
+     * 从指定偏移开始重放日志
+     * 崩溃可能导致最后一行写入不完整，此时截断该行；中间的损坏行仅跳过
+     * @return 重放部分出现过的最大ID
+     */
+    private long replay(long from) throws IOException {
+        long highestId = 0;
+        if (!Files.exists(journalPath)) {
+            return highestId;
+        }
+
+        long offset = from;
+        long validLength = from;
+        boolean lastLineCorrupt = false;
+        InputStream in = Files.newInputStream(journalPath);
+        in.skipNBytes(from);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                offset += line.getBytes(StandardCharsets.UTF_8).length + LINE_SEPARATOR.length;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    highestId = Math.max(highestId, applyRecord(objectMapper.readTree(line)));
+                    validLength = offset;
+                    lastLineCorrupt = false;
+                } catch (IOException e) {
+                    logger.warn("Skipping corrupt journal record at offset {} in {}", validLength, journalPath);
+                    lastLineCorrupt = true;
+                }
+            }
+        }
+
+        if (lastLineCorrupt) {
+            try (FileChannel truncating = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+                truncating.truncate(validLength);
+            }
+            logger.warn("Truncated incomplete trailing record in journal: {}", journalPath);
+        }
+        return highestId;
+    }
+
+    /**
+     * 把日志前缀重放到独立的Map，不影响内存状态
+     * deleteAll会原地截断日志，此时前缀已不完整，备份失败
+     */
+    private Map<Long, JsonNode> replayPrefix(FileChannel reader, long length) throws IOException {
+        Map<Long, JsonNode> nodes = new TreeMap<>();
+        long read = 0;
+        InputStream in = Channels.newInputStream(reader.position(0));
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while (read < length && (line = lines.readLine()) != null) {
+            read += line.getBytes(StandardCharsets.UTF_8).length + LINE_SEPARATOR.length;
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode record = objectMapper.readTree(line);
+            Long id = readId(record);
+            if (id == null) {
+                continue;
+            }
+            if (OP_DELETE.equals(record.path(FIELD_OP).asText())) {
+                nodes.remove(id);
+            } else if (OP_UPSERT.equals(record.path(FIELD_OP).asText())) {
+                nodes.put(id, record.get(FIELD_DATA));
+            }
+        }
+        if (read < length) {
+            throw new IOException("Journal " + journalPath + " was truncated while reading backup");
+        }
+        return nodes;
+    }
+
+    /**
+     * 在后台写出当前状态的快照（调用方持有writeLock）
+     * 写出期间日志被压缩或清空时丢弃该快照
+     */
+    private void scheduleSnapshot() {
+        try {
+            Snapshot snapshot = captureSnapshot();
+            long generationAtCapture = generation;
+            changesSinceSnapshot = 0;
+            snapshotCurrent = true;
+            compactionExecutor.execute(() -> {
+                try {
+                    Path temporary = snapshots.writeTemporary(snapshot);
+                    synchronized (writeLock) {
+                        if (generation != generationAtCapture) {
+                            Files.deleteIfExists(temporary);
+                            return;
+                        }
+                        snapshots.install(temporary);
+                    }
+                    logger.debug("Wrote snapshot of {} entities to: {}", snapshot.getRecordCount(), snapshots.getPath());
+                } catch (IOException e) {
+                    logger.warn("Failed to write snapshot: {}", snapshots.getPath(), e);
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Failed to capture snapshot of journal: {}", journalPath, e);
+        }
+    }
+
+    /**
+     * 立即写出当前状态的快照（调用方持有writeLock）
+     */
+    private void writeSnapshot() {
+        try {
+            snapshots.write(captureSnapshot());
+            snapshotCurrent = true;
+            logger.info("Wrote snapshot to: {}", snapshots.getPath());
+        } catch (IOException e) {
+            logger.warn("Failed to write snapshot: {}", snapshots.getPath(), e);
+        }
+    }
+
+    /**
+     * 复制当前状态和日志位置（调用方持有writeLock）
+     */
+    private Snapshot captureSnapshot() throws IOException {
+        long length = channel.size();
+        return new Snapshot(length, SnapshotStore.checksum(journalPath, length), 0,
+                idCounter.get(), deadRecords, new LinkedHashMap<>(entities));
+    }
+
+    /**
+     * 应用一条日志记录
+     * @return 记录中的实体ID，无效记录返回0
+     */
+    private long applyRecord(JsonNode record) {
+        Long id = readId(record);
+        if (id == null) {
+            return 0;
+        }
+        String op = record.path(FIELD_OP).asText();
+        if (OP_DELETE.equals(op)) {
+            deadRecords += entities.remove(id) != null ? 2 : 1;
+        } else if (OP_UPSERT.equals(op)) {
+            if (entities.put(id, record.get(FIELD_DATA)) != null) {
+                deadRecords++;
+            }
+        }
+        return id;
+    }
+
+    /**
+     * 从已有JSON数组文件导入数据，便于从JSON引擎切换
+     */
+    private void importJsonFile(Path jsonFile) throws IOException {
+        if (!Files.exists(jsonFile)) {
+            return;
+        }
+        JsonNode root = StorageCodec.read(jsonFile);
+        if (root == null || !root.isArray()) {
+            return;
+        }
+
+        Path importPath = journalPath.resolveSibling(journalPath.getFileName() + ".import");
+        int imported = 0;
+        try (OutputStream out = Files.newOutputStream(importPath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (JsonNode node : root) {
+                Long id = readId(node);
+                if (id == null) {
+                    continue;
+                }
+                out.write(lineWriter.writeValueAsBytes(upsertRecord(id, node)));
+                out.write(LINE_SEPARATOR);
+                imported++;
+            }
+        }
+        moveReplacing(importPath, journalPath);
+        logger.info("Imported {} entities from {} into journal {}", imported, jsonFile, journalPath);
+    }
+
+    private FileChannel openChannel() throws IOException {
+        return FileChannel.open(journalPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static void moveReplacing(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Path resolveJournalPath(String storageFile) {
+        String path = storageFile.endsWith(".json")
+                ? storageFile.substring(0, storageFile.length() - ".json".length())
+                : storageFile;
+        return Paths.get(path + JOURNAL_EXTENSION);
+    }
+
+    /**
+     * 一个组提交批次：暂存的记录和状态变更，落盘后才应用到内存状态
+     */
+    private final class Batch {
+        private final ByteArrayOutputStream records = new ByteArrayOutputStream();
+        /**
+         * 暂存的最新节点，值为null表示删除
+         */
+        private final Map<Long, JsonNode> staged = new LinkedHashMap<>();
+        private final List<Change<T>> changes = new ArrayList<>();
+        private long deadRecords;
+
+        private JsonNode current(Long id) {
+            return staged.containsKey(id) ? staged.get(id) : entities.get(id);
+        }
+
+        private void append(ObjectNode record) throws IOException {
+            records.write(lineWriter.writeValueAsBytes(record));
+            records.write(LINE_SEPARATOR);
+        }
+    }
+
+    private final class BatchEngine implements GroupCommitter.Engine<Batch> {
+
+        @Override
+        public Batch begin() {
+            return new Batch();
+        }
+
+        @Override
+        public void flush(Batch batch) throws IOException {
+            if (batch.records.size() == 0) {
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(batch.records.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+
+        @Override
+        public void publish(Batch batch) {
+            for (Map.Entry<Long, JsonNode> entry : batch.staged.entrySet()) {
+                if (entry.getValue() == null) {
+                    entities.remove(entry.getKey());
+                } else {
+                    entities.put(entry.getKey(), entry.getValue());
+                }
+            }
+            deadRecords += batch.deadRecords;
+            batch.changes.forEach(JournalStorageAdapter.this::reindex);
+            maybeScheduleCompaction();
+
+            changesSinceSnapshot += batch.changes.size();
+            snapshotCurrent = false;
+            if (isSnapshotEnabled() && getSnapshotInterval() > 0 && changesSinceSnapshot >= getSnapshotInterval()) {
+                scheduleSnapshot();
+            }
+        }
+    }
+}
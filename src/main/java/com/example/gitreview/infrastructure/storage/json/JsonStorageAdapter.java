@@ -1,169 +1,226 @@
 package com.example.gitreview.infrastructure.storage.json;
 
-import com.example.gitreview.infrastructure.storage.StoragePort;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.gitreview.infrastructure.storage.AbstractFileStorageAdapter;
+import com.example.gitreview.infrastructure.storage.backup.StoreBackup;
+import com.example.gitreview.infrastructure.storage.codec.StorageCodec;
+import com.example.gitreview.infrastructure.storage.commit.GroupCommitMetrics;
+import com.example.gitreview.infrastructure.storage.commit.GroupCommitter;
+import com.example.gitreview.infrastructure.storage.snapshot.Snapshot;
+import com.example.gitreview.infrastructure.storage.snapshot.SnapshotStore;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.Function;
-import java.util.function.BiFunction;
-import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JSON存储适配器
  * 提供基于JSON文件的通用存储实现
+ *
+ * 启用缓存时，启动阶段将文件一次性加载为按ID索引的常驻副本（JsonNode），
+ * 之后所有读操作只访问内存，写操作先落盘再替换内存副本（写穿透）。
+ * 读取时从JsonNode反序列化出新实例，调用方修改返回对象不会影响存储内容。
+ * 序列化在实体分段锁内完成，全局写锁只覆盖替换内存副本和写文件。
+ * 每次写入先生成同目录下的临时文件并fsync，再原子替换存储文件并fsync目录，写到一半时崩溃不会损坏已有内容；
+ * 启用组提交时，窗口内的多个写操作合并为一次整文件写入。
+ * 关闭时和每隔一定数量的变更写一份快照，启动时快照与文件一致则从快照恢复，不再完整解析JSON文件。
+ * 文件按配置的{@link StorageCodec}编码写入，读取时自动识别编码，旧的文本JSON文件可直接读取。
  * @param <T> 实体类型
  */
-public class JsonStorageAdapter<T> implements StoragePort<T, Long> {
+public class JsonStorageAdapter<T> extends AbstractFileStorageAdapter<T> {
 
     private static final Logger logger = LoggerFactory.getLogger(JsonStorageAdapter.class);
 
-    private String storageFile = "data/repositories.json";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final AtomicLong idCounter = new AtomicLong(1);
+    /**
+     * 常驻内存副本，写时复制：写操作构造新Map并在落盘成功后整体替换引用，读操作无需加锁
+     */
+    private volatile Map<Long, JsonNode> cache = new LinkedHashMap<>();
+    private final Object writeLock = new Object();
+    private GroupCommitter<Batch> committer;
 
-    private Class<T> entityClass;
-    private TypeReference<List<T>> typeReference;
-    private Function<T, Long> idExtractor;
-    private Function<T, T> idSetter;
+    private StorageCodec codec = StorageCodec.json();
+    private SnapshotStore snapshots;
+    private ExecutorService snapshotExecutor;
 
-    public void init() {
-        // 配置ObjectMapper
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    /**
+     * 上次快照之后提交的变更数（writeLock内访问）
+     */
+    private long changesSinceSnapshot;
+
+    /**
+     * 最近一份已写出或已安排写出的快照是否与文件一致（writeLock内访问）
+     */
+    private boolean snapshotCurrent;
+
+    public JsonStorageAdapter() {
         objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
-        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    @Override
+    public void init() {
+        String storageFile = getStorageFile();
 
         // 确保存储目录存在
         try {
             Path storagePath = Paths.get(storageFile);
             Files.createDirectories(storagePath.getParent());
 
-            // 如果文件不存在,创建空的JSON数组文件
+            // 如果文件不存在,按配置的编码创建空数组文件
             if (!Files.exists(storagePath)) {
-                objectMapper.writeValue(storagePath.toFile(), new ArrayList<>());
-                logger.info("Created new storage file: {}", storageFile);
+                Files.write(storagePath, codec.encode(objectMapper.createArrayNode()));
+                logger.info("Created new storage file: {} ({})", storageFile, codec);
+            }
+
+            snapshots = new SnapshotStore(SnapshotStore.pathFor(storageFile), SnapshotStore.SOURCE_JSON, objectMapper);
+            if (!loadSnapshot(storagePath)) {
+                if (isCacheEnabled()) {
+                    cache = readNodes();
+                    rebuildIndexes(cache);
+                    logger.info("Loaded {} entities into cache from: {}", cache.size(), storageFile);
+                }
+
+                // 初始化ID计数器
+                initializeIdCounter();
+            }
+
+            if (isSnapshotEnabled()) {
+                snapshotExecutor = Executors.newSingleThreadExecutor(r -> {
+                    Thread thread = new Thread(r, "json-snapshot-" + storagePath.getFileName());
+                    thread.setDaemon(true);
+                    return thread;
+                });
             }
 
-            // 初始化ID计数器
-            initializeIdCounter();
-            logger.info("JsonStorageAdapter initialized with file: {}", storageFile);
+            committer = new GroupCommitter<>(storagePath.getFileName().toString(), writeLock,
+                    new BatchEngine(), getGroupCommitWindowMillis(), MAX_GROUP_COMMIT_BATCH);
+            committer.start();
+            logger.info("JsonStorageAdapter initialized with file: {}, cacheEnabled: {}, codec: {}",
+                    storageFile, isCacheEnabled(), codec);
         } catch (IOException e) {
             logger.error("Failed to initialize JsonStorageAdapter", e);
             throw new RuntimeException("Failed to initialize storage", e);
         }
     }
 
-    /**
-     * 设置实体类型信息
-     * @param entityClass 实体类
-     * @param typeReference 类型引用
-     * @param idExtractor ID提取器
-     * @param idSetter ID设置器（接收实体和ID，返回设置了ID的实体）
-     */
-    public void configure(Class<T> entityClass, TypeReference<List<T>> typeReference,
-                         Function<T, Long> idExtractor, BiFunction<T, Long, T> idSetter) {
-        this.entityClass = entityClass;
-        this.typeReference = typeReference;
-        this.idExtractor = idExtractor;
-        this.idSetter = entity -> idSetter.apply(entity, idCounter.get() - 1); // 适配原接口
-    }
-
-    /**
-     * 设置实体类型信息（简化版本，使用反射设置ID）
-     */
-    public void configure(Class<T> entityClass, TypeReference<List<T>> typeReference,
-                         Function<T, Long> idExtractor, String idSetterMethodName) {
-        this.entityClass = entityClass;
-        this.typeReference = typeReference;
-        this.idExtractor = idExtractor;
-
-        // 使用反射创建ID设置器
-        this.idSetter = entity -> {
+    @Override
+    public void close() {
+        if (committer != null) {
+            committer.close();
+        }
+        if (snapshotExecutor != null) {
+            snapshotExecutor.shutdown();
             try {
-                Long newId = idCounter.get() - 1;
-                Method setIdMethod = entityClass.getMethod(idSetterMethodName, Long.class);
-                setIdMethod.invoke(entity, newId);
-                return entity;
-            } catch (Exception e) {
-                logger.error("Failed to set ID using reflection", e);
-                throw new RuntimeException("Failed to set entity ID", e);
+                snapshotExecutor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-        };
+        }
+        if (isSnapshotEnabled() && snapshots != null) {
+            synchronized (writeLock) {
+                if (!snapshotCurrent) {
+                    writeSnapshot();
+                }
+            }
+        }
     }
 
     @Override
-    public T save(T entity) {
-        try {
-            List<T> entities = loadEntities();
-            Long id = idExtractor.apply(entity);
-
-            if (id == null) {
-                // 新实体，生成ID
-                Long newId = idCounter.getAndIncrement();
-                entity = setEntityId(entity, newId);
-                entities.add(entity);
-                logger.debug("Creating new entity with ID: {}", newId);
-            } else {
-                // 更新现有实体
-                boolean found = false;
-                for (int i = 0; i < entities.size(); i++) {
-                    if (idExtractor.apply(entities.get(i)).equals(id)) {
-                        entities.set(i, entity);
-                        found = true;
-                        logger.debug("Updated entity with ID: {}", id);
-                        break;
-                    }
-                }
-                if (!found) {
-                    entities.add(entity);
-                    logger.debug("Added entity with ID: {}", id);
-                }
-            }
+    public GroupCommitMetrics getGroupCommitMetrics() {
+        return committer.getMetrics();
+    }
 
-            saveEntities(entities);
-            return entity;
-        } catch (IOException e) {
-            logger.error("Failed to save entity", e);
-            throw new RuntimeException("Failed to save entity", e);
+    @Override
+    public void holdingWriteLock(Runnable action) {
+        synchronized (writeLock) {
+            action.run();
         }
     }
 
     /**
-     * 设置实体ID的辅助方法
+     * 启用缓存时只取走当前内存副本的引用：副本在发布后不再修改，之后的提交会替换为新的Map；
+     * 未启用缓存时在锁内读出文件字节，解析留到锁外
      */
-    private T setEntityId(T entity, Long id) {
-        try {
-            Method setIdMethod = entityClass.getMethod("setId", Long.class);
-            setIdMethod.invoke(entity, id);
-            return entity;
-        } catch (Exception e) {
-            logger.error("Failed to set entity ID", e);
-            throw new RuntimeException("Failed to set entity ID", e);
+    @Override
+    public StoreBackup captureBackup() throws IOException {
+        synchronized (writeLock) {
+            long nextId = idCounter.get();
+            if (isCacheEnabled()) {
+                Map<Long, JsonNode> captured = cache;
+                return new StoreBackup(nextId, captured::values);
+            }
+            Path storagePath = Paths.get(getStorageFile());
+            if (!Files.exists(storagePath)) {
+                return new StoreBackup(nextId, List::of);
+            }
+            byte[] content = Files.readAllBytes(storagePath);
+            return new StoreBackup(nextId, () -> toNodes(StorageCodec.decode(content)).values());
         }
     }
 
+    public StorageCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * 设置写入文件使用的编码，需在init之前调用；读取不受影响，始终自动识别
+     */
+    public void setCodec(StorageCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    protected JsonNode currentNode(Long id) throws IOException {
+        return currentNodes().get(id);
+    }
+
+    @Override
+    protected int commitAll(List<Change<T>> changes) throws IOException {
+        return committer.submit(batch -> {
+            verifyAll(changes, batch.nodes::get);
+            int applied = 0;
+            for (Change<T> change : changes) {
+                if (change.isUpsert()) {
+                    // 更新已有ID时LinkedHashMap保持原有顺序，与文件中的位置一致
+                    batch.nodes.put(change.getId(), change.getNode());
+                } else if (batch.nodes.remove(change.getId()) == null) {
+                    continue;
+                }
+                batch.changes.add(change);
+                applied++;
+            }
+            return applied;
+        });
+    }
+
     @Override
     public Optional<T> findById(Long id) {
         try {
-            List<T> entities = loadEntities();
-            return entities.stream()
-                    .filter(entity -> idExtractor.apply(entity).equals(id))
-                    .findFirst();
+            JsonNode node = currentNodes().get(id);
+            if (node == null) {
+                return Optional.empty();
+            }
+            return Optional.of(toEntity(node));
         } catch (IOException e) {
             logger.error("Failed to find entity by ID: {}", id, e);
             return Optional.empty();
@@ -173,7 +230,12 @@ public class JsonStorageAdapter<T> implements StoragePort<T, Long> {
     @Override
     public List<T> findAll() {
         try {
-            return loadEntities();
+            Map<Long, JsonNode> nodes = currentNodes();
+            List<T> entities = new ArrayList<>(nodes.size());
+            for (JsonNode node : nodes.values()) {
+                entities.add(toEntity(node));
+            }
+            return entities;
         } catch (IOException e) {
             logger.error("Failed to load all entities", e);
             return new ArrayList<>();
@@ -181,30 +243,19 @@ public class JsonStorageAdapter<T> implements StoragePort<T, Long> {
     }
 
     @Override
-    public boolean deleteById(Long id) {
+    public boolean existsById(Long id) {
         try {
-            List<T> entities = loadEntities();
-            boolean removed = entities.removeIf(entity -> idExtractor.apply(entity).equals(id));
-            if (removed) {
-                saveEntities(entities);
-                logger.debug("Deleted entity with ID: {}", id);
-            }
-            return removed;
+            return currentNodes().containsKey(id);
         } catch (IOException e) {
-            logger.error("Failed to delete entity by ID: {}", id, e);
+            logger.error("Failed to check entity existence by ID: {}", id, e);
             return false;
         }
     }
 
-    @Override
-    public boolean existsById(Long id) {
-        return findById(id).isPresent();
-    }
-
     @Override
     public long count() {
         try {
-            return loadEntities().size();
+            return currentNodes().size();
         } catch (IOException e) {
             logger.error("Failed to count entities", e);
             return 0;
@@ -212,49 +263,178 @@ public class JsonStorageAdapter<T> implements StoragePort<T, Long> {
     }
 
     @Override
-    public List<T> saveAll(List<T> entities) {
-        List<T> savedEntities = new ArrayList<>();
-        for (T entity : entities) {
-            savedEntities.add(save(entity));
+    public void deleteAll() {
+        synchronized (writeLock) {
+            try {
+                persist(new LinkedHashMap<>());
+                clearIndexes();
+                idCounter.set(1);
+                logger.info("Deleted all entities");
+            } catch (IOException e) {
+                logger.error("Failed to delete all entities", e);
+                throw new RuntimeException("Failed to delete all entities", e);
+            }
         }
-        return savedEntities;
     }
 
+    /**
+     * 获取当前数据视图：启用缓存时直接返回内存副本，否则重新读取文件
+     */
     @Override
-    public void deleteAll() {
+    protected Map<Long, JsonNode> currentNodes() throws IOException {
+        return isCacheEnabled() ? cache : readNodes();
+    }
+
+    /**
+     * 先写文件，成功后再发布新的内存副本，保证缓存不会领先于磁盘
+     */
+    private void persist(Map<Long, JsonNode> entities) throws IOException {
+        write(entities);
+        if (isCacheEnabled()) {
+            cache = entities;
+        }
+        snapshotCurrent = false;
+    }
+
+    /**
+     * 按配置的编码写入临时文件并fsync，再原子替换存储文件
+     * @return 写入的内容
+     */
+    private byte[] write(Map<Long, JsonNode> entities) throws IOException {
+        ArrayNode array = objectMapper.createArrayNode();
+        array.addAll(entities.values());
+        byte[] bytes = codec.encode(array);
+        Path storagePath = Paths.get(getStorageFile()).toAbsolutePath();
+        Path temporary = storagePath.resolveSibling(storagePath.getFileName() + TEMPORARY_SUFFIX);
         try {
-            saveEntities(new ArrayList<>());
-            idCounter.set(1);
-            logger.info("Deleted all entities");
+            try (FileOutputStream out = new FileOutputStream(temporary.toFile())) {
+                out.write(bytes);
+                out.getChannel().force(true);
+            }
+            try {
+                Files.move(temporary, storagePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, storagePath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        forceDirectory(storagePath.getParent());
+        return bytes;
+    }
+
+    /**
+     * fsync目录，使替换文件的改名持久化；不支持打开目录的平台（如Windows）上忽略
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
         } catch (IOException e) {
-            logger.error("Failed to delete all entities", e);
-            throw new RuntimeException("Failed to delete all entities", e);
+            logger.debug("Cannot fsync directory {}: {}", directory, e.getMessage());
         }
     }
 
     /**
-     * 从文件加载实体列表
+     * 从快照恢复内存副本和ID计数器
+     * 快照缺失、损坏或与JSON文件不一致（长度、修改时间、末尾校验值）时返回false，由调用方完整解析文件
      */
-    private List<T> loadEntities() throws IOException {
-        File file = new File(storageFile);
-        if (!file.exists()) {
-            return new ArrayList<>();
+    private boolean loadSnapshot(Path storagePath) throws IOException {
+        if (!isSnapshotEnabled()) {
+            return false;
+        }
+        // 未启用缓存时只需要头部中的下一个ID
+        Optional<Snapshot> loaded = snapshots.read(isCacheEnabled());
+        if (loaded.isEmpty()) {
+            return false;
+        }
+        Snapshot snapshot = loaded.get();
+        long length = Files.size(storagePath);
+        if (snapshot.getSourceLength() != length
+                || snapshot.getSourceModified() != Files.getLastModifiedTime(storagePath).toMillis()
+                || snapshot.getSourceChecksum() != SnapshotStore.checksum(storagePath, length)) {
+            logger.info("Snapshot {} is stale, rebuilding from: {}", snapshots.getPath(), storagePath);
+            return false;
         }
 
-        if (typeReference != null) {
-            return objectMapper.readValue(file, typeReference);
-        } else {
-            // 如果没有配置类型引用，返回空列表
-            return new ArrayList<>();
+        if (isCacheEnabled()) {
+            cache = snapshot.getNodes();
+            rebuildIndexes(cache);
+        }
+        idCounter.set(snapshot.getNextId());
+        snapshotCurrent = true;
+        logger.info("Restored {} entities from snapshot: {}", snapshot.getRecordCount(), snapshots.getPath());
+        return true;
+    }
+
+    /**
+     * 在后台写出与刚写入的文件内容一致的快照（调用方持有writeLock）
+     */
+    private void scheduleSnapshot(Map<Long, JsonNode> nodes, byte[] written) {
+        Path storagePath = Paths.get(getStorageFile());
+        try {
+            Snapshot snapshot = new Snapshot(written.length, SnapshotStore.checksum(written),
+                    Files.getLastModifiedTime(storagePath).toMillis(), idCounter.get(), 0, nodes);
+            changesSinceSnapshot = 0;
+            snapshotCurrent = true;
+            snapshotExecutor.execute(() -> {
+                try {
+                    snapshots.write(snapshot);
+                    logger.debug("Wrote snapshot of {} entities to: {}", snapshot.getRecordCount(), snapshots.getPath());
+                } catch (IOException e) {
+                    logger.warn("Failed to write snapshot: {}", snapshots.getPath(), e);
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Failed to schedule snapshot for: {}", storagePath, e);
+        }
+    }
+
+    /**
+     * 按当前文件写出快照（调用方持有writeLock）
+     */
+    private void writeSnapshot() {
+        Path storagePath = Paths.get(getStorageFile());
+        try {
+            long length = Files.size(storagePath);
+            snapshots.write(new Snapshot(length, SnapshotStore.checksum(storagePath, length),
+                    Files.getLastModifiedTime(storagePath).toMillis(), idCounter.get(), 0, currentNodes()));
+            snapshotCurrent = true;
+            logger.info("Wrote snapshot to: {}", snapshots.getPath());
+        } catch (IOException e) {
+            logger.warn("Failed to write snapshot: {}", snapshots.getPath(), e);
         }
     }
 
     /**
-     * 保存实体列表到文件
+     * 从文件读取按ID索引的JSON节点，编码自动识别
      */
-    private void saveEntities(List<T> entities) throws IOException {
-        File file = new File(storageFile);
-        objectMapper.writeValue(file, entities);
+    private Map<Long, JsonNode> readNodes() throws IOException {
+        Map<Long, JsonNode> nodes = new LinkedHashMap<>();
+        File file = new File(getStorageFile());
+        if (!file.exists()) {
+            return nodes;
+        }
+
+        return toNodes(StorageCodec.read(file.toPath()));
+    }
+
+    /**
+     * 把文件内容的JSON数组转换为按ID索引的节点
+     */
+    private Map<Long, JsonNode> toNodes(JsonNode root) {
+        Map<Long, JsonNode> nodes = new LinkedHashMap<>();
+        if (root == null || !root.isArray()) {
+            return nodes;
+        }
+        for (JsonNode node : root) {
+            Long id = readId(node);
+            if (id == null) {
+                logger.warn("Skipping entity without valid ID in file: {}", getStorageFile());
+                continue;
+            }
+            nodes.put(id, node);
+        }
+        return nodes;
     }
 
     /**
@@ -262,13 +442,7 @@ public class JsonStorageAdapter<T> implements StoragePort<T, Long> {
      */
     private void initializeIdCounter() {
         try {
-            List<T> entities = loadEntities();
-            long maxId = entities.stream()
-                    .mapToLong(entity -> idExtractor != null ? idExtractor.apply(entity) : 0L)
-                    .max()
-                    .orElse(0L);
-            idCounter.set(maxId + 1);
-            logger.debug("Initialized ID counter to: {}", idCounter.get());
+            initializeIdCounter(currentNodes().keySet());
         } catch (Exception e) {
             logger.warn("Failed to initialize ID counter, using default value", e);
             idCounter.set(1);
@@ -276,16 +450,49 @@ public class JsonStorageAdapter<T> implements StoragePort<T, Long> {
     }
 
     /**
-     * 获取存储文件路径
+     * 一个组提交批次：基于当前数据的副本，落盘后整体替换内存副本
      */
-    public String getStorageFile() {
-        return storageFile;
+    private final class Batch {
+        private final Map<Long, JsonNode> nodes;
+        private final List<Change<T>> changes = new ArrayList<>();
+        private byte[] written;
+
+        private Batch(Map<Long, JsonNode> nodes) {
+            this.nodes = nodes;
+        }
     }
 
-    /**
-     * 设置存储文件路径
-     */
-    public void setStorageFile(String storageFile) {
-        this.storageFile = storageFile;
+    private final class BatchEngine implements GroupCommitter.Engine<Batch> {
+
+        @Override
+        public Batch begin() throws IOException {
+            return new Batch(new LinkedHashMap<>(currentNodes()));
+        }
+
+        @Override
+        public void flush(Batch batch) throws IOException {
+            if (!batch.changes.isEmpty()) {
+                batch.written = write(batch.nodes);
+            }
+        }
+
+        @Override
+        public void publish(Batch batch) {
+            if (batch.changes.isEmpty()) {
+                return;
+            }
+            if (isCacheEnabled()) {
+                cache = batch.nodes;
+            }
+            batch.changes.forEach(JsonStorageAdapter.this::reindex);
+            logger.debug("Committed {} changes", batch.changes.size());
+
+            changesSinceSnapshot += batch.changes.size();
+            snapshotCurrent = false;
+            if (snapshotExecutor != null && getSnapshotInterval() > 0
+                    && changesSinceSnapshot >= getSnapshotInterval()) {
+                scheduleSnapshot(batch.nodes, batch.written);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+package com.example.gitreview.infrastructure.storage.query;
+
+import com.example.gitreview.domain.shared.exception.ValidationException;
+import com.example.gitreview.domain.shared.model.valueobject.Page;
+import com.example.gitreview.domain.shared.model.valueobject.PageRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 游标分页器
+ * 对内存中的摘要按（排序字段, ID）排序后取一页，游标记录上一页最后一条的排序值和ID。
+ * 翻页不依赖偏移量，期间有新增或删除也不会重复或遗漏；只保留limit+1条的堆，无需对全部候选排序。
+ * 排序字段为null的记录在升序时排在最前。
+ * @param <S> 摘要类型
+ */
+public class KeysetPaginator<S> {
+
+    private static final String SEPARATOR = "\n";
+
+    private final Function<S, Long> idOf;
+    private final Map<String, SortKey<S, ?>> sortKeys = new LinkedHashMap<>();
+
+    /**
+     * @param idOf 摘要的ID，作为排序值相同时的次序
+     */
+    public KeysetPaginator(Function<S, Long> idOf) {
+        this.idOf = idOf;
+    }
+
+    /**
+     * 注册排序字段
+     * @param name 字段名，对应PageRequest.sort
+     * @param extractor 从摘要中取排序值
+     * @param parser 从游标中的字符串还原排序值，需与toString互逆
+     */
+    public <K extends Comparable<? super K>> KeysetPaginator<S> sortBy(String name, Function<S, K> extractor,
+                                                                       Function<String, K> parser) {
+        sortKeys.put(name, new SortKey<>(extractor, parser));
+        return this;
+    }
+
+    /**
+     * 从候选摘要中取一页
+     * @param candidates 已按过滤条件筛选的摘要
+     * @param request 分页请求
+     * @return 当前页及下一页游标
+     */
+    public Page<S> page(Collection<S> candidates, PageRequest request) {
+        SortKey<S, ?> sortKey = sortKeys.get(request.getSort());
+        if (sortKey == null) {
+            throw new ValidationException("不支持的排序字段: " + request.getSort() + "，可选: " + sortKeys.keySet());
+        }
+        return page(sortKey, candidates, request);
+    }
+
+    private <K extends Comparable<? super K>> Page<S> page(SortKey<S, K> sortKey, Collection<S> candidates,
+                                                          PageRequest request) {
+        Comparator<K> keyOrder = Comparator.nullsFirst(Comparator.naturalOrder());
+        Comparator<S> order = Comparator.comparing(sortKey.extractor, keyOrder).thenComparing(idOf);
+        if (request.isDescending()) {
+            order = order.reversed();
+        }
+
+        // 只保留排在游标之后的候选
+        Predicate<S> afterCursor = candidate -> true;
+        if (request.getCursor() != null) {
+            String[] position = decode(request.getCursor(), request);
+            K cursorKey = parseKey(sortKey, position[1], request.getCursor());
+            long cursorId = Long.parseLong(position[0]);
+            int sign = request.isDescending() ? -1 : 1;
+            afterCursor = candidate -> {
+                int result = keyOrder.compare(sortKey.extractor.apply(candidate), cursorKey);
+                if (result == 0) {
+                    result = Long.compare(idOf.apply(candidate), cursorId);
+                }
+                return result * sign > 0;
+            };
+        }
+
+        // 大顶堆只保留最靠前的limit+1条，多出的一条用于判断是否还有下一页
+        int keep = request.getLimit() + 1;
+        PriorityQueue<S> heap = new PriorityQueue<>(keep + 1, order.reversed());
+        for (S candidate : candidates) {
+            if (!afterCursor.test(candidate)) {
+                continue;
+            }
+            heap.offer(candidate);
+            if (heap.size() > keep) {
+                heap.poll();
+            }
+        }
+
+        List<S> items = new ArrayList<>(heap);
+        items.sort(order);
+        if (items.size() <= request.getLimit()) {
+            return new Page<>(items, null);
+        }
+        List<S> pageItems = new ArrayList<>(items.subList(0, request.getLimit()));
+        S last = pageItems.get(pageItems.size() - 1);
+        return new Page<>(pageItems, encode(request, sortKey.extractor.apply(last), idOf.apply(last)));
+    }
+
+    private <K extends Comparable<? super K>> K parseKey(SortKey<S, K> sortKey, String key, String cursor) {
+        if (key == null) {
+            return null;
+        }
+        try {
+            return sortKey.parser.apply(key);
+        } catch (RuntimeException e) {
+            throw new ValidationException("无效的分页游标: " + cursor);
+        }
+    }
+
+    private String encode(PageRequest request, Object key, Long id) {
+        StringBuilder raw = new StringBuilder()
+                .append(request.getSort()).append(SEPARATOR)
+                .append(request.isDescending() ? "desc" : "asc").append(SEPARATOR)
+                .append(id);
+        if (key != null) {
+            raw.append(SEPARATOR).append(key);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标
+     * @return [ID, 排序值]，排序值为null表示上一页最后一条的排序字段为空
+     */
+    private String[] decode(String cursor, PageRequest request) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, 4);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("无效的分页游标: " + cursor);
+        }
+        if (parts.length < 3 || !parts[0].equals(request.getSort())
+                || !parts[1].equals(request.isDescending() ? "desc" : "asc")) {
+            throw new ValidationException("分页游标与排序条件不匹配: " + cursor);
+        }
+        if (!parts[2].matches("\\d+")) {
+            throw new ValidationException("无效的分页游标: " + cursor);
+        }
+        return new String[]{parts[2], parts.length == 4 ? parts[3] : null};
+    }
+
+    private static final class SortKey<S, K extends Comparable<? super K>> {
+        private final Function<S, K> extractor;
+        private final Function<String, K> parser;
+
+        private SortKey(Function<S, K> extractor, Function<String, K> parser) {
+            this.extractor = extractor;
+            this.parser = parser;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.gitreview.infrastructure.storage.snapshot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 存储快照
+ * 某一时刻的全部实体节点和恢复所需的元数据，以及快照对应的源文件位置：
+ * JSON引擎为整个JSON文件，日志引擎为日志中已包含在快照里的前缀。
+ */
+public final class Snapshot {
+
+    private final long sourceLength;
+    private final long sourceChecksum;
+    private final long sourceModified;
+    private final long nextId;
+    private final long deadRecords;
+    private final int recordCount;
+    private final Map<Long, JsonNode> nodes;
+
+    /**
+     * @param sourceLength 快照覆盖的源文件长度
+     * @param sourceChecksum 源文件在sourceLength之前末尾窗口的校验值，见{@link SnapshotStore#checksum}
+     * @param sourceModified 源文件修改时间（毫秒），不校验时为0
+     * @param nextId 下一个可分配的ID
+     * @param deadRecords 源文件中的失效记录数（仅日志引擎使用）
+     * @param nodes 按存储顺序排列的实体节点，只读取头部时为空
+     */
+    public Snapshot(long sourceLength, long sourceChecksum, long sourceModified, long nextId, long deadRecords,
+                    Map<Long, JsonNode> nodes) {
+        this(sourceLength, sourceChecksum, sourceModified, nextId, deadRecords, nodes.size(), nodes);
+    }
+
+    Snapshot(long sourceLength, long sourceChecksum, long sourceModified, long nextId, long deadRecords,
+             int recordCount, Map<Long, JsonNode> nodes) {
+        this.sourceLength = sourceLength;
+        this.sourceChecksum = sourceChecksum;
+        this.sourceModified = sourceModified;
+        this.nextId = nextId;
+        this.deadRecords = deadRecords;
+        this.recordCount = recordCount;
+        this.nodes = nodes;
+    }
+
+    static Snapshot header(long sourceLength, long sourceChecksum, long sourceModified, long nextId,
+                           long deadRecords, int recordCount) {
+        return new Snapshot(sourceLength, sourceChecksum, sourceModified, nextId, deadRecords, recordCount,
+                Collections.emptyMap());
+    }
+
+    public long getSourceLength() {
+        return sourceLength;
+    }
+
+    public long getSourceChecksum() {
+        return sourceChecksum;
+    }
+
+    public long getSourceModified() {
+        return sourceModified;
+    }
+
+    public long getNextId() {
+        return nextId;
+    }
+
+    public long getDeadRecords() {
+        return deadRecords;
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    public Map<Long, JsonNode> getNodes() {
+        return nodes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Snapshot{records=%d, nextId=%d, sourceLength=%d}", recordCount, nextId, sourceLength);
+    }
+}
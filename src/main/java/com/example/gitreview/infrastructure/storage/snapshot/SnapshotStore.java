@@ -0,0 +1,330 @@
+package com.example.gitreview.infrastructure.storage.snapshot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 快照文件
+ * 与存储文件同名，扩展名为.snapshot。格式（大端序）：
+ * <pre>
+ * 头部   magic(4) 格式版本(2) 源类型(1) 保留(1) 源长度(8) 源校验值(8) 源修改时间(8)
+ *        下一个ID(8) 失效记录数(8) 记录数(4) 头部CRC32(8)
+ * 偏移表 每条记录：ID(8) 在记录区中的偏移(8) 长度(4)
+ * 记录区 紧凑JSON编码的实体节点
+ * 尾部   偏移表和记录区的CRC32(8)
+ * </pre>
+ * 只需下一个ID时只读取头部；读取全部记录时按偏移表并行解析。
+ * 写入先生成临时文件并fsync，再原子替换，任何校验失败都视为没有快照。
+ */
+public class SnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotStore.class);
+
+    /**
+     * 源为整个JSON文件
+     */
+    public static final byte SOURCE_JSON = 'J';
+
+    /**
+     * 源为日志文件的前缀
+     */
+    public static final byte SOURCE_JOURNAL = 'L';
+
+    /**
+     * 源校验值覆盖的末尾窗口大小
+     */
+    public static final int CHECKSUM_WINDOW = 64 * 1024;
+
+    private static final String SNAPSHOT_EXTENSION = ".snapshot";
+    private static final int MAGIC = 0x47525350;
+    private static final short FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 1 + 1 + 8 * 5 + 4 + 8;
+    private static final int TABLE_ENTRY_SIZE = 8 + 8 + 4;
+    private static final int TRAILER_SIZE = 8;
+
+    private final Path path;
+    private final byte sourceKind;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter recordWriter;
+
+    /**
+     * @param path 快照文件路径
+     * @param sourceKind 源类型，读取时与文件中的类型不一致视为无效
+     * @param objectMapper 解析记录使用的ObjectMapper
+     */
+    public SnapshotStore(Path path, byte sourceKind, ObjectMapper objectMapper) {
+        this.path = path;
+        this.sourceKind = sourceKind;
+        this.objectMapper = objectMapper;
+        this.recordWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * 存储文件对应的快照路径，如data/code-reviews.json → data/code-reviews.snapshot
+     */
+    public static Path pathFor(String storageFile) {
+        String base = storageFile.endsWith(".json")
+                ? storageFile.substring(0, storageFile.length() - ".json".length())
+                : storageFile;
+        return Paths.get(base + SNAPSHOT_EXTENSION);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * 写入快照并原子替换已有快照
+     */
+    public void write(Snapshot snapshot) throws IOException {
+        install(writeTemporary(snapshot));
+    }
+
+    /**
+     * 把快照写入临时文件并fsync，由调用方决定是否{@link #install}
+     * @return 临时文件路径
+     */
+    public Path writeTemporary(Snapshot snapshot) throws IOException {
+        List<Long> ids = new ArrayList<>(snapshot.getNodes().size());
+        List<byte[]> records = new ArrayList<>(snapshot.getNodes().size());
+        for (Map.Entry<Long, JsonNode> entry : snapshot.getNodes().entrySet()) {
+            ids.add(entry.getKey());
+            records.add(recordWriter.writeValueAsBytes(entry.getValue()));
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file));
+            out.write(header(snapshot, records.size()));
+
+            CRC32 crc = new CRC32();
+            DataOutputStream checked = new DataOutputStream(new CheckedOutputStream(out, crc));
+            long offset = 0;
+            for (int i = 0; i < records.size(); i++) {
+                checked.writeLong(ids.get(i));
+                checked.writeLong(offset);
+                checked.writeInt(records.get(i).length);
+                offset += records.get(i).length;
+            }
+            for (byte[] record : records) {
+                checked.write(record);
+            }
+            checked.flush();
+            out.writeLong(crc.getValue());
+            out.flush();
+            file.getChannel().force(true);
+        }
+        return temporary;
+    }
+
+    /**
+     * 用临时文件原子替换快照
+     */
+    public void install(Path temporary) throws IOException {
+        try {
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * 读取快照
+     * @param withRecords 是否读取并解析全部记录，为false时只读取头部
+     * @return 快照，不存在或校验失败时返回空
+     */
+    public Optional<Snapshot> read(boolean withRecords) {
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(withRecords ? readAll() : readHeader());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable snapshot {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 删除快照，快照对应的源文件被重写后调用
+     */
+    public void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete snapshot: {}", path, e);
+        }
+    }
+
+    /**
+     * 计算文件在length之前末尾窗口的CRC32
+     */
+    public static long checksum(Path file, long length) throws IOException {
+        long from = Math.max(0, length - CHECKSUM_WINDOW);
+        ByteBuffer buffer = ByteBuffer.allocate((int) (length - from));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, from + buffer.position()) < 0) {
+                    throw new IOException("File " + file + " is shorter than " + length + " bytes");
+                }
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array());
+        return crc.getValue();
+    }
+
+    /**
+     * 计算即将写入文件的完整内容末尾窗口的CRC32，与{@link #checksum(Path, long)}结果一致
+     */
+    public static long checksum(byte[] content) {
+        int from = Math.max(0, content.length - CHECKSUM_WINDOW);
+        CRC32 crc = new CRC32();
+        crc.update(content, from, content.length - from);
+        return crc.getValue();
+    }
+
+    // 私有辅助方法
+
+    private byte[] header(Snapshot snapshot, int recordCount) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC)
+                .putShort(FORMAT_VERSION)
+                .put(sourceKind)
+                .put((byte) 0)
+                .putLong(snapshot.getSourceLength())
+                .putLong(snapshot.getSourceChecksum())
+                .putLong(snapshot.getSourceModified())
+                .putLong(snapshot.getNextId())
+                .putLong(snapshot.getDeadRecords())
+                .putInt(recordCount);
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 0, header.position());
+        header.putLong(crc.getValue());
+        return header.array();
+    }
+
+    private Snapshot parseHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IOException("truncated header");
+        }
+        int start = buffer.position();
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), start, HEADER_SIZE - 8);
+
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("not a snapshot file");
+        }
+        short version = buffer.getShort();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("unsupported format version " + version);
+        }
+        byte kind = buffer.get();
+        if (kind != sourceKind) {
+            throw new IOException("snapshot was written for another storage engine");
+        }
+        buffer.get();
+        long sourceLength = buffer.getLong();
+        long sourceChecksum = buffer.getLong();
+        long sourceModified = buffer.getLong();
+        long nextId = buffer.getLong();
+        long deadRecords = buffer.getLong();
+        int recordCount = buffer.getInt();
+        if (buffer.getLong() != crc.getValue() || recordCount < 0) {
+            throw new IOException("header checksum mismatch");
+        }
+        return Snapshot.header(sourceLength, sourceChecksum, sourceModified, nextId, deadRecords, recordCount);
+    }
+
+    private Snapshot readHeader() throws IOException {
+        byte[] bytes = new byte[HEADER_SIZE];
+        try (InputStream in = Files.newInputStream(path)) {
+            if (in.readNBytes(bytes, 0, HEADER_SIZE) < HEADER_SIZE) {
+                throw new IOException("truncated header");
+            }
+        }
+        return parseHeader(ByteBuffer.wrap(bytes));
+    }
+
+    private Snapshot readAll() throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        Snapshot header = parseHeader(buffer);
+
+        int count = header.getRecordCount();
+        long tableEnd = HEADER_SIZE + (long) count * TABLE_ENTRY_SIZE;
+        if (tableEnd + TRAILER_SIZE > bytes.length) {
+            throw new IOException("truncated record table");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE - TRAILER_SIZE);
+        if (ByteBuffer.wrap(bytes, bytes.length - TRAILER_SIZE, TRAILER_SIZE).getLong() != crc.getValue()) {
+            throw new IOException("body checksum mismatch");
+        }
+
+        long[] ids = new long[count];
+        int[] offsets = new int[count];
+        int[] lengths = new int[count];
+        long bodyLength = bytes.length - TRAILER_SIZE - tableEnd;
+        for (int i = 0; i < count; i++) {
+            ids[i] = buffer.getLong();
+            long offset = buffer.getLong();
+            lengths[i] = buffer.getInt();
+            if (offset < 0 || lengths[i] < 0 || offset + lengths[i] > bodyLength) {
+                throw new IOException("record " + ids[i] + " is out of bounds");
+            }
+            offsets[i] = (int) (tableEnd + offset);
+        }
+
+        // 记录相互独立，并行解析
+        JsonNode[] nodes = new JsonNode[count];
+        try {
+            IntStream.range(0, count).parallel().forEach(i -> {
+                try {
+                    nodes[i] = objectMapper.readTree(bytes, offsets[i], lengths[i]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        Map<Long, JsonNode> result = new LinkedHashMap<>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            result.put(ids[i], nodes[i]);
+        }
+        return new Snapshot(header.getSourceLength(), header.getSourceChecksum(), header.getSourceModified(),
+                header.getNextId(), header.getDeadRecords(), result);
+    }
+}
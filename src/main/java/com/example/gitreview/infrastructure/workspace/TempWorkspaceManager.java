@@ -1,5 +1,7 @@
 package com.example.gitreview.infrastructure.workspace;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -9,18 +11,29 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
 
 /**
  * Temporary workspace manager for Git operations.
+ * Resources a workspace depends on (e.g. the lease on the mirror whose object store a shared workspace
+ * borrows) can be attached to it and are released when the workspace is cleaned up.
  *
  * @author zhourui(V33215020)
  * @since 2025/10/05
  */
 @Component
 public class TempWorkspaceManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(TempWorkspaceManager.class);
     
     @Value("${git.temp.dir:C:/tmp/git-review}")
     private String tempBaseDir;
+
+    private final Map<Path, List<AutoCloseable>> attachedResources = new ConcurrentHashMap<>();
     
     /**
      * Create temporary workspace.
@@ -45,19 +58,36 @@ public class TempWorkspaceManager {
     }
     
     /**
-     * Clean up workspace.
+     * Attach a resource to a workspace; it is closed after the workspace is cleaned up.
+     *
+     * @param workspaceDir workspace directory
+     * @param resource resource the workspace depends on
+     */
+    public void attachResource(File workspaceDir, AutoCloseable resource) {
+        attachedResources.computeIfAbsent(key(workspaceDir), path -> new CopyOnWriteArrayList<>()).add(resource);
+    }
+
+    /**
+     * Clean up workspace and release the resources attached to it.
      *
      * @param workspaceDir workspace directory
      */
     public void cleanupWorkspace(File workspaceDir) throws IOException {
-        if (workspaceDir == null || !workspaceDir.exists()) {
+        if (workspaceDir == null) {
             return;
         }
-        
-        Files.walk(workspaceDir.toPath())
-                .sorted(Comparator.reverseOrder())
-                .map(Path::toFile)
-                .forEach(File::delete);
+
+        try {
+            if (workspaceDir.exists()) {
+                try (Stream<Path> paths = Files.walk(workspaceDir.toPath())) {
+                    paths.sorted(Comparator.reverseOrder())
+                            .map(Path::toFile)
+                            .forEach(File::delete);
+                }
+            }
+        } finally {
+            releaseResources(workspaceDir);
+        }
     }
     
     /**
@@ -79,4 +109,31 @@ public class TempWorkspaceManager {
     public File getWorkspaceFile(String workspaceName) {
         return Paths.get(tempBaseDir, workspaceName).toFile();
     }
+
+    /**
+     * Set base directory of temporary workspaces (for tests).
+     *
+     * @param tempBaseDir base directory
+     */
+    public void setTempBaseDir(String tempBaseDir) {
+        this.tempBaseDir = tempBaseDir;
+    }
+
+    private void releaseResources(File workspaceDir) {
+        List<AutoCloseable> resources = attachedResources.remove(key(workspaceDir));
+        if (resources == null) {
+            return;
+        }
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                logger.warn("Failed to release resource of workspace {}: {}", workspaceDir, e.getMessage());
+            }
+        }
+    }
+
+    private static Path key(File workspaceDir) {
+        return workspaceDir.toPath().toAbsolutePath().normalize();
+    }
 }
@@ -12,6 +12,7 @@ const API = {
     },
 
     review: {
+        list: (params) => axios.get('/api/reviews', { params }),
         start: (repoId, params) => {
             const formData = new URLSearchParams();
             formData.append('baseBranch', params.baseBranch);
@@ -26,11 +27,13 @@ const API = {
     testGeneration: {
         generate: (data) => axios.post('/api/test-generation/generate', data),
         getStatus: (taskId) => axios.get(`/api/test-generation/status/${taskId}`),
-        getResult: (taskId) => axios.get(`/api/test-generation/result/${taskId}`)
+        getResult: (taskId) => axios.get(`/api/test-generation/result/${taskId}`),
+        listSuites: (params) => axios.get('/api/test-generation/suites', { params })
     },
 
     workflow: {
         list: () => axios.get('/api/workflow'),
+        page: (params) => axios.get('/api/workflow/page', { params }),
         create: (data) => axios.post('/api/workflow', data),
         getStatus: (id) => axios.get(`/api/workflow/${id}/status`),
         cancel: (id, reason) => axios.post(`/api/workflow/${id}/cancel`, { reason }),
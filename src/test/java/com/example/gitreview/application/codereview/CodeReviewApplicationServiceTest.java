@@ -0,0 +1,111 @@
+package com.example.gitreview.application.codereview;
+
+import com.example.gitreview.application.codereview.dto.request.CodeReviewRequest;
+import com.example.gitreview.application.codereview.service.CodeReviewApplicationService;
+import com.example.gitreview.domain.codereview.model.aggregate.CodeReview;
+import com.example.gitreview.domain.codereview.repository.CodeReviewRepository;
+import com.example.gitreview.domain.shared.model.aggregate.Repository;
+import com.example.gitreview.domain.shared.model.valueobject.Credential;
+import com.example.gitreview.domain.shared.model.valueobject.GitUrl;
+import com.example.gitreview.domain.shared.model.valueobject.PathFilter;
+import com.example.gitreview.domain.shared.repository.GitRepositoryRepository;
+import com.example.gitreview.infrastructure.git.DiffOptions;
+import com.example.gitreview.infrastructure.git.GitOperationPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * CodeReviewApplicationServiceTest 测试
+ * 验证创建请求中的包含和排除路径随审查保存，并在开始审查时与仓库默认配置合并后传入差异选项
+ */
+@ExtendWith(MockitoExtension.class)
+class CodeReviewApplicationServiceTest {
+
+    @Mock
+    private CodeReviewRepository codeReviewRepository;
+
+    @Mock
+    private GitRepositoryRepository gitRepositoryRepository;
+
+    @Mock
+    private GitOperationPort gitOperationPort;
+
+    @InjectMocks
+    private CodeReviewApplicationService applicationService;
+
+    private final AtomicReference<CodeReview> saved = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        applicationService.setMaxFileSizeKb(512);
+        when(codeReviewRepository.save(any(CodeReview.class))).thenAnswer(invocation -> {
+            CodeReview review = invocation.getArgument(0);
+            if (review.getId() == null) {
+                review.setId(7L);
+            }
+            saved.set(review);
+            return review;
+        });
+    }
+
+    @Test
+    void should_scope_review_to_request_paths() {
+        Long reviewId = applicationService.createCodeReview(request(List.of("src/**"), List.of("*.min.js")));
+
+        assertEquals(7L, reviewId);
+        assertEquals(new PathFilter(List.of("src/**"), List.of("*.min.js")), saved.get().getPathFilter());
+    }
+
+    @Test
+    void should_pass_request_paths_merged_with_repository_defaults_to_diff_options() throws Exception {
+        Repository repository = new Repository("Test Repo", "Test Description",
+                new GitUrl("https://github.com/test/repo.git"), new Credential("testuser", "testpass"));
+        repository.setId(1L);
+        repository.updateReviewPathFilter(new PathFilter(null, List.of("vendor/**")));
+        when(gitRepositoryRepository.findById(1L)).thenReturn(Optional.of(repository));
+
+        Long reviewId = applicationService.createCodeReview(request(List.of("src/**"), List.of("*.min.js")));
+        when(codeReviewRepository.findById(reviewId)).thenReturn(Optional.of(saved.get()));
+        // 取到差异选项后即结束，不继续生成差异
+        when(gitOperationPort.openRevisionDiff(anyLong(), anyString(), any(), any(), anyString(), anyString(),
+                any(DiffOptions.class))).thenThrow(new IOException("stop after diff options"));
+
+        assertThrows(RuntimeException.class, () -> applicationService.startCodeReview(reviewId,
+                "https://github.com/test/repo.git", null, null, "main", "feature/test"));
+
+        ArgumentCaptor<DiffOptions> options = ArgumentCaptor.forClass(DiffOptions.class);
+        verify(gitOperationPort).openRevisionDiff(eq(1L), eq("https://github.com/test/repo.git"), isNull(), isNull(),
+                eq("main"), eq("feature/test"), options.capture());
+        assertEquals(List.of("src/**"), options.getValue().getIncludes());
+        assertEquals(List.of("vendor/**", "*.min.js"), options.getValue().getExcludes());
+    }
+
+    @Test
+    void should_not_scope_review_without_request_paths() {
+        applicationService.createCodeReview(request(null, null));
+
+        assertTrue(saved.get().getPathFilter().isEmpty());
+    }
+
+    private static CodeReviewRequest request(List<String> includePaths, List<String> excludePaths) {
+        CodeReviewRequest request = new CodeReviewRequest(1L, "Scoped review", null, "main", "feature/test",
+                "standard", "tester", "https://github.com/test/repo.git", null, null);
+        request.setIncludePaths(includePaths);
+        request.setExcludePaths(excludePaths);
+        return request;
+    }
+}
@@ -1,21 +1,26 @@
 package com.example.gitreview.application.codereview.api;
 
+import com.example.gitreview.application.codereview.dto.request.CodeReviewRequest;
 import com.example.gitreview.application.codereview.service.CodeReviewApplicationService;
 import com.example.gitreview.application.repository.GitRepositoryApplicationService;
 import com.example.gitreview.application.repository.dto.GitRepositoryDTO;
 import com.example.gitreview.infrastructure.claude.ClaudeQueryPort;
 import com.example.gitreview.infrastructure.claude.ClaudeQueryResponse;
+import com.example.gitreview.infrastructure.git.DiffOptions;
+import com.example.gitreview.infrastructure.git.FileDiff;
 import com.example.gitreview.infrastructure.git.GitOperationPort;
+import com.example.gitreview.infrastructure.git.RevisionDiff;
+import com.example.gitreview.infrastructure.git.diff.DiffSpool;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
-import java.io.File;
 import java.util.Arrays;
 import java.util.List;
 
@@ -30,6 +35,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * 测试代码审查完整链路，包括Claude CLI调用流程
  */
 @WebMvcTest(ReviewController.class)
+@Import(DiffSpool.class)
 public class ReviewControllerTest {
 
     @Autowired
@@ -50,7 +56,7 @@ public class ReviewControllerTest {
     private GitRepositoryDTO repositoryDTO;
     private ClaudeQueryResponse claudeSuccessResponse;
     private ClaudeQueryResponse claudeErrorResponse;
-    private File mockRepoDir;
+    private RevisionDiff mockRevisionDiff;
     private List<DiffEntry> mockDiffEntries;
 
     @BeforeEach
@@ -86,7 +92,7 @@ public class ReviewControllerTest {
         );
 
         // 准备Git相关Mock数据
-        mockRepoDir = new File(System.getProperty("java.io.tmpdir"), "test-repo");
+        mockRevisionDiff = mock(RevisionDiff.class);
         mockDiffEntries = Arrays.asList(
                 mock(DiffEntry.class),
                 mock(DiffEntry.class)
@@ -98,12 +104,12 @@ public class ReviewControllerTest {
         // Given
         when(gitRepositoryApplicationService.getRepository(1L)).thenReturn(repositoryDTO);
         when(claudeQueryPort.isAvailable()).thenReturn(true);
-        when(gitOperationPort.cloneRepository(anyString(), anyString(), anyString(), anyString()))
-                .thenReturn(mockRepoDir);
-        when(gitOperationPort.getDiffBetweenBranches(any(File.class), anyString(), anyString()))
+        when(gitOperationPort.openRevisionDiff(anyLong(), anyString(), anyString(), anyString(), anyString(), anyString(), any(DiffOptions.class)))
+                .thenReturn(mockRevisionDiff);
+        when(mockRevisionDiff.getEntries())
                 .thenReturn(mockDiffEntries);
-        when(gitOperationPort.getDiffContent(any(File.class), any(DiffEntry.class)))
-                .thenReturn("diff --git a/test.java b/test.java\n+added line");
+        when(mockRevisionDiff.formatFile(any(DiffEntry.class)))
+                .thenReturn(new FileDiff(null, "diff --git a/test.java b/test.java\n+added line", 1, 0));
         when(claudeQueryPort.reviewCodeChanges(anyString(), anyString(), anyString(), anyString()))
                 .thenReturn(claudeSuccessResponse);
 
@@ -119,13 +125,16 @@ public class ReviewControllerTest {
         // 验证调用链路
         verify(gitRepositoryApplicationService).getRepository(1L);
         verify(claudeQueryPort).isAvailable();
-        verify(gitOperationPort).cloneRepository(
+        verify(gitOperationPort).openRevisionDiff(
+                eq(1L),
                 eq("https://github.com/test/repo.git"),
                 eq("testuser"),
                 eq("testpass"),
-                eq("feature/test")
+                eq("main"),
+                eq("feature/test"),
+                any(DiffOptions.class)
         );
-        verify(gitOperationPort).getDiffBetweenBranches(mockRepoDir, "main", "feature/test");
+        verify(mockRevisionDiff).close();
         verify(claudeQueryPort).reviewCodeChanges(
                 anyString(),
                 eq("Git代码审查项目 - Test Repo"),
@@ -149,7 +158,7 @@ public class ReviewControllerTest {
 
         verify(gitRepositoryApplicationService).getRepository(999L);
         verify(claudeQueryPort, never()).isAvailable();
-        verify(gitOperationPort, never()).cloneRepository(anyString(), anyString(), anyString(), anyString());
+        verify(gitOperationPort, never()).openRevisionDiff(anyLong(), anyString(), anyString(), anyString(), anyString(), anyString(), any(DiffOptions.class));
     }
 
     @Test
@@ -168,7 +177,7 @@ public class ReviewControllerTest {
 
         verify(gitRepositoryApplicationService).getRepository(1L);
         verify(claudeQueryPort).isAvailable();
-        verify(gitOperationPort, never()).cloneRepository(anyString(), anyString(), anyString(), anyString());
+        verify(gitOperationPort, never()).openRevisionDiff(anyLong(), anyString(), anyString(), anyString(), anyString(), anyString(), any(DiffOptions.class));
         verify(claudeQueryPort, never()).reviewCodeChanges(anyString(), anyString(), anyString(), anyString());
     }
 
@@ -177,9 +186,9 @@ public class ReviewControllerTest {
         // Given
         when(gitRepositoryApplicationService.getRepository(1L)).thenReturn(repositoryDTO);
         when(claudeQueryPort.isAvailable()).thenReturn(true);
-        when(gitOperationPort.cloneRepository(anyString(), anyString(), anyString(), anyString()))
-                .thenReturn(mockRepoDir);
-        when(gitOperationPort.getDiffBetweenBranches(any(File.class), anyString(), anyString()))
+        when(gitOperationPort.openRevisionDiff(anyLong(), anyString(), anyString(), anyString(), anyString(), anyString(), any(DiffOptions.class)))
+                .thenReturn(mockRevisionDiff);
+        when(mockRevisionDiff.getEntries())
                 .thenReturn(Arrays.asList()); // 空的diff列表
 
         // When & Then
@@ -192,8 +201,8 @@ public class ReviewControllerTest {
 
         verify(gitRepositoryApplicationService).getRepository(1L);
         verify(claudeQueryPort).isAvailable();
-        verify(gitOperationPort).cloneRepository(anyString(), anyString(), anyString(), anyString());
-        verify(gitOperationPort).getDiffBetweenBranches(mockRepoDir, "main", "feature/test");
+        verify(gitOperationPort).openRevisionDiff(anyLong(), anyString(), anyString(), anyString(), anyString(), anyString(), any(DiffOptions.class));
+        verify(mockRevisionDiff).close();
         verify(claudeQueryPort, never()).reviewCodeChanges(anyString(), anyString(), anyString(), anyString());
     }
 
@@ -202,12 +211,12 @@ public class ReviewControllerTest {
         // Given
         when(gitRepositoryApplicationService.getRepository(1L)).thenReturn(repositoryDTO);
         when(claudeQueryPort.isAvailable()).thenReturn(true);
-        when(gitOperationPort.cloneRepository(anyString(), anyString(), anyString(), anyString()))
-                .thenReturn(mockRepoDir);
-        when(gitOperationPort.getDiffBetweenBranches(any(File.class), anyString(), anyString()))
+        when(gitOperationPort.openRevisionDiff(anyLong(), anyString(), anyString(), anyString(), anyString(), anyString(), any(DiffOptions.class)))
+                .thenReturn(mockRevisionDiff);
+        when(mockRevisionDiff.getEntries())
                 .thenReturn(mockDiffEntries);
-        when(gitOperationPort.getDiffContent(any(File.class), any(DiffEntry.class)))
-                .thenReturn("diff content");
+        when(mockRevisionDiff.formatFile(any(DiffEntry.class)))
+                .thenReturn(new FileDiff(null, "diff content", 1, 0));
         when(claudeQueryPort.reviewCodeChanges(anyString(), anyString(), anyString(), anyString()))
                 .thenReturn(claudeErrorResponse);
 
@@ -228,8 +237,8 @@ public class ReviewControllerTest {
         // Given
         when(gitRepositoryApplicationService.getRepository(1L)).thenReturn(repositoryDTO);
         when(claudeQueryPort.isAvailable()).thenReturn(true);
-        when(gitOperationPort.cloneRepository(anyString(), anyString(), anyString(), anyString()))
-                .thenThrow(new RuntimeException("Git clone failed: Authentication error"));
+        when(gitOperationPort.openRevisionDiff(anyLong(), anyString(), anyString(), anyString(), anyString(), anyString(), any(DiffOptions.class)))
+                .thenThrow(new RuntimeException("Git fetch failed: Authentication error"));
 
         // When & Then
         mockMvc.perform(post("/api/review/1/claude")
@@ -240,7 +249,7 @@ public class ReviewControllerTest {
                 .andExpect(content().string(containsString("代码审查失败")))
                 .andExpect(content().string(containsString("Authentication error")));
 
-        verify(gitOperationPort).cloneRepository(anyString(), anyString(), anyString(), anyString());
+        verify(gitOperationPort).openRevisionDiff(anyLong(), anyString(), anyString(), anyString(), anyString(), anyString(), any(DiffOptions.class));
         verify(claudeQueryPort, never()).reviewCodeChanges(anyString(), anyString(), anyString(), anyString());
     }
 
@@ -249,9 +258,9 @@ public class ReviewControllerTest {
         // Given - 模拟大量diff文件
         when(gitRepositoryApplicationService.getRepository(1L)).thenReturn(repositoryDTO);
         when(claudeQueryPort.isAvailable()).thenReturn(true);
-        when(gitOperationPort.cloneRepository(anyString(), anyString(), anyString(), anyString()))
-                .thenReturn(mockRepoDir);
-        when(gitOperationPort.getDiffBetweenBranches(any(File.class), anyString(), anyString()))
+        when(gitOperationPort.openRevisionDiff(anyLong(), anyString(), anyString(), anyString(), anyString(), anyString(), any(DiffOptions.class)))
+                .thenReturn(mockRevisionDiff);
+        when(mockRevisionDiff.getEntries())
                 .thenReturn(mockDiffEntries);
 
         // 模拟大的diff内容
@@ -259,8 +268,8 @@ public class ReviewControllerTest {
         for (int i = 0; i < 1000; i++) {
             largeDiff.append("diff line ").append(i).append("\n");
         }
-        when(gitOperationPort.getDiffContent(any(File.class), any(DiffEntry.class)))
-                .thenReturn(largeDiff.toString());
+        when(mockRevisionDiff.formatFile(any(DiffEntry.class)))
+                .thenReturn(new FileDiff(null, largeDiff.toString(), 1, 0));
         when(claudeQueryPort.reviewCodeChanges(anyString(), anyString(), anyString(), anyString()))
                 .thenReturn(claudeSuccessResponse);
 
@@ -278,4 +287,55 @@ public class ReviewControllerTest {
                 anyString()
         );
     }
+
+    @Test
+    void testReviewWithClaudeMergesPathFilterWithRepositoryDefaults() throws Exception {
+        // Given - 仓库默认排除vendor目录
+        repositoryDTO.setReviewExcludePaths(new String[]{"vendor/**"});
+        when(gitRepositoryApplicationService.getRepository(1L)).thenReturn(repositoryDTO);
+        when(claudeQueryPort.isAvailable()).thenReturn(true);
+        when(gitOperationPort.openRevisionDiff(anyLong(), anyString(), anyString(), anyString(), anyString(), anyString(), any(DiffOptions.class)))
+                .thenReturn(mockRevisionDiff);
+        when(mockRevisionDiff.getEntries())
+                .thenReturn(mockDiffEntries);
+        when(mockRevisionDiff.formatFile(any(DiffEntry.class)))
+                .thenReturn(new FileDiff(null, "diff content", 1, 0));
+        when(claudeQueryPort.reviewCodeChanges(anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(claudeSuccessResponse);
+
+        // When & Then
+        mockMvc.perform(post("/api/review/1/claude")
+                        .param("baseBranch", "main")
+                        .param("targetBranch", "feature/test")
+                        .param("include", "src/**")
+                        .param("exclude", "*.min.js")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk());
+
+        verify(gitOperationPort).openRevisionDiff(anyLong(), anyString(), anyString(), anyString(), anyString(), anyString(),
+                argThat(options -> options.getIncludes().equals(List.of("src/**"))
+                        && options.getExcludes().equals(List.of("vendor/**", "*.min.js"))));
+    }
+
+    @Test
+    void testCreateCodeReviewPassesPathScopeToService() throws Exception {
+        // Given
+        when(codeReviewApplicationService.createCodeReview(any(CodeReviewRequest.class))).thenReturn(7L);
+
+        // When & Then
+        mockMvc.perform(post("/api/code-review")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"repositoryId\":1,\"title\":\"Scoped review\",\"baseBranch\":\"main\","
+                                + "\"targetBranch\":\"feature/test\",\"strategyMode\":\"standard\",\"createdBy\":\"tester\","
+                                + "\"repositoryUrl\":\"https://github.com/test/repo.git\","
+                                + "\"includePaths\":[\"src/**\"],\"excludePaths\":[\"*.min.js\"]}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.reviewId").value(7));
+
+        verify(codeReviewApplicationService).createCodeReview(argThat((CodeReviewRequest request) ->
+                request.getIncludePaths().equals(List.of("src/**"))
+                        && request.getExcludePaths().equals(List.of("*.min.js"))));
+        verify(codeReviewApplicationService).startCodeReview(7L, "https://github.com/test/repo.git", null, null,
+                "main", "feature/test");
+    }
 }
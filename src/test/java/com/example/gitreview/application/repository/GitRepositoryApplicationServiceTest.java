@@ -3,6 +3,7 @@ package com.example.gitreview.application.repository;
 import com.example.gitreview.application.repository.assembler.GitRepositoryAssembler;
 import com.example.gitreview.application.repository.dto.GitRepositoryCreateDTO;
 import com.example.gitreview.application.repository.dto.GitRepositoryDTO;
+import com.example.gitreview.application.repository.dto.WarmUpResultDTO;
 import com.example.gitreview.domain.shared.model.aggregate.Repository;
 import com.example.gitreview.domain.shared.model.valueobject.GitUrl;
 import com.example.gitreview.domain.shared.model.valueobject.Credential;
@@ -10,6 +11,8 @@ import com.example.gitreview.domain.shared.repository.GitRepositoryRepository;
 import com.example.gitreview.domain.shared.service.RepositoryDomainService;
 import com.example.gitreview.domain.shared.exception.ResourceNotFoundException;
 import com.example.gitreview.domain.shared.exception.ValidationException;
+import com.example.gitreview.infrastructure.git.GitOperationPort;
+import com.example.gitreview.infrastructure.git.mirror.MirrorPrefetchScheduler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,9 +20,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -41,6 +46,12 @@ public class GitRepositoryApplicationServiceTest {
     @Mock
     private GitRepositoryAssembler assembler;
 
+    @Mock
+    private GitOperationPort gitOperationPort;
+
+    @Mock
+    private MirrorPrefetchScheduler prefetchScheduler;
+
     @InjectMocks
     private GitRepositoryApplicationService applicationService;
 
@@ -169,6 +180,7 @@ public class GitRepositoryApplicationServiceTest {
         // Then
         verify(repositoryRepository).findById(1L);
         verify(repositoryRepository).deleteById(1L);
+        verify(gitOperationPort).invalidateRemoteRefs(1L);
     }
 
     @Test
@@ -203,4 +215,33 @@ public class GitRepositoryApplicationServiceTest {
         verify(repositoryRepository).save(testRepository);
         verify(assembler).toGitRepositoryDTO(testRepository);
     }
+
+    @Test
+    void testWarmUpRepositoryWaitsForPrefetch() {
+        // Given
+        when(repositoryRepository.findById(1L)).thenReturn(Optional.of(testRepository));
+        when(prefetchScheduler.warmUp(testRepository)).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        WarmUpResultDTO result = applicationService.warmUpRepository(1L, true);
+
+        // Then
+        assertEquals(WarmUpResultDTO.STATUS_COMPLETED, result.getStatus());
+        verify(prefetchScheduler).warmUp(testRepository);
+    }
+
+    @Test
+    void testWarmUpRepositoryReportsFailure() {
+        // Given
+        when(repositoryRepository.findById(1L)).thenReturn(Optional.of(testRepository));
+        when(prefetchScheduler.warmUp(testRepository))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("unreachable")));
+
+        // When
+        WarmUpResultDTO result = applicationService.warmUpRepository(1L, true);
+
+        // Then
+        assertEquals(WarmUpResultDTO.STATUS_FAILED, result.getStatus());
+        assertTrue(result.getMessage().contains("unreachable"));
+    }
 }
\ No newline at end of file
@@ -237,7 +237,7 @@ public class GitRepositoryControllerTest {
     @Test
     void testGetRemoteBranches() throws Exception {
         // Given
-        when(applicationService.getRemoteBranches(1L)).thenReturn(branchListDTO);
+        when(applicationService.getRemoteBranches(1L, false)).thenReturn(branchListDTO);
 
         // When & Then
         mockMvc.perform(get("/api/repositories/1/remote-branches")
@@ -247,13 +247,13 @@ public class GitRepositoryControllerTest {
                 .andExpect(jsonPath("$.branches[1]").value("develop"))
                 .andExpect(jsonPath("$.branches[2]").value("feature/test"));
 
-        verify(applicationService).getRemoteBranches(1L);
+        verify(applicationService).getRemoteBranches(1L, false);
     }
 
     @Test
     void testGetRemoteBranchesNotFound() throws Exception {
         // Given
-        when(applicationService.getRemoteBranches(999L))
+        when(applicationService.getRemoteBranches(999L, false))
                 .thenThrow(new ResourceNotFoundException("Repository not found: 999"));
 
         // When & Then
@@ -261,7 +261,7 @@ public class GitRepositoryControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isInternalServerError());
 
-        verify(applicationService).getRemoteBranches(999L);
+        verify(applicationService).getRemoteBranches(999L, false);
     }
 
     @Test
@@ -12,13 +12,17 @@ import com.example.gitreview.domain.shared.model.aggregate.Repository;
 import com.example.gitreview.domain.shared.model.valueobject.Credential;
 import com.example.gitreview.domain.shared.model.valueobject.GitUrl;
 import com.example.gitreview.domain.shared.repository.GitRepositoryRepository;
+import com.example.gitreview.domain.testgen.model.aggregate.TestBatch;
 import com.example.gitreview.domain.testgen.model.aggregate.TestSuite;
 import com.example.gitreview.domain.testgen.model.valueobject.JavaClass;
+import com.example.gitreview.domain.testgen.model.valueobject.TestSuiteSummary;
 import com.example.gitreview.domain.testgen.model.valueobject.TestTemplate;
+import com.example.gitreview.domain.testgen.repository.TestBatchRepository;
 import com.example.gitreview.domain.testgen.repository.TestSuiteRepository;
 import com.example.gitreview.domain.testgen.service.TestGenerationDomainService;
 import com.example.gitreview.infrastructure.claude.ClaudeQueryPort;
 import com.example.gitreview.infrastructure.git.GitOperationPort;
+import com.example.gitreview.infrastructure.workspace.TempWorkspaceManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -28,6 +32,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -47,6 +52,9 @@ public class TestGenerationApplicationServiceTest {
     @Mock
     private TestSuiteRepository testSuiteRepository;
 
+    @Mock
+    private TestBatchRepository testBatchRepository;
+
     @Mock
     private TestGenerationDomainService testGenerationDomainService;
 
@@ -59,6 +67,9 @@ public class TestGenerationApplicationServiceTest {
     @Mock
     private TestGenerationAssembler assembler;
 
+    @Mock
+    private TempWorkspaceManager tempWorkspaceManager;
+
     @InjectMocks
     private TestGenerationApplicationService testGenerationApplicationService;
 
@@ -356,12 +367,13 @@ public class TestGenerationApplicationServiceTest {
     @Test
     void testGetUserTestSuitesWithRepositoryId() {
         // Given
-        List<TestSuite> testSuites = Arrays.asList(testSuite);
+        TestSuiteSummary summary = TestSuiteSummary.of(testSuite);
+        List<TestSuiteSummary> testSuites = Arrays.asList(summary);
         List<TestSuiteDTO> testSuiteDTOs = Arrays.asList(new TestSuiteDTO());
 
-        when(testSuiteRepository.findByRepositoryIdAndCreatedBy(1L, "system"))
+        when(testSuiteRepository.findSummariesByRepositoryIdAndCreatedBy(1L, "system"))
                 .thenReturn(testSuites);
-        when(assembler.toTestSuiteDTO(testSuite)).thenReturn(testSuiteDTOs.get(0));
+        when(assembler.toTestSuiteDTO(summary)).thenReturn(testSuiteDTOs.get(0));
 
         // When
         List<TestSuiteDTO> result = testGenerationApplicationService.getUserTestSuites(1L);
@@ -369,18 +381,19 @@ public class TestGenerationApplicationServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(testSuiteRepository).findByRepositoryIdAndCreatedBy(1L, "system");
-        verify(assembler).toTestSuiteDTO(testSuite);
+        verify(testSuiteRepository).findSummariesByRepositoryIdAndCreatedBy(1L, "system");
+        verify(assembler).toTestSuiteDTO(summary);
     }
 
     @Test
     void testGetUserTestSuitesWithoutRepositoryId() {
         // Given
-        List<TestSuite> testSuites = Arrays.asList(testSuite);
+        TestSuiteSummary summary = TestSuiteSummary.of(testSuite);
+        List<TestSuiteSummary> testSuites = Arrays.asList(summary);
         List<TestSuiteDTO> testSuiteDTOs = Arrays.asList(new TestSuiteDTO());
 
-        when(testSuiteRepository.findByCreatedBy("system")).thenReturn(testSuites);
-        when(assembler.toTestSuiteDTO(testSuite)).thenReturn(testSuiteDTOs.get(0));
+        when(testSuiteRepository.findSummariesByCreatedBy("system")).thenReturn(testSuites);
+        when(assembler.toTestSuiteDTO(summary)).thenReturn(testSuiteDTOs.get(0));
 
         // When
         List<TestSuiteDTO> result = testGenerationApplicationService.getUserTestSuites(null);
@@ -388,8 +401,46 @@ public class TestGenerationApplicationServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(testSuiteRepository).findByCreatedBy("system");
-        verify(assembler).toTestSuiteDTO(testSuite);
+        verify(testSuiteRepository).findSummariesByCreatedBy("system");
+        verify(assembler).toTestSuiteDTO(summary);
+    }
+
+    @Test
+    void testGetBatchStatusFromBatchCounters() {
+        // Given
+        TestBatch batch = new TestBatch(1L, "main", 2, "system");
+        batch.setId(7L);
+        TestSuite other = new TestSuite(1L, "OrderServiceTests", "Test suite for OrderService",
+                new JavaClass("OrderService", "com.example.service", List.of(), List.of()),
+                testSuite.getTemplate(), "system");
+        other.setId(2L);
+        testSuite.startGeneration();
+        other.startGeneration();
+        batch.addMember(testSuite);
+        batch.addMember(other);
+        other.markAsFailed("Class not found");
+        batch.recordStatus(other);
+        when(testBatchRepository.findById(7L)).thenReturn(Optional.of(batch));
+
+        // When
+        Map<String, Object> result = testGenerationApplicationService.getBatchStatus(7L);
+
+        // Then
+        assertEquals("FAILED", result.get("status"));
+        assertEquals(2L, result.get("total"));
+        assertEquals(1L, result.get("generating"));
+        assertEquals(1L, result.get("failed"));
+        verifyNoInteractions(testSuiteRepository);
+    }
+
+    @Test
+    void testGetBatchStatusWithUnknownBatch() {
+        // Given
+        when(testBatchRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class,
+                () -> testGenerationApplicationService.getBatchStatus(999L));
     }
 
     @Test
@@ -4,6 +4,7 @@ import com.example.gitreview.application.workflow.dto.*;
 import com.example.gitreview.domain.workflow.exception.WorkflowNotFoundException;
 import com.example.gitreview.domain.workflow.model.WorkflowStatus;
 import com.example.gitreview.domain.workflow.model.aggregate.DevelopmentWorkflow;
+import com.example.gitreview.domain.workflow.model.valueobject.WorkflowSummary;
 import com.example.gitreview.domain.workflow.model.valueobject.Specification;
 import com.example.gitreview.domain.workflow.repository.WorkflowRepository;
 import com.example.gitreview.domain.workflow.service.WorkflowDomainService;
@@ -171,7 +172,8 @@ class WorkflowApplicationServiceTest {
         DevelopmentWorkflow workflow2 = DevelopmentWorkflow.create("工作流2", 2L, "zhourui");
         workflow2.setId(2L);
 
-        when(workflowRepository.findAll()).thenReturn(Arrays.asList(workflow1, workflow2));
+        when(workflowRepository.findAllSummaries())
+                .thenReturn(Arrays.asList(WorkflowSummary.of(workflow1), WorkflowSummary.of(workflow2)));
 
         List<WorkflowStatusDTO> workflows = workflowApplicationService.getAllWorkflows();
 
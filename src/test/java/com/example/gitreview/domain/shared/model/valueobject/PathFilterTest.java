@@ -0,0 +1,53 @@
+package com.example.gitreview.domain.shared.model.valueobject;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PathFilter Value Object Test
+ * Test pattern normalization and merging with repository defaults
+ */
+public class PathFilterTest {
+
+    @Test
+    void testNormalizePatterns() {
+        // When
+        PathFilter filter = new PathFilter(Arrays.asList(" /src/** ", "", null, "src/**"), null);
+
+        // Then
+        assertEquals(List.of("src/**"), filter.getIncludes());
+        assertTrue(filter.getExcludes().isEmpty());
+        assertFalse(filter.isEmpty());
+        assertTrue(PathFilter.none().isEmpty());
+    }
+
+    @Test
+    void testWithDefaultsUsesDefaultIncludesWhenNoneSpecified() {
+        // Given
+        PathFilter defaults = new PathFilter(List.of("src/**"), List.of("vendor/**"));
+        PathFilter review = new PathFilter(null, List.of("*.min.js", "vendor/**"));
+
+        // When
+        PathFilter merged = review.withDefaults(defaults);
+
+        // Then
+        assertEquals(List.of("src/**"), merged.getIncludes());
+        assertEquals(List.of("vendor/**", "*.min.js"), merged.getExcludes());
+    }
+
+    @Test
+    void testWithDefaultsKeepsOwnIncludes() {
+        // Given
+        PathFilter defaults = new PathFilter(List.of("src/**"), null);
+        PathFilter review = new PathFilter(List.of("web/**"), null);
+
+        // When & Then
+        assertEquals(List.of("web/**"), review.withDefaults(defaults).getIncludes());
+        assertSame(review, review.withDefaults(PathFilter.none()));
+        assertSame(review, review.withDefaults(null));
+    }
+}
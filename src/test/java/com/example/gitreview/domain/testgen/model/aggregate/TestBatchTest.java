@@ -0,0 +1,77 @@
+package com.example.gitreview.domain.testgen.model.aggregate;
+
+import com.example.gitreview.domain.shared.exception.BusinessRuleException;
+import com.example.gitreview.domain.testgen.model.valueobject.JavaClass;
+import com.example.gitreview.domain.testgen.model.valueobject.TestTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * TestBatch 聚合根单元测试
+ */
+class TestBatchTest {
+
+    @Test
+    void should_count_members_by_status_as_they_transition() {
+        TestBatch batch = new TestBatch(1L, "main", 2, "system");
+        TestSuite first = suite(1L, "UserService");
+        TestSuite second = suite(2L, "OrderService");
+        batch.addMember(first);
+        batch.addMember(second);
+
+        first.markAsFailed("Class not found");
+        assertThat(batch.recordStatus(first)).isTrue();
+        assertThat(batch.recordStatus(first)).isFalse();
+
+        assertThat(batch.getTotal()).isEqualTo(2);
+        assertThat(batch.countOf(TestSuite.GenerationStatus.GENERATING)).isEqualTo(1);
+        assertThat(batch.countOf(TestSuite.GenerationStatus.FAILED)).isEqualTo(1);
+        assertThat(batch.getStatusCounts()).doesNotContainKey(TestSuite.GenerationStatus.PENDING);
+    }
+
+    @Test
+    void should_ignore_suites_outside_batch_and_reject_duplicates() {
+        TestBatch batch = new TestBatch(1L, "main", 1, "system");
+        TestSuite member = suite(1L, "UserService");
+        batch.addMember(member);
+
+        TestSuite outsider = suite(99L, "OrderService");
+        outsider.markAsFailed("unrelated");
+
+        assertThat(batch.recordStatus(outsider)).isFalse();
+        assertThat(batch.countOf(TestSuite.GenerationStatus.FAILED)).isZero();
+        assertThatThrownBy(() -> batch.addMember(member)).isInstanceOf(BusinessRuleException.class);
+    }
+
+    @Test
+    void should_keep_members_and_counters_through_json() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        TestBatch batch = new TestBatch(1L, "main", 2, "system");
+        batch.setId(5L);
+        batch.addMember(suite(1L, "UserService"));
+        batch.addMember(suite(2L, "OrderService"));
+
+        TestBatch restored = mapper.readValue(mapper.writeValueAsString(batch), TestBatch.class);
+
+        assertThat(restored.getId()).isEqualTo(5L);
+        assertThat(restored.getMemberIds()).containsExactly(1L, 2L);
+        assertThat(restored.countOf(TestSuite.GenerationStatus.GENERATING)).isEqualTo(2);
+        assertThat(restored.getExpectedSize()).isEqualTo(2);
+    }
+
+    private static TestSuite suite(Long id, String className) {
+        TestSuite suite = new TestSuite(1L, className + "Tests", "Batch test generation",
+                new JavaClass(className, "com.example", List.of(), List.of()),
+                new TestTemplate(TestTemplate.TestType.BASIC, 3, "mockito", "junit5", List.of()), "system");
+        suite.setId(id);
+        suite.startGeneration();
+        return suite;
+    }
+}
@@ -0,0 +1,368 @@
+package com.example.gitreview.infrastructure.git.adapter;
+
+import com.example.gitreview.infrastructure.git.CloneOptions;
+import com.example.gitreview.infrastructure.git.DiffOptions;
+import com.example.gitreview.infrastructure.git.FileDiff;
+import com.example.gitreview.infrastructure.git.RemoteRefs;
+import com.example.gitreview.infrastructure.git.RevisionDiff;
+import com.example.gitreview.infrastructure.git.mirror.GitMirrorCache;
+import com.example.gitreview.infrastructure.git.mirror.RemoteRefCache;
+import com.example.gitreview.infrastructure.workspace.TempWorkspaceManager;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.RepositoryCache;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JGitRepositoryAdapter 测试
+ * 以本地仓库作为远程，验证远程分支查询和缓存、从镜像对象库生成差异、按路径过滤、并行统计行数、跳过过大文件和读取文件，浅克隆和加深到合并基点，以及共享镜像对象库的工作区（远程删除分支后镜像仍保留工作区依赖的对象）
+ */
+class JGitRepositoryAdapterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JGitRepositoryAdapter adapter;
+    private GitMirrorCache mirrorCache;
+    private RemoteRefCache remoteRefCache;
+    private TempWorkspaceManager workspaceManager;
+    private Git remote;
+
+    @BeforeEach
+    void setUp() throws GitAPIException, IOException {
+        mirrorCache = new GitMirrorCache();
+        mirrorCache.setMirrorDir(tempDir.resolve("mirrors").toString());
+        mirrorCache.setMaxSizeMb(1024);
+        mirrorCache.setFetchTimeoutSeconds(30);
+        remoteRefCache = new RemoteRefCache();
+        remoteRefCache.setTtlSeconds(60);
+        remoteRefCache.setMaxStaleSeconds(900);
+        remoteRefCache.setRefreshExecutor(Runnable::run);
+        mirrorCache.setRemoteRefCache(remoteRefCache);
+        adapter = new JGitRepositoryAdapter();
+        adapter.setMirrorCache(mirrorCache);
+        adapter.setRemoteRefCache(remoteRefCache);
+        workspaceManager = new TempWorkspaceManager();
+        workspaceManager.setTempBaseDir(tempDir.resolve("workspaces").toString());
+        adapter.setTempWorkspaceManager(workspaceManager);
+
+        remote = Git.init().setDirectory(tempDir.resolve("remote").toFile()).setInitialBranch("main").call();
+        commit("src/A.java", "class A {\n}\n");
+        remote.branchCreate().setName("feature").call();
+        remote.checkout().setName("feature").call();
+        commit("src/A.java", "class A {\n    int x;\n}\n");
+        commit("src/B.java", "class B {\n}\n");
+    }
+
+    @AfterEach
+    void tearDown() {
+        remote.close();
+    }
+
+    @Test
+    void should_diff_branches_from_object_database() throws GitAPIException, IOException {
+        try (RevisionDiff diff = adapter.openRevisionDiff(1L, remoteUrl(), null, null, "main", "feature")) {
+            List<DiffEntry> entries = diff.getEntries();
+
+            assertEquals(List.of("src/A.java", "src/B.java"), entries.stream().map(DiffEntry::getNewPath).toList());
+            assertEquals(DiffEntry.ChangeType.ADD, entries.get(1).getChangeType());
+            assertTrue(diff.formatDiff(entries.get(0)).contains("+    int x;"));
+            assertEquals("class B {\n}\n", diff.readTargetFile("src/B.java"));
+            assertNull(diff.readTargetFile("src/C.java"));
+            assertEquals(remote.getRepository().resolve("feature").getName(), diff.getTargetCommitId());
+        }
+    }
+
+    @Test
+    void should_count_lines_from_edit_list_when_formatting_in_parallel() throws Exception {
+        commit("src/A.java", "class A {\n    int y;\n    int z;\n}\n");
+        remote.rm().addFilepattern("src/B.java").call();
+        remote.commit().setMessage("remove B").setAuthor("test", "test@example.com")
+                .setCommitter("test", "test@example.com").call();
+        commit("bin/data.bin", "\0\1\2");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (RevisionDiff diff = adapter.openRevisionDiff(1L, remoteUrl(), null, null, "main", "feature")) {
+            List<Future<FileDiff>> futures = new ArrayList<>();
+            for (DiffEntry entry : diff.getEntries()) {
+                futures.add(executor.submit(() -> diff.formatFile(entry)));
+            }
+            Map<String, FileDiff> byPath = new HashMap<>();
+            for (Future<FileDiff> future : futures) {
+                FileDiff fileDiff = future.get(10, TimeUnit.SECONDS);
+                byPath.put(fileDiff.getEntry().getNewPath(), fileDiff);
+            }
+
+            FileDiff modified = byPath.get("src/A.java");
+            assertEquals(2, modified.getAddedLines());
+            assertEquals(0, modified.getDeletedLines());
+            assertEquals(diff.formatDiff(modified.getEntry()), modified.getContent());
+
+            FileDiff binary = byPath.get("bin/data.bin");
+            assertEquals(0, binary.getAddedLines());
+            assertTrue(binary.isSkipped());
+            assertTrue(binary.getContent().startsWith("diff --git a/bin/data.bin b/bin/data.bin\n[已跳过：二进制文件"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void should_scope_diff_with_include_and_exclude_globs() throws Exception {
+        commit("vendor/lib/Lib.java", "class Lib {\n}\n");
+        commit("web/app.min.js", "var a=1;\n");
+        commit("web/app.js", "var a = 1;\n");
+        commit("docs/README.md", "readme\n");
+
+        DiffOptions options = DiffOptions.defaults()
+                .withPaths(List.of("src/**", "web/**"), List.of("vendor/**", "*.min.js"));
+        try (RevisionDiff diff = adapter.openRevisionDiff(1L, remoteUrl(), null, null, "main", "feature", options)) {
+            assertEquals(List.of("src/A.java", "src/B.java", "web/app.js"),
+                    diff.getEntries().stream().map(DiffEntry::getNewPath).toList());
+        }
+    }
+
+    @Test
+    void should_summarize_files_over_size_limit() throws Exception {
+        commit("src/Big.java", "int x;\n".repeat(200));
+
+        DiffOptions options = DiffOptions.defaults().withMaxFileSize(1024);
+        try (RevisionDiff diff = adapter.openRevisionDiff(1L, remoteUrl(), null, null, "main", "feature", options)) {
+            Map<String, FileDiff> byPath = new HashMap<>();
+            for (DiffEntry entry : diff.getEntries()) {
+                byPath.put(entry.getNewPath(), diff.formatFile(entry));
+            }
+
+            FileDiff big = byPath.get("src/Big.java");
+            assertTrue(big.isSkipped());
+            assertEquals(0, big.getAddedLines());
+            assertTrue(big.getContent().contains("文件过大"));
+            assertFalse(big.getContent().contains("int x;"));
+            assertFalse(byPath.get("src/A.java").isSkipped());
+        }
+    }
+
+    @Test
+    void should_list_remote_branches_with_commit_ids_and_cache_them() throws Exception {
+        RemoteRefs refs = adapter.getRemoteRefs(1L, remoteUrl(), null, null);
+
+        assertEquals(RemoteRefs.Source.REMOTE, refs.getSource());
+        assertEquals(List.of("feature", "main"), refs.getBranchNames());
+        assertEquals(remote.getRepository().resolve("feature").getName(), refs.getBranches().get("feature"));
+
+        commit("src/C.java", "class C {\n}\n");
+        assertSame(refs, adapter.getRemoteRefs(1L, remoteUrl(), null, null));
+
+        adapter.invalidateRemoteRefs(1L);
+        assertEquals(remote.getRepository().resolve("feature").getName(),
+                adapter.getRemoteRefs(1L, remoteUrl(), null, null).getBranches().get("feature"));
+    }
+
+    @Test
+    void should_serve_branches_from_mirror_when_not_cached() throws Exception {
+        adapter.openRevisionDiff(1L, remoteUrl(), null, null, "main", "feature").close();
+        // 镜像fetch时已写入远程公布的分支
+        assertEquals(RemoteRefs.Source.REMOTE, remoteRefCache.peek(1L).getSource());
+
+        adapter.invalidateRemoteRefs(1L);
+        remoteRefCache.setRefreshExecutor(task -> { });
+        RemoteRefs refs = adapter.getRemoteRefs(1L, remoteUrl(), null, null);
+
+        assertEquals(RemoteRefs.Source.MIRROR, refs.getSource());
+        assertEquals(List.of("feature", "main"), refs.getBranchNames());
+        assertEquals(remote.getRepository().resolve("main").getName(), refs.getBranches().get("main"));
+    }
+
+    @Test
+    void should_return_no_entries_for_identical_branches() throws GitAPIException, IOException {
+        try (RevisionDiff diff = adapter.openRevisionDiff(1L, remoteUrl(), null, null, "feature", "feature")) {
+            assertTrue(diff.getEntries().isEmpty());
+        }
+    }
+
+    @Test
+    void should_read_files_at_commit_fetched_after_mirror() throws GitAPIException, IOException {
+        adapter.openRevisionDiff(1L, remoteUrl(), null, null, "main", "feature").close();
+        String commitId = commit("src/C.java", "class C {\n}\n");
+
+        Map<String, String> contents = adapter.readFilesAtCommit(1L, remoteUrl(), null, null, commitId,
+                List.of("src/A.java", "src/C.java", "src/Missing.java"));
+
+        assertEquals(List.of("src/A.java", "src/C.java"), List.copyOf(contents.keySet()));
+        assertEquals("class C {\n}\n", contents.get("src/C.java"));
+    }
+
+    @Test
+    void should_clone_only_tip_of_branch_when_shallow() throws GitAPIException, IOException {
+        File localDir = adapter.cloneRepository(1L, remoteUrl(), null, null, "feature", CloneOptions.shallow(1));
+
+        try (Git git = Git.open(localDir)) {
+            assertEquals(1, countCommits(git, "HEAD"));
+            assertNull(git.getRepository().resolve("refs/remotes/origin/main"));
+            assertTrue(Files.exists(localDir.toPath().resolve("src/B.java")));
+            assertEquals(remoteUrl(), git.getRepository().getConfig().getString("remote", "origin", "url"));
+        }
+    }
+
+    @Test
+    void should_deepen_shallow_clone_until_merge_base_found() throws GitAPIException, IOException {
+        for (int i = 0; i < 20; i++) {
+            commit("src/A.java", "class A {\n    int x" + i + ";\n}\n");
+        }
+        remote.branchCreate().setName("topic").call();
+        commit("src/A.java", "class A {\n}\n");
+        remote.checkout().setName("topic").call();
+        for (int i = 0; i < 3; i++) {
+            commit("src/T.java", "class T" + i + " {\n}\n");
+        }
+
+        File localDir = adapter.cloneRepository(1L, remoteUrl(), null, null, "topic",
+                CloneOptions.shallow(1).withMergeBase("feature"));
+
+        try (Git git = Git.open(localDir);
+             RevWalk walk = new RevWalk(git.getRepository())) {
+            walk.setRevFilter(RevFilter.MERGE_BASE);
+            walk.markStart(walk.parseCommit(git.getRepository().resolve("HEAD")));
+            walk.markStart(walk.parseCommit(git.getRepository().resolve("refs/remotes/origin/feature")));
+            assertEquals(remote.getRepository().resolve("feature~1"), walk.next());
+            assertTrue(countCommits(git, "HEAD") < 26);
+        }
+    }
+
+    @Test
+    void should_create_workspace_sharing_mirror_objects() throws Exception {
+        File workspace = adapter.createWorkspace(1L, remoteUrl(), null, null, "main", "workflow-1");
+
+        try (Git git = Git.open(workspace)) {
+            assertEquals("main", git.getRepository().getBranch());
+            assertEquals(remote.getRepository().resolve("main"), git.getRepository().resolve("HEAD"));
+            assertEquals(remote.getRepository().resolve("feature"),
+                    git.getRepository().resolve("refs/remotes/origin/feature"));
+            assertEquals("class A {\n}\n", Files.readString(workspace.toPath().resolve("src/A.java")));
+            assertTrue(git.status().call().isClean());
+            assertEquals(remoteUrl(), git.getRepository().getConfig().getString("remote", "origin", "url"));
+            try (Stream<Path> objects = Files.walk(workspace.toPath().resolve(".git/objects"))) {
+                assertEquals(List.of("alternates"), objects.filter(Files::isRegularFile)
+                        .map(path -> path.getFileName().toString()).toList());
+            }
+
+            Files.writeString(workspace.toPath().resolve("src/C.java"), "class C {\n}\n");
+            git.add().addFilepattern("src/C.java").call();
+            git.commit().setMessage("add C").setAuthor("test", "test@example.com")
+                    .setCommitter("test", "test@example.com").call();
+            assertEquals(2, countCommits(git, "HEAD"));
+        }
+    }
+
+    @Test
+    void should_keep_mirror_until_workspace_cleaned_up() throws Exception {
+        File workspace = adapter.createWorkspace(1L, remoteUrl(), null, null, null, "testgen-batch-1");
+        mirrorCache.setMaxSizeMb(0);
+
+        assertTrue(Files.exists(workspace.toPath().resolve("src/B.java")));
+        try (Git git = Git.open(workspace)) {
+            assertEquals("feature", git.getRepository().getBranch());
+        }
+        assertEquals(0, mirrorCache.evictOverBudget());
+
+        workspaceManager.cleanupWorkspace(workspace);
+
+        assertFalse(workspace.exists());
+        assertEquals(1, mirrorCache.evictOverBudget());
+    }
+
+    @Test
+    void should_keep_workspace_objects_when_branch_deleted_upstream() throws Exception {
+        File workspace = adapter.createWorkspace(1L, remoteUrl(), null, null, "feature", "review-1");
+        String head;
+        try (Git git = Git.open(workspace)) {
+            head = git.getRepository().resolve(Constants.HEAD).getName();
+        }
+        File mirror = mirrorCache.getMirrorDir(1L);
+        try (Git git = Git.open(mirror)) {
+            assertEquals(head, git.getRepository().exactRef("refs/workspaces/review-1").getObjectId().getName());
+        }
+
+        remote.checkout().setName("main").call();
+        remote.branchDelete().setBranchNames("feature").setForce(true).call();
+        mirrorCache.refresh(1L, remoteUrl(), null, null);
+        try (Git git = Git.open(mirror)) {
+            StoredConfig config = git.getRepository().getConfig();
+            config.setString("gc", null, "pruneExpire", "now");
+            config.setString("gc", null, "prunePackExpire", "now");
+            config.save();
+            Thread.sleep(10);
+            git.gc().call();
+            assertNull(git.getRepository().exactRef("refs/heads/feature"));
+            assertNotNull(git.getRepository().exactRef("refs/workspaces/review-1"));
+        }
+
+        // alternates通过RepositoryCache打开镜像，清空缓存以免读到缓存中已删除的旧包
+        RepositoryCache.clear();
+        try (Repository repository = new FileRepositoryBuilder().setWorkTree(workspace).setMustExist(true).build();
+             RevWalk walk = new RevWalk(repository)) {
+            RevCommit commit = walk.parseCommit(repository.resolve(Constants.HEAD));
+            assertEquals(head, commit.getName());
+            try (TreeWalk treeWalk = TreeWalk.forPath(repository, "src/B.java", commit.getTree())) {
+                assertNotNull(treeWalk);
+                assertEquals("class B {\n}\n",
+                        new String(repository.open(treeWalk.getObjectId(0)).getBytes(), StandardCharsets.UTF_8));
+            }
+        }
+
+        workspaceManager.cleanupWorkspace(workspace);
+        try (Git git = Git.open(mirror)) {
+            assertNull(git.getRepository().exactRef("refs/workspaces/review-1"));
+        }
+    }
+
+    private static int countCommits(Git git, String revision) throws GitAPIException, IOException {
+        int count = 0;
+        for (RevCommit ignored : git.log().add(git.getRepository().resolve(revision)).call()) {
+            count++;
+        }
+        return count;
+    }
+
+    private String remoteUrl() {
+        return remote.getRepository().getDirectory().toURI().toString();
+    }
+
+    private String commit(String file, String content) throws GitAPIException, IOException {
+        Path path = remote.getRepository().getWorkTree().toPath().resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+        remote.add().addFilepattern(file).call();
+        return remote.commit().setMessage("update " + file).setAuthor("test", "test@example.com")
+                .setCommitter("test", "test@example.com").call().getId().getName();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.gitreview.infrastructure.git.diff;
+
+import com.example.gitreview.domain.codereview.model.valueobject.CodeDiff;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CodeDiffCache 测试
+ * 验证按提交对和差异选项命中、按估算大小淘汰最久未使用的条目
+ */
+class CodeDiffCacheTest {
+
+    private CodeDiffCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CodeDiffCache();
+        cache.setMaxSizeMb(1);
+    }
+
+    @Test
+    void should_hit_only_for_same_commits_and_options() {
+        CodeDiff diff = diff(100);
+        cache.put(1L, "base", "target", "unified=3", diff);
+
+        assertSame(diff, cache.get(1L, "base", "target", "unified=3"));
+        assertNull(cache.get(1L, "base", "target", "unified=0"));
+        assertNull(cache.get(2L, "base", "target", "unified=3"));
+        assertNull(cache.get(1L, "base", "other", "unified=3"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    void should_evict_least_recently_used_over_budget() {
+        // 每个约400KB，1MB容量最多容纳两个
+        cache.put(1L, "a", "b", "", diff(200_000));
+        cache.put(1L, "c", "d", "", diff(200_000));
+        cache.get(1L, "a", "b", "");
+
+        cache.put(1L, "e", "f", "", diff(200_000));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(1L, "a", "b", ""));
+        assertNull(cache.get(1L, "c", "d", ""));
+        assertNotNull(cache.get(1L, "e", "f", ""));
+        assertTrue(cache.getTotalWeight() <= 1024 * 1024);
+    }
+
+    @Test
+    void should_not_cache_diff_larger_than_budget() {
+        cache.put(1L, "a", "b", "", diff(600_000));
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getTotalWeight());
+    }
+
+    private CodeDiff diff(int contentLength) {
+        List<CodeDiff.FileChange> changes = List.of(
+                new CodeDiff.FileChange("src/Main.java", CodeDiff.ChangeType.MODIFIED, 1, 1));
+        return new CodeDiff(1L, "main", "feature", "x".repeat(contentLength), changes);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.gitreview.infrastructure.git.diff;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DiffSpool 测试
+ * 验证小差异只保存在内存中，大差异溢出到磁盘后可按文件和流式读取、按引用重新打开、同一引用可并发写入，以及超出预算时淘汰
+ */
+class DiffSpoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DiffSpool spool;
+
+    @BeforeEach
+    void setUp() {
+        spool = new DiffSpool();
+        spool.setSpoolDir(tempDir.toString());
+        spool.setInlineLimitKb(1);
+        spool.setMaxSizeMb(1024);
+    }
+
+    @Test
+    void should_keep_small_diff_in_memory() throws IOException {
+        try (SpooledDiff diff = spool.create("small")) {
+            diff.append("A.java", "+a");
+            diff.append("B.java", "+b");
+            diff.finish();
+
+            assertFalse(diff.isSpilled());
+            assertEquals("+a\n+b\n", diff.readAll());
+            assertEquals("+b\n", diff.readFile("B.java"));
+        }
+        assertNull(spool.open("small"));
+    }
+
+    @Test
+    void should_spill_large_diff_and_reopen_by_ref() throws IOException {
+        String large = "+" + "中".repeat(600);
+        try (SpooledDiff diff = spool.create("large")) {
+            diff.append("A.java", "+a");
+            diff.append("B.java", large);
+            diff.finish();
+
+            assertTrue(diff.isSpilled());
+            assertThrows(IllegalStateException.class, diff::readAll);
+            assertEquals("+a\n+", diff.readPrefix(5));
+            // 截断在多字节字符中间时丢弃不完整的字符
+            assertEquals("+a\n+", diff.readPrefix(6));
+        }
+
+        try (SpooledDiff reopened = spool.open("large")) {
+            assertNotNull(reopened);
+            assertEquals(List.of("A.java", "B.java"), reopened.getPaths());
+            assertEquals(large + "\n", reopened.readFile("B.java"));
+            assertEquals("+a\n" + large + "\n", readAll(reopened));
+        }
+    }
+
+    @Test
+    void should_delete_temporary_spill_file_on_close() throws IOException {
+        try (SpooledDiff diff = spool.create(null)) {
+            diff.append("A.java", "x".repeat(2048));
+            diff.finish();
+            assertEquals("x".repeat(2048) + "\n", readAll(diff));
+        }
+
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void should_evict_least_recently_used_spool_over_budget() throws IOException {
+        for (String ref : List.of("old", "new")) {
+            try (SpooledDiff diff = spool.create(ref)) {
+                diff.append("A.java", "x".repeat(2048));
+                diff.finish();
+            }
+        }
+        Files.setLastModifiedTime(tempDir.resolve("old.diff"), FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        spool.setMaxSizeMb(0);
+
+        assertEquals(1, spool.evictOverBudget("new"));
+        assertFalse(spool.exists("old"));
+        assertTrue(spool.exists("new"));
+        assertNull(spool.open("old"));
+        assertFalse(Files.exists(tempDir.resolve("old.idx")));
+        try (SpooledDiff kept = spool.open("new")) {
+            assertNotNull(kept);
+        }
+    }
+
+    @Test
+    void should_finish_same_ref_concurrently() throws Exception {
+        int writers = 8;
+        String content = "x".repeat(2048);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            for (int round = 0; round < 20; round++) {
+                List<SpooledDiff> diffs = new ArrayList<>();
+                for (int i = 0; i < writers; i++) {
+                    SpooledDiff diff = spool.create("shared");
+                    diff.append("A.java", content);
+                    diffs.add(diff);
+                }
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> finishes = new ArrayList<>();
+                for (SpooledDiff diff : diffs) {
+                    finishes.add(executor.submit(() -> {
+                        start.await();
+                        diff.finish();
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> finish : finishes) {
+                    finish.get();
+                }
+                for (SpooledDiff diff : diffs) {
+                    assertEquals(content + "\n", diff.readFile("A.java"));
+                    diff.close();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (SpooledDiff reopened = spool.open("shared")) {
+            assertEquals(content + "\n", reopened.readFile("A.java"));
+        }
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of("shared.diff", "shared.idx"),
+                    files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void should_name_ref_by_options_digest() {
+        // "Aa"和"BB"的hashCode相同
+        assertNotEquals(DiffSpool.ref(1L, "base", "target", "Aa"), DiffSpool.ref(1L, "base", "target", "BB"));
+        assertEquals(DiffSpool.ref(1L, "base", "target", "Aa"), DiffSpool.ref(1L, "base", "target", "Aa"));
+        assertTrue(DiffSpool.ref(1L, "base", "target", null).matches("repo-1-base-target-[0-9a-f]{64}"));
+    }
+
+    private static String readAll(SpooledDiff diff) throws IOException {
+        StringWriter out = new StringWriter();
+        try (Reader reader = diff.openReader()) {
+            reader.transferTo(out);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.gitreview.infrastructure.git.mirror;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GitMirrorCache 测试
+ * 以本地仓库作为远程，验证首次克隆镜像、增量fetch、并发刷新合并以及按最久未使用淘汰
+ */
+class GitMirrorCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private GitMirrorCache cache;
+    private Git remote;
+
+    @BeforeEach
+    void setUp() throws GitAPIException, IOException {
+        cache = new GitMirrorCache();
+        cache.setMirrorDir(tempDir.resolve("mirrors").toString());
+        cache.setMaxSizeMb(1024);
+        cache.setFetchTimeoutSeconds(30);
+        remote = Git.init().setDirectory(tempDir.resolve("remote").toFile()).setInitialBranch("main").call();
+        commit("README.md", "first");
+    }
+
+    @Test
+    void should_clone_mirror_once_and_fetch_new_commits() throws GitAPIException, IOException {
+        File mirror = cache.refresh(1L, remoteUrl(), null, null);
+        ObjectId second = commit("README.md", "second");
+
+        cache.refresh(1L, remoteUrl(), null, null);
+
+        try (Git git = Git.open(mirror)) {
+            assertTrue(git.getRepository().isBare());
+            assertEquals(second, git.getRepository().resolve("refs/heads/main"));
+            assertEquals(second, git.getRepository().resolve("HEAD"));
+        }
+    }
+
+    @Test
+    void should_share_one_fetch_between_concurrent_refreshes() throws Exception {
+        cache.refresh(1L, remoteUrl(), null, null);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger fetches = new AtomicInteger();
+        GitMirrorCache blocking = new GitMirrorCache() {
+            @Override
+            protected File doRefresh(Long repositoryId, String repositoryUrl, String username, String password)
+                    throws GitAPIException, IOException {
+                fetches.incrementAndGet();
+                entered.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.doRefresh(repositoryId, repositoryUrl, username, password);
+            }
+        };
+        blocking.setMirrorDir(tempDir.resolve("mirrors").toString());
+        blocking.setMaxSizeMb(1024);
+        blocking.setFetchTimeoutSeconds(30);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<File>> results = new ArrayList<>();
+            results.add(executor.submit(() -> blocking.refresh(1L, remoteUrl(), null, null)));
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> blocking.refresh(1L, remoteUrl(), null, null)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<File> result : results) {
+                assertEquals(blocking.getMirrorDir(1L), result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, fetches.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void should_evict_least_recently_used_mirror_over_budget() throws GitAPIException, IOException {
+        File first = cache.refresh(1L, remoteUrl(), null, null);
+        File second = cache.refresh(2L, remoteUrl(), null, null);
+        Files.setLastModifiedTime(first.toPath(), FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        cache.setMaxSizeMb(0);
+
+        String head = cache.withMirror(3L, remoteUrl(), null, null,
+                mirror -> Git.open(mirror).getRepository().resolve("refs/heads/main").getName());
+
+        assertNotNull(head);
+        assertFalse(first.exists());
+        assertFalse(second.exists());
+        assertTrue(cache.getMirrorDir(3L).exists());
+    }
+
+    @Test
+    void should_check_budget_only_after_refresh() throws GitAPIException, IOException {
+        File first = cache.refresh(1L, remoteUrl(), null, null);
+        File second = cache.refresh(2L, remoteUrl(), null, null);
+        cache.setMaxSizeMb(0);
+
+        // 使用已有镜像不会增大磁盘占用，关闭租约时不扫描镜像目录
+        cache.acquire(1L, remoteUrl(), null, null, false).close();
+        assertTrue(first.exists());
+        assertTrue(second.exists());
+
+        assertEquals(2, cache.evictOverBudget());
+        assertFalse(first.exists());
+        assertFalse(second.exists());
+    }
+
+    private String remoteUrl() {
+        return remote.getRepository().getDirectory().toURI().toString();
+    }
+
+    private ObjectId commit(String file, String content) throws GitAPIException, IOException {
+        Files.writeString(remote.getRepository().getWorkTree().toPath().resolve(file), content);
+        remote.add().addFilepattern(file).call();
+        return remote.commit().setMessage(content).setAuthor("test", "test@example.com")
+                .setCommitter("test", "test@example.com").call().getId();
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.gitreview.infrastructure.git.mirror;
+
+import com.example.gitreview.domain.codereview.model.valueobject.CodeReviewSummary;
+import com.example.gitreview.domain.codereview.repository.CodeReviewRepository;
+import com.example.gitreview.domain.shared.model.aggregate.Repository;
+import com.example.gitreview.domain.shared.model.valueobject.Credential;
+import com.example.gitreview.domain.shared.model.valueobject.GitUrl;
+import com.example.gitreview.domain.shared.repository.GitRepositoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * MirrorPrefetchScheduler 测试
+ * 验证按审查次数计算间隔、只提交到期仓库、并发上限、不克隆不活跃的仓库、失败退避以及按需预热
+ */
+class MirrorPrefetchSchedulerTest {
+
+    private MirrorPrefetchScheduler scheduler;
+    private GitMirrorCache mirrorCache;
+    private GitRepositoryRepository repositoryRepository;
+    private CodeReviewRepository codeReviewRepository;
+    private List<Runnable> queued;
+
+    @BeforeEach
+    void setUp() {
+        mirrorCache = mock(GitMirrorCache.class);
+        repositoryRepository = mock(GitRepositoryRepository.class);
+        codeReviewRepository = mock(CodeReviewRepository.class);
+        queued = new ArrayList<>();
+
+        scheduler = new MirrorPrefetchScheduler();
+        scheduler.setEnabled(true);
+        scheduler.setMinIntervalSeconds(120);
+        scheduler.setMaxIntervalSeconds(3600);
+        scheduler.setActivityWindowHours(168);
+        scheduler.setMaxConcurrent(2);
+        scheduler.setMirrorCache(mirrorCache);
+        scheduler.setRepositoryRepository(repositoryRepository);
+        scheduler.setCodeReviewRepository(codeReviewRepository);
+        scheduler.setPrefetchExecutor(queued::add);
+
+        when(codeReviewRepository.findSummariesByRepositoryId(any())).thenReturn(Collections.emptyList());
+    }
+
+    @Test
+    void should_shorten_interval_for_frequently_reviewed_repositories() {
+        assertEquals(3_600_000, scheduler.intervalFor(0));
+        assertEquals(1_200_000, scheduler.intervalFor(2));
+        assertEquals(120_000, scheduler.intervalFor(1000));
+    }
+
+    @Test
+    void should_prefetch_due_repository_once_until_next_interval() throws Exception {
+        Repository repository = repository(1L);
+        when(repositoryRepository.findByActive(true)).thenReturn(List.of(repository));
+        when(mirrorCache.hasMirror(1L)).thenReturn(true);
+
+        scheduler.run();
+        runQueued();
+        scheduler.run();
+        runQueued();
+
+        verify(mirrorCache, times(1)).prefetch(eq(1L), eq("https://github.com/test/repo-1.git"), anyString(), anyString());
+        long expected = System.currentTimeMillis() + 3_600_000;
+        assertTrue(Math.abs(scheduler.getNextDueAt(1L) - expected) < 5_000);
+    }
+
+    @Test
+    void should_limit_concurrent_prefetches() {
+        when(repositoryRepository.findByActive(true)).thenReturn(List.of(repository(1L), repository(2L), repository(3L)));
+
+        scheduler.run();
+        assertEquals(2, queued.size());
+
+        scheduler.run();
+        assertEquals(2, queued.size());
+    }
+
+    @Test
+    void should_not_clone_repository_without_mirror_or_recent_reviews() throws Exception {
+        Repository idle = repository(1L);
+        Repository reviewed = repository(2L);
+        when(repositoryRepository.findByActive(true)).thenReturn(List.of(idle, reviewed));
+        when(mirrorCache.hasMirror(any())).thenReturn(false);
+        CodeReviewSummary summary = mock(CodeReviewSummary.class);
+        when(summary.getCreateTime()).thenReturn(LocalDateTime.now().minusHours(1));
+        when(codeReviewRepository.findSummariesByRepositoryId(2L)).thenReturn(List.of(summary));
+
+        scheduler.run();
+        runQueued();
+
+        verify(mirrorCache, never()).prefetch(eq(1L), any(), any(), any());
+        verify(mirrorCache).prefetch(eq(2L), any(), any(), any());
+        assertTrue(scheduler.getNextDueAt(2L) - System.currentTimeMillis() <= 1_800_000);
+    }
+
+    @Test
+    void should_back_off_after_failure() throws Exception {
+        when(repositoryRepository.findByActive(true)).thenReturn(List.of(repository(1L)));
+        when(mirrorCache.hasMirror(1L)).thenReturn(true);
+        when(mirrorCache.prefetch(eq(1L), any(), any(), any())).thenThrow(new IOException("unreachable"));
+
+        scheduler.run();
+        runQueued();
+
+        long delay = scheduler.getNextDueAt(1L) - System.currentTimeMillis();
+        assertTrue(delay > 200_000 && delay <= 240_000, "delay was " + delay);
+    }
+
+    @Test
+    void should_warm_up_on_demand_and_share_queued_prefetch() throws Exception {
+        Repository repository = repository(1L);
+
+        CompletableFuture<Void> first = scheduler.warmUp(repository);
+        CompletableFuture<Void> second = scheduler.warmUp(repository);
+        assertSame(first, second);
+        assertEquals(1, queued.size());
+
+        runQueued();
+        assertTrue(first.isDone());
+        assertFalse(first.isCompletedExceptionally());
+        verify(mirrorCache, times(1)).prefetch(eq(1L), any(), any(), any());
+    }
+
+    @Test
+    void should_do_nothing_when_disabled() {
+        scheduler.setEnabled(false);
+
+        scheduler.run();
+
+        verifyNoInteractions(repositoryRepository);
+        assertTrue(queued.isEmpty());
+    }
+
+    private void runQueued() {
+        List<Runnable> tasks = new ArrayList<>(queued);
+        queued.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private static Repository repository(Long id) {
+        Repository repository = new Repository("Repo " + id, "Test Description",
+                new GitUrl("https://github.com/test/repo-" + id + ".git"), new Credential("testuser", "testpass"));
+        repository.setId(id);
+        return repository;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.gitreview.infrastructure.git.mirror;
+
+import com.example.gitreview.infrastructure.git.RemoteRefs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RemoteRefCache 测试
+ * 验证ttl内命中、过期后返回旧结果并在后台刷新、冷启动时先返回镜像分支、强制查询远程以及失效
+ */
+class RemoteRefCacheTest {
+
+    private RemoteRefCache cache;
+    private List<Runnable> backgroundTasks;
+    private AtomicInteger remoteCalls;
+
+    @BeforeEach
+    void setUp() {
+        backgroundTasks = new ArrayList<>();
+        remoteCalls = new AtomicInteger();
+        cache = new RemoteRefCache();
+        cache.setTtlSeconds(60);
+        cache.setMaxStaleSeconds(900);
+        cache.setRefreshExecutor(backgroundTasks::add);
+    }
+
+    @Test
+    void should_serve_cached_refs_within_ttl() throws Exception {
+        RemoteRefs first = cache.get(1L, () -> remote("a1"), null);
+        RemoteRefs second = cache.get(1L, () -> remote("a2"), null);
+
+        assertSame(first, second);
+        assertEquals(1, remoteCalls.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void should_serve_stale_refs_and_refresh_in_background() throws Exception {
+        cache.put(1L, new RemoteRefs(Map.of("main", "a1"), RemoteRefs.Source.REMOTE,
+                System.currentTimeMillis() - 120_000));
+
+        RemoteRefs stale = cache.get(1L, () -> remote("a2"), null);
+
+        assertEquals("a1", stale.getBranches().get("main"));
+        assertEquals(0, remoteCalls.get());
+        assertEquals(1, backgroundTasks.size());
+
+        backgroundTasks.get(0).run();
+        assertEquals("a2", cache.get(1L, () -> remote("a3"), null).getBranches().get("main"));
+        assertEquals(1, remoteCalls.get());
+    }
+
+    @Test
+    void should_serve_mirror_refs_on_cold_start_then_remote_refs() throws Exception {
+        RemoteRefs local = cache.get(1L, () -> remote("a2"),
+                () -> new RemoteRefs(Map.of("main", "a1"), RemoteRefs.Source.MIRROR, System.currentTimeMillis()));
+
+        assertEquals(RemoteRefs.Source.MIRROR, local.getSource());
+        assertEquals(0, remoteCalls.get());
+
+        backgroundTasks.get(0).run();
+        RemoteRefs refreshed = cache.get(1L, () -> remote("a3"), () -> fail("mirror should not be read"));
+        assertEquals(RemoteRefs.Source.REMOTE, refreshed.getSource());
+        assertEquals("a2", refreshed.getBranches().get("main"));
+    }
+
+    @Test
+    void should_query_remote_when_fresh_refs_required() throws Exception {
+        cache.put(1L, new RemoteRefs(Map.of("main", "a1"), RemoteRefs.Source.MIRROR, System.currentTimeMillis()));
+
+        RemoteRefs fresh = cache.getFresh(1L, () -> remote("a2"));
+
+        assertEquals(RemoteRefs.Source.REMOTE, fresh.getSource());
+        assertSame(fresh, cache.getFresh(1L, () -> remote("a3")));
+        assertEquals(1, remoteCalls.get());
+    }
+
+    @Test
+    void should_query_remote_again_after_invalidation() throws Exception {
+        cache.get(1L, () -> remote("a1"), null);
+        cache.invalidate(1L);
+
+        assertNull(cache.peek(1L));
+        assertEquals("a2", cache.get(1L, () -> remote("a2"), null).getBranches().get("main"));
+        assertEquals(2, remoteCalls.get());
+    }
+
+    @Test
+    void should_keep_stale_refs_when_background_refresh_fails() throws Exception {
+        RemoteRefs stale = new RemoteRefs(Map.of("main", "a1"), RemoteRefs.Source.REMOTE,
+                System.currentTimeMillis() - 120_000);
+        cache.put(1L, stale);
+
+        cache.get(1L, () -> {
+            throw new IOException("unreachable");
+        }, null);
+        backgroundTasks.get(0).run();
+
+        assertSame(stale, cache.peek(1L));
+    }
+
+    private RemoteRefs remote(String mainCommit) {
+        remoteCalls.incrementAndGet();
+        return new RemoteRefs(Map.of("main", mainCommit, "feature", "b1"), RemoteRefs.Source.REMOTE,
+                System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.gitreview.infrastructure.storage;
+
+import java.time.LocalDateTime;
+
+/**
+ * 存储层测试使用的简单实体
+ */
+public class SampleEntity {
+
+    private Long id;
+    private String name;
+    private int counter;
+    private Long version;
+    private LocalDateTime createTime;
+
+    public SampleEntity() {
+    }
+
+    public SampleEntity(String name) {
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getCounter() {
+        return counter;
+    }
+
+    public void setCounter(int counter) {
+        this.counter = counter;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(LocalDateTime createTime) {
+        this.createTime = createTime;
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.gitreview.infrastructure.storage;
+
+import com.example.gitreview.infrastructure.storage.backup.StoreBackup;
+import com.example.gitreview.infrastructure.storage.codec.StorageCodec;
+import com.example.gitreview.infrastructure.storage.index.EntityIndex;
+import com.example.gitreview.infrastructure.storage.index.HashIndex;
+import com.example.gitreview.infrastructure.storage.index.Projection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 存储引擎契约测试
+ * 每个引擎继承本类并提供创建方式，同一组用例保证切换引擎时仓储行为不变：
+ * ID分配、重启后的数据和ID序列、乐观锁、批量操作的原子性、索引查询和摘要投影、备份与恢复
+ */
+public abstract class StorageAdapterContractTest {
+
+    @TempDir
+    protected Path tempDir;
+
+    private final List<AbstractFileStorageAdapter<SampleEntity>> opened = new ArrayList<>();
+
+    /**
+     * 创建并初始化适配器，同一storageFile再次创建视为重启
+     */
+    protected abstract AbstractFileStorageAdapter<SampleEntity> createAdapter(Path storageFile, boolean cacheEnabled,
+                                                                             List<EntityIndex<SampleEntity, ?>> indexes);
+
+    @AfterEach
+    void closeAdapters() {
+        opened.forEach(AbstractFileStorageAdapter::close);
+    }
+
+    @Test
+    void should_assign_sequential_ids_and_return_detached_copies() {
+        AbstractFileStorageAdapter<SampleEntity> adapter = open(true);
+
+        SampleEntity first = adapter.save(new SampleEntity("a"));
+        SampleEntity second = adapter.save(new SampleEntity("b"));
+        adapter.findById(first.getId()).orElseThrow().setName("changed");
+
+        assertEquals(1L, first.getId());
+        assertEquals(2L, second.getId());
+        assertEquals("a", adapter.findById(1L).orElseThrow().getName());
+        assertTrue(adapter.existsById(2L));
+        assertFalse(adapter.existsById(3L));
+        assertEquals(2, adapter.count());
+    }
+
+    @Test
+    void should_keep_data_and_id_sequence_after_restart() {
+        AbstractFileStorageAdapter<SampleEntity> adapter = open(true);
+        adapter.save(new SampleEntity("a"));
+        SampleEntity second = adapter.save(new SampleEntity("b"));
+        second.setCounter(5);
+        adapter.save(second);
+        adapter.deleteById(1L);
+        adapter.close();
+
+        AbstractFileStorageAdapter<SampleEntity> restarted = open(true);
+
+        assertEquals(1, restarted.count());
+        assertFalse(restarted.findById(1L).isPresent());
+        assertEquals(5, restarted.findById(2L).orElseThrow().getCounter());
+        assertEquals(3L, restarted.save(new SampleEntity("c")).getId());
+    }
+
+    @Test
+    void should_reject_stale_version() {
+        AbstractFileStorageAdapter<SampleEntity> adapter = open(true);
+        SampleEntity saved = adapter.save(new SampleEntity("a"));
+        SampleEntity stale = adapter.findById(saved.getId()).orElseThrow();
+
+        saved.setName("b");
+        adapter.save(saved);
+        stale.setName("c");
+
+        assertThrows(OptimisticLockingFailureException.class, () -> adapter.save(stale));
+        assertEquals("b", adapter.findById(saved.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void should_apply_nothing_when_any_entity_in_batch_conflicts() {
+        AbstractFileStorageAdapter<SampleEntity> adapter = open(true);
+        List<SampleEntity> saved = adapter.saveAll(List.of(new SampleEntity("a"), new SampleEntity("b")));
+        SampleEntity stale = adapter.findById(saved.get(1).getId()).orElseThrow();
+        adapter.update(stale.getId(), entity -> entity.setCounter(1));
+
+        SampleEntity first = saved.get(0);
+        first.setName("a2");
+        stale.setName("b2");
+
+        assertThrows(OptimisticLockingFailureException.class, () -> adapter.saveAll(List.of(first, stale)));
+        assertEquals("a", adapter.findById(first.getId()).orElseThrow().getName());
+        assertEquals("b", adapter.findById(stale.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void should_update_and_delete_in_bulk() {
+        AbstractFileStorageAdapter<SampleEntity> adapter = open(true);
+        adapter.saveAll(List.of(new SampleEntity("a"), new SampleEntity("b"), new SampleEntity("c")));
+
+        assertEquals(2, adapter.updateWhere(entity -> !"b".equals(entity.getName()), entity -> entity.setCounter(1)));
+        assertEquals(1, adapter.deleteWhere(entity -> entity.getCounter() == 0));
+        adapter.close();
+
+        AbstractFileStorageAdapter<SampleEntity> restarted = open(true);
+        assertEquals(List.of(1L, 3L), restarted.findAll().stream().map(SampleEntity::getId).toList());
+        assertTrue(restarted.findAll().stream().allMatch(entity -> entity.getCounter() == 1));
+    }
+
+    @Test
+    void should_answer_index_queries_after_writes_and_without_cache() {
+        HashIndex<SampleEntity, String> nameIndex = new HashIndex<>("name", SampleEntity::getName);
+        AbstractFileStorageAdapter<SampleEntity> adapter = open(true, nameIndex);
+        adapter.saveAll(List.of(new SampleEntity("x"), new SampleEntity("y"), new SampleEntity("x")));
+        adapter.update(3L, entity -> entity.setName("y"));
+        adapter.deleteById(2L);
+
+        assertEquals(List.of(1L), ids(adapter.findByIndex(nameIndex, "x")));
+        assertEquals(List.of(3L), ids(adapter.findByIndex(nameIndex, "y")));
+        assertEquals(0, adapter.countByIndex(nameIndex, "z"));
+        adapter.close();
+
+        HashIndex<SampleEntity, String> uncachedIndex = new HashIndex<>("name", SampleEntity::getName);
+        AbstractFileStorageAdapter<SampleEntity> uncached = open(false, uncachedIndex);
+        assertEquals(List.of(3L), ids(uncached.findByIndex(uncachedIndex, "y")));
+        assertEquals(1, uncached.countByIndex(uncachedIndex, "x"));
+    }
+
+    @Test
+    void should_serve_projections_consistent_with_entities() {
+        Projection<SampleEntity, String> labels = new Projection<>("label", e -> e.getName() + "#" + e.getCounter());
+        AbstractFileStorageAdapter<SampleEntity> adapter = open(true, labels);
+        adapter.saveAll(List.of(new SampleEntity("a"), new SampleEntity("b")));
+        adapter.update(1L, entity -> entity.setCounter(7));
+        adapter.close();
+
+        Projection<SampleEntity, String> rebuilt = new Projection<>("label", e -> e.getName() + "#" + e.getCounter());
+        assertEquals(List.of("a#7", "b#0"), open(true, rebuilt).findProjections(rebuilt));
+    }
+
+    @Test
+    void should_delete_all_and_restart_ids() {
+        AbstractFileStorageAdapter<SampleEntity> adapter = open(true);
+        adapter.saveAll(List.of(new SampleEntity("a"), new SampleEntity("b")));
+
+        adapter.deleteAll();
+
+        assertEquals(0, adapter.count());
+        assertTrue(adapter.findAll().isEmpty());
+        assertEquals(1L, adapter.save(new SampleEntity("c")).getId());
+    }
+
+    @Test
+    void should_back_up_state_at_capture_while_writes_continue() throws IOException {
+        for (boolean cacheEnabled : new boolean[] {true, false}) {
+            AbstractFileStorageAdapter<SampleEntity> adapter = open(cacheEnabled);
+            adapter.deleteAll();
+            adapter.saveAll(List.of(new SampleEntity("a"), new SampleEntity("b")));
+
+            StoreBackup backup = adapter.captureBackup();
+            adapter.update(1L, entity -> entity.setName("changed"));
+            adapter.deleteById(2L);
+            adapter.save(new SampleEntity("c"));
+
+            Path file = tempDir.resolve("backup-" + cacheEnabled + ".bak");
+            assertEquals(2, backup.writeTo(file, StorageCodec.parse("compact-json+lz4")));
+            List<String> names = new ArrayList<>();
+            StorageCodec.read(file).forEach(node -> names.add(node.get("name").asText()));
+            assertEquals(List.of("a", "b"), names);
+            assertEquals(3L, backup.getNextId());
+            adapter.close();
+            opened.remove(adapter);
+        }
+    }
+
+    @Test
+    void should_restore_backup_and_continue_id_sequence() throws IOException {
+        AbstractFileStorageAdapter<SampleEntity> adapter = open(true);
+        adapter.saveAll(List.of(new SampleEntity("a"), new SampleEntity("b"), new SampleEntity("c")));
+        adapter.deleteById(3L);
+        Path file = tempDir.resolve("backup.bak");
+        StoreBackup backup = adapter.captureBackup();
+        backup.writeTo(file, StorageCodec.json());
+        adapter.deleteAll();
+        adapter.save(new SampleEntity("x"));
+
+        List<JsonNode> nodes = new ArrayList<>();
+        StorageCodec.read(file).forEach(nodes::add);
+        assertEquals(2, adapter.restore(nodes, backup.getNextId()));
+        assertEquals(4L, adapter.save(new SampleEntity("d")).getId());
+        adapter.close();
+
+        AbstractFileStorageAdapter<SampleEntity> restarted = open(true);
+        assertEquals(List.of("a", "b", "d"), restarted.findAll().stream().map(SampleEntity::getName).toList());
+    }
+
+    @SafeVarargs
+    private AbstractFileStorageAdapter<SampleEntity> open(boolean cacheEnabled, EntityIndex<SampleEntity, ?>... indexes) {
+        AbstractFileStorageAdapter<SampleEntity> adapter =
+                createAdapter(tempDir.resolve("entities.json"), cacheEnabled, List.of(indexes));
+        opened.add(adapter);
+        return adapter;
+    }
+
+    private static List<Long> ids(List<SampleEntity> entities) {
+        return entities.stream().map(SampleEntity::getId).toList();
+    }
+}
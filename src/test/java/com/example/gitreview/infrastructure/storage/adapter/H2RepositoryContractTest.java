@@ -0,0 +1,16 @@
+package com.example.gitreview.infrastructure.storage.adapter;
+
+import com.example.gitreview.infrastructure.storage.jdbc.H2StorageAdapter;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * h2配置（application-h2.properties）下的仓储契约测试
+ */
+@ActiveProfiles("h2")
+class H2RepositoryContractTest extends RepositoryContractTest {
+
+    @Override
+    protected Class<?> expectedAdapterType() {
+        return H2StorageAdapter.class;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.gitreview.infrastructure.storage.adapter;
+
+import com.example.gitreview.infrastructure.storage.json.JsonStorageAdapter;
+
+/**
+ * 默认配置（json引擎）下的仓储契约测试
+ */
+class JsonRepositoryContractTest extends RepositoryContractTest {
+
+    @Override
+    protected Class<?> expectedAdapterType() {
+        return JsonStorageAdapter.class;
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.gitreview.infrastructure.storage.adapter;
+
+import com.example.gitreview.domain.codereview.model.aggregate.CodeReview;
+import com.example.gitreview.domain.codereview.model.valueobject.CodeDiff;
+import com.example.gitreview.domain.codereview.model.valueobject.CodeReviewSummary;
+import com.example.gitreview.domain.codereview.model.valueobject.ReviewStrategy;
+import com.example.gitreview.domain.codereview.repository.CodeReviewRepository;
+import com.example.gitreview.domain.shared.model.aggregate.Repository;
+import com.example.gitreview.domain.shared.model.valueobject.Credential;
+import com.example.gitreview.domain.shared.model.valueobject.GitUrl;
+import com.example.gitreview.domain.shared.model.valueobject.Page;
+import com.example.gitreview.domain.shared.model.valueobject.PageRequest;
+import com.example.gitreview.domain.shared.repository.GitRepositoryRepository;
+import com.example.gitreview.domain.testgen.model.aggregate.TestSuite;
+import com.example.gitreview.domain.testgen.model.valueobject.JavaClass;
+import com.example.gitreview.domain.testgen.model.valueobject.TestSuiteSummary;
+import com.example.gitreview.domain.testgen.model.valueobject.TestTemplate;
+import com.example.gitreview.domain.testgen.repository.TestSuiteRepository;
+import com.example.gitreview.domain.workflow.model.WorkflowStatus;
+import com.example.gitreview.domain.workflow.model.aggregate.DevelopmentWorkflow;
+import com.example.gitreview.domain.workflow.model.valueobject.WorkflowSummary;
+import com.example.gitreview.infrastructure.storage.AbstractFileStorageAdapter;
+import com.example.gitreview.infrastructure.storage.StorageAdapterFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 仓储契约测试
+ * 每个引擎一个子类，以对应的配置启动应用上下文，对真实的仓储适配器执行同一组用例，
+ * 保证切换引擎时索引查询、摘要投影、归档回退、批量状态更新和旧记录清理的行为不变。
+ * 同一上下文内的用例共用存储，各用例使用独立的仓库ID和名称，旧记录使用互不重叠的创建时间
+ */
+@SpringBootTest
+@DirtiesContext
+public abstract class RepositoryContractTest {
+
+    @TempDir
+    static Path dataDir;
+
+    private static final AtomicLong REPOSITORY_IDS = new AtomicLong(1000);
+
+    @Autowired
+    private StorageAdapterFactory storageAdapterFactory;
+
+    @Autowired
+    private GitRepositoryRepository gitRepositoryRepository;
+
+    @Autowired
+    private CodeReviewRepository codeReviewRepository;
+
+    @Autowired
+    private TestSuiteRepository testSuiteRepository;
+
+    @Autowired
+    private WorkflowStorageAdapter workflowRepository;
+
+    @DynamicPropertySource
+    static void storageProperties(DynamicPropertyRegistry registry) {
+        registry.add("json.storage.repository.file", () -> dataDir.resolve("repositories.json").toString());
+        registry.add("json.storage.codereview.file", () -> dataDir.resolve("code-reviews.json").toString());
+        registry.add("json.storage.testsuite.file", () -> dataDir.resolve("test-suites.json").toString());
+        registry.add("json.storage.testbatch.file", () -> dataDir.resolve("test-batches.json").toString());
+        registry.add("workflow.storage.file", () -> dataDir.resolve("workflows.json").toString());
+        registry.add("json.storage.blob.dir", () -> dataDir.resolve("blobs").toString());
+        registry.add("json.storage.backup.dir", () -> dataDir.resolve("backups").toString());
+        registry.add("json.storage.h2.url", () -> "jdbc:h2:file:" + dataDir.resolve("git-review").toAbsolutePath());
+    }
+
+    /**
+     * 当前配置下每个存储应使用的适配器类型
+     */
+    protected abstract Class<?> expectedAdapterType();
+
+    @Test
+    void should_open_every_store_with_configured_engine() {
+        Map<String, AbstractFileStorageAdapter<?>> adapters = storageAdapterFactory.getAdapters();
+
+        assertTrue(adapters.size() >= 5);
+        adapters.forEach((file, adapter) -> assertInstanceOf(expectedAdapterType(), adapter, file));
+    }
+
+    @Test
+    void should_find_repositories_by_name_and_active_flag() {
+        String prefix = "repo-" + REPOSITORY_IDS.incrementAndGet();
+        Repository first = gitRepositoryRepository.save(newRepository(prefix + "-a"));
+        Repository second = gitRepositoryRepository.save(newRepository(prefix + "-b"));
+
+        int updated = gitRepositoryRepository.updateActiveStatusBatch(List.of(second.getId()), false);
+
+        assertEquals(1, updated);
+        assertEquals(first.getId(), gitRepositoryRepository.findByName(prefix + "-a").orElseThrow().getId());
+        assertTrue(gitRepositoryRepository.existsByName(prefix + "-b"));
+        assertFalse(gitRepositoryRepository.existsByName(prefix + "-c"));
+        assertTrue(ids(gitRepositoryRepository.findByActive(false), Repository::getId).contains(second.getId()));
+        assertFalse(ids(gitRepositoryRepository.findByActive(true), Repository::getId).contains(second.getId()));
+    }
+
+    @Test
+    void should_delete_old_repositories() {
+        String prefix = "repo-" + REPOSITORY_IDS.incrementAndGet();
+        Repository old = newRepository(prefix + "-old");
+        old.setCreateTime(LocalDateTime.of(1999, 6, 1, 0, 0));
+        old = gitRepositoryRepository.save(old);
+        Repository recent = gitRepositoryRepository.save(newRepository(prefix + "-new"));
+
+        int deleted = gitRepositoryRepository.deleteOldRecords(LocalDateTime.of(2000, 1, 1, 0, 0));
+
+        assertEquals(1, deleted);
+        assertFalse(gitRepositoryRepository.existsById(old.getId()));
+        assertTrue(gitRepositoryRepository.existsById(recent.getId()));
+    }
+
+    @Test
+    void should_query_code_reviews_by_index_after_update() {
+        Long repositoryId = REPOSITORY_IDS.incrementAndGet();
+        String author = "author-" + repositoryId;
+        CodeReview first = codeReviewRepository.save(newReview(repositoryId, "first", author));
+        CodeReview second = codeReviewRepository.save(newReview(repositoryId, "second", "other-" + repositoryId));
+        codeReviewRepository.save(newReview(REPOSITORY_IDS.incrementAndGet(), "elsewhere", author));
+
+        CodeReview started = codeReviewRepository.update(first.getId(),
+                review -> review.startReview(newDiff(repositoryId))).orElseThrow();
+        codeReviewRepository.update(second.getId(), review -> review.cancel("test"));
+
+        assertEquals(List.of(first.getId(), second.getId()),
+                sorted(ids(codeReviewRepository.findByRepositoryId(repositoryId), CodeReview::getId)));
+        assertEquals(2, codeReviewRepository.countByRepositoryId(repositoryId));
+        assertEquals(2, codeReviewRepository.findByCreatedBy(author).size());
+        List<Long> cancelled = ids(codeReviewRepository.findByStatus(CodeReview.ReviewStatus.CANCELLED), CodeReview::getId);
+        assertTrue(cancelled.contains(second.getId()));
+        assertFalse(cancelled.contains(first.getId()));
+        assertTrue(ids(codeReviewRepository.findInProgress(), CodeReview::getId).contains(first.getId()));
+        CodeReview found = codeReviewRepository.findById(first.getId()).orElseThrow();
+        assertEquals(1, found.getSessions().size());
+        assertEquals("feature/contract", found.getCodeDiff().getTargetBranch());
+        assertEquals(started.getUpdateTime(), found.getUpdateTime());
+    }
+
+    @Test
+    void should_project_code_review_summaries_and_page_through_them() {
+        Long repositoryId = REPOSITORY_IDS.incrementAndGet();
+        String author = "author-" + repositoryId;
+        for (String title : List.of("one", "two", "three")) {
+            codeReviewRepository.save(newReview(repositoryId, title, author));
+        }
+
+        List<CodeReviewSummary> summaries = codeReviewRepository.findSummariesByRepositoryId(repositoryId);
+        Page<CodeReviewSummary> firstPage = codeReviewRepository.findSummaryPage(repositoryId,
+                CodeReview.ReviewStatus.PENDING, author, PageRequest.first(2));
+        Page<CodeReviewSummary> secondPage = codeReviewRepository.findSummaryPage(repositoryId,
+                CodeReview.ReviewStatus.PENDING, author, PageRequest.of(2, firstPage.getNextCursor(), null, null));
+
+        assertEquals(List.of("one", "three", "two"),
+                summaries.stream().map(CodeReviewSummary::getTitle).sorted().collect(Collectors.toList()));
+        assertEquals(2, firstPage.getItems().size());
+        assertTrue(firstPage.hasMore());
+        assertEquals(1, secondPage.getItems().size());
+        assertFalse(secondPage.hasMore());
+        assertEquals(1, codeReviewRepository.findSummariesByCreatedBy(author).stream()
+                .filter(summary -> summary.getTitle().equals("two")).count());
+    }
+
+    @Test
+    void should_fall_back_to_archive_for_archived_code_reviews() {
+        Long repositoryId = REPOSITORY_IDS.incrementAndGet();
+        CodeReview review = newReview(repositoryId, "archived", "author-" + repositoryId);
+        review.setCreateTime(LocalDateTime.of(2001, 6, 1, 0, 0));
+        Long id = codeReviewRepository.save(review).getId();
+
+        int archived = codeReviewRepository.archiveOldRecords(LocalDateTime.of(2002, 1, 1, 0, 0));
+
+        assertTrue(archived >= 1);
+        assertEquals("archived", codeReviewRepository.findById(id).orElseThrow().getTitle());
+        assertEquals("archived", codeReviewRepository.findWithoutContentById(id).orElseThrow().getTitle());
+        assertTrue(codeReviewRepository.existsById(id));
+        assertTrue(codeReviewRepository.deleteById(id));
+        assertFalse(codeReviewRepository.findById(id).isPresent());
+        assertFalse(codeReviewRepository.existsById(id));
+    }
+
+    @Test
+    void should_update_code_review_status_in_batch() {
+        Long repositoryId = REPOSITORY_IDS.incrementAndGet();
+        String author = "author-" + repositoryId;
+        Long first = codeReviewRepository.save(newReview(repositoryId, "first", author)).getId();
+        Long second = codeReviewRepository.save(newReview(repositoryId, "second", author)).getId();
+
+        int cancelled = codeReviewRepository.updateStatusBatch(List.of(first, second), CodeReview.ReviewStatus.CANCELLED);
+        int unsupported = codeReviewRepository.updateStatusBatch(List.of(first), CodeReview.ReviewStatus.COMPLETED);
+
+        assertEquals(2, cancelled);
+        assertEquals(0, unsupported);
+        assertEquals(CodeReview.ReviewStatus.CANCELLED, codeReviewRepository.findById(first).orElseThrow().getStatus());
+        assertEquals(CodeReview.ReviewStatus.CANCELLED, codeReviewRepository.findById(second).orElseThrow().getStatus());
+        assertEquals(0, codeReviewRepository.findSummaryPage(repositoryId, CodeReview.ReviewStatus.PENDING, author,
+                PageRequest.first(10)).getItems().size());
+    }
+
+    @Test
+    void should_delete_old_code_reviews_from_store_and_archive() {
+        Long repositoryId = REPOSITORY_IDS.incrementAndGet();
+        String author = "author-" + repositoryId;
+        CodeReview archivedReview = newReview(repositoryId, "archived", author);
+        archivedReview.setCreateTime(LocalDateTime.of(1999, 1, 1, 0, 0));
+        Long archivedId = codeReviewRepository.save(archivedReview).getId();
+        codeReviewRepository.archiveOldRecords(LocalDateTime.of(1999, 3, 1, 0, 0));
+        CodeReview liveReview = newReview(repositoryId, "live", author);
+        liveReview.setCreateTime(LocalDateTime.of(1999, 6, 1, 0, 0));
+        Long liveId = codeReviewRepository.save(liveReview).getId();
+        Long recentId = codeReviewRepository.save(newReview(repositoryId, "recent", author)).getId();
+
+        int deleted = codeReviewRepository.deleteOldRecords(LocalDateTime.of(2000, 1, 1, 0, 0));
+
+        assertEquals(2, deleted);
+        assertFalse(codeReviewRepository.existsById(archivedId));
+        assertFalse(codeReviewRepository.existsById(liveId));
+        assertEquals(List.of(recentId), ids(codeReviewRepository.findByRepositoryId(repositoryId), CodeReview::getId));
+    }
+
+    @Test
+    void should_query_and_project_test_suites() {
+        Long repositoryId = REPOSITORY_IDS.incrementAndGet();
+        String author = "author-" + repositoryId;
+        TestSuite first = testSuiteRepository.save(newSuite(repositoryId, "FirstTests", author));
+        TestSuite second = testSuiteRepository.save(newSuite(repositoryId, "SecondTests", author));
+
+        testSuiteRepository.update(second.getId(), suite -> suite.markAsFailed("test"));
+
+        assertEquals(List.of(first.getId(), second.getId()),
+                sorted(ids(testSuiteRepository.findByRepositoryId(repositoryId), TestSuite::getId)));
+        assertEquals(2, testSuiteRepository.countByCreatedBy(author));
+        assertEquals(List.of(second.getId()), ids(testSuiteRepository.findSummaryPage(repositoryId,
+                TestSuite.GenerationStatus.FAILED, author, PageRequest.first(10)).getItems(), TestSuiteSummary::getId));
+        assertEquals(List.of("FirstTests-" + repositoryId, "SecondTests-" + repositoryId),
+                testSuiteRepository.findSummariesByRepositoryIdAndCreatedBy(repositoryId, author).stream()
+                        .map(TestSuiteSummary::getSuiteName).sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    void should_archive_update_and_delete_old_test_suites() {
+        Long repositoryId = REPOSITORY_IDS.incrementAndGet();
+        String author = "author-" + repositoryId;
+        TestSuite archivedSuite = newSuite(repositoryId, "ArchivedTests", author);
+        archivedSuite.setCreateTime(LocalDateTime.of(1998, 1, 1, 0, 0));
+        Long archivedId = testSuiteRepository.save(archivedSuite).getId();
+        Long pendingId = testSuiteRepository.save(newSuite(repositoryId, "PendingTests", author)).getId();
+
+        assertTrue(testSuiteRepository.archiveOldRecords(LocalDateTime.of(1998, 6, 1, 0, 0)) >= 1);
+        assertEquals("ArchivedTests-" + repositoryId,
+                testSuiteRepository.findById(archivedId).orElseThrow().getSuiteName());
+        assertTrue(testSuiteRepository.existsById(archivedId));
+
+        assertEquals(1, testSuiteRepository.updateStatusBatch(List.of(pendingId), TestSuite.GenerationStatus.FAILED));
+        assertEquals(TestSuite.GenerationStatus.FAILED, testSuiteRepository.findById(pendingId).orElseThrow().getStatus());
+
+        assertTrue(testSuiteRepository.deleteOldRecords(LocalDateTime.of(1998, 6, 1, 0, 0)) >= 1);
+        assertFalse(testSuiteRepository.existsById(archivedId));
+        assertTrue(testSuiteRepository.existsById(pendingId));
+    }
+
+    @Test
+    void should_query_and_project_workflows() {
+        Long repositoryId = REPOSITORY_IDS.incrementAndGet();
+        DevelopmentWorkflow draft = workflowRepository.save(DevelopmentWorkflow.create("draft", repositoryId, "tester"));
+        DevelopmentWorkflow started = workflowRepository.save(DevelopmentWorkflow.create("started", repositoryId, "tester"));
+
+        workflowRepository.update(started.getId(), DevelopmentWorkflow::startSpecGeneration);
+
+        assertEquals(List.of(draft.getId(), started.getId()),
+                sorted(ids(workflowRepository.findByRepositoryId(repositoryId), DevelopmentWorkflow::getId)));
+        assertEquals(List.of(started.getId()), ids(workflowRepository.findSummaryPage(repositoryId,
+                WorkflowStatus.SPEC_GENERATING, PageRequest.first(10)).getItems(), WorkflowSummary::getId));
+        assertTrue(ids(workflowRepository.findAllSummaries(), WorkflowSummary::getId).contains(draft.getId()));
+
+        workflowRepository.deleteById(draft.getId());
+
+        assertEquals(List.of(started.getId()),
+                ids(workflowRepository.findByRepositoryId(repositoryId), DevelopmentWorkflow::getId));
+    }
+
+    private static Repository newRepository(String name) {
+        return new Repository(name, "contract", new GitUrl("https://github.com/test/" + name + ".git"),
+                new Credential("tester", "secret"));
+    }
+
+    private static CodeReview newReview(Long repositoryId, String title, String createdBy) {
+        return new CodeReview(repositoryId, title, "contract", ReviewStrategy.standard(), createdBy);
+    }
+
+    private static CodeDiff newDiff(Long repositoryId) {
+        return new CodeDiff(repositoryId, "main", "feature/contract", "diff --git a/A.java b/A.java\n+int a;\n",
+                List.of(new CodeDiff.FileChange("A.java", CodeDiff.ChangeType.MODIFIED, 1, 0)));
+    }
+
+    private static TestSuite newSuite(Long repositoryId, String name, String createdBy) {
+        TestTemplate template = new TestTemplate(TestTemplate.TestType.BASIC, 3, "mockito", "junit5", List.of());
+        return new TestSuite(repositoryId, name + "-" + repositoryId, "contract",
+                new JavaClass(name, "com.example.contract", List.of(), List.of()), template, createdBy);
+    }
+
+    private static <T> List<Long> ids(List<T> items, Function<T, Long> id) {
+        return items.stream().map(id).collect(Collectors.toList());
+    }
+
+    private static List<Long> sorted(List<Long> ids) {
+        return ids.stream().sorted().collect(Collectors.toList());
+    }
+}
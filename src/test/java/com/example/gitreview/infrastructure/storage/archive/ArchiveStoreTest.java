@@ -0,0 +1,160 @@
+package com.example.gitreview.infrastructure.storage.archive;
+
+import com.example.gitreview.infrastructure.storage.SampleEntity;
+import com.example.gitreview.infrastructure.storage.codec.StorageCodec;
+import com.example.gitreview.infrastructure.storage.index.SortedIndex;
+import com.example.gitreview.infrastructure.storage.json.JsonStorageAdapter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ArchiveStore 测试
+ * 验证按月归档、只打开相关段的范围查询、按ID查询和删除、边界月份的清理以及清单的重建
+ */
+class ArchiveStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<JsonStorageAdapter<SampleEntity>> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeAdapters() {
+        opened.forEach(JsonStorageAdapter::close);
+    }
+
+    @Test
+    void should_move_old_entities_into_monthly_segments() throws IOException {
+        SortedIndex<SampleEntity, LocalDateTime> index = createTimeIndex();
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(index);
+        ArchiveStore archive = openArchive();
+        adapter.saveAll(List.of(
+                entity("jan", "2025-01-15T10:00"),
+                entity("feb", "2025-02-03T08:30"),
+                entity("recent", "2025-06-01T00:00")));
+
+        assertEquals(2, adapter.archiveBefore(index, LocalDateTime.parse("2025-03-01T00:00"), archive));
+
+        assertEquals(List.of("recent"), names(adapter.findAll()));
+        assertEquals(List.of(YearMonth.of(2025, 1), YearMonth.of(2025, 2)), archive.months());
+        assertEquals(List.of("feb"), names(adapter.findArchivedBetween(index,
+                LocalDateTime.parse("2025-02-01T00:00"), LocalDateTime.parse("2025-02-28T23:59"), archive)));
+        assertEquals("jan", adapter.findArchivedById(1L, archive).orElseThrow().getName());
+        assertTrue(adapter.findArchivedById(3L, archive).isEmpty());
+    }
+
+    @Test
+    void should_not_reuse_archived_ids_after_restart() throws IOException {
+        SortedIndex<SampleEntity, LocalDateTime> index = createTimeIndex();
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(index);
+        adapter.saveAll(List.of(entity("a", "2025-01-01T00:00"), entity("b", "2025-01-02T00:00")));
+        adapter.archiveBefore(index, LocalDateTime.parse("2025-02-01T00:00"), openArchive());
+        adapter.close();
+        Files.deleteIfExists(tempDir.resolve("entities.snapshot"));
+
+        JsonStorageAdapter<SampleEntity> restarted = createAdapter(createTimeIndex());
+        ArchiveStore reopened = openArchive();
+        restarted.reserveIds(reopened.maxId() + 1);
+
+        assertEquals(2, reopened.count());
+        assertEquals(3L, restarted.save(entity("c", "2025-03-01T00:00")).getId());
+    }
+
+    @Test
+    void should_purge_whole_segments_and_rewrite_only_boundary_month() throws IOException {
+        SortedIndex<SampleEntity, LocalDateTime> index = createTimeIndex();
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(index);
+        ArchiveStore archive = openArchive();
+        adapter.saveAll(List.of(
+                entity("jan", "2025-01-10T00:00"),
+                entity("early-feb", "2025-02-05T00:00"),
+                entity("late-feb", "2025-02-20T00:00")));
+        adapter.archiveBefore(index, LocalDateTime.parse("2025-03-01T00:00"), archive);
+
+        assertEquals(2, adapter.purgeArchivedBefore(index, LocalDateTime.parse("2025-02-10T00:00"), archive));
+
+        assertEquals(List.of(YearMonth.of(2025, 2)), archive.months());
+        assertEquals(List.of("late-feb"), names(adapter.findArchivedBetween(index,
+                LocalDateTime.parse("2025-01-01T00:00"), LocalDateTime.parse("2025-12-31T00:00"), archive)));
+        assertFalse(Files.exists(archive.getDirectory().resolve("2025-01.seg")));
+    }
+
+    @Test
+    void should_delete_single_archived_entity() throws IOException {
+        SortedIndex<SampleEntity, LocalDateTime> index = createTimeIndex();
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(index);
+        ArchiveStore archive = openArchive();
+        adapter.saveAll(List.of(entity("a", "2025-01-10T00:00"), entity("b", "2025-01-20T00:00"),
+                entity("c", "2025-02-01T00:00")));
+        adapter.archiveBefore(index, LocalDateTime.parse("2025-03-01T00:00"), archive);
+
+        assertTrue(adapter.deleteArchivedById(1L, archive));
+        assertTrue(adapter.deleteArchivedById(3L, archive));
+        assertFalse(adapter.deleteArchivedById(3L, archive));
+
+        assertTrue(archive.locate(1L).isEmpty());
+        assertEquals("b", adapter.findArchivedById(2L, archive).orElseThrow().getName());
+        assertEquals(List.of(YearMonth.of(2025, 1)), archive.months());
+        assertEquals(1, openArchive().count());
+    }
+
+    @Test
+    void should_rebuild_manifest_from_segments() throws IOException {
+        SortedIndex<SampleEntity, LocalDateTime> index = createTimeIndex();
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(index);
+        ArchiveStore archive = openArchive();
+        adapter.saveAll(List.of(entity("a", "2024-11-30T23:59"), entity("b", "2024-12-01T00:00")));
+        adapter.archiveBefore(index, LocalDateTime.parse("2025-01-01T00:00"), archive);
+        Files.delete(archive.getDirectory().resolve("manifest.json"));
+
+        ArchiveStore rebuilt = openArchive();
+
+        assertEquals(List.of(YearMonth.of(2024, 11), YearMonth.of(2024, 12)), rebuilt.months());
+        assertEquals(YearMonth.of(2024, 12), rebuilt.locate(2L).orElseThrow());
+        assertTrue(Files.exists(archive.getDirectory().resolve("manifest.json")));
+    }
+
+    private ArchiveStore openArchive() throws IOException {
+        ArchiveStore archive = new ArchiveStore(
+                ArchiveStore.directoryFor(tempDir.resolve("entities.json").toString()), StorageCodec.parse("smile+lz4"));
+        archive.init();
+        return archive;
+    }
+
+    private JsonStorageAdapter<SampleEntity> createAdapter(SortedIndex<SampleEntity, LocalDateTime> index) {
+        JsonStorageAdapter<SampleEntity> adapter = new JsonStorageAdapter<>();
+        adapter.addIndex(index);
+        adapter.setStorageFile(tempDir.resolve("entities.json").toString());
+        adapter.configure(SampleEntity.class, new TypeReference<List<SampleEntity>>() {},
+                SampleEntity::getId, "setId");
+        adapter.init();
+        opened.add(adapter);
+        return adapter;
+    }
+
+    private static SortedIndex<SampleEntity, LocalDateTime> createTimeIndex() {
+        return new SortedIndex<>("createTime", SampleEntity::getCreateTime);
+    }
+
+    private static SampleEntity entity(String name, String createTime) {
+        SampleEntity entity = new SampleEntity(name);
+        entity.setCreateTime(LocalDateTime.parse(createTime));
+        return entity;
+    }
+
+    private static List<String> names(List<SampleEntity> entities) {
+        return entities.stream().map(SampleEntity::getName).toList();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.gitreview.infrastructure.storage.backup;
+
+import com.example.gitreview.infrastructure.storage.AbstractFileStorageAdapter;
+import com.example.gitreview.infrastructure.storage.SampleEntity;
+import com.example.gitreview.infrastructure.storage.StorageAdapterFactory;
+import com.example.gitreview.infrastructure.storage.archive.ArchiveStore;
+import com.example.gitreview.infrastructure.storage.blob.BlobStore;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BackupService 测试
+ * 验证多个存储、大文本和归档段的备份，备份后写入不影响备份内容，按ID恢复，恢复失败时不改动现有数据以及旧备份的清理
+ */
+class BackupServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private StorageAdapterFactory factory;
+    private BlobStore blobStore;
+    private BackupService backupService;
+    private AbstractFileStorageAdapter<SampleEntity> first;
+    private AbstractFileStorageAdapter<SampleEntity> second;
+
+    @BeforeEach
+    void setUp() {
+        factory = new StorageAdapterFactory();
+        first = createStore("first.json", "json");
+        second = createStore("second.json", "journal");
+        blobStore = new BlobStore();
+        blobStore.setBlobDir(tempDir.resolve("blobs").toString());
+        blobStore.init();
+
+        backupService = new BackupService();
+        backupService.setBackupDir(tempDir.resolve("backups").toString());
+        backupService.setBackupCodec("smile+lz4");
+        backupService.setKeep(2);
+        backupService.setStorageAdapterFactory(factory);
+        backupService.setBlobStore(blobStore);
+    }
+
+    @AfterEach
+    void closeAdapters() {
+        factory.getAdapters().values().forEach(AbstractFileStorageAdapter::close);
+    }
+
+    @Test
+    void should_restore_every_store_blob_and_archive_segment_from_backup() throws IOException {
+        first.saveAll(List.of(new SampleEntity("a"), new SampleEntity("b")));
+        second.save(new SampleEntity("x"));
+        String hash = blobStore.put("large text");
+        Path segment = ArchiveStore.directoryFor(first.getStorageFile()).resolve("2025-01.seg");
+        Files.createDirectories(segment.getParent());
+        Files.writeString(segment, "[]");
+
+        BackupInfo info = backupService.backup();
+        first.deleteById(1L);
+        second.save(new SampleEntity("y"));
+        Files.delete(segment);
+        Files.delete(tempDir.resolve("blobs").resolve(hash.substring(0, 2)).resolve(hash));
+
+        assertEquals(List.of(2, 1), info.getStores().stream().map(BackupInfo.StoreEntry::getCount).toList());
+        assertEquals(3, backupService.restore(info.getId()));
+        assertEquals(List.of("a", "b"), names(first));
+        assertEquals(List.of("x"), names(second));
+        assertEquals("large text", blobStore.get(hash));
+        assertTrue(Files.exists(segment));
+        assertEquals(3L, first.save(new SampleEntity("c")).getId());
+    }
+
+    @Test
+    void should_leave_store_and_archive_unchanged_when_restore_fails() throws IOException {
+        first.save(new SampleEntity("a"));
+        BackupInfo info = backupService.backup();
+        first.save(new SampleEntity("b"));
+        Path archive = ArchiveStore.directoryFor(first.getStorageFile());
+        Files.createDirectories(archive);
+        Files.writeString(archive.resolve("2025-02.seg"), "[]");
+        Path backup = tempDir.resolve("backups").resolve(info.getId());
+        Files.writeString(backup.resolve("stores").resolve(info.getStores().get(0).getFile()), "corrupt");
+
+        assertThrows(IOException.class, () -> backupService.restore(info.getId()));
+
+        assertEquals(List.of("a", "b"), names(first));
+        assertTrue(Files.exists(archive.resolve("2025-02.seg")));
+        assertFalse(Files.exists(archive.resolveSibling(archive.getFileName() + ".tmp")));
+    }
+
+    @Test
+    void should_keep_only_latest_backups() throws IOException, InterruptedException {
+        first.save(new SampleEntity("a"));
+        for (int i = 0; i < 3; i++) {
+            backupService.backup();
+            Thread.sleep(5);
+        }
+
+        List<BackupInfo> backups = backupService.listBackups();
+
+        assertEquals(2, backups.size());
+        assertTrue(backups.get(0).getId().compareTo(backups.get(1).getId()) > 0);
+        try (var children = Files.list(tempDir.resolve("backups"))) {
+            assertEquals(2, children.count());
+        }
+    }
+
+    private AbstractFileStorageAdapter<SampleEntity> createStore(String file, String engine) {
+        return factory.create(engine, "json", tempDir.resolve(file).toString(), SampleEntity.class,
+                new TypeReference<List<SampleEntity>>() {}, SampleEntity::getId);
+    }
+
+    private static List<String> names(AbstractFileStorageAdapter<SampleEntity> adapter) {
+        return adapter.findAll().stream().map(SampleEntity::getName).toList();
+    }
+}
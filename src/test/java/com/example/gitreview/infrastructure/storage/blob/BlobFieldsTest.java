@@ -0,0 +1,134 @@
+package com.example.gitreview.infrastructure.storage.blob;
+
+import com.example.gitreview.infrastructure.storage.SampleEntity;
+import com.example.gitreview.infrastructure.storage.json.JsonStorageAdapter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BlobFields 测试
+ * 验证大文本外置、去重、按需读取、旧数据兼容和未引用内容的清理
+ */
+class BlobFieldsTest {
+
+    private static final String LARGE_TEXT = "diff --git a/Foo.java b/Foo.java\n+line\n".repeat(10);
+
+    @TempDir
+    Path tempDir;
+
+    private BlobStore blobStore;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new BlobStore();
+        blobStore.setBlobDir(tempDir.resolve("blobs").toString());
+        blobStore.init();
+    }
+
+    @Test
+    void should_store_large_text_once_and_keep_reference_in_file() throws IOException {
+        Path file = tempDir.resolve("entities.json");
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(file);
+
+        adapter.save(new SampleEntity(LARGE_TEXT));
+        adapter.save(new SampleEntity(LARGE_TEXT));
+        adapter.save(new SampleEntity("short"));
+
+        String json = Files.readString(file);
+        assertFalse(json.contains("diff --git"));
+        assertTrue(json.contains(BlobFields.REFERENCE_FIELD));
+        assertTrue(json.contains("short"));
+        assertEquals(1, countBlobFiles());
+        assertEquals(LARGE_TEXT, adapter.findById(2L).orElseThrow().getName());
+    }
+
+    @Test
+    void should_read_inline_text_written_before_externalization() throws IOException {
+        Path file = tempDir.resolve("entities.json");
+        Files.writeString(file, "[{\"id\":1,\"name\":\"" + LARGE_TEXT.replace("\n", "\\n") + "\"}]");
+
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(file);
+        SampleEntity legacy = adapter.findById(1L).orElseThrow();
+        assertEquals(LARGE_TEXT, legacy.getName());
+        assertEquals(0, countBlobFiles());
+
+        adapter.save(legacy);
+        assertEquals(1, countBlobFiles());
+        assertFalse(Files.readString(file).contains("diff --git"));
+    }
+
+    @Test
+    void should_keep_reference_without_reading_blob_on_light_update() throws IOException {
+        Path file = tempDir.resolve("entities.json");
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(file);
+        adapter.save(new SampleEntity(LARGE_TEXT));
+        String reference = Files.readString(file).replaceAll("(?s).*\"(\\$blob\"\\s*:\\s*\"[0-9a-f]+\").*", "$1");
+
+        // 删除blob后仍能更新和查询状态，说明没有读取大文本
+        deleteBlobFiles();
+        assertTrue(adapter.updateLight(1L, entity -> entity.setCounter(5)));
+        SampleEntity light = adapter.findLightById(1L).orElseThrow();
+
+        assertEquals(5, light.getCounter());
+        assertEquals("", light.getName());
+        assertTrue(Files.readString(file).contains(reference));
+        assertFalse(adapter.updateLight(99L, entity -> entity.setCounter(1)));
+    }
+
+    @Test
+    void should_sweep_only_unreferenced_blobs_past_grace_period() throws IOException {
+        Path file = tempDir.resolve("entities.json");
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(file);
+        adapter.save(new SampleEntity(LARGE_TEXT));
+        SampleEntity replaced = adapter.save(new SampleEntity(LARGE_TEXT + "old"));
+        replaced.setName("short");
+        adapter.save(replaced);
+        assertEquals(2, countBlobFiles());
+
+        Set<String> referenced = new HashSet<>();
+        adapter.collectBlobReferences(referenced);
+        assertEquals(1, referenced.size());
+
+        assertEquals(0, blobStore.sweep(referenced, Duration.ofHours(1)));
+        assertEquals(1, blobStore.sweep(referenced, Duration.ZERO));
+        assertEquals(1, countBlobFiles());
+        assertEquals(LARGE_TEXT, adapter.findById(1L).orElseThrow().getName());
+    }
+
+    private JsonStorageAdapter<SampleEntity> createAdapter(Path file) {
+        JsonStorageAdapter<SampleEntity> adapter = new JsonStorageAdapter<>();
+        adapter.setStorageFile(file.toString());
+        adapter.setBlobFields(new BlobFields(blobStore, List.of("name"), 64));
+        adapter.configure(SampleEntity.class, new TypeReference<List<SampleEntity>>() {},
+                SampleEntity::getId, "setId");
+        adapter.init();
+        return adapter;
+    }
+
+    private void deleteBlobFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(tempDir.resolve("blobs"))) {
+            for (Path blob : files.filter(Files::isRegularFile).toList()) {
+                Files.delete(blob);
+            }
+        }
+    }
+
+    private long countBlobFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(tempDir.resolve("blobs"))) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
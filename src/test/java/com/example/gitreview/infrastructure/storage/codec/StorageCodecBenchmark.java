@@ -0,0 +1,114 @@
+package com.example.gitreview.infrastructure.storage.codec;
+
+import com.example.gitreview.domain.codereview.model.aggregate.CodeReview;
+import com.example.gitreview.domain.codereview.model.entity.ReviewSession;
+import com.example.gitreview.domain.codereview.model.valueobject.CodeDiff;
+import com.example.gitreview.domain.codereview.model.valueobject.ReviewResult;
+import com.example.gitreview.domain.codereview.model.valueobject.ReviewStrategy;
+import com.example.gitreview.infrastructure.storage.json.JsonStorageAdapter;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 存储编码基准
+ * 用JSON引擎保存和加载同一组CodeReview聚合，比较各编码的文件大小、保存耗时和加载耗时。
+ * 不是单元测试，需手动运行，可选参数为聚合数量（默认10000）和重复次数（默认3）：
+ * java -cp target/classes:target/test-classes:... com.example.gitreview.infrastructure.storage.codec.StorageCodecBenchmark 10000 3
+ */
+public class StorageCodecBenchmark {
+
+    private static final String[] CODECS = {
+            "json", "compact-json", "smile", "compact-json+lz4", "smile+lz4", "compact-json+deflate", "smile+deflate"
+    };
+
+    public static void main(String[] args) throws IOException {
+        int reviews = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        List<CodeReview> dataset = dataset(reviews);
+
+        Path workDir = Files.createTempDirectory("storage-codec-benchmark");
+        try {
+            System.out.printf("%d reviews, best of %d rounds%n", reviews, rounds);
+            System.out.printf("%-22s %12s %10s %10s%n", "codec", "bytes", "save ms", "load ms");
+            for (String codec : CODECS) {
+                long bestSave = Long.MAX_VALUE;
+                long bestLoad = Long.MAX_VALUE;
+                long size = 0;
+                for (int round = 0; round < rounds; round++) {
+                    Path file = workDir.resolve(codec.replace('+', '-') + "-" + round + ".json");
+
+                    long start = System.nanoTime();
+                    JsonStorageAdapter<CodeReview> writer = open(file, codec);
+                    writer.saveAll(dataset);
+                    bestSave = Math.min(bestSave, System.nanoTime() - start);
+                    writer.close();
+                    size = Files.size(file);
+
+                    // 删除快照，测量的是完整解析文件的加载时间
+                    Files.deleteIfExists(workDir.resolve(file.getFileName().toString().replace(".json", ".snapshot")));
+                    start = System.nanoTime();
+                    JsonStorageAdapter<CodeReview> reader = open(file, codec);
+                    bestLoad = Math.min(bestLoad, System.nanoTime() - start);
+                    if (reader.count() != reviews) {
+                        throw new IllegalStateException(codec + " loaded " + reader.count() + " reviews");
+                    }
+                    reader.close();
+                }
+                System.out.printf("%-22s %12d %10d %10d%n", codec, size, bestSave / 1_000_000, bestLoad / 1_000_000);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(workDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static JsonStorageAdapter<CodeReview> open(Path file, String codec) {
+        JsonStorageAdapter<CodeReview> adapter = new JsonStorageAdapter<>();
+        adapter.setCodec(StorageCodec.parse(codec));
+        adapter.setStorageFile(file.toString());
+        adapter.setGroupCommitWindowMillis(0);
+        adapter.configure(CodeReview.class, new TypeReference<List<CodeReview>>() {}, CodeReview::getId, "setId");
+        adapter.init();
+        return adapter;
+    }
+
+    /**
+     * 生成带差异、会话和结果的已完成审查，内容大小接近真实数据
+     */
+    private static List<CodeReview> dataset(int count) {
+        List<CodeReview> reviews = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<CodeDiff.FileChange> changes = new ArrayList<>();
+            StringBuilder diff = new StringBuilder();
+            for (int file = 0; file < 5; file++) {
+                String path = "src/main/java/com/example/module" + (i % 20) + "/Service" + file + ".java";
+                changes.add(new CodeDiff.FileChange(path, CodeDiff.ChangeType.MODIFIED, 12 + file, 3));
+                diff.append("diff --git a/").append(path).append(" b/").append(path).append('\n')
+                        .append("@@ -10,6 +10,15 @@ public class Service").append(file).append(" {\n");
+                for (int line = 0; line < 12; line++) {
+                    diff.append("+        int value").append(line).append(" = compute(").append(i).append(");\n");
+                }
+            }
+            CodeReview review = new CodeReview((long) (i % 50) + 1, "Review #" + i, "Feature branch review " + i,
+                    ReviewStrategy.standard(), "user" + (i % 10));
+            review.setId((long) i + 1);
+            review.startReview(new CodeDiff(review.getRepositoryId(), "main", "feature/" + i,
+                    diff.toString(), changes));
+            ReviewSession session = review.getSessions().get(0);
+            session.start();
+            String sessionId = session.getSessionId();
+            review.completeSession(sessionId, ReviewResult.success("Looks good overall",
+                    "## Findings\n- Consider extracting compute calls\n- Add tests for edge cases\n", 70 + i % 30));
+            reviews.add(review);
+        }
+        return reviews;
+    }
+}
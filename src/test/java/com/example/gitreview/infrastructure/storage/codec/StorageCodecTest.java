@@ -0,0 +1,55 @@
+package com.example.gitreview.infrastructure.storage.codec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StorageCodec 测试
+ * 验证每种编码的往返、读取时的自动识别以及配置解析
+ */
+class StorageCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void should_round_trip_every_format_and_compression() throws IOException {
+        JsonNode root = objectMapper.readTree(
+                "[{\"id\":1,\"name\":\"中文\",\"score\":9.5,\"tags\":[\"a\",null]},{\"id\":2,\"nested\":{\"ok\":true}}]");
+
+        for (StorageCodec.Format format : StorageCodec.Format.values()) {
+            for (StorageCodec.Compression compression : StorageCodec.Compression.values()) {
+                StorageCodec codec = new StorageCodec(format, compression);
+                assertEquals(root, StorageCodec.decode(codec.encode(root)), codec.toString());
+            }
+        }
+    }
+
+    @Test
+    void should_detect_legacy_text_json_and_binary_encodings() throws IOException {
+        JsonNode legacy = StorageCodec.decode("[ {\n  \"id\" : 1\n} ]".getBytes(StandardCharsets.UTF_8));
+        assertEquals(1, legacy.get(0).get("id").asInt());
+        assertNull(StorageCodec.decode(new byte[0]));
+
+        JsonNode root = objectMapper.readTree("[{\"id\":1}]");
+        assertEquals(':', StorageCodec.parse("smile").encode(root)[0]);
+        assertEquals((byte) 0x1F, StorageCodec.parse("compact-json+deflate").encode(root)[0]);
+        assertEquals("[{\"id\":1}]", new String(StorageCodec.parse("compact-json").encode(root), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void should_parse_codec_codes() {
+        StorageCodec codec = StorageCodec.parse(" Smile+LZ4 ");
+        assertEquals(StorageCodec.Format.SMILE, codec.getFormat());
+        assertEquals(StorageCodec.Compression.LZ4, codec.getCompression());
+        assertEquals("smile+lz4", codec.toString());
+        assertSame(StorageCodec.json(), StorageCodec.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> StorageCodec.parse("cbor"));
+        assertThrows(IllegalArgumentException.class, () -> StorageCodec.parse("json+zstd"));
+    }
+}
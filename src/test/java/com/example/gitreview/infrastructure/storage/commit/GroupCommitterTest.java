@@ -0,0 +1,113 @@
+package com.example.gitreview.infrastructure.storage.commit;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GroupCommitter 测试
+ * 验证窗口内的变更合并为一次落盘、单个变更失败的隔离和落盘失败时的整体回滚
+ */
+class GroupCommitterTest {
+
+    @Test
+    void should_coalesce_concurrent_mutations_into_few_flushes() throws Exception {
+        ListEngine engine = new ListEngine();
+        GroupCommitter<List<String>> committer = new GroupCommitter<>("test", new Object(), engine, 20, 256);
+        committer.start();
+        int writers = 32;
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                String value = "v" + w;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return committer.submit(batch -> {
+                        batch.add(value);
+                        return batch.size();
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> future : futures) {
+                assertTrue(future.get(30, TimeUnit.SECONDS) > 0);
+            }
+        } finally {
+            executor.shutdownNow();
+            committer.close();
+        }
+
+        assertEquals(writers, engine.published.size());
+        GroupCommitMetrics metrics = committer.getMetrics();
+        assertEquals(writers, metrics.getMutationCount());
+        assertEquals(engine.flushes, metrics.getBatchCount());
+        assertTrue(metrics.getBatchCount() < writers);
+        assertTrue(metrics.getMaxBatchSize() > 1);
+    }
+
+    @Test
+    void should_fail_only_the_rejected_mutation() throws IOException {
+        ListEngine engine = new ListEngine();
+        GroupCommitter<List<String>> committer = new GroupCommitter<>("test", new Object(), engine, 0, 256);
+
+        committer.submit(batch -> batch.add("a"));
+        assertThrows(IllegalStateException.class, () -> committer.submit(batch -> {
+            throw new IllegalStateException("rejected");
+        }));
+        committer.submit(batch -> batch.add("b"));
+
+        assertEquals(List.of("a", "b"), engine.published);
+        assertEquals(2, engine.flushes);
+    }
+
+    @Test
+    void should_not_publish_when_flush_fails() {
+        ListEngine engine = new ListEngine();
+        engine.failFlush = true;
+        GroupCommitter<List<String>> committer = new GroupCommitter<>("test", new Object(), engine, 0, 256);
+
+        assertThrows(IOException.class, () -> committer.submit(batch -> batch.add("a")));
+
+        assertTrue(engine.published.isEmpty());
+        assertEquals(0, committer.getMetrics().getBatchCount());
+    }
+
+    /**
+     * 以列表模拟存储：批次是已发布数据的副本
+     */
+    private static class ListEngine implements GroupCommitter.Engine<List<String>> {
+        private volatile List<String> published = new ArrayList<>();
+        private int flushes;
+        private boolean failFlush;
+
+        @Override
+        public List<String> begin() {
+            return new ArrayList<>(published);
+        }
+
+        @Override
+        public void flush(List<String> batch) throws IOException {
+            if (failFlush) {
+                throw new IOException("disk full");
+            }
+            flushes++;
+        }
+
+        @Override
+        public void publish(List<String> batch) {
+            published = batch;
+        }
+    }
+}
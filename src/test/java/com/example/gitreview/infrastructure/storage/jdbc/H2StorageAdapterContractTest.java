@@ -0,0 +1,22 @@
+package com.example.gitreview.infrastructure.storage.jdbc;
+
+import com.example.gitreview.infrastructure.storage.AbstractFileStorageAdapter;
+import com.example.gitreview.infrastructure.storage.SampleEntity;
+import com.example.gitreview.infrastructure.storage.StorageAdapterContractTest;
+import com.example.gitreview.infrastructure.storage.index.EntityIndex;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * H2StorageAdapter 契约测试
+ */
+class H2StorageAdapterContractTest extends StorageAdapterContractTest {
+
+    @Override
+    protected AbstractFileStorageAdapter<SampleEntity> createAdapter(Path storageFile, boolean cacheEnabled,
+                                                                    List<EntityIndex<SampleEntity, ?>> indexes) {
+        return H2StorageAdapterTest.createAdapter(storageFile, cacheEnabled, indexes);
+    }
+}
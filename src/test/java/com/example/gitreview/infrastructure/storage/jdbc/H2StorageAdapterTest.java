@@ -0,0 +1,129 @@
+package com.example.gitreview.infrastructure.storage.jdbc;
+
+import com.example.gitreview.infrastructure.storage.SampleEntity;
+import com.example.gitreview.infrastructure.storage.index.EntityIndex;
+import com.example.gitreview.infrastructure.storage.index.HashIndex;
+import com.example.gitreview.infrastructure.storage.json.JsonStorageAdapter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * H2StorageAdapter 测试
+ * 验证从JSON文件迁移、索引列的建立与回填，以及语句失败时整批回滚
+ */
+class H2StorageAdapterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_import_json_file_on_first_start_and_reimport_idempotently() throws IOException {
+        Path file = tempDir.resolve("entities.json");
+        JsonStorageAdapter<SampleEntity> json = new JsonStorageAdapter<>();
+        json.setStorageFile(file.toString());
+        json.configure(SampleEntity.class, new TypeReference<List<SampleEntity>>() {}, SampleEntity::getId, "setId");
+        json.init();
+        json.saveAll(List.of(new SampleEntity("a"), new SampleEntity("b")));
+        json.close();
+        String original = Files.readString(file);
+
+        H2StorageAdapter<SampleEntity> adapter = createAdapter(file, true, List.of());
+
+        assertEquals("ENTITIES", adapter.getTableName());
+        assertEquals(2, adapter.count());
+        assertEquals("b", adapter.findById(2L).orElseThrow().getName());
+        assertEquals(2, adapter.importJsonFile(file));
+        assertEquals(2, adapter.count());
+        assertEquals(3L, adapter.save(new SampleEntity("c")).getId());
+        assertEquals(original, Files.readString(file));
+        adapter.close();
+    }
+
+    @Test
+    void should_create_and_backfill_index_columns() throws SQLException {
+        Path file = tempDir.resolve("entities.json");
+        H2StorageAdapter<SampleEntity> plain = createAdapter(file, true, List.of());
+        plain.saveAll(List.of(new SampleEntity("x"), new SampleEntity("y")));
+        plain.close();
+
+        HashIndex<SampleEntity, String> nameIndex = new HashIndex<>("name", SampleEntity::getName);
+        H2StorageAdapter<SampleEntity> indexed = createAdapter(file, false, List.of(nameIndex));
+
+        assertEquals(List.of("x", "y"), queryColumn(indexed, "SELECT IX_NAME FROM ENTITIES ORDER BY ID"));
+        assertEquals(1, indexed.findByIndex(nameIndex, "y").size());
+        indexed.update(2L, entity -> entity.setName("x"));
+        assertEquals(List.of("x", "x"), queryColumn(indexed, "SELECT IX_NAME FROM ENTITIES ORDER BY ID"));
+        assertEquals(2, indexed.countByIndex(nameIndex, "x"));
+        indexed.close();
+    }
+
+    @Test
+    void should_roll_back_whole_batch_when_a_statement_fails() throws SQLException {
+        Path file = tempDir.resolve("entities.json");
+        H2StorageAdapter<SampleEntity> adapter = createAdapter(file, true, List.of());
+        adapter.saveAll(List.of(new SampleEntity("a"), new SampleEntity("b")));
+        execute(adapter, "ALTER TABLE ENTITIES ADD CONSTRAINT REJECT_THIRD CHECK (ID <> 3)");
+
+        // 版本校验通过后在数据库中失败：修改1与插入3在同一事务中，插入失败时修改也回滚
+        SampleEntity first = adapter.findById(1L).orElseThrow();
+        first.setName("changed");
+        assertThrows(RuntimeException.class, () -> adapter.saveAll(List.of(first, new SampleEntity("c"))));
+
+        assertEquals("a", adapter.findById(1L).orElseThrow().getName());
+        List<String> documents = queryColumn(adapter, "SELECT DOCUMENT FROM ENTITIES ORDER BY ID");
+        assertEquals(2, documents.size());
+        assertFalse(documents.get(0).contains("changed"));
+        adapter.close();
+
+        H2StorageAdapter<SampleEntity> reopened = createAdapter(file, false, List.of());
+        assertEquals(2, reopened.count());
+        assertEquals("a", reopened.findById(1L).orElseThrow().getName());
+        reopened.close();
+    }
+
+    static H2StorageAdapter<SampleEntity> createAdapter(Path storageFile, boolean cacheEnabled,
+                                                        List<EntityIndex<SampleEntity, ?>> indexes) {
+        H2StorageAdapter<SampleEntity> adapter = new H2StorageAdapter<>();
+        indexes.forEach(adapter::addIndex);
+        adapter.setStorageFile(storageFile.toString());
+        adapter.setCacheEnabled(cacheEnabled);
+        adapter.setJdbcUrl("jdbc:h2:file:" + storageFile.resolveSibling("db").toAbsolutePath());
+        adapter.configure(SampleEntity.class, new TypeReference<List<SampleEntity>>() {},
+                SampleEntity::getId, "setId");
+        adapter.init();
+        return adapter;
+    }
+
+    private static void execute(H2StorageAdapter<SampleEntity> adapter, String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(adapter.getJdbcUrl(), "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static List<String> queryColumn(H2StorageAdapter<SampleEntity> adapter, String sql) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection(adapter.getJdbcUrl(), "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.gitreview.infrastructure.storage.journal;
+
+import com.example.gitreview.infrastructure.storage.AbstractFileStorageAdapter;
+import com.example.gitreview.infrastructure.storage.SampleEntity;
+import com.example.gitreview.infrastructure.storage.StorageAdapterContractTest;
+import com.example.gitreview.infrastructure.storage.index.EntityIndex;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * JournalStorageAdapter 契约测试
+ */
+class JournalStorageAdapterContractTest extends StorageAdapterContractTest {
+
+    @Override
+    protected AbstractFileStorageAdapter<SampleEntity> createAdapter(Path storageFile, boolean cacheEnabled,
+                                                                    List<EntityIndex<SampleEntity, ?>> indexes) {
+        JournalStorageAdapter<SampleEntity> adapter = new JournalStorageAdapter<>();
+        indexes.forEach(adapter::addIndex);
+        adapter.setStorageFile(storageFile.toString());
+        adapter.setCacheEnabled(cacheEnabled);
+        adapter.configure(SampleEntity.class, new TypeReference<List<SampleEntity>>() {},
+                SampleEntity::getId, "setId");
+        adapter.init();
+        return adapter;
+    }
+}
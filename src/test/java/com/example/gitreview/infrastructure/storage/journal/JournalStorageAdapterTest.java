@@ -0,0 +1,168 @@
+package com.example.gitreview.infrastructure.storage.journal;
+
+import com.example.gitreview.infrastructure.storage.SampleEntity;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JournalStorageAdapter 测试
+ * 验证追加写、重放、墓碑、压缩、批量操作和从JSON文件导入
+ */
+class JournalStorageAdapterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_append_one_line_per_mutation() throws IOException {
+        JournalStorageAdapter<SampleEntity> adapter = createAdapter(100);
+
+        SampleEntity entity = adapter.save(new SampleEntity("a"));
+        entity.setName("b");
+        adapter.save(entity);
+        adapter.deleteById(entity.getId());
+
+        assertEquals(3, Files.readAllLines(adapter.getJournalPath()).size());
+        assertEquals(0, adapter.count());
+        adapter.close();
+    }
+
+    @Test
+    void should_rebuild_state_by_replaying_journal() {
+        JournalStorageAdapter<SampleEntity> adapter = createAdapter(100);
+        adapter.save(new SampleEntity("a"));
+        SampleEntity second = adapter.save(new SampleEntity("b"));
+        second.setName("b2");
+        adapter.save(second);
+        adapter.deleteById(1L);
+        adapter.close();
+
+        JournalStorageAdapter<SampleEntity> restarted = createAdapter(100);
+
+        assertEquals(1, restarted.count());
+        assertFalse(restarted.existsById(1L));
+        assertEquals("b2", restarted.findById(2L).orElseThrow().getName());
+        assertEquals(3L, restarted.save(new SampleEntity("c")).getId());
+        assertEquals(3, restarted.getDeadRecords());
+        restarted.close();
+    }
+
+    @Test
+    void should_truncate_incomplete_trailing_record() throws IOException {
+        JournalStorageAdapter<SampleEntity> adapter = createAdapter(100);
+        adapter.save(new SampleEntity("a"));
+        adapter.close();
+        Files.writeString(adapter.getJournalPath(), "{\"op\":\"U\",\"id\":2,\"da", StandardOpenOption.APPEND);
+
+        JournalStorageAdapter<SampleEntity> restarted = createAdapter(100);
+
+        assertEquals(1, restarted.count());
+        assertEquals(1, Files.readAllLines(restarted.getJournalPath()).size());
+        restarted.close();
+    }
+
+    @Test
+    void should_compact_dead_records() throws IOException {
+        JournalStorageAdapter<SampleEntity> adapter = createAdapter(Integer.MAX_VALUE);
+        SampleEntity entity = adapter.save(new SampleEntity("v0"));
+        for (int i = 1; i <= 10; i++) {
+            entity.setName("v" + i);
+            adapter.save(entity);
+        }
+        adapter.save(new SampleEntity("other"));
+        adapter.deleteById(2L);
+
+        adapter.compact();
+
+        // 存活实体一行，加上被删除的最大ID的墓碑
+        assertEquals(2, Files.readAllLines(adapter.getJournalPath()).size());
+        assertEquals(1, adapter.getDeadRecords());
+        assertEquals("v10", adapter.findById(1L).orElseThrow().getName());
+        adapter.close();
+
+        JournalStorageAdapter<SampleEntity> restarted = createAdapter(Integer.MAX_VALUE);
+        assertEquals("v10", restarted.findById(1L).orElseThrow().getName());
+        assertEquals(3L, restarted.save(new SampleEntity("next")).getId());
+        restarted.close();
+    }
+
+    @Test
+    void should_import_existing_json_file_on_first_start() throws IOException {
+        Files.writeString(tempDir.resolve("entities.json"),
+                "[{\"id\":4,\"name\":\"legacy\"},{\"id\":9,\"name\":\"older\"}]");
+
+        JournalStorageAdapter<SampleEntity> adapter = createAdapter(100);
+
+        assertEquals(2, adapter.count());
+        assertEquals("legacy", adapter.findById(4L).orElseThrow().getName());
+        assertEquals(10L, adapter.save(new SampleEntity("new")).getId());
+        assertTrue(Files.exists(tempDir.resolve("entities.jsonl")));
+        adapter.close();
+    }
+
+    @Test
+    void should_append_bulk_changes_and_replay_them() throws IOException {
+        JournalStorageAdapter<SampleEntity> adapter = createAdapter(100);
+        adapter.saveAll(List.of(new SampleEntity("a"), new SampleEntity("b"), new SampleEntity("c")));
+        adapter.updateWhere(entity -> !"b".equals(entity.getName()), entity -> entity.setCounter(1));
+        adapter.deleteWhere(entity -> entity.getCounter() == 0);
+        adapter.close();
+
+        // 3条新增、2条更新、1条墓碑
+        assertEquals(6, Files.readAllLines(adapter.getJournalPath()).size());
+        JournalStorageAdapter<SampleEntity> restarted = createAdapter(100);
+        assertEquals(2, restarted.count());
+        assertFalse(restarted.existsById(2L));
+        assertEquals(4, restarted.getDeadRecords());
+        restarted.close();
+    }
+
+    @Test
+    void should_restore_snapshot_and_replay_only_later_records() throws IOException {
+        JournalStorageAdapter<SampleEntity> adapter = createAdapter(100);
+        adapter.saveAll(List.of(new SampleEntity("a"), new SampleEntity("b")));
+        adapter.deleteById(1L);
+        adapter.close();
+        Path snapshot = tempDir.resolve("entities.snapshot");
+        assertTrue(Files.exists(snapshot));
+
+        // 快照之后追加的记录在启动时重放
+        Files.writeString(adapter.getJournalPath(), "{\"op\":\"U\",\"id\":5,\"data\":{\"id\":5,\"name\":\"tail\"}}\n",
+                StandardOpenOption.APPEND);
+        JournalStorageAdapter<SampleEntity> restored = createAdapter(100);
+        assertEquals(List.of(2L, 5L), restored.findAll().stream().map(SampleEntity::getId).toList());
+        assertEquals(2, restored.getDeadRecords());
+        restored.close();
+
+        // 快照损坏时重放整个日志，结果相同
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 12] ^= 0x1;
+        Files.write(snapshot, bytes);
+        JournalStorageAdapter<SampleEntity> replayed = createAdapter(100);
+        assertEquals(List.of(2L, 5L), replayed.findAll().stream().map(SampleEntity::getId).toList());
+        assertEquals(6L, replayed.save(new SampleEntity("c")).getId());
+
+        replayed.compact();
+        assertFalse(Files.exists(snapshot));
+        replayed.close();
+    }
+
+    private JournalStorageAdapter<SampleEntity> createAdapter(int compactionThreshold) {
+        JournalStorageAdapter<SampleEntity> adapter = new JournalStorageAdapter<>();
+        adapter.setStorageFile(tempDir.resolve("entities.json").toString());
+        adapter.setCompactionThreshold(compactionThreshold);
+        adapter.configure(SampleEntity.class, new TypeReference<List<SampleEntity>>() {},
+                SampleEntity::getId, "setId");
+        adapter.init();
+        return adapter;
+    }
+}
@@ -0,0 +1,447 @@
+package com.example.gitreview.infrastructure.storage.json;
+
+import com.example.gitreview.infrastructure.storage.SampleEntity;
+import com.example.gitreview.infrastructure.storage.codec.StorageCodec;
+import com.example.gitreview.infrastructure.storage.index.EntityIndex;
+import com.example.gitreview.infrastructure.storage.index.HashIndex;
+import com.example.gitreview.infrastructure.storage.index.Projection;
+import com.example.gitreview.infrastructure.storage.index.SortedIndex;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JsonStorageAdapter 测试
+ * 验证内存缓存的写穿透、读隔离、关闭缓存后的旧行为、并发写入以及批量操作
+ */
+class JsonStorageAdapterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_assign_id_and_write_through_to_file() throws IOException {
+        Path file = tempDir.resolve("entities.json");
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(file, true);
+
+        SampleEntity saved = adapter.save(new SampleEntity("first"));
+
+        assertEquals(1L, saved.getId());
+        assertTrue(Files.readString(file).contains("first"));
+        assertEquals(1, adapter.count());
+        assertTrue(adapter.existsById(1L));
+    }
+
+    @Test
+    void should_replace_file_instead_of_truncating_it() throws IOException {
+        Path file = tempDir.resolve("entities.json");
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(file, true);
+        adapter.save(new SampleEntity("first"));
+        Path previous = Files.createLink(tempDir.resolve("previous.json"), file);
+        String before = Files.readString(previous);
+
+        adapter.save(new SampleEntity("second"));
+
+        // 旧文件内容不变说明新内容写入了另一个文件后再改名替换
+        assertEquals(before, Files.readString(previous));
+        assertTrue(Files.readString(file).contains("second"));
+        assertFalse(Files.exists(tempDir.resolve("entities.json.tmp")));
+    }
+
+    @Test
+    void should_return_detached_copies_from_cache() {
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(tempDir.resolve("entities.json"), true);
+        adapter.save(new SampleEntity("original"));
+
+        SampleEntity loaded = adapter.findById(1L).orElseThrow();
+        loaded.setName("modified without save");
+
+        assertEquals("original", adapter.findById(1L).orElseThrow().getName());
+    }
+
+    @Test
+    void should_reload_persisted_entities_and_continue_id_sequence() {
+        Path file = tempDir.resolve("entities.json");
+        JsonStorageAdapter<SampleEntity> first = createAdapter(file, true);
+        first.save(new SampleEntity("a"));
+        first.save(new SampleEntity("b"));
+        first.deleteById(1L);
+
+        JsonStorageAdapter<SampleEntity> restarted = createAdapter(file, true);
+        SampleEntity saved = restarted.save(new SampleEntity("c"));
+
+        assertEquals(3L, saved.getId());
+        List<SampleEntity> all = restarted.findAll();
+        assertEquals(2, all.size());
+        assertEquals("b", all.get(0).getName());
+        assertEquals("c", all.get(1).getName());
+    }
+
+    @Test
+    void should_keep_position_when_updating_existing_entity() {
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(tempDir.resolve("entities.json"), true);
+        adapter.save(new SampleEntity("a"));
+        adapter.save(new SampleEntity("b"));
+
+        SampleEntity first = adapter.findById(1L).orElseThrow();
+        first.setName("a2");
+        adapter.save(first);
+
+        List<SampleEntity> all = adapter.findAll();
+        assertEquals("a2", all.get(0).getName());
+        assertEquals("b", all.get(1).getName());
+    }
+
+    @Test
+    void should_read_file_on_every_call_when_cache_disabled() throws IOException {
+        Path file = tempDir.resolve("entities.json");
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(file, false);
+        adapter.save(new SampleEntity("a"));
+
+        Files.writeString(file, "[{\"id\":7,\"name\":\"external\"}]");
+
+        Optional<SampleEntity> external = adapter.findById(7L);
+        assertTrue(external.isPresent());
+        assertEquals("external", external.get().getName());
+        assertFalse(adapter.existsById(1L));
+    }
+
+    @Test
+    void should_restore_from_snapshot_and_rebuild_when_file_changed() throws IOException {
+        Path file = tempDir.resolve("entities.json");
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(file, true);
+        adapter.saveAll(List.of(new SampleEntity("a"), new SampleEntity("b")));
+        adapter.deleteById(2L);
+        adapter.close();
+        assertTrue(Files.exists(tempDir.resolve("entities.snapshot")));
+
+        // 从快照恢复时沿用关闭前的ID计数器，完整解析文件只能得到2
+        JsonStorageAdapter<SampleEntity> restored = createAdapter(file, true);
+        assertEquals(List.of("a"), restored.findAll().stream().map(SampleEntity::getName).toList());
+        assertEquals(3L, restored.save(new SampleEntity("c")).getId());
+        restored.close();
+        assertEquals(4L, createAdapter(file, false).save(new SampleEntity("d")).getId());
+
+        Files.writeString(file, "[{\"id\":7,\"name\":\"external\"}]");
+        JsonStorageAdapter<SampleEntity> rebuilt = createAdapter(file, true);
+        assertEquals(List.of("external"), rebuilt.findAll().stream().map(SampleEntity::getName).toList());
+        assertEquals(8L, rebuilt.save(new SampleEntity("e")).getId());
+    }
+
+    @Test
+    void should_read_legacy_json_and_rewrite_with_configured_codec() throws IOException {
+        Path file = tempDir.resolve("entities.json");
+        Files.writeString(file, "[ {\n  \"id\" : 5,\n  \"name\" : \"legacy\"\n} ]");
+
+        JsonStorageAdapter<SampleEntity> adapter = new JsonStorageAdapter<>();
+        adapter.setCodec(StorageCodec.parse("smile+lz4"));
+        adapter.setStorageFile(file.toString());
+        adapter.configure(SampleEntity.class, new TypeReference<List<SampleEntity>>() {},
+                SampleEntity::getId, "setId");
+        adapter.init();
+        assertEquals("legacy", adapter.findById(5L).orElseThrow().getName());
+        adapter.save(new SampleEntity("binary"));
+        adapter.close();
+
+        byte[] content = Files.readAllBytes(file);
+        assertEquals(0x04, content[0]);
+        assertEquals(2, StorageCodec.read(file).size());
+
+        // 读取不依赖配置的编码，切回默认编码后仍能加载
+        Files.deleteIfExists(tempDir.resolve("entities.snapshot"));
+        JsonStorageAdapter<SampleEntity> restarted = createAdapter(file, true);
+        assertEquals(List.of("legacy", "binary"), restarted.findAll().stream().map(SampleEntity::getName).toList());
+        assertEquals(7L, restarted.save(new SampleEntity("text")).getId());
+        assertTrue(Files.readString(file).contains("text"));
+    }
+
+    @Test
+    void should_keep_index_consistent_across_writes_and_restart() {
+        Path file = tempDir.resolve("entities.json");
+        HashIndex<SampleEntity, String> nameIndex = new HashIndex<>("name", SampleEntity::getName);
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(file, true, nameIndex);
+        adapter.save(new SampleEntity("a"));
+        adapter.save(new SampleEntity("a"));
+        SampleEntity third = adapter.save(new SampleEntity("b"));
+
+        third.setName("a");
+        adapter.save(third);
+        adapter.deleteById(1L);
+
+        assertEquals(List.of(2L, 3L), adapter.findByIndex(nameIndex, "a").stream().map(SampleEntity::getId).toList());
+        assertEquals(0, adapter.countByIndex(nameIndex, "b"));
+
+        HashIndex<SampleEntity, String> rebuilt = new HashIndex<>("name", SampleEntity::getName);
+        JsonStorageAdapter<SampleEntity> restarted = createAdapter(file, true, rebuilt);
+        assertEquals(2, restarted.countByIndex(rebuilt, "a"));
+        assertTrue(restarted.findByIndex(rebuilt, "b").isEmpty());
+    }
+
+    @Test
+    void should_reject_stale_version() {
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(tempDir.resolve("entities.json"), true);
+        adapter.save(new SampleEntity("a"));
+
+        SampleEntity first = adapter.findById(1L).orElseThrow();
+        SampleEntity stale = adapter.findById(1L).orElseThrow();
+        first.setName("first");
+        adapter.save(first);
+        stale.setName("stale");
+
+        assertThrows(OptimisticLockingFailureException.class, () -> adapter.save(stale));
+        assertEquals(1L, stale.getVersion());
+        assertEquals("first", adapter.findById(1L).orElseThrow().getName());
+        assertEquals(2L, adapter.findById(1L).orElseThrow().getVersion());
+    }
+
+    @Test
+    void should_not_lose_updates_under_concurrent_writers() throws Exception {
+        Path file = tempDir.resolve("entities.json");
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(file, true);
+        int entityCount = 8;
+        int writers = 48;
+        int incrementsPerWriter = 20;
+        for (int i = 0; i < entityCount; i++) {
+            adapter.save(new SampleEntity("e" + i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                long id = (w % entityCount) + 1L;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < incrementsPerWriter; i++) {
+                        adapter.update(id, entity -> entity.setCounter(entity.getCounter() + 1));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int expectedPerEntity = writers / entityCount * incrementsPerWriter;
+        JsonStorageAdapter<SampleEntity> restarted = createAdapter(file, true);
+        for (long id = 1; id <= entityCount; id++) {
+            SampleEntity entity = restarted.findById(id).orElseThrow();
+            assertEquals(expectedPerEntity, entity.getCounter());
+            assertEquals(expectedPerEntity + 1L, entity.getVersion());
+        }
+    }
+
+    @Test
+    void should_detect_conflicts_between_concurrent_blind_writers() throws Exception {
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(tempDir.resolve("entities.json"), true);
+        adapter.save(new SampleEntity("a"));
+        int writers = 32;
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch loaded = new CountDownLatch(writers);
+        int succeeded = 0;
+        int conflicted = 0;
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    SampleEntity entity = adapter.findById(1L).orElseThrow();
+                    loaded.countDown();
+                    loaded.await();
+                    entity.setName("writer-" + writer);
+                    try {
+                        adapter.save(entity);
+                        return true;
+                    } catch (OptimisticLockingFailureException e) {
+                        return false;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                if (future.get(60, TimeUnit.SECONDS)) {
+                    succeeded++;
+                } else {
+                    conflicted++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 所有写入者读到同一版本，只有一个可以成功
+        assertEquals(1, succeeded);
+        assertEquals(writers - 1, conflicted);
+        assertEquals(2L, adapter.findById(1L).orElseThrow().getVersion());
+    }
+
+    @Test
+    void should_group_concurrent_saves_into_fewer_file_writes() throws Exception {
+        Path file = tempDir.resolve("entities.json");
+        JsonStorageAdapter<SampleEntity> adapter = new JsonStorageAdapter<>();
+        adapter.setStorageFile(file.toString());
+        adapter.setGroupCommitWindowMillis(20);
+        adapter.configure(SampleEntity.class, new TypeReference<List<SampleEntity>>() {},
+                SampleEntity::getId, "setId");
+        adapter.init();
+        int writers = 24;
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                String name = "e" + w;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return adapter.save(new SampleEntity(name));
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+            adapter.close();
+        }
+
+        assertEquals(writers, adapter.getGroupCommitMetrics().getMutationCount());
+        assertTrue(adapter.getGroupCommitMetrics().getBatchCount() < writers);
+        assertEquals(writers, createAdapter(file, true).count());
+    }
+
+    @Test
+    void should_persist_save_all_in_single_write() {
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(tempDir.resolve("entities.json"), true);
+        List<SampleEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            entities.add(new SampleEntity("e" + i));
+        }
+
+        List<SampleEntity> saved = adapter.saveAll(entities);
+
+        assertEquals(50, adapter.count());
+        assertEquals(50L, saved.get(49).getId());
+        assertEquals(1, adapter.getGroupCommitMetrics().getBatchCount());
+    }
+
+    @Test
+    void should_reject_whole_save_all_batch_on_version_conflict() {
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(tempDir.resolve("entities.json"), true);
+        adapter.saveAll(List.of(new SampleEntity("a"), new SampleEntity("b")));
+        SampleEntity stale = adapter.findById(2L).orElseThrow();
+        adapter.update(2L, entity -> entity.setName("b2"));
+
+        SampleEntity first = adapter.findById(1L).orElseThrow();
+        first.setName("a2");
+        assertThrows(OptimisticLockingFailureException.class, () -> adapter.saveAll(List.of(first, stale)));
+
+        assertEquals("a", adapter.findById(1L).orElseThrow().getName());
+        assertEquals(1L, first.getVersion());
+    }
+
+    @Test
+    void should_update_and_delete_in_bulk_with_one_write_each() {
+        Path file = tempDir.resolve("entities.json");
+        SortedIndex<SampleEntity, Integer> counterIndex = new SortedIndex<>("counter", SampleEntity::getCounter);
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(file, true, counterIndex);
+        for (int i = 0; i < 10; i++) {
+            adapter.save(new SampleEntity("e" + i));
+        }
+        long batchesBefore = adapter.getGroupCommitMetrics().getBatchCount();
+
+        int updated = adapter.updateAllById(List.of(1L, 2L, 3L, 4L, 99L), entity -> {
+            if (entity.getId() == 4L) {
+                throw new IllegalStateException("not allowed");
+            }
+            entity.setCounter(5);
+        });
+        int renamed = adapter.updateWhere(entity -> entity.getCounter() == 0, entity -> entity.setName("idle"));
+        int deleted = adapter.deleteBefore(counterIndex, 1);
+        int deletedByName = adapter.deleteWhere(entity -> "e0".equals(entity.getName()));
+
+        assertEquals(3, updated);
+        assertEquals(7, renamed);
+        assertEquals(7, deleted);
+        assertEquals(1, deletedByName);
+        assertEquals(batchesBefore + 4, adapter.getGroupCommitMetrics().getBatchCount());
+        assertEquals(List.of(2L, 3L), createAdapter(file, true).findAll().stream().map(SampleEntity::getId).toList());
+    }
+
+    @Test
+    void should_serve_projections_from_memory_and_rebuild_on_restart() {
+        Path file = tempDir.resolve("entities.json");
+        HashIndex<SampleEntity, String> nameIndex = new HashIndex<>("name", SampleEntity::getName);
+        Projection<SampleEntity, String> labels = new Projection<>("label", e -> e.getName() + "#" + e.getCounter());
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(file, true, nameIndex, labels);
+        adapter.save(new SampleEntity("a"));
+        adapter.save(new SampleEntity("b"));
+        adapter.save(new SampleEntity("a"));
+        adapter.update(3L, entity -> entity.setCounter(7));
+        adapter.deleteById(1L);
+
+        assertEquals(List.of("b#0", "a#7"), adapter.findProjections(labels));
+        assertEquals(List.of("a#7"), adapter.findProjectionsByIndex(nameIndex, "a", labels));
+
+        Projection<SampleEntity, String> rebuilt = new Projection<>("label", e -> e.getName() + "#" + e.getCounter());
+        JsonStorageAdapter<SampleEntity> restarted = createAdapter(file, true, rebuilt);
+        assertEquals(List.of("b#0", "a#7"), restarted.findProjections(rebuilt));
+        assertEquals(List.of("b#0", "a#7"), createAdapter(file, false).findProjections(rebuilt));
+    }
+
+    @Test
+    void should_intersect_index_conditions_for_projection_queries() {
+        HashIndex<SampleEntity, String> nameIndex = new HashIndex<>("name", SampleEntity::getName);
+        HashIndex<SampleEntity, Integer> counterIndex = new HashIndex<>("counter", SampleEntity::getCounter);
+        Projection<SampleEntity, Long> ids = new Projection<>("id", SampleEntity::getId);
+        JsonStorageAdapter<SampleEntity> adapter = createAdapter(tempDir.resolve("entities.json"), true,
+                nameIndex, counterIndex, ids);
+        for (int i = 0; i < 6; i++) {
+            SampleEntity entity = new SampleEntity(i % 2 == 0 ? "even" : "odd");
+            entity.setCounter(i % 3);
+            adapter.save(entity);
+        }
+
+        assertEquals(List.of(1L), adapter.findProjectionsByIndexes(ids, nameIndex.eq("even"), counterIndex.eq(0)));
+        assertEquals(List.of(2L, 4L, 6L), adapter.findProjectionsByIndexes(ids, nameIndex.eq("odd"), counterIndex.eq(null)));
+        assertEquals(6, adapter.findProjectionsByIndexes(ids).size());
+        assertEquals(List.of(1L), createAdapter(tempDir.resolve("entities.json"), false)
+                .findProjectionsByIndexes(ids, nameIndex.eq("even"), counterIndex.eq(0)));
+    }
+
+    @SafeVarargs
+    private JsonStorageAdapter<SampleEntity> createAdapter(Path file, boolean cacheEnabled,
+                                                           EntityIndex<SampleEntity, ?>... indexes) {
+        JsonStorageAdapter<SampleEntity> adapter = new JsonStorageAdapter<>();
+        for (EntityIndex<SampleEntity, ?> index : indexes) {
+            adapter.addIndex(index);
+        }
+        adapter.setStorageFile(file.toString());
+        adapter.setCacheEnabled(cacheEnabled);
+        adapter.configure(SampleEntity.class, new TypeReference<List<SampleEntity>>() {},
+                SampleEntity::getId, "setId");
+        adapter.init();
+        return adapter;
+    }
+}
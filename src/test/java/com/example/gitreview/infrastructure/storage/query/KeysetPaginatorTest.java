@@ -0,0 +1,96 @@
+package com.example.gitreview.infrastructure.storage.query;
+
+import com.example.gitreview.domain.shared.exception.ValidationException;
+import com.example.gitreview.domain.shared.model.valueobject.Page;
+import com.example.gitreview.domain.shared.model.valueobject.PageRequest;
+import com.example.gitreview.infrastructure.storage.SampleEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * KeysetPaginator 测试
+ * 验证按排序值和ID翻页、翻页期间数据变化时不重复不遗漏以及非法游标的拒绝
+ */
+class KeysetPaginatorTest {
+
+    private final KeysetPaginator<SampleEntity> paginator = new KeysetPaginator<>(SampleEntity::getId)
+            .sortBy("counter", SampleEntity::getCounter, Integer::valueOf)
+            .sortBy("name", SampleEntity::getName, value -> value);
+
+    @Test
+    void should_walk_all_pages_in_order_with_ties_broken_by_id() {
+        List<SampleEntity> entities = new ArrayList<>();
+        for (long id = 1; id <= 7; id++) {
+            entities.add(entity(id, "e" + id, (int) (id % 3)));
+        }
+
+        List<Long> visited = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Page<SampleEntity> page = paginator.page(entities, PageRequest.of(3, cursor, "counter", "desc"));
+            page.getItems().forEach(entity -> visited.add(entity.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(List.of(5L, 2L, 7L, 4L, 1L, 6L, 3L), visited);
+    }
+
+    @Test
+    void should_not_repeat_or_skip_items_when_data_changes_between_pages() {
+        List<SampleEntity> entities = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            entities.add(entity(id, "n" + id, (int) id * 10));
+        }
+        Page<SampleEntity> first = paginator.page(entities, PageRequest.of(2, null, "counter", "asc"));
+        assertEquals(List.of(1L, 2L), ids(first));
+
+        // 第一页之前插入新记录、删除已返回的记录，不影响后续页
+        entities.add(entity(5L, "n5", 5));
+        entities.remove(0);
+        Page<SampleEntity> second = paginator.page(entities, PageRequest.of(2, first.getNextCursor(), "counter", "asc"));
+
+        assertEquals(List.of(3L, 4L), ids(second));
+        assertFalse(second.hasMore());
+    }
+
+    @Test
+    void should_sort_null_keys_first_in_ascending_order() {
+        List<SampleEntity> entities = List.of(entity(1L, "b", 0), entity(2L, null, 0), entity(3L, "a", 0));
+
+        Page<SampleEntity> first = paginator.page(entities, PageRequest.of(1, null, "name", "asc"));
+        Page<SampleEntity> rest = paginator.page(entities, PageRequest.of(5, first.getNextCursor(), "name", "asc"));
+
+        assertEquals(List.of(2L), ids(first));
+        assertEquals(List.of(3L, 1L), ids(rest));
+    }
+
+    @Test
+    void should_reject_unknown_sort_and_mismatched_cursor() {
+        List<SampleEntity> entities = List.of(entity(1L, "a", 1), entity(2L, "b", 2));
+        String cursor = paginator.page(entities, PageRequest.of(1, null, "counter", "desc")).getNextCursor();
+
+        assertThrows(ValidationException.class, () -> paginator.page(entities, PageRequest.of(1, null, "size", null)));
+        assertThrows(ValidationException.class, () -> paginator.page(entities, PageRequest.of(1, cursor, "name", "desc")));
+        assertThrows(ValidationException.class, () -> paginator.page(entities, PageRequest.of(1, cursor, "counter", "asc")));
+        assertThrows(ValidationException.class, () -> paginator.page(entities, PageRequest.of(1, "%%", "counter", "desc")));
+        assertThrows(ValidationException.class, () -> PageRequest.of(0, null, null, null));
+    }
+
+    private static SampleEntity entity(Long id, String name, int counter) {
+        SampleEntity entity = new SampleEntity(name);
+        entity.setId(id);
+        entity.setCounter(counter);
+        return entity;
+    }
+
+    private static List<Long> ids(Page<SampleEntity> page) {
+        return page.getItems().stream().map(SampleEntity::getId).toList();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.gitreview.infrastructure.storage.snapshot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SnapshotStore 测试
+ * 验证记录和元数据的往返、只读头部以及损坏或不匹配快照的拒绝
+ */
+class SnapshotStoreTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_round_trip_records_in_order_with_metadata() throws IOException {
+        SnapshotStore store = new SnapshotStore(tempDir.resolve("entities.snapshot"), SnapshotStore.SOURCE_JSON, objectMapper);
+        Map<Long, JsonNode> nodes = new LinkedHashMap<>();
+        nodes.put(9L, objectMapper.readTree("{\"id\":9,\"name\":\"later\"}"));
+        nodes.put(3L, objectMapper.readTree("{\"id\":3,\"name\":\"中文\"}"));
+
+        store.write(new Snapshot(120, 42, 1000, 11, 5, nodes));
+
+        Snapshot full = store.read(true).orElseThrow();
+        assertEquals(List.of(9L, 3L), List.copyOf(full.getNodes().keySet()));
+        assertEquals("中文", full.getNodes().get(3L).path("name").asText());
+        assertEquals(11, full.getNextId());
+        assertEquals(5, full.getDeadRecords());
+
+        Snapshot header = store.read(false).orElseThrow();
+        assertEquals(2, header.getRecordCount());
+        assertEquals(120, header.getSourceLength());
+        assertEquals(42, header.getSourceChecksum());
+        assertTrue(header.getNodes().isEmpty());
+    }
+
+    @Test
+    void should_ignore_missing_corrupt_or_foreign_snapshots() throws IOException {
+        Path path = tempDir.resolve("entities.snapshot");
+        SnapshotStore store = new SnapshotStore(path, SnapshotStore.SOURCE_JOURNAL, objectMapper);
+        assertTrue(store.read(true).isEmpty());
+
+        Map<Long, JsonNode> nodes = Map.of(1L, objectMapper.readTree("{\"id\":1}"));
+        store.write(new Snapshot(0, 0, 0, 2, 0, nodes));
+        assertTrue(new SnapshotStore(path, SnapshotStore.SOURCE_JSON, objectMapper).read(false).isEmpty());
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 12] ^= 0x1;
+        Files.write(path, bytes);
+        assertTrue(store.read(true).isEmpty());
+
+        Files.writeString(path, "not a snapshot", StandardCharsets.UTF_8);
+        assertTrue(store.read(false).isEmpty());
+    }
+
+    @Test
+    void should_match_file_checksum_with_in_memory_checksum() throws IOException {
+        byte[] content = new byte[SnapshotStore.CHECKSUM_WINDOW + 100];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Path file = tempDir.resolve("source.bin");
+        Files.write(file, content);
+
+        assertEquals(SnapshotStore.checksum(content), SnapshotStore.checksum(file, content.length));
+        assertNotEquals(SnapshotStore.checksum(content), SnapshotStore.checksum(file, content.length - 1));
+    }
+}